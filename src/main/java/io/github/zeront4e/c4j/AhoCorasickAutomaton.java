@@ -0,0 +1,179 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton to find any of many substrings in a single pass over a text (case-insensitive). The
+ * transitions of every state are stored in sorted arrays, so the search doesn't allocate any objects.
+ */
+class AhoCorasickAutomaton {
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] failures;
+    private final int[] ruleIndexes;
+
+    private AhoCorasickAutomaton(char[][] keys, int[][] targets, int[] failures, int[] ruleIndexes) {
+        this.keys = keys;
+        this.targets = targets;
+        this.failures = failures;
+        this.ruleIndexes = ruleIndexes;
+    }
+
+    /**
+     * Compiles the given patterns to an automaton.
+     * @param patterns The patterns (the index of a pattern is its rule index).
+     * @param ruleIndexOffset The offset to add to the index of every pattern.
+     * @return The automaton.
+     */
+    static AhoCorasickAutomaton compile(List<String> patterns, int ruleIndexOffset) {
+        //Build the trie of all patterns.
+
+        List<Map<Character, Integer>> transitions = new ArrayList<>();
+        List<Integer> patternRuleIndexes = new ArrayList<>();
+
+        transitions.add(new TreeMap<>());
+        patternRuleIndexes.add(-1);
+
+        for(int i = 0; i < patterns.size(); i++) {
+            String pattern = patterns.get(i);
+
+            int state = 0;
+
+            for(int j = 0; j < pattern.length(); j++) {
+                char character = Character.toLowerCase(pattern.charAt(j));
+
+                Integer nextState = transitions.get(state).get(character);
+
+                if(nextState == null) {
+                    nextState = transitions.size();
+
+                    transitions.get(state).put(character, nextState);
+                    transitions.add(new TreeMap<>());
+                    patternRuleIndexes.add(-1);
+                }
+
+                state = nextState;
+            }
+
+            if(patternRuleIndexes.get(state) < 0)
+                patternRuleIndexes.set(state, i + ruleIndexOffset);
+        }
+
+        int stateCount = transitions.size();
+
+        char[][] keys = new char[stateCount][];
+        int[][] targets = new int[stateCount][];
+        int[] failures = new int[stateCount];
+        int[] ruleIndexes = new int[stateCount];
+
+        for(int i = 0; i < stateCount; i++) {
+            Map<Character, Integer> stateTransitions = transitions.get(i);
+
+            keys[i] = new char[stateTransitions.size()];
+            targets[i] = new int[stateTransitions.size()];
+
+            int index = 0;
+
+            for(Map.Entry<Character, Integer> tmpEntry : stateTransitions.entrySet()) {
+                keys[i][index] = tmpEntry.getKey();
+                targets[i][index] = tmpEntry.getValue();
+
+                index++;
+            }
+
+            ruleIndexes[i] = patternRuleIndexes.get(i);
+        }
+
+        AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(keys, targets, failures, ruleIndexes);
+
+        //Compute the failure links breadth-first. A state also matches, if the state of its failure link matches.
+
+        Queue<Integer> queue = new ArrayDeque<>();
+
+        for(int tmpTarget : targets[0]) {
+            queue.add(tmpTarget);
+        }
+
+        while(!queue.isEmpty()) {
+            int state = queue.poll();
+
+            for(int i = 0; i < keys[state].length; i++) {
+                int nextState = targets[state][i];
+
+                int failure = failures[state];
+
+                int failureTarget = automaton.transition(failure, keys[state][i]);
+
+                while(failureTarget < 0 && failure != 0) {
+                    failure = failures[failure];
+
+                    failureTarget = automaton.transition(failure, keys[state][i]);
+                }
+
+                failures[nextState] = failureTarget < 0 ? 0 : failureTarget;
+
+                if(ruleIndexes[nextState] < 0)
+                    ruleIndexes[nextState] = ruleIndexes[failures[nextState]];
+
+                queue.add(nextState);
+            }
+        }
+
+        return automaton;
+    }
+
+    /**
+     * Finds the first pattern contained in the given text.
+     * @param text The text to search.
+     * @return The rule index of the first found pattern or -1, if the text doesn't contain any pattern.
+     */
+    int findRuleIndex(String text) {
+        int state = 0;
+
+        for(int i = 0; i < text.length(); i++) {
+            char character = Character.toLowerCase(text.charAt(i));
+
+            int nextState = transition(state, character);
+
+            while(nextState < 0 && state != 0) {
+                state = failures[state];
+
+                nextState = transition(state, character);
+            }
+
+            state = nextState < 0 ? 0 : nextState;
+
+            if(ruleIndexes[state] >= 0)
+                return ruleIndexes[state];
+        }
+
+        return -1;
+    }
+
+    private int transition(int state, char character) {
+        int index = Arrays.binarySearch(keys[state], character);
+
+        return index < 0 ? -1 : targets[state][index];
+    }
+}
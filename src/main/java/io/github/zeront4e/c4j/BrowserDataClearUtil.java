@@ -1,38 +1,151 @@
 package io.github.zeront4e.c4j;
 
-import org.openqa.selenium.Cookie;
 import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.devtools.Command;
 import org.openqa.selenium.devtools.DevTools;
 import org.openqa.selenium.devtools.v137.network.Network;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Utility class to clear the browser data of origins. The data is cleared by DevTools commands, so no page has to be
+ * loaded.
+ */
 class BrowserDataClearUtil {
-    public static void clearDataForUrlPath(ChromiumDriver chromiumDriver, DevTools devTools, String urlPath) {
-        chromiumDriver.get(urlPath);
+    /**
+     * The storage types to clear all data of an origin (DevTools command "Storage.clearDataForOrigin").
+     */
+    static final String ALL_STORAGE_TYPES = "all";
 
-        String domain = urlPath.replace("https://", "")
-                .replace("http://", "")
-                .split("/")[0];
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrowserDataClearUtil.class);
 
+    /**
+     * Clears the cache of the browser and all data of the origin of the given URL (without loading the URL).
+     * @param chromiumDriver The driver of the browser.
+     * @param devTools The DevTools instance for the window/tab.
+     * @param urlPath The URL to clear the data of.
+     */
+    public static void clearDataForUrlPath(ChromiumDriver chromiumDriver, DevTools devTools, String urlPath) {
         devTools.send(Network.clearBrowserCache());
 
-        Set<Cookie> cookies = chromiumDriver.manage().getCookies();
+        try {
+            clearDataForOriginsOrFail(devTools, List.of(urlPath), ALL_STORAGE_TYPES);
+        }
+        catch (Exception exception) {
+            throw new IllegalStateException("Unable to clear data of URL \"" + urlPath + "\".", exception);
+        }
+    }
+
+    /**
+     * Clears the data of the given origins. The commands for all origins are sent at once (pipelined over the DevTools
+     * connection) and the function returns after the browser completed all of them.
+     * @param devTools The DevTools instance with an active session.
+     * @param origins The origins (or URLs) to clear the data of.
+     * @param storageTypes The comma-separated storage types to clear (e.g. "cookies,local_storage" or "all").
+     * @throws Exception An unexpected exception (e.g. if the data of an origin couldn't be cleared).
+     */
+    static void clearDataForOriginsOrFail(DevTools devTools, Collection<String> origins,
+                                          String storageTypes) throws Exception {
+        Set<String> normalizedOrigins = new LinkedHashSet<>();
 
-        for (Cookie cookie : cookies) {
-            if (cookie.getDomain() != null && cookie.getDomain().contains(domain)) {
-                chromiumDriver.manage().deleteCookie(cookie);
-            }
+        for(String tmpOrigin : origins) {
+            normalizedOrigins.add(toOriginOrFail(tmpOrigin));
         }
 
-        chromiumDriver.executeScript("localStorage.clear(); sessionStorage.clear();");
+        if(normalizedOrigins.isEmpty())
+            return;
+
+        long startTime = System.nanoTime();
+
+        List<Command<Void>> commands = new ArrayList<>();
+
+        for(String tmpOrigin : normalizedOrigins) {
+            commands.add(new Command<>("Storage.clearDataForOrigin", Map.of("origin", tmpOrigin,
+                    "storageTypes", storageTypes)));
+        }
+
+        sendAllOrFail(devTools, commands);
+
+        LOGGER.info("Cleared data of {} origins in {}ms. Storage types: {}", normalizedOrigins.size(),
+                (System.nanoTime() - startTime) / 1_000_000, storageTypes);
+    }
+
+    /**
+     * Clears the data of the given storage keys (e.g. the partitioned storage of third-party frames, which isn't
+     * cleared by the origin). The commands for all storage keys are sent at once and the function returns after the
+     * browser completed all of them.
+     * @param devTools The DevTools instance with an active session.
+     * @param storageKeys The storage keys to clear the data of (see DevTools command "Storage.getStorageKeyForFrame").
+     * @param storageTypes The comma-separated storage types to clear (e.g. "cookies,local_storage" or "all").
+     * @throws Exception An unexpected exception (e.g. if the data of a storage key couldn't be cleared).
+     */
+    static void clearDataForStorageKeysOrFail(DevTools devTools, Collection<String> storageKeys,
+                                              String storageTypes) throws Exception {
+        if(storageKeys.isEmpty())
+            return;
+
+        List<Command<Void>> commands = new ArrayList<>();
+
+        for(String tmpStorageKey : storageKeys) {
+            commands.add(new Command<>("Storage.clearDataForStorageKey", Map.of("storageKey", tmpStorageKey,
+                    "storageTypes", storageTypes)));
+        }
+
+        sendAllOrFail(devTools, commands);
+
+        LOGGER.info("Cleared data of {} storage keys. Storage types: {}", storageKeys.size(), storageTypes);
+    }
+
+    /**
+     * Sends the given commands at once (pipelined over the DevTools connection) and waits for all of them.
+     */
+    private static void sendAllOrFail(DevTools devTools, List<Command<Void>> commands) throws Exception {
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for(Command<Void> tmpCommand : commands) {
+                futures.add(executorService.submit(() -> devTools.send(tmpCommand)));
+            }
+
+            for(Future<?> tmpFuture : futures) {
+                try {
+                    tmpFuture.get();
+                }
+                catch (ExecutionException executionException) {
+                    if(executionException.getCause() instanceof Exception exception)
+                        throw exception;
+
+                    throw executionException;
+                }
+            }
+        }
+    }
 
-        chromiumDriver.executeScript("indexedDB.databases().then(dbs => " +
-                "dbs.forEach(db => indexedDB.deleteDatabase(db.name)));");
+    /**
+     * Returns the origin (scheme, host and port) of the given URL.
+     * @param url The URL (or origin).
+     * @return The origin.
+     * @throws Exception An exception, if the URL has no scheme or host.
+     */
+    static String toOriginOrFail(String url) throws Exception {
+        URI uri = URI.create(url.trim());
 
-        chromiumDriver.executeScript("caches.keys().then(keys => keys.forEach(key => caches.delete(key)));");
+        if(uri.getScheme() == null || uri.getHost() == null)
+            throw new Exception("The URL \"" + url + "\" has no origin.");
 
-        chromiumDriver.executeScript("navigator.serviceWorker.getRegistrations().then(regs => " +
-                "regs.forEach(reg => reg.unregister()));");
+        return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase() +
+                (uri.getPort() == -1 ? "" : ":" + uri.getPort());
     }
-}
\ No newline at end of file
+}
@@ -20,7 +20,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Class to obtain and/or interact with Chromium based browser distributions. The goal is to download the latest
@@ -113,9 +117,100 @@ public class C4j {
     public static C4jRemoteChromium createInstance(C4jOsChromiumDistribution c4jOsChromiumDistribution,
                                                    C4jChromeOptions c4jChromeOptions, boolean overwrite,
                                                    StatusCallback statusCallback) throws Exception {
-        File chromiumFile = obtainDefaultChromiumOrFail(c4jOsChromiumDistribution, statusCallback, overwrite);
+        //Obtain the extensions while the distribution is obtained (downloaded and extracted).
 
-        return createInstance(chromiumFile, c4jChromeOptions);
+        CompletableFuture<List<ExtensionCache.CachedExtension>> extensionsFuture = null;
+
+        if(!testInstance && !c4jChromeOptions.getC4jCommonExtensions().isEmpty()) {
+            extensionsFuture = ExtensionCache.getDefaultCache().obtainExtensionsAsync(
+                    c4jChromeOptions.getC4jCommonExtensions(), c4jChromeOptions.isReinstallExtensions());
+        }
+
+        if(testInstance) {
+            obtainDefaultChromiumOrFail(c4jOsChromiumDistribution, statusCallback, overwrite);
+
+            return new C4jRemoteChromium();
+        }
+
+        //The binary is resolved again, if its revision is retired before it is marked as used.
+
+        DistributionRevisions.ResolvedBinary resolvedBinary = DistributionRevisions.resolveBinaryOrFail(
+                createBinaryResolution(c4jOsChromiumDistribution, statusCallback, overwrite));
+
+        return new C4jRemoteChromium(resolvedBinary, c4jChromeOptions, extensionsFuture, null);
+    }
+
+    /**
+     * Creates a new Chromium instance for the given distribution asynchronously (see
+     * {@link #createInstanceAsync(C4jOsChromiumDistribution, C4jChromeOptions, boolean, StatusCallback, Executor)}).
+     * @param c4jOsChromiumDistribution The distribution to obtain (download) or launch (if already installed).
+     * @return The future of the remote instance.
+     */
+    public static CompletableFuture<C4jRemoteChromium> createInstanceAsync(
+            C4jOsChromiumDistribution c4jOsChromiumDistribution) {
+        return createInstanceAsync(c4jOsChromiumDistribution, C4jChromeOptions.fromBuilder(new ChromeOptions())
+                .build());
+    }
+
+    /**
+     * Creates a new Chromium instance for the given distribution asynchronously (see
+     * {@link #createInstanceAsync(C4jOsChromiumDistribution, C4jChromeOptions, boolean, StatusCallback, Executor)}).
+     * @param c4jOsChromiumDistribution The distribution to obtain (download) or launch (if already installed).
+     * @param c4jChromeOptions Configuration options to pass to the remote Chromium instance. Note that the binary-path is
+     *                      automatically overwritten for the given distribution.
+     * @return The future of the remote instance.
+     */
+    public static CompletableFuture<C4jRemoteChromium> createInstanceAsync(
+            C4jOsChromiumDistribution c4jOsChromiumDistribution, C4jChromeOptions c4jChromeOptions) {
+        return createInstanceAsync(c4jOsChromiumDistribution, c4jChromeOptions, false, LOGGER::info,
+                InstanceProvisioning.DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Creates a new Chromium instance for the given distribution asynchronously. The distribution is installed while
+     * the extensions are obtained, the driver is resolved as soon as the binary is available and the instance is
+     * launched afterward. No thread is blocked while the stages are running. Cancelling the future interrupts the
+     * running stages (an instance that was already launched is quit).
+     * @param c4jOsChromiumDistribution The distribution to obtain (download) or launch (if already installed).
+     * @param c4jChromeOptions Configuration options to pass to the remote Chromium instance. Note that the binary-path is
+     *                      automatically overwritten for the given distribution.
+     * @param overwrite True if the latest Chromium distribution should be downloaded and installed, even if a local
+     *                  installation already exists.
+     * @param statusCallback A status callback to reports status updates (e.g. the state of the local setup and the
+     *                       overall progress).
+     * @param executor The executor to run the stages with (e.g. an executor using virtual threads).
+     * @return The future of the remote instance.
+     */
+    public static CompletableFuture<C4jRemoteChromium> createInstanceAsync(
+            C4jOsChromiumDistribution c4jOsChromiumDistribution, C4jChromeOptions c4jChromeOptions,
+            boolean overwrite, StatusCallback statusCallback, Executor executor) {
+        return InstanceProvisioning.provisionAsync(createBinaryResolution(c4jOsChromiumDistribution, statusCallback,
+                overwrite), c4jChromeOptions, executor);
+    }
+
+    /**
+     * Creates a new Chromium instance for the given executable asynchronously (using virtual threads).
+     * @param chromiumFile The executable to pass the options to.
+     * @param c4jChromeOptions The options to pass to the executable.
+     * @return The future of the remote instance.
+     */
+    public static CompletableFuture<C4jRemoteChromium> createInstanceAsync(File chromiumFile,
+                                                                           C4jChromeOptions c4jChromeOptions) {
+        return createInstanceAsync(chromiumFile, c4jChromeOptions, InstanceProvisioning.DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Creates a new Chromium instance for the given executable asynchronously. The extensions are obtained while the
+     * driver is resolved. Cancelling the future interrupts the running stages.
+     * @param chromiumFile The executable to pass the options to.
+     * @param c4jChromeOptions The options to pass to the executable.
+     * @param executor The executor to run the stages with (e.g. an executor using virtual threads).
+     * @return The future of the remote instance.
+     */
+    public static CompletableFuture<C4jRemoteChromium> createInstanceAsync(File chromiumFile,
+                                                                           C4jChromeOptions c4jChromeOptions,
+                                                                           Executor executor) {
+        return InstanceProvisioning.provisionAsync(() -> chromiumFile, c4jChromeOptions, executor);
     }
 
     /**
@@ -169,8 +264,50 @@ public class C4j {
         if(!defaultDirectory.isDirectory())
             return null;
 
+        //Use the current revision (if the distribution has revision directories).
+
+        File installationDirectory = DistributionRevisions.getInstallationDirectory(defaultDirectory);
+
+        //Resolve the executable by using the installation manifest first, to avoid searching the whole directory.
+
+        File manifestExecutableFile = InstallationManifest.findExecutableOrNull(installationDirectory,
+                c4jOsArchitecture);
+
+        if(manifestExecutableFile != null)
+            return manifestExecutableFile;
+
         return findChromiumExecutableOrNull(c4jOsChromiumDistribution, c4jOsArchitecture,
-                defaultDirectory);
+                installationDirectory);
+    }
+
+    /**
+     * Creates a new Chromium instance for the binary of the given resolution and the launch options. The binary is
+     * resolved again, if its revision is retired before it is marked as used.
+     * @param binaryResolution The resolution of the executable (e.g. the executable of the current revision).
+     * @param c4jChromeOptions The options to pass to the executable.
+     * @return The remote instance.
+     * @throws Exception An unexpected exception.
+     */
+    static C4jRemoteChromium createInstance(Callable<File> binaryResolution,
+                                            C4jChromeOptions c4jChromeOptions) throws Exception {
+        if(testInstance)
+            return new C4jRemoteChromium();
+
+        return new C4jRemoteChromium(DistributionRevisions.resolveBinaryOrFail(binaryResolution), c4jChromeOptions,
+                null, null);
+    }
+
+    /**
+     * Returns the resolution of the binary of the given distribution. The first resolution obtains (installs) the
+     * distribution. Further resolutions (if the revision of the binary was retired in the meantime) return the binary
+     * of the current revision.
+     */
+    private static Callable<File> createBinaryResolution(C4jOsChromiumDistribution c4jOsChromiumDistribution,
+                                                         StatusCallback statusCallback, boolean overwrite) {
+        AtomicBoolean obtained = new AtomicBoolean(false);
+
+        return () -> obtained.getAndSet(true) ? getDefaultInstallationChromiumFile(c4jOsChromiumDistribution) :
+                obtainDefaultChromiumOrFail(c4jOsChromiumDistribution, statusCallback, overwrite);
     }
 
     static File obtainDefaultChromiumOrFail(C4jOsChromiumDistribution c4jOsChromiumDistribution,
@@ -178,15 +315,10 @@ public class C4j {
         boolean performInstallation;
 
         if(overwrite) {
-            File defaultDirectoryFile = C4jChromiumDownloader
-                    .getDefaultDistributionInstallationDirectory(c4jOsChromiumDistribution);
-
-            statusCallback.onStatusUpdate("Overwrite is enabled. Try to delete existing Chromium installation. Path: " +
-                    defaultDirectoryFile.getAbsolutePath());
-
-            boolean deletion = Files.deleteIfExists(defaultDirectoryFile.toPath());
+            //The new installation is stored as a new revision. Running instances keep using their revision, until
+            //they are quit.
 
-            statusCallback.onStatusUpdate("Deletion attempt was completed. Deletion occurred: " + deletion);
+            statusCallback.onStatusUpdate("Overwrite is enabled. Install the latest Chromium as a new revision.");
 
             performInstallation = true;
         }
@@ -0,0 +1,441 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Fetches many URLs concurrently with several instances and publishes the extracted results. Every URL is loaded in a
+ * new tab of a new browser context (so the pages don't share cookies or storage) and the extraction function is
+ * called, once the page is loaded. The driver of an instance is only locked to open the tabs, to check their state and
+ * to run the extraction function. With the page load strategy "none" or "eager" (see
+ * {@link org.openqa.selenium.chrome.ChromeOptions#setPageLoadStrategy}), the pages of an instance load concurrently.
+ * With the default strategy, the driver waits for a loading page, when its state is checked. The tabs are opened with
+ * {@link C4jBrowserContext#openTab(String)}, so the request blocking and the response cache of an instance (see
+ * {@link C4jRemoteChromium#enableResponseCache}) apply to every fetched page.
+ * <p>
+ * The results are published with bounded buffering: If the subscriber doesn't request more results, the workers wait
+ * and no further URLs are taken from the source. Failed URLs are retried in a fresh tab (of a fresh context). URLs,
+ * which still fail, are published as failed results.
+ */
+public class C4jBatchFetcher {
+    /**
+     * Function to extract the result of a loaded page.
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface Extractor<T> {
+        /**
+         * Extracts the result of the loaded page.
+         * @param chromeDriver The driver (switched to the tab of the page).
+         * @param url The fetched URL.
+         * @return The result.
+         * @throws Exception An unexpected exception (the URL is retried).
+         */
+        T extract(ChromeDriver chromeDriver, String url) throws Exception;
+    }
+
+    /**
+     * Represents the result of a URL.
+     * @param url The fetched URL.
+     * @param value The extracted result or null, if the URL failed.
+     * @param failure The exception of the last attempt or null, if the URL was fetched.
+     * @param attempts The number of attempts.
+     * @param <T> The type of the result.
+     */
+    public record Result<T>(String url, T value, Exception failure, int attempts) {
+        /**
+         * Returns true, if the URL was fetched.
+         * @return True, if the URL was fetched.
+         */
+        public boolean isSuccessful() {
+            return failure == null;
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(C4jBatchFetcher.class);
+
+    private static final String BLANK_URL = "about:blank";
+
+    private static final String ERROR_URL_PREFIX = "chrome-error://";
+
+    private static final Duration LOAD_POLL_INTERVAL = Duration.ofMillis(100);
+
+    private static final Executor PUBLISHER_EXECUTOR = runnable -> Thread.ofVirtual()
+            .name("c4j-batch-publisher")
+            .start(runnable);
+
+    //Internal data.
+
+    private final List<C4jRemoteChromium> c4jRemoteChromiums;
+    private final C4jChromiumPool c4jChromiumPool;
+    private final int poolInstanceCount;
+
+    private final int concurrencyPerInstance;
+    private final int globalConcurrency;
+    private final int maxRetries;
+    private final Duration pageLoadTimeout;
+    private final int bufferSize;
+
+    private C4jBatchFetcher(Builder builder) {
+        c4jRemoteChromiums = builder.c4jRemoteChromiums;
+        c4jChromiumPool = builder.c4jChromiumPool;
+        poolInstanceCount = builder.poolInstanceCount;
+
+        concurrencyPerInstance = builder.concurrencyPerInstance;
+        globalConcurrency = builder.globalConcurrency;
+        maxRetries = builder.maxRetries;
+        pageLoadTimeout = builder.pageLoadTimeout;
+        bufferSize = builder.bufferSize;
+    }
+
+    /**
+     * Fetches the given URLs (see {@link #fetch(Iterable, Extractor)}).
+     * @param urls The URLs to fetch (the stream is consumed lazily).
+     * @param extractor The function to extract the result of every page.
+     * @return The publisher of the results (it accepts a single subscriber).
+     * @param <T> The type of the results.
+     */
+    public <T> Flow.Publisher<Result<T>> fetch(Stream<String> urls, Extractor<T> extractor) {
+        return fetch(urls::iterator, extractor);
+    }
+
+    /**
+     * Fetches the given URLs. The fetching starts, when a subscriber subscribes. The results are published in the
+     * order of their completion. The publisher completes after all URLs were fetched (or fails, if the URLs or the
+     * instances couldn't be obtained). Cancelling the subscription stops taking further URLs.
+     * @param urls The URLs to fetch (the iterable is consumed lazily and only once).
+     * @param extractor The function to extract the result of every page.
+     * @return The publisher of the results (it accepts a single subscriber).
+     * @param <T> The type of the results.
+     */
+    public <T> Flow.Publisher<Result<T>> fetch(Iterable<String> urls, Extractor<T> extractor) {
+        AtomicBoolean subscribed = new AtomicBoolean(false);
+
+        return subscriber -> {
+            SubmissionPublisher<Result<T>> submissionPublisher = new SubmissionPublisher<>(PUBLISHER_EXECUTOR,
+                    bufferSize);
+
+            if(!subscribed.compareAndSet(false, true)) {
+                submissionPublisher.subscribe(subscriber);
+                submissionPublisher.closeExceptionally(new IllegalStateException("The fetch accepts a single " +
+                        "subscriber."));
+
+                return;
+            }
+
+            submissionPublisher.subscribe(subscriber);
+
+            Thread.ofVirtual().name("c4j-batch-dispatcher").start(() -> dispatch(urls, extractor,
+                    submissionPublisher));
+        };
+    }
+
+    private <T> void dispatch(Iterable<String> urls, Extractor<T> extractor,
+                              SubmissionPublisher<Result<T>> submissionPublisher) {
+        long startTime = System.nanoTime();
+
+        List<C4jChromiumPool.Lease> leases = new ArrayList<>();
+
+        int fetchedUrls = 0;
+
+        try {
+            List<C4jRemoteChromium> instances = obtainInstancesOrFail(leases);
+
+            //Every instance provides a slot per concurrent page. A worker takes a slot and returns it afterward.
+
+            BlockingQueue<C4jRemoteChromium> slots = new LinkedBlockingQueue<>();
+
+            for(int i = 0; i < concurrencyPerInstance; i++) {
+                slots.addAll(instances);
+            }
+
+            Semaphore globalSemaphore = new Semaphore(globalConcurrency);
+
+            try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+                Iterator<String> urlIterator = urls.iterator();
+
+                while(urlIterator.hasNext() && submissionPublisher.getNumberOfSubscribers() > 0) {
+                    globalSemaphore.acquire();
+
+                    C4jRemoteChromium c4jRemoteChromium = slots.take();
+
+                    String url = urlIterator.next();
+
+                    fetchedUrls++;
+
+                    executorService.execute(() -> {
+                        try {
+                            submissionPublisher.submit(fetchWithRetries(c4jRemoteChromium, url, extractor,
+                                    submissionPublisher));
+                        }
+                        finally {
+                            slots.add(c4jRemoteChromium);
+
+                            globalSemaphore.release();
+                        }
+                    });
+                }
+            }
+
+            submissionPublisher.close();
+
+            LOGGER.info("Fetched {} URLs in {}ms.", fetchedUrls, (System.nanoTime() - startTime) / 1_000_000);
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to fetch URLs.", exception);
+
+            submissionPublisher.closeExceptionally(exception);
+        }
+        finally {
+            leases.forEach(C4jChromiumPool.Lease::close);
+        }
+    }
+
+    private List<C4jRemoteChromium> obtainInstancesOrFail(List<C4jChromiumPool.Lease> leases) throws Exception {
+        if(c4jChromiumPool == null)
+            return c4jRemoteChromiums;
+
+        List<C4jRemoteChromium> instances = new ArrayList<>();
+
+        for(int i = 0; i < poolInstanceCount; i++) {
+            C4jChromiumPool.Lease lease = c4jChromiumPool.lease();
+
+            leases.add(lease);
+
+            instances.add(lease.getRemoteChromium());
+        }
+
+        return instances;
+    }
+
+    private <T> Result<T> fetchWithRetries(C4jRemoteChromium c4jRemoteChromium, String url, Extractor<T> extractor,
+                                           SubmissionPublisher<Result<T>> submissionPublisher) {
+        Exception lastException = null;
+
+        int attempts = 0;
+
+        while(attempts <= maxRetries && submissionPublisher.getNumberOfSubscribers() > 0) {
+            attempts++;
+
+            try {
+                return new Result<>(url, fetchOrFail(c4jRemoteChromium, url, extractor), null, attempts);
+            }
+            catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+
+                return new Result<>(url, null, interruptedException, attempts);
+            }
+            catch (Exception exception) {
+                lastException = exception;
+
+                LOGGER.info("Unable to fetch URL \"{}\" (attempt {}). Reason: {}", url, attempts,
+                        exception.getMessage());
+            }
+        }
+
+        return new Result<>(url, null, lastException, attempts);
+    }
+
+    private <T> T fetchOrFail(C4jRemoteChromium c4jRemoteChromium, String url,
+                              Extractor<T> extractor) throws Exception {
+        //A fresh context isolates the page from the other pages and from failed attempts.
+
+        try (C4jBrowserContext c4jBrowserContext = c4jRemoteChromium.createBrowserContext()) {
+            String windowHandle = c4jBrowserContext.openTab(url);
+
+            awaitLoadOrFail(c4jBrowserContext, windowHandle, url);
+
+            return c4jBrowserContext.callInTabOrFail(windowHandle, tmpChromeDriver -> extractor.extract(
+                    tmpChromeDriver, url));
+        }
+    }
+
+    /**
+     * Waits until the page of the given tab is loaded. The driver is only locked to check the state, so the pages of
+     * other tabs load in the meantime.
+     */
+    private void awaitLoadOrFail(C4jBrowserContext c4jBrowserContext, String windowHandle,
+                                 String url) throws Exception {
+        long deadline = System.nanoTime() + pageLoadTimeout.toNanos();
+
+        //The tab shows a blank page, until the navigation to the URL is committed.
+
+        boolean blankUrl = url.equals(BLANK_URL);
+
+        while(true) {
+            String currentUrl = c4jBrowserContext.callInTabOrFail(windowHandle, tmpChromeDriver -> {
+                Object readyState = tmpChromeDriver.executeScript("return document.readyState");
+
+                return "complete".equals(readyState) ? tmpChromeDriver.getCurrentUrl() : null;
+            });
+
+            if(currentUrl != null && currentUrl.startsWith(ERROR_URL_PREFIX))
+                throw new Exception("Unable to load URL \"" + url + "\".");
+
+            if(currentUrl != null && (blankUrl || !currentUrl.equals(BLANK_URL)))
+                return;
+
+            if(System.nanoTime() > deadline)
+                throw new Exception("The URL \"" + url + "\" wasn't loaded within " + pageLoadTimeout.toMillis() +
+                        " ms.");
+
+            Thread.sleep(LOAD_POLL_INTERVAL.toMillis());
+        }
+    }
+
+    //Builder.
+
+    public static class Builder {
+        private final List<C4jRemoteChromium> c4jRemoteChromiums;
+        private final C4jChromiumPool c4jChromiumPool;
+        private final int poolInstanceCount;
+
+        private int concurrencyPerInstance = 4;
+        private int globalConcurrency = -1;
+        private int maxRetries = 2;
+        private Duration pageLoadTimeout = Duration.ofSeconds(30);
+        private int bufferSize = Flow.defaultBufferSize();
+
+        private Builder(List<C4jRemoteChromium> c4jRemoteChromiums, C4jChromiumPool c4jChromiumPool,
+                        int poolInstanceCount) {
+            this.c4jRemoteChromiums = c4jRemoteChromiums;
+            this.c4jChromiumPool = c4jChromiumPool;
+            this.poolInstanceCount = poolInstanceCount;
+        }
+
+        /**
+         * Sets the maximum number of concurrently loaded pages per instance (default: 4).
+         * @param concurrencyPerInstance The maximum number of pages per instance.
+         * @return The builder instance.
+         */
+        public Builder setConcurrencyPerInstance(int concurrencyPerInstance) {
+            this.concurrencyPerInstance = concurrencyPerInstance;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of concurrently loaded pages of all instances (default: the number of instances
+         * multiplied by the concurrency per instance).
+         * @param globalConcurrency The maximum number of pages.
+         * @return The builder instance.
+         */
+        public Builder setGlobalConcurrency(int globalConcurrency) {
+            this.globalConcurrency = globalConcurrency;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of retries of a failed URL (default: 2).
+         * @param maxRetries The maximum number of retries.
+         * @return The builder instance.
+         */
+        public Builder setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum time to wait for a page to load (default: 30 seconds).
+         * @param pageLoadTimeout The maximum time to wait.
+         * @return The builder instance.
+         */
+        public Builder setPageLoadTimeout(Duration pageLoadTimeout) {
+            this.pageLoadTimeout = pageLoadTimeout;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of results buffered for the subscriber (default: {@link Flow#defaultBufferSize()}).
+         * The value is rounded up to the next power of two.
+         * @param bufferSize The maximum number of buffered results.
+         * @return The builder instance.
+         */
+        public Builder setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+
+            return this;
+        }
+
+        /**
+         * Creates the {@link C4jBatchFetcher} instance with the configured options.
+         * @return The configured {@link C4jBatchFetcher} instance.
+         * @throws Exception An unexpected exception (e.g. if an option is invalid).
+         */
+        public C4jBatchFetcher build() throws Exception {
+            int instanceCount = c4jChromiumPool == null ? c4jRemoteChromiums.size() : poolInstanceCount;
+
+            if(instanceCount < 1)
+                throw new Exception("At least one instance is required.");
+
+            if(concurrencyPerInstance < 1)
+                throw new Exception("The concurrency per instance must be at least 1.");
+
+            if(maxRetries < 0)
+                throw new Exception("The maximum number of retries must not be negative.");
+
+            if(bufferSize < 1)
+                throw new Exception("The buffer size must be at least 1.");
+
+            if(globalConcurrency < 1)
+                globalConcurrency = instanceCount * concurrencyPerInstance;
+
+            return new C4jBatchFetcher(this);
+        }
+    }
+
+    /**
+     * Creates a new builder to fetch the URLs with the given instances.
+     * @param c4jRemoteChromiums The instances to use.
+     * @return A new {@link Builder} instance.
+     */
+    public static Builder fromBuilder(Collection<C4jRemoteChromium> c4jRemoteChromiums) {
+        return new Builder(List.copyOf(c4jRemoteChromiums), null, 0);
+    }
+
+    /**
+     * Creates a new builder to fetch the URLs with instances of the given pool. The instances are leased for every
+     * fetch and are released, when the fetch is completed.
+     * @param c4jChromiumPool The pool to lease the instances from.
+     * @param instanceCount The number of instances to lease.
+     * @return A new {@link Builder} instance.
+     */
+    public static Builder fromBuilder(C4jChromiumPool c4jChromiumPool, int instanceCount) {
+        return new Builder(List.of(), c4jChromiumPool, instanceCount);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Isolated browser context of a remote Chromium instance (DevTools command "Target.createBrowserContext"). Every
+ * context has its own cookies, storage and tabs, but all contexts share the browser process. Closing the context
+ * disposes it (including all of its tabs).
+ * <p>
+ * The driver of the instance is shared by all contexts and can only control one tab at a time. The functions of this
+ * class switch to the requested tab while holding the lock of the driver, so they can be called concurrently.
+ */
+public class C4jBrowserContext implements AutoCloseable {
+    /**
+     * Callable, which is called with the driver switched to a tab.
+     * @param <T> The type of the result.
+     */
+    interface TabCallable<T> {
+        /**
+         * Calls the callable.
+         * @param chromeDriver The driver (switched to the tab).
+         * @return The result.
+         * @throws Exception An unexpected exception.
+         */
+        T call(ChromeDriver chromeDriver) throws Exception;
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(C4jBrowserContext.class);
+
+    private static final String BLANK_URL = "about:blank";
+
+    private final C4jRemoteChromium c4jRemoteChromium;
+    private final ChromeDriver chromeDriver;
+
+    private final String browserContextId;
+
+    private final Set<String> windowHandles = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    private final Map<String, FetchInterception> tabFetchInterceptions = new ConcurrentHashMap<>();
+
+    private volatile boolean closed = false;
+
+    C4jBrowserContext(C4jRemoteChromium c4jRemoteChromium, String browserContextId) {
+        this.c4jRemoteChromium = c4jRemoteChromium;
+        this.chromeDriver = c4jRemoteChromium.getChromeDriver();
+        this.browserContextId = browserContextId;
+    }
+
+    /**
+     * Returns the ID of the browser context.
+     * @return The browser context ID.
+     */
+    public String getBrowserContextId() {
+        return browserContextId;
+    }
+
+    /**
+     * Opens a new tab in this context. If the requests of the instance are intercepted (request blocking or response
+     * caching), the tab is intercepted as well. The tab is opened with a blank page in this case and navigated to the
+     * URL, once its interception is enabled.
+     * @param url The URL to open (e.g. "about:blank").
+     * @return The window handle of the tab.
+     * @throws Exception An unexpected exception.
+     */
+    public String openTab(String url) throws Exception {
+        failIfClosed();
+
+        boolean intercepted = c4jRemoteChromium.isFetchInterceptionActive();
+
+        Map<String, Object> result;
+
+        synchronized (chromeDriver) {
+            result = chromeDriver.executeCdpCommand("Target.createTarget", Map.of("url", intercepted ? BLANK_URL :
+                    url, "browserContextId", browserContextId));
+        }
+
+        Object targetId = result == null ? null : result.get("targetId");
+
+        if(targetId == null)
+            throw new Exception("Unable to open tab in browser context \"" + browserContextId + "\".");
+
+        String windowHandle = findWindowHandleOrFail(targetId.toString());
+
+        windowHandles.add(windowHandle);
+
+        if(intercepted) {
+            FetchInterception tabFetchInterception = c4jRemoteChromium.attachFetchInterceptionOrNull(windowHandle);
+
+            if(tabFetchInterception != null)
+                tabFetchInterceptions.put(windowHandle, tabFetchInterception);
+
+            if(!url.equals(BLANK_URL)) {
+                if(tabFetchInterception != null) {
+                    tabFetchInterception.navigate(url);
+                }
+                else {
+                    //The interception was disabled in the meantime.
+
+                    callInTabOrFail(windowHandle, tmpChromeDriver -> tmpChromeDriver.executeCdpCommand(
+                            "Page.navigate", Map.of("url", url)));
+                }
+            }
+        }
+
+        return windowHandle;
+    }
+
+    /**
+     * Returns the window handles of the open tabs of this context.
+     * @return The window handles.
+     */
+    public List<String> getWindowHandles() {
+        Set<String> openWindowHandles;
+
+        synchronized (chromeDriver) {
+            openWindowHandles = chromeDriver.getWindowHandles();
+        }
+
+        synchronized (windowHandles) {
+            windowHandles.retainAll(openWindowHandles);
+
+            return new ArrayList<>(windowHandles);
+        }
+    }
+
+    /**
+     * Executes the given function for a tab of this context. The driver is switched to the tab and no other context
+     * can use the driver until the function returns.
+     * @param windowHandle The window handle of the tab.
+     * @param function The function to execute.
+     * @return The result of the function.
+     * @param <T> The type of the result.
+     * @throws Exception An unexpected exception.
+     */
+    public <T> T executeInTab(String windowHandle, Function<ChromeDriver, T> function) throws Exception {
+        return callInTabOrFail(windowHandle, function::apply);
+    }
+
+    /**
+     * Calls the given callable for a tab of this context (like {@link #executeInTab(String, Function)}, but the
+     * callable may throw checked exceptions).
+     * @param windowHandle The window handle of the tab.
+     * @param tabCallable The callable to call.
+     * @return The result of the callable.
+     * @param <T> The type of the result.
+     * @throws Exception An unexpected exception (or the exception of the callable).
+     */
+    <T> T callInTabOrFail(String windowHandle, TabCallable<T> tabCallable) throws Exception {
+        failIfForeignTab(windowHandle);
+
+        synchronized (chromeDriver) {
+            chromeDriver.switchTo().window(windowHandle);
+
+            return tabCallable.call(chromeDriver);
+        }
+    }
+
+    /**
+     * Executes a DevTools command for a tab of this context.
+     * @param windowHandle The window handle of the tab.
+     * @param method The DevTools method (e.g. "Page.reload").
+     * @param parameters The parameters of the command.
+     * @return The result of the command.
+     * @throws Exception An unexpected exception.
+     */
+    public Map<String, Object> executeCdpCommand(String windowHandle, String method,
+                                                 Map<String, Object> parameters) throws Exception {
+        return executeInTab(windowHandle, tmpChromeDriver -> tmpChromeDriver.executeCdpCommand(method, parameters));
+    }
+
+    /**
+     * Returns the cookies of this context (as returned by the DevTools command "Storage.getCookies").
+     * @return The cookies.
+     * @throws Exception An unexpected exception.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> getCookies() throws Exception {
+        failIfClosed();
+
+        Map<String, Object> result;
+
+        synchronized (chromeDriver) {
+            result = chromeDriver.executeCdpCommand("Storage.getCookies", Map.of("browserContextId",
+                    browserContextId));
+        }
+
+        Object cookies = result == null ? null : result.get("cookies");
+
+        return cookies instanceof List<?> cookieList ? (List<Map<String, Object>>) cookieList : List.of();
+    }
+
+    /**
+     * Deletes all cookies of this context.
+     * @throws Exception An unexpected exception.
+     */
+    public void clearCookies() throws Exception {
+        failIfClosed();
+
+        synchronized (chromeDriver) {
+            chromeDriver.executeCdpCommand("Storage.clearCookies", Map.of("browserContextId", browserContextId));
+        }
+    }
+
+    /**
+     * Returns whether this context was closed.
+     * @return True if the context was closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Disposes the context and closes all of its tabs.
+     */
+    @Override
+    public void close() {
+        if(closed)
+            return;
+
+        closed = true;
+
+        c4jRemoteChromium.unregisterBrowserContext(this);
+
+        synchronized (chromeDriver) {
+            try {
+                chromeDriver.executeCdpCommand("Target.disposeBrowserContext", Map.of("browserContextId",
+                        browserContextId));
+            }
+            catch (Exception exception) {
+                LOGGER.warn("Unable to dispose browser context \"{}\".", browserContextId, exception);
+            }
+
+            //The driver may still point to a closed tab. Switch back to a tab that is still open.
+
+            try {
+                Set<String> openWindowHandles = chromeDriver.getWindowHandles();
+
+                if(!openWindowHandles.isEmpty())
+                    chromeDriver.switchTo().window(openWindowHandles.iterator().next());
+            }
+            catch (Exception exception) {
+                LOGGER.warn("Unable to switch to an open window.", exception);
+            }
+        }
+
+        windowHandles.clear();
+
+        tabFetchInterceptions.values().forEach(FetchInterception::close);
+        tabFetchInterceptions.clear();
+    }
+
+    private String findWindowHandleOrFail(String targetId) throws Exception {
+        //The window handles of the driver are derived from the target IDs.
+
+        Set<String> openWindowHandles;
+
+        synchronized (chromeDriver) {
+            openWindowHandles = chromeDriver.getWindowHandles();
+        }
+
+        for(String tmpWindowHandle : openWindowHandles) {
+            if(tmpWindowHandle.equalsIgnoreCase(targetId) || tmpWindowHandle.endsWith(targetId))
+                return tmpWindowHandle;
+        }
+
+        throw new Exception("Unable to find window handle of target \"" + targetId + "\".");
+    }
+
+    private void failIfForeignTab(String windowHandle) throws Exception {
+        failIfClosed();
+
+        if(!windowHandles.contains(windowHandle))
+            throw new Exception("The window \"" + windowHandle + "\" doesn't belong to browser context \"" +
+                    browserContextId + "\".");
+    }
+
+    private void failIfClosed() throws Exception {
+        if(closed)
+            throw new Exception("The browser context \"" + browserContextId + "\" is closed.");
+    }
+}
@@ -15,12 +15,17 @@ limitations under the License.
 
 package io.github.zeront4e.c4j;
 
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -28,6 +33,112 @@ import java.util.Set;
  * Chromium instance. There is also a Builder class to create a fully customized Chromium instance.
  */
 public class C4jChromeOptions {
+    /**
+     * The modes to load extensions with.
+     */
+    public enum ExtensionMode {
+        /**
+         * The CRX files are passed to the driver, which embeds them in the session capabilities and unpacks them to
+         * the temporary profile on every launch.
+         */
+        PACKED,
+        /**
+         * The CRX files are unpacked once (to a cache directory per checksum) and are loaded with the
+         * "--load-extension" argument. The public key of the CRX file is written to the unpacked manifest, so the
+         * extensions keep their ID (e.g. the ID of the Chrome Web Store).
+         */
+        UNPACKED
+    }
+
+    /**
+     * The version of the performance presets. The version is incremented whenever the arguments of a preset change,
+     * so measurements can be related to the arguments they were taken with.
+     */
+    public static final int PERFORMANCE_PRESET_VERSION = 1;
+
+    /**
+     * The arguments of every performance preset. "--disable-features" isn't used, because Chromium only respects its
+     * last occurrence (it would replace the features disabled by other options).
+     */
+    private static final List<String> PERFORMANCE_PRESET_COMMON_ARGUMENTS = List.of(
+            "--disable-background-networking",
+            "--disable-component-update",
+            "--disable-component-extensions-with-background-pages",
+            "--disable-default-apps",
+            "--disable-sync",
+            "--disable-breakpad",
+            "--disable-domain-reliability",
+            "--disable-client-side-phishing-detection",
+            "--metrics-recording-only",
+            "--no-first-run",
+            "--no-default-browser-check",
+            "--no-pings",
+            "--mute-audio"
+    );
+
+    /**
+     * Curated presets of arguments for (headless) server workloads. Every preset disables the background services
+     * (networking, component updates, sync, metrics, crash reporting and first-run tasks), which cost CPU and memory
+     * without being used by automated sessions. The presets don't disable site isolation or the sandbox.
+     */
+    public enum PerformancePreset {
+        /**
+         * Minimizes the memory usage: The renderer processes are limited and shared per site, the GPU runs in the
+         * browser process, images aren't loaded and the disk cache is small (32 MiB).
+         */
+        LOW_MEMORY(List.of(
+                "--renderer-process-limit=2",
+                "--process-per-site",
+                "--in-process-gpu",
+                "--aggressive-cache-discard",
+                "--blink-settings=imagesEnabled=false",
+                "--disk-cache-size=33554432"
+        )),
+        /**
+         * Maximizes the throughput of many concurrent tabs: Background tabs aren't throttled, images aren't loaded and
+         * the disk cache is large (256 MiB).
+         */
+        MAX_THROUGHPUT(List.of(
+                "--disable-background-timer-throttling",
+                "--disable-renderer-backgrounding",
+                "--disable-backgrounding-occluded-windows",
+                "--disable-ipc-flooding-protection",
+                "--blink-settings=imagesEnabled=false",
+                "--disk-cache-size=268435456"
+        )),
+        /**
+         * Minimizes the latency of single pages: Pages are rendered completely (including images), but no tab or
+         * timer is throttled and the disk cache is large (256 MiB).
+         */
+        LOW_LATENCY(List.of(
+                "--disable-background-timer-throttling",
+                "--disable-renderer-backgrounding",
+                "--disable-backgrounding-occluded-windows",
+                "--disable-ipc-flooding-protection",
+                "--disable-hang-monitor",
+                "--disk-cache-size=268435456"
+        ));
+
+        private final List<String> arguments;
+
+        PerformancePreset(List<String> presetArguments) {
+            List<String> arguments = new ArrayList<>(PERFORMANCE_PRESET_COMMON_ARGUMENTS);
+            arguments.addAll(presetArguments);
+
+            this.arguments = Collections.unmodifiableList(arguments);
+        }
+
+        /**
+         * Returns the arguments of the preset (the list is read-only).
+         * @return The arguments of the preset.
+         */
+        public List<String> getArguments() {
+            return arguments;
+        }
+    }
+
+    private static final String DISABLE_FEATURES_ARGUMENT = "--disable-features=";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(C4jChromeOptions.class);
 
     //Internal data.
@@ -35,12 +146,19 @@ public class C4jChromeOptions {
     private final ChromeOptions chromeOptions;
     private final Set<C4jExtension> c4JExtensions;
     private final boolean reinstallExtensions;
+    private final ExtensionMode extensionMode;
+    private final C4jProfileTemplate profileTemplate;
+    private final C4jResponseCache responseCache;
 
     private C4jChromeOptions(ChromeOptions chromeOptions, Set<C4jExtension> c4JExtensions,
-                             boolean reinstallExtensions) {
+                             boolean reinstallExtensions, ExtensionMode extensionMode,
+                             C4jProfileTemplate profileTemplate, C4jResponseCache responseCache) {
         this.chromeOptions = chromeOptions;
         this.c4JExtensions = c4JExtensions;
         this.reinstallExtensions = reinstallExtensions;
+        this.extensionMode = extensionMode;
+        this.profileTemplate = profileTemplate;
+        this.responseCache = responseCache;
     }
 
     /**
@@ -67,11 +185,90 @@ public class C4jChromeOptions {
         return reinstallExtensions;
     }
 
+    /**
+     * Returns the mode to load the extensions with.
+     * @return The extension mode.
+     */
+    public ExtensionMode getExtensionMode() {
+        return extensionMode;
+    }
+
+    /**
+     * Returns the profile template to clone the profile of every instance from.
+     * @return The profile template or null, if every instance starts with an empty profile.
+     */
+    public C4jProfileTemplate getProfileTemplateOrNull() {
+        return profileTemplate;
+    }
+
+    /**
+     * Returns the shared response cache every instance uses.
+     * @return The response cache or null, if no responses are cached.
+     */
+    public C4jResponseCache getResponseCacheOrNull() {
+        return responseCache;
+    }
+
+    /**
+     * Returns options with the given ChromeOptions, but without extensions to obtain and without profile template.
+     * @param chromeOptions The ChromeOptions (with the already registered extensions).
+     * @return The options.
+     */
+    C4jChromeOptions withChromeOptions(ChromeOptions chromeOptions) {
+        return new C4jChromeOptions(chromeOptions, Collections.emptySet(), false, extensionMode, null,
+                responseCache);
+    }
+
+    /**
+     * Adds the given features to the disabled features of the given ChromeOptions. Chromium only respects the last
+     * "--disable-features" argument, so the features of all existing occurrences are merged into a final argument.
+     * @param chromeOptions The ChromeOptions to add the argument to.
+     * @param features The features to disable.
+     */
+    static void addDisabledFeatures(ChromeOptions chromeOptions, String... features) {
+        List<String> arguments = new ArrayList<>();
+
+        if(chromeOptions.asMap().get(ChromeOptions.CAPABILITY) instanceof Map<?, ?> optionsMap &&
+                optionsMap.get("args") instanceof List<?> argumentList) {
+            argumentList.forEach(tmpArgument -> arguments.add(String.valueOf(tmpArgument)));
+        }
+
+        chromeOptions.addArguments(getDisabledFeaturesArgument(arguments, features));
+    }
+
+    /**
+     * Returns the "--disable-features" argument, which disables the features of the given arguments and the given
+     * features.
+     * @param arguments The existing arguments.
+     * @param features The features to disable additionally.
+     * @return The argument (features are listed in the order of their first occurrence).
+     */
+    static String getDisabledFeaturesArgument(List<String> arguments, String... features) {
+        Set<String> disabledFeatures = new LinkedHashSet<>();
+
+        for(String tmpArgument : arguments) {
+            if(!tmpArgument.startsWith(DISABLE_FEATURES_ARGUMENT))
+                continue;
+
+            for(String tmpFeature : tmpArgument.substring(DISABLE_FEATURES_ARGUMENT.length()).split(",")) {
+                if(!tmpFeature.isBlank())
+                    disabledFeatures.add(tmpFeature.strip());
+            }
+        }
+
+        disabledFeatures.addAll(Arrays.asList(features));
+
+        return DISABLE_FEATURES_ARGUMENT + String.join(",", disabledFeatures);
+    }
+
     //Builder.
 
     public static class Builder {
         private Set<C4jExtension> c4JExtensions = Collections.emptySet();
         private boolean reinstallExtensions = false;
+        private ExtensionMode extensionMode = ExtensionMode.PACKED;
+        private C4jProfileTemplate profileTemplate = null;
+        private C4jResponseCache responseCache = null;
 
         private final ChromeOptions chromeOptions;
 
@@ -169,6 +366,36 @@ public class C4jChromeOptions {
             return this;
         }
 
+        /**
+         * Sets the page load strategy, which determines how long the driver waits for a loading page. With the
+         * strategies "none" and "eager", the driver doesn't wait for the subresources of a page, so several tabs can
+         * load concurrently (see {@link C4jBatchFetcher}).
+         * @param pageLoadStrategy The page load strategy.
+         * @return The builder instance.
+         */
+        public Builder setPageLoadStrategy(PageLoadStrategy pageLoadStrategy) {
+            LOGGER.info("Set page load strategy {}.", pageLoadStrategy);
+
+            chromeOptions.setPageLoadStrategy(pageLoadStrategy);
+
+            return this;
+        }
+
+        /**
+         * Adds the arguments of the given performance preset. The preset can be combined with the other options (e.g.
+         * the headless mode).
+         * @param performancePreset The preset to add.
+         * @return The builder instance.
+         */
+        public Builder addOptionPerformancePreset(PerformancePreset performancePreset) {
+            LOGGER.info("Add performance preset {} (version {}). Arguments: {}", performancePreset,
+                    PERFORMANCE_PRESET_VERSION, performancePreset.getArguments());
+
+            chromeOptions.addArguments(performancePreset.getArguments());
+
+            return this;
+        }
+
         /**
          * Registers common extensions to obtain and install, when the instance is launched. Only missing extensions
          * will be downloaded. Existing extensions won't be updated.
@@ -195,12 +422,57 @@ public class C4jChromeOptions {
             return this;
         }
 
+        /**
+         * Sets the mode to load the registered extensions with (default: {@link ExtensionMode#PACKED}). The unpacked
+         * mode avoids the encoding, transfer and unpacking of the CRX files on every launch.
+         * @param extensionMode The extension mode.
+         * @return The builder instance.
+         */
+        public Builder setExtensionMode(ExtensionMode extensionMode) {
+            LOGGER.info("Set extension mode {}.", extensionMode);
+
+            this.extensionMode = extensionMode;
+
+            return this;
+        }
+
+        /**
+         * Sets the profile template to clone the profile of every instance from. The template is created (and warmed
+         * up) with the first instance and every instance gets its own clone, which is deleted when the instance is
+         * quit. The "--user-data-dir" argument must not be set manually.
+         * @param profileTemplate The profile template or null, to start every instance with an empty profile.
+         * @return The builder instance.
+         */
+        public Builder setProfileTemplate(C4jProfileTemplate profileTemplate) {
+            LOGGER.info("Set profile template {}.", profileTemplate);
+
+            this.profileTemplate = profileTemplate;
+
+            return this;
+        }
+
+        /**
+         * Sets the shared response cache every instance uses (see
+         * {@link C4jRemoteChromium#enableResponseCache(C4jResponseCache)}). The cache stays enabled, when an instance
+         * is reset.
+         * @param responseCache The response cache or null, to disable the caching.
+         * @return The builder instance.
+         */
+        public Builder setResponseCache(C4jResponseCache responseCache) {
+            LOGGER.info("Set response cache.");
+
+            this.responseCache = responseCache;
+
+            return this;
+        }
+
         /**
          * Creates the {@link C4jChromeOptions} instance with the configured options.
          * @return The configured {@link C4jChromeOptions} instance.
          */
         public C4jChromeOptions build() {
-            return new C4jChromeOptions(chromeOptions, c4JExtensions, reinstallExtensions);
+            return new C4jChromeOptions(chromeOptions, c4JExtensions, reinstallExtensions, extensionMode,
+                    profileTemplate, responseCache);
         }
     }
 
@@ -258,6 +530,19 @@ public class C4jChromeOptions {
          return builder;
     }
 
+    //Performance options.
+
+    /**
+     * Launches the Chromium browser in headless mode (without GPU rendering) with the arguments of the given
+     * performance preset.
+     * @param performancePreset The preset to add.
+     * @return The preconfigured builder instance.
+     */
+    public static Builder withPerformanceOptions(PerformancePreset performancePreset) {
+        return withHeadlessOptions(true)
+                .addOptionPerformancePreset(performancePreset);
+    }
+
     //Builder options.
 
     /**
@@ -23,6 +23,17 @@ import java.nio.file.*;
 import java.util.Properties;
 
 public class C4jChromiumDownloader {
+    /**
+     * The result of an update check.
+     * @param updateAvailable True, if the latest build differs from the current installation (or if there is no
+     *                        installation).
+     * @param installedRevision The revision of the current installation or null, if it is unknown.
+     * @param latestRevision The revision of the latest build or null, if it is unknown.
+     */
+    public record UpdateCheck(boolean updateAvailable, String installedRevision, String latestRevision) {
+
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(C4jChromiumDownloader.class);
 
     /**
@@ -30,6 +41,32 @@ public class C4jChromiumDownloader {
      */
     public static final String DEFAULT_USER_HOME_DOWNLOAD_DIRECTORY = ".chromium4j-downloads";
 
+    /**
+     * The property to enable the streaming installation (disabled by default). The downloaded archive is extracted
+     * while it is downloaded, instead of being written to disk and extracted afterward. The archive is only stored on
+     * disk, if the downloaded file shouldn't be deleted. Note that segmented and resumable downloads aren't available
+     * in this mode.
+     */
+    public static final String STREAMING_INSTALLATION_PROPERTY = "chromium4j.streaming-installation";
+
+    /**
+     * The property to configure the number of threads to extract the downloaded archive with (defaults to the number
+     * of available processors). The value 1 extracts the archive sequentially.
+     */
+    public static final String EXTRACTION_PARALLELISM_PROPERTY = "chromium4j.extraction-parallelism";
+
+    /**
+     * The property to enable the deduplicated installation (disabled by default). Every extracted file is stored once
+     * in a content-addressed store (see {@link #BLOB_STORE_DIRECTORY}) and is linked into the installation directory.
+     * Identical files of multiple installations only occupy disk space once.
+     */
+    public static final String DEDUPLICATED_INSTALLATION_PROPERTY = "chromium4j.deduplicated-installation";
+
+    /**
+     * The directory of the content-addressed store (located at the download directory).
+     */
+    public static final String BLOB_STORE_DIRECTORY = "c4j-blob-store";
+
     /**
      * Returns the default distribution installation directory file.
      * @return The default distribution installation file.
@@ -132,7 +169,11 @@ public class C4jChromiumDownloader {
 
 
     /**
-     * Downloads the latest Chromium distribution for the given OS architecture into the given directory.
+     * Downloads the latest Chromium distribution for the given OS architecture into the given directory. Set the
+     * property {@link #STREAMING_INSTALLATION_PROPERTY} to "true" to extract the distribution while it is downloaded.
+     * Concurrent calls for the same distribution and directory (also of other processes) perform a single
+     * installation. Every installation is extracted to a new revision directory, which becomes the current revision
+     * once the installation is complete. Previous revisions are retired, when no running instance uses them anymore.
      * @param c4jOsChromiumDistribution The Chromium distribution to download.
      * @param deleteDownloadedFile True, if the downloaded file should be deleted.
      * @param downloadDirectoryPath The path to download/install the distributions to.
@@ -150,12 +191,97 @@ public class C4jChromiumDownloader {
                 downloadDirectoryPath.toAbsolutePath(), deleteDownloadedFile);
 
         if(c4jOsChromiumDistribution == C4jOsChromiumDistribution.LATEST_CHROMIUM_BUILD) {
-            return LatestTrunkChromiumDownloader.downloadChromiumOrFail(c4jOsChromiumDistribution, deleteDownloadedFile,
+            //Concurrent downloads of the same distribution (of this or other processes) are performed only once.
+
+            return InstallationCoordinator.installOrFail(downloadDirectoryPath.resolve(
+                    c4jOsChromiumDistribution.getId()), () -> LatestTrunkChromiumDownloader.downloadChromiumOrFail(
+                            c4jOsChromiumDistribution, deleteDownloadedFile, downloadDirectoryPath, c4jOsArchitecture,
+                            properties));
+        }
+
+        throw new Exception("Missing Chromium distribution implementation \"" + c4jOsChromiumDistribution.name() +
+                "\".");
+    }
+
+    /**
+     * Checks whether a newer build than the installed build is available for the current OS architecture. The check
+     * only requests the metadata of the latest build (or the configured LAST_CHANGE file), so it doesn't download the
+     * distribution.
+     * @param c4jOsChromiumDistribution The Chromium distribution to check.
+     * @return The result of the check.
+     * @throws Exception An unexpected exception.
+     */
+    public static UpdateCheck checkForUpdateOrFail(C4jOsChromiumDistribution c4jOsChromiumDistribution)
+            throws Exception {
+        return checkForUpdateOrFail(c4jOsChromiumDistribution, getDefaultInstallationDirectory().toPath(),
+                C4jOsDetectionUtil.detectOsArchitecture(), System.getProperties());
+    }
+
+    /**
+     * Checks whether a newer build than the installed build is available for the given OS architecture. Set the
+     * "last-change" properties (e.g. "chromium4j.download-url.latest-trunk.last-change.linux_x64") to read the latest
+     * revision from a LAST_CHANGE file instead of requesting the metadata of the download URL.
+     * @param c4jOsChromiumDistribution The Chromium distribution to check.
+     * @param downloadDirectoryPath The path the distributions are installed to.
+     * @param c4jOsArchitecture The architecture to check the Chromium distribution for.
+     * @param properties The properties to overwrite the default download URLs with.
+     * @return The result of the check.
+     * @throws Exception An unexpected exception.
+     */
+    public static UpdateCheck checkForUpdateOrFail(C4jOsChromiumDistribution c4jOsChromiumDistribution,
+                                                   Path downloadDirectoryPath, C4jOsArchitecture c4jOsArchitecture,
+                                                   Properties properties) throws Exception {
+        if(c4jOsChromiumDistribution == C4jOsChromiumDistribution.LATEST_CHROMIUM_BUILD) {
+            UpdateCheck updateCheck = LatestTrunkChromiumDownloader.checkForUpdateOrFail(c4jOsChromiumDistribution,
                     downloadDirectoryPath, c4jOsArchitecture, properties);
+
+            LOGGER.info("Checked for update. Update available: {} Installed revision: {} Latest revision: {}",
+                    updateCheck.updateAvailable(), updateCheck.installedRevision(), updateCheck.latestRevision());
+
+            return updateCheck;
         }
 
         throw new Exception("Missing Chromium distribution implementation \"" + c4jOsChromiumDistribution.name() +
                 "\".");
     }
-}
 
+    /**
+     * Downloads the latest Chromium distribution for the current OS architecture, if it differs from the installed
+     * distribution (see {@link #checkForUpdateOrFail(C4jOsChromiumDistribution)}).
+     * @param c4jOsChromiumDistribution The Chromium distribution to update.
+     * @return The directory containing the current installation.
+     * @throws Exception An unexpected exception.
+     */
+    public static File downloadChromiumIfUpdatedOrFail(C4jOsChromiumDistribution c4jOsChromiumDistribution)
+            throws Exception {
+        return downloadChromiumIfUpdatedOrFail(c4jOsChromiumDistribution, getDefaultInstallationDirectory().toPath(),
+                C4jOsDetectionUtil.detectOsArchitecture(), System.getProperties());
+    }
+
+    /**
+     * Downloads the latest Chromium distribution for the given OS architecture, if it differs from the installed
+     * distribution (see {@link #checkForUpdateOrFail(C4jOsChromiumDistribution, Path, C4jOsArchitecture,
+     * Properties)}).
+     * @param c4jOsChromiumDistribution The Chromium distribution to update.
+     * @param downloadDirectoryPath The path to download/install the distributions to.
+     * @param c4jOsArchitecture The architecture to download the Chromium distribution for.
+     * @param properties The properties to overwrite the default download URLs with.
+     * @return The directory containing the current installation.
+     * @throws Exception An unexpected exception.
+     */
+    public static File downloadChromiumIfUpdatedOrFail(C4jOsChromiumDistribution c4jOsChromiumDistribution,
+                                                       Path downloadDirectoryPath,
+                                                       C4jOsArchitecture c4jOsArchitecture,
+                                                       Properties properties) throws Exception {
+        UpdateCheck updateCheck = checkForUpdateOrFail(c4jOsChromiumDistribution, downloadDirectoryPath,
+                c4jOsArchitecture, properties);
+
+        if(!updateCheck.updateAvailable()) {
+            return DistributionRevisions.getInstallationDirectory(downloadDirectoryPath
+                    .resolve(c4jOsChromiumDistribution.getId()).toFile());
+        }
+
+        return downloadChromiumOrFail(c4jOsChromiumDistribution, true, downloadDirectoryPath, c4jOsArchitecture,
+                properties);
+    }
+}
@@ -0,0 +1,607 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Pool of remote Chromium instances. Instances are launched once and are reset between leases instead of being
+ * relaunched. The pool keeps at least the minimum number of instances (pre-warmed when the pool is built) and launches
+ * additional instances on demand up to the maximum number. Idle instances above the minimum are evicted and instances
+ * are recycled after the maximum number of uses.
+ */
+public class C4jChromiumPool implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(C4jChromiumPool.class);
+
+    /**
+     * Creates remote Chromium instances for the pool.
+     */
+    interface InstanceFactory {
+        /**
+         * Creates a new remote Chromium instance.
+         * @return The created instance.
+         * @throws Exception An unexpected exception.
+         */
+        C4jRemoteChromium createInstanceOrFail() throws Exception;
+    }
+
+    /**
+     * A leased instance. The lease has to be released (or closed) after the usage.
+     */
+    public static class Lease implements AutoCloseable {
+        private final C4jChromiumPool c4jChromiumPool;
+        private final PooledInstance pooledInstance;
+
+        private boolean released = false;
+
+        private Lease(C4jChromiumPool c4jChromiumPool, PooledInstance pooledInstance) {
+            this.c4jChromiumPool = c4jChromiumPool;
+            this.pooledInstance = pooledInstance;
+        }
+
+        /**
+         * Returns the leased remote Chromium instance.
+         * @return The leased instance.
+         */
+        public C4jRemoteChromium getRemoteChromium() {
+            return pooledInstance.c4jRemoteChromium;
+        }
+
+        /**
+         * Returns the number of leases of the instance (including this lease).
+         * @return The number of leases.
+         */
+        public int getUseCount() {
+            return pooledInstance.useCount;
+        }
+
+        /**
+         * Releases the lease (the same as {@link C4jChromiumPool#release(Lease)}).
+         */
+        @Override
+        public void close() {
+            c4jChromiumPool.release(this);
+        }
+    }
+
+    private static class PooledInstance {
+        private final C4jRemoteChromium c4jRemoteChromium;
+
+        private int useCount = 0;
+
+        private long releaseTime = System.nanoTime();
+
+        private PooledInstance(C4jRemoteChromium c4jRemoteChromium) {
+            this.c4jRemoteChromium = c4jRemoteChromium;
+        }
+    }
+
+    private final InstanceFactory instanceFactory;
+
+    private final int minSize;
+    private final int maxSize;
+    private final Duration leaseTimeout;
+    private final Duration idleTimeout;
+    private final int maxUsesPerInstance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition instanceAvailableCondition = lock.newCondition();
+
+    //The most recently released instances are leased first, so rarely used instances become idle and are evicted.
+
+    private final Deque<PooledInstance> idleInstances = new ArrayDeque<>();
+
+    private int instanceCount = 0; //All instances (idle, leased and launching).
+
+    private boolean closed = false;
+
+    private final ExecutorService launchExecutorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ScheduledExecutorService maintenanceExecutorService;
+
+    private C4jChromiumPool(Builder builder) {
+        instanceFactory = builder.instanceFactory;
+
+        minSize = builder.minSize;
+        maxSize = builder.maxSize;
+        leaseTimeout = builder.leaseTimeout;
+        idleTimeout = builder.idleTimeout;
+        maxUsesPerInstance = builder.maxUsesPerInstance;
+
+        maintenanceExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "c4j-pool-maintenance");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Leases an instance. Waits for the configured lease timeout, if all instances are leased.
+     * @return The lease of the instance.
+     * @throws Exception An unexpected exception (e.g. if there was no available instance before the timeout).
+     */
+    public Lease lease() throws Exception {
+        return lease(leaseTimeout);
+    }
+
+    /**
+     * Leases an instance. Waits for the given timeout, if all instances are leased.
+     * @param timeout The maximum time to wait for an available instance.
+     * @return The lease of the instance.
+     * @throws Exception An unexpected exception (e.g. if there was no available instance before the timeout).
+     */
+    public Lease lease(Duration timeout) throws Exception {
+        long remainingNanos = timeout.toNanos();
+
+        lock.lock();
+
+        try {
+            while (true) {
+                if(closed)
+                    throw new Exception("The pool is closed.");
+
+                PooledInstance pooledInstance = idleInstances.pollFirst();
+
+                if(pooledInstance != null) {
+                    pooledInstance.useCount++;
+
+                    return new Lease(this, pooledInstance);
+                }
+
+                if(instanceCount < maxSize) {
+                    instanceCount++;
+
+                    break;
+                }
+
+                if(remainingNanos <= 0)
+                    throw new Exception("Unable to lease an instance within " + timeout.toMillis() + " ms. All " +
+                            maxSize + " instances are leased.");
+
+                remainingNanos = instanceAvailableCondition.awaitNanos(remainingNanos);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        //Launch a new instance (outside the lock, because launching takes a while).
+
+        PooledInstance pooledInstance = launchInstanceOrFail();
+
+        pooledInstance.useCount++;
+
+        return new Lease(this, pooledInstance);
+    }
+
+    /**
+     * Releases the given lease. The instance is reset and returned to the pool. If the instance was used too often or
+     * the reset failed, the instance is quit instead.
+     * @param lease The lease to release.
+     */
+    public void release(Lease lease) {
+        PooledInstance pooledInstance;
+
+        synchronized (lease) {
+            if(lease.released)
+                return;
+
+            lease.released = true;
+
+            pooledInstance = lease.pooledInstance;
+        }
+
+        boolean reusable = pooledInstance.useCount < maxUsesPerInstance;
+
+        if(!reusable) {
+            LOGGER.info("Recycle instance after {} uses.", pooledInstance.useCount);
+        }
+        else {
+            try {
+                pooledInstance.c4jRemoteChromium.reset();
+            }
+            catch (Exception exception) {
+                LOGGER.warn("Unable to reset instance. Discard instance.", exception);
+
+                reusable = false;
+            }
+        }
+
+        lock.lock();
+
+        try {
+            if(reusable && !closed) {
+                pooledInstance.releaseTime = System.nanoTime();
+
+                idleInstances.addFirst(pooledInstance);
+
+                instanceAvailableCondition.signal();
+
+                return;
+            }
+
+            instanceCount--;
+
+            instanceAvailableCondition.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        pooledInstance.c4jRemoteChromium.quit();
+
+        fillToMinimumSize();
+    }
+
+    /**
+     * Returns the number of idle instances.
+     * @return The number of idle instances.
+     */
+    public int getIdleCount() {
+        lock.lock();
+
+        try {
+            return idleInstances.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of all instances (idle, leased and launching).
+     * @return The number of instances.
+     */
+    public int getInstanceCount() {
+        lock.lock();
+
+        try {
+            return instanceCount;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Quits all idle instances. Leased instances are quit when they are released.
+     */
+    @Override
+    public void close() {
+        List<PooledInstance> closedInstances;
+
+        lock.lock();
+
+        try {
+            if(closed)
+                return;
+
+            closed = true;
+
+            closedInstances = new ArrayList<>(idleInstances);
+
+            idleInstances.clear();
+
+            instanceCount -= closedInstances.size();
+
+            instanceAvailableCondition.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        maintenanceExecutorService.shutdownNow();
+        launchExecutorService.shutdown();
+
+        closedInstances.forEach(tmpPooledInstance -> tmpPooledInstance.c4jRemoteChromium.quit());
+
+        LOGGER.info("Closed pool. Quit instances: {}", closedInstances.size());
+    }
+
+    private void start() throws Exception {
+        //Launch the minimum number of instances concurrently.
+
+        List<Future<Void>> futures = new ArrayList<>();
+
+        for(int i = 0; i < minSize; i++) {
+            lock.lock();
+
+            try {
+                instanceCount++;
+            }
+            finally {
+                lock.unlock();
+            }
+
+            futures.add(launchExecutorService.submit(() -> {
+                addIdleInstance(launchInstanceOrFail());
+
+                return null;
+            }));
+        }
+
+        try {
+            for(Future<Void> tmpFuture : futures) {
+                tmpFuture.get();
+            }
+        }
+        catch (Exception exception) {
+            close();
+
+            throw new Exception("Unable to pre-warm the pool.", exception);
+        }
+
+        long periodMillis = Math.max(1000, idleTimeout.toMillis() / 2);
+
+        maintenanceExecutorService.scheduleWithFixedDelay(this::evictIdleInstances, periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+
+        LOGGER.info("Started pool. Minimum size: {} Maximum size: {}", minSize, maxSize);
+    }
+
+    /**
+     * Launches an instance. The instance must already be counted. The count is decremented, if the launch fails.
+     */
+    private PooledInstance launchInstanceOrFail() throws Exception {
+        try {
+            long startTime = System.nanoTime();
+
+            C4jRemoteChromium c4jRemoteChromium = instanceFactory.createInstanceOrFail();
+
+            LOGGER.info("Launched pooled instance in {} ms.", (System.nanoTime() - startTime) / 1_000_000);
+
+            return new PooledInstance(c4jRemoteChromium);
+        }
+        catch (Exception exception) {
+            lock.lock();
+
+            try {
+                instanceCount--;
+
+                instanceAvailableCondition.signal();
+            }
+            finally {
+                lock.unlock();
+            }
+
+            throw exception;
+        }
+    }
+
+    private void addIdleInstance(PooledInstance pooledInstance) {
+        lock.lock();
+
+        try {
+            if(!closed) {
+                idleInstances.addLast(pooledInstance);
+
+                instanceAvailableCondition.signal();
+
+                return;
+            }
+
+            instanceCount--;
+        }
+        finally {
+            lock.unlock();
+        }
+
+        pooledInstance.c4jRemoteChromium.quit();
+    }
+
+    private void fillToMinimumSize() {
+        lock.lock();
+
+        try {
+            while (!closed && instanceCount < minSize) {
+                instanceCount++;
+
+                launchExecutorService.submit(() -> {
+                    try {
+                        addIdleInstance(launchInstanceOrFail());
+                    }
+                    catch (Exception exception) {
+                        LOGGER.warn("Unable to launch replacement instance.", exception);
+                    }
+                });
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIdleInstances() {
+        List<PooledInstance> evictedInstances = new ArrayList<>();
+
+        lock.lock();
+
+        try {
+            long minReleaseTime = System.nanoTime() - idleTimeout.toNanos();
+
+            //Evict the least recently released instances first (at the end of the deque).
+
+            Iterator<PooledInstance> iterator = idleInstances.descendingIterator();
+
+            while (iterator.hasNext() && instanceCount > minSize) {
+                PooledInstance pooledInstance = iterator.next();
+
+                if(pooledInstance.releaseTime - minReleaseTime > 0)
+                    break;
+
+                iterator.remove();
+
+                instanceCount--;
+
+                evictedInstances.add(pooledInstance);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if(!evictedInstances.isEmpty()) {
+            LOGGER.info("Evict idle instances: {}", evictedInstances.size());
+
+            evictedInstances.forEach(tmpPooledInstance -> tmpPooledInstance.c4jRemoteChromium.quit());
+        }
+    }
+
+    //Builder.
+
+    public static class Builder {
+        private final InstanceFactory instanceFactory;
+
+        private int minSize = 1;
+        private int maxSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private Duration leaseTimeout = Duration.ofSeconds(30);
+        private Duration idleTimeout = Duration.ofMinutes(5);
+        private int maxUsesPerInstance = 100;
+
+        Builder(InstanceFactory instanceFactory) {
+            this.instanceFactory = instanceFactory;
+        }
+
+        /**
+         * Sets the minimum number of instances. These instances are launched when the pool is built and aren't
+         * evicted (default: 1).
+         * @param minSize The minimum number of instances.
+         * @return The builder instance.
+         */
+        public Builder setMinSize(int minSize) {
+            this.minSize = minSize;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of instances (default: half of the available processors).
+         * @param maxSize The maximum number of instances.
+         * @return The builder instance.
+         */
+        public Builder setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+
+            return this;
+        }
+
+        /**
+         * Sets the default time to wait for an available instance (default: 30 seconds).
+         * @param leaseTimeout The time to wait.
+         * @return The builder instance.
+         */
+        public Builder setLeaseTimeout(Duration leaseTimeout) {
+            this.leaseTimeout = leaseTimeout;
+
+            return this;
+        }
+
+        /**
+         * Sets the time after which idle instances above the minimum number are quit (default: 5 minutes).
+         * @param idleTimeout The idle time.
+         * @return The builder instance.
+         */
+        public Builder setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of leases after which an instance is quit and replaced (default: 100).
+         * @param maxUsesPerInstance The maximum number of leases per instance.
+         * @return The builder instance.
+         */
+        public Builder setMaxUsesPerInstance(int maxUsesPerInstance) {
+            this.maxUsesPerInstance = maxUsesPerInstance;
+
+            return this;
+        }
+
+        /**
+         * Creates the pool and launches the minimum number of instances.
+         * @return The started pool.
+         * @throws Exception An unexpected exception (e.g. if an instance couldn't be launched).
+         */
+        public C4jChromiumPool build() throws Exception {
+            if(minSize < 0 || maxSize < 1 || minSize > maxSize)
+                throw new IllegalArgumentException("Invalid pool size. Minimum size: " + minSize +
+                        " Maximum size: " + maxSize);
+
+            if(maxUsesPerInstance < 1)
+                throw new IllegalArgumentException("The maximum number of uses must be positive.");
+
+            C4jChromiumPool c4jChromiumPool = new C4jChromiumPool(this);
+
+            c4jChromiumPool.start();
+
+            return c4jChromiumPool;
+        }
+    }
+
+    /**
+     * Creates a new builder for a pool of instances of the given executable. The options supplier is called for every
+     * launched instance, because the options are modified by the launch (e.g. the binary and the extensions).
+     * @param chromiumFile The executable to launch.
+     * @param c4jChromeOptionsSupplier The supplier of the options to launch the instances with.
+     * @return A new {@link Builder} instance.
+     */
+    public static Builder fromBuilder(File chromiumFile, Supplier<C4jChromeOptions> c4jChromeOptionsSupplier) {
+        return new Builder(() -> C4j.createInstance(chromiumFile, c4jChromeOptionsSupplier.get()));
+    }
+
+    /**
+     * Creates a new builder for a pool of instances of the given distribution. The distribution is obtained
+     * (downloaded) once, if it isn't installed yet. Every launched instance uses the current revision of the
+     * distribution, so recycled instances pick up updates (see {@link C4jChromiumUpdater}).
+     * @param c4jOsChromiumDistribution The distribution to obtain (download) or launch (if already installed).
+     * @param c4jChromeOptionsSupplier The supplier of the options to launch the instances with.
+     * @return A new {@link Builder} instance.
+     * @throws Exception An unexpected exception.
+     */
+    public static Builder fromBuilder(C4jOsChromiumDistribution c4jOsChromiumDistribution,
+                                      Supplier<C4jChromeOptions> c4jChromeOptionsSupplier) throws Exception {
+        File chromiumFile = C4j.obtainDefaultChromiumOrFail(c4jOsChromiumDistribution, LOGGER::info, false);
+
+        if(chromiumFile == null)
+            throw new Exception("Unable to obtain Chromium distribution \"" + c4jOsChromiumDistribution.getId() +
+                    "\".");
+
+        return new Builder(() -> C4j.createInstance(() -> {
+            File currentChromiumFile = C4j.getDefaultInstallationChromiumFile(c4jOsChromiumDistribution);
+
+            return currentChromiumFile == null ? chromiumFile : currentChromiumFile;
+        }, c4jChromeOptionsSupplier.get()));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates a distribution in the background. Every check only requests the metadata of the latest build and the
+ * distribution is only downloaded, if the latest build differs from the installed build. Every update is installed as
+ * a new revision, while the current revision keeps serving new instances. New instances use the new revision, once it
+ * is installed. Running instances keep their revision, until they are quit (the revision is retired afterward).
+ */
+public class C4jChromiumUpdater implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(C4jChromiumUpdater.class);
+
+    private final C4jOsChromiumDistribution c4jOsChromiumDistribution;
+
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private C4jChromiumUpdater(C4jOsChromiumDistribution c4jOsChromiumDistribution) {
+        this.c4jOsChromiumDistribution = c4jOsChromiumDistribution;
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "c4j-updater-" + c4jOsChromiumDistribution.getId());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Starts an updater for the given distribution. The first update is performed after the given interval.
+     * @param c4jOsChromiumDistribution The distribution to update.
+     * @param updateInterval The interval between two updates.
+     * @return The started updater.
+     */
+    public static C4jChromiumUpdater start(C4jOsChromiumDistribution c4jOsChromiumDistribution,
+                                           Duration updateInterval) {
+        C4jChromiumUpdater c4jChromiumUpdater = new C4jChromiumUpdater(c4jOsChromiumDistribution);
+
+        long intervalMillis = updateInterval.toMillis();
+
+        c4jChromiumUpdater.scheduledExecutorService.scheduleWithFixedDelay(c4jChromiumUpdater::updateQuietly,
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+        LOGGER.info("Started updater for distribution {}. Interval: {} minutes", c4jOsChromiumDistribution.name(),
+                updateInterval.toMinutes());
+
+        return c4jChromiumUpdater;
+    }
+
+    /**
+     * Performs an update in the background (in addition to the scheduled updates).
+     * @return The future of the installation directory of the update.
+     */
+    public CompletableFuture<File> updateNow() {
+        CompletableFuture<File> updateFuture = new CompletableFuture<>();
+
+        scheduledExecutorService.execute(() -> {
+            try {
+                updateFuture.complete(updateOrFail());
+            }
+            catch (Exception exception) {
+                updateFuture.completeExceptionally(exception);
+            }
+        });
+
+        return updateFuture;
+    }
+
+    /**
+     * Stops the updater. A running update is interrupted.
+     */
+    @Override
+    public void close() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    private void updateQuietly() {
+        try {
+            updateOrFail();
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to update distribution {}. Keep current revision.",
+                    c4jOsChromiumDistribution.name(), exception);
+        }
+    }
+
+    private File updateOrFail() throws Exception {
+        LOGGER.info("Try to update distribution {}.", c4jOsChromiumDistribution.name());
+
+        long time = System.currentTimeMillis();
+
+        //The distribution is only downloaded, if the latest build differs from the installed build.
+
+        File installationDirectory = C4jChromiumDownloader.downloadChromiumIfUpdatedOrFail(
+                c4jOsChromiumDistribution);
+
+        time = System.currentTimeMillis() - time;
+
+        LOGGER.info("Updated distribution {} in {}ms. Current revision: \"{}\"", c4jOsChromiumDistribution.name(),
+                time, installationDirectory.getAbsolutePath());
+
+        return installationDirectory;
+    }
+}
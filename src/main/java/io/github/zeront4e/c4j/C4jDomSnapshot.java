@@ -0,0 +1,742 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.openqa.selenium.chrome.ChromeDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Snapshot of the document of a tab, which is captured with a single DevTools command ("DOMSnapshot.captureSnapshot").
+ * The elements are queried with CSS selectors (see {@link CssSelector} for the supported syntax), which run on indexes
+ * of the IDs, classes and tag names of the snapshot, so the queries don't need any further round trip to the browser.
+ * The snapshot contains the nodes of the main document (including the nodes of shadow roots, which are matched like
+ * children of their host). The documents of frames aren't contained.
+ */
+public class C4jDomSnapshot {
+    /**
+     * The bounding box of an element (in CSS pixels, relative to the document).
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param width The width.
+     * @param height The height.
+     */
+    public record Bounds(double x, double y, double width, double height) {
+
+    }
+
+    /**
+     * An element of a snapshot. The element is a view of the snapshot (it doesn't copy any data).
+     */
+    public static final class Element {
+        private final C4jDomSnapshot c4jDomSnapshot;
+        private final int nodeIndex;
+
+        private Element(C4jDomSnapshot c4jDomSnapshot, int nodeIndex) {
+            this.c4jDomSnapshot = c4jDomSnapshot;
+            this.nodeIndex = nodeIndex;
+        }
+
+        /**
+         * Returns the tag name (lowercase).
+         * @return The tag name.
+         */
+        public String getTagName() {
+            return c4jDomSnapshot.tagNames[nodeIndex];
+        }
+
+        /**
+         * Returns the value of the given attribute.
+         * @param name The name of the attribute (case-insensitive).
+         * @return The value or null, if the element doesn't have the attribute.
+         */
+        public String getAttributeOrNull(String name) {
+            return c4jDomSnapshot.getAttributeValueOrNull(nodeIndex, name);
+        }
+
+        /**
+         * Returns all attributes (in the order of the document).
+         * @return The attributes (the map is read-only).
+         */
+        public Map<String, String> getAttributes() {
+            String[] attributes = c4jDomSnapshot.attributes[nodeIndex];
+
+            Map<String, String> attributeMap = new LinkedHashMap<>();
+
+            for(int i = 0; i + 1 < attributes.length; i += 2) {
+                attributeMap.put(attributes[i], attributes[i + 1]);
+            }
+
+            return Collections.unmodifiableMap(attributeMap);
+        }
+
+        /**
+         * Returns the text of all descendant text nodes (like the DOM property "textContent").
+         * @return The text.
+         */
+        public String getTextContent() {
+            return c4jDomSnapshot.getText(nodeIndex, false);
+        }
+
+        /**
+         * Returns the text of the rendered descendant text nodes, whose whitespace is collapsed (similar to the
+         * visible text). The text of hidden elements, scripts and styles isn't contained.
+         * @return The text.
+         */
+        public String getText() {
+            return c4jDomSnapshot.getText(nodeIndex, true);
+        }
+
+        /**
+         * Returns the current value of a form field (e.g. the text of an input element).
+         * @return The value or null, if the element isn't a form field.
+         */
+        public String getValueOrNull() {
+            return c4jDomSnapshot.inputValues[nodeIndex];
+        }
+
+        /**
+         * Returns the bounding box of the element.
+         * @return The bounding box or null, if the element isn't rendered.
+         */
+        public Bounds getBoundsOrNull() {
+            return c4jDomSnapshot.bounds[nodeIndex];
+        }
+
+        /**
+         * Returns the parent element.
+         * @return The parent element or null, if the element is the root element.
+         */
+        public Element getParentOrNull() {
+            return c4jDomSnapshot.toElementOrNull(c4jDomSnapshot.parentElementIndexes[nodeIndex]);
+        }
+
+        /**
+         * Returns the child elements.
+         * @return The child elements (in document order).
+         */
+        public List<Element> getChildren() {
+            List<Element> children = new ArrayList<>();
+
+            for(int i = c4jDomSnapshot.firstElementChildIndexes[nodeIndex]; i != -1;
+                i = c4jDomSnapshot.nextElementSiblingIndexes[i]) {
+                children.add(new Element(c4jDomSnapshot, i));
+            }
+
+            return children;
+        }
+
+        /**
+         * Returns the descendant elements, which match the given selector.
+         * @param cssSelector The CSS selector (list).
+         * @return The matching elements (in document order).
+         * @throws IllegalArgumentException If the selector is invalid or uses unsupported syntax.
+         */
+        public List<Element> querySelectorAll(String cssSelector) {
+            return c4jDomSnapshot.select(cssSelector, nodeIndex + 1, c4jDomSnapshot.subtreeEndIndexes[nodeIndex],
+                    Integer.MAX_VALUE);
+        }
+
+        /**
+         * Returns the first descendant element, which matches the given selector.
+         * @param cssSelector The CSS selector (list).
+         * @return The first matching element or null, if no element matches.
+         * @throws IllegalArgumentException If the selector is invalid or uses unsupported syntax.
+         */
+        public Element querySelectorOrNull(String cssSelector) {
+            List<Element> elements = c4jDomSnapshot.select(cssSelector, nodeIndex + 1,
+                    c4jDomSnapshot.subtreeEndIndexes[nodeIndex], 1);
+
+            return elements.isEmpty() ? null : elements.get(0);
+        }
+
+        /**
+         * Returns true, if the element matches the given selector.
+         * @param cssSelector The CSS selector (list).
+         * @return True, if the element matches.
+         * @throws IllegalArgumentException If the selector is invalid or uses unsupported syntax.
+         */
+        public boolean matches(String cssSelector) {
+            return CssSelector.compile(cssSelector).matches(c4jDomSnapshot, nodeIndex);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof Element element && element.c4jDomSnapshot == c4jDomSnapshot &&
+                    element.nodeIndex == nodeIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(c4jDomSnapshot), nodeIndex);
+        }
+
+        @Override
+        public String toString() {
+            String id = c4jDomSnapshot.ids[nodeIndex];
+            String className = getAttributeOrNull("class");
+
+            return "<" + getTagName() + (id == null ? "" : " id=\"" + id + "\"") +
+                    (className == null ? "" : " class=\"" + className + "\"") + ">";
+        }
+    }
+
+    private static final int ELEMENT_NODE_TYPE = 1;
+    private static final int TEXT_NODE_TYPE = 3;
+    private static final int CDATA_SECTION_NODE_TYPE = 4;
+    private static final int DOCUMENT_NODE_TYPE = 9;
+
+    private static final String[] NO_ATTRIBUTES = new String[0];
+
+    private static final int[] NO_NODES = new int[0];
+
+    private final String url;
+    private final String title;
+    private final Duration captureDuration;
+
+    //The nodes in document order (the index of a node is its position).
+
+    private final int nodeCount;
+
+    private final int[] nodeTypes;
+    private final boolean[] elements;
+    private final String[] tagNames;
+    private final String[] nodeValues;
+    private final String[][] attributes;
+    private final String[] ids;
+    private final String[][] classNames;
+    private final String[] inputValues;
+    private final Bounds[] bounds;
+
+    //The structure of the tree.
+
+    private final int[] subtreeEndIndexes;
+    private final int[] parentElementIndexes;
+    private final int[] firstElementChildIndexes;
+    private final int[] previousElementSiblingIndexes;
+    private final int[] nextElementSiblingIndexes;
+
+    //The indexes of the queries (the node indexes are sorted).
+
+    private final int[] elementNodes;
+    private final Map<String, int[]> idIndex;
+    private final Map<String, int[]> classIndex;
+    private final Map<String, int[]> tagNameIndex;
+
+    @SuppressWarnings("unchecked")
+    private C4jDomSnapshot(Map<String, Object> result, long startTime) throws Exception {
+        if(!(result.get("documents") instanceof List<?> documents) || documents.isEmpty() ||
+                !(documents.get(0) instanceof Map<?, ?>) || !(result.get("strings") instanceof List<?> strings))
+            throw new Exception("The snapshot doesn't contain any document.");
+
+        Map<String, Object> document = (Map<String, Object>) documents.get(0);
+
+        String[] stringTable = strings.stream().map(String::valueOf).toArray(String[]::new);
+
+        url = getStringOrNull(stringTable, document.get("documentURL"));
+        title = getStringOrNull(stringTable, document.get("title"));
+
+        Map<String, Object> nodes = toMap(document.get("nodes"));
+
+        int[] parentIndexes = toIntArray(nodes.get("parentIndex"));
+
+        nodeCount = parentIndexes.length;
+
+        nodeTypes = toIntArray(nodes.get("nodeType"));
+
+        int[] nodeNames = toIntArray(nodes.get("nodeName"));
+        int[] nodeValueIndexes = toIntArray(nodes.get("nodeValue"));
+
+        if(nodeTypes.length != nodeCount || nodeNames.length != nodeCount || nodeValueIndexes.length != nodeCount)
+            throw new Exception("The nodes of the snapshot are incomplete.");
+
+        //Pseudo-elements (e.g. "::before") are contained as nodes, but can't be selected.
+
+        boolean[] pseudoElements = new boolean[nodeCount];
+
+        for(int tmpNodeIndex : toIntArray(toMap(nodes.get("pseudoType")).get("index"))) {
+            pseudoElements[tmpNodeIndex] = true;
+        }
+
+        elements = new boolean[nodeCount];
+        tagNames = new String[nodeCount];
+        nodeValues = new String[nodeCount];
+        attributes = new String[nodeCount][];
+        ids = new String[nodeCount];
+        classNames = new String[nodeCount][];
+        inputValues = new String[nodeCount];
+        bounds = new Bounds[nodeCount];
+
+        List<?> attributeLists = nodes.get("attributes") instanceof List<?> list ? list : List.of();
+
+        for(int i = 0; i < nodeCount; i++) {
+            elements[i] = nodeTypes[i] == ELEMENT_NODE_TYPE && !pseudoElements[i];
+
+            nodeValues[i] = getStringOrNull(stringTable, nodeValueIndexes[i]);
+
+            attributes[i] = NO_ATTRIBUTES;
+
+            if(!elements[i])
+                continue;
+
+            tagNames[i] = Objects.requireNonNullElse(getStringOrNull(stringTable, nodeNames[i]), "")
+                    .toLowerCase(Locale.ROOT);
+
+            int[] attributeIndexes = i < attributeLists.size() ? toIntArray(attributeLists.get(i)) : NO_NODES;
+
+            if(attributeIndexes.length > 0) {
+                attributes[i] = new String[attributeIndexes.length];
+
+                for(int j = 0; j < attributeIndexes.length; j++) {
+                    attributes[i][j] = getStringOrNull(stringTable, attributeIndexes[j]);
+                }
+
+                ids[i] = getAttributeValueOrNull(i, "id");
+
+                String className = getAttributeValueOrNull(i, "class");
+
+                if(className != null && !className.isBlank())
+                    classNames[i] = className.trim().split("\\s+");
+            }
+        }
+
+        //The current values of form fields and the layout are stored sparsely.
+
+        Map<String, Object> inputValueData = toMap(nodes.get("inputValue"));
+
+        int[] inputValueNodes = toIntArray(inputValueData.get("index"));
+        int[] inputValueStrings = toIntArray(inputValueData.get("value"));
+
+        for(int i = 0; i < inputValueNodes.length && i < inputValueStrings.length; i++) {
+            inputValues[inputValueNodes[i]] = getStringOrNull(stringTable, inputValueStrings[i]);
+        }
+
+        Map<String, Object> layout = toMap(document.get("layout"));
+
+        int[] layoutNodes = toIntArray(layout.get("nodeIndex"));
+
+        List<?> layoutBounds = layout.get("bounds") instanceof List<?> list ? list : List.of();
+
+        for(int i = 0; i < layoutNodes.length && i < layoutBounds.size(); i++) {
+            if(layoutBounds.get(i) instanceof List<?> rectangle && rectangle.size() == 4)
+                bounds[layoutNodes[i]] = new Bounds(toDouble(rectangle.get(0)), toDouble(rectangle.get(1)),
+                        toDouble(rectangle.get(2)), toDouble(rectangle.get(3)));
+        }
+
+        //Build the tree. The nodes are in document order, so every parent precedes its children and every subtree
+        //is a contiguous range.
+
+        subtreeEndIndexes = new int[nodeCount];
+        parentElementIndexes = new int[nodeCount];
+        firstElementChildIndexes = new int[nodeCount];
+        previousElementSiblingIndexes = new int[nodeCount];
+        nextElementSiblingIndexes = new int[nodeCount];
+
+        int[] lastElementChildIndexes = new int[nodeCount];
+
+        Arrays.fill(parentElementIndexes, -1);
+        Arrays.fill(firstElementChildIndexes, -1);
+        Arrays.fill(previousElementSiblingIndexes, -1);
+        Arrays.fill(nextElementSiblingIndexes, -1);
+        Arrays.fill(lastElementChildIndexes, -1);
+
+        for(int i = 0; i < nodeCount; i++) {
+            int parentIndex = parentIndexes[i];
+
+            if(parentIndex >= i)
+                throw new Exception("The nodes of the snapshot aren't in document order.");
+
+            if(!elements[i] || parentIndex < 0)
+                continue;
+
+            //Shadow roots are skipped, so their children are treated like children of their host.
+
+            int parentElementIndex = parentIndex;
+
+            while(parentElementIndex >= 0 && !elements[parentElementIndex] &&
+                    nodeTypes[parentElementIndex] != DOCUMENT_NODE_TYPE) {
+                parentElementIndex = parentIndexes[parentElementIndex];
+            }
+
+            parentElementIndexes[i] = parentElementIndex >= 0 && elements[parentElementIndex] ?
+                    parentElementIndex : -1;
+
+            //The siblings are linked at the same parent, so the child and sibling relations agree with the parent
+            //relation (the root element is linked at the document).
+
+            int siblingParentIndex = parentElementIndexes[i] != -1 ? parentElementIndexes[i] : parentIndex;
+
+            int previousSiblingIndex = lastElementChildIndexes[siblingParentIndex];
+
+            previousElementSiblingIndexes[i] = previousSiblingIndex;
+
+            if(previousSiblingIndex == -1)
+                firstElementChildIndexes[siblingParentIndex] = i;
+            else
+                nextElementSiblingIndexes[previousSiblingIndex] = i;
+
+            lastElementChildIndexes[siblingParentIndex] = i;
+        }
+
+        for(int i = 0; i < nodeCount; i++) {
+            subtreeEndIndexes[i] = i + 1;
+        }
+
+        for(int i = nodeCount - 1; i > 0; i--) {
+            int parentIndex = parentIndexes[i];
+
+            if(parentIndex >= 0)
+                subtreeEndIndexes[parentIndex] = Math.max(subtreeEndIndexes[parentIndex], subtreeEndIndexes[i]);
+        }
+
+        //Build the indexes.
+
+        IntArrayBuilder elementNodeBuilder = new IntArrayBuilder();
+
+        Map<String, IntArrayBuilder> idBuilders = new HashMap<>();
+        Map<String, IntArrayBuilder> classBuilders = new HashMap<>();
+        Map<String, IntArrayBuilder> tagNameBuilders = new HashMap<>();
+
+        for(int i = 0; i < nodeCount; i++) {
+            if(!elements[i])
+                continue;
+
+            elementNodeBuilder.add(i);
+
+            tagNameBuilders.computeIfAbsent(tagNames[i], ignored -> new IntArrayBuilder()).add(i);
+
+            if(ids[i] != null)
+                idBuilders.computeIfAbsent(ids[i], ignored -> new IntArrayBuilder()).add(i);
+
+            if(classNames[i] != null) {
+                for(String tmpClassName : classNames[i]) {
+                    IntArrayBuilder classBuilder = classBuilders.computeIfAbsent(tmpClassName,
+                            ignored -> new IntArrayBuilder());
+
+                    //A class may be repeated in the attribute.
+
+                    if(classBuilder.getLastOrDefault(-1) != i)
+                        classBuilder.add(i);
+                }
+            }
+        }
+
+        elementNodes = elementNodeBuilder.toArray();
+        idIndex = toIndex(idBuilders);
+        classIndex = toIndex(classBuilders);
+        tagNameIndex = toIndex(tagNameBuilders);
+
+        captureDuration = Duration.ofNanos(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Captures the document of the current window of the given driver. The driver isn't locked (the caller has to
+     * synchronize concurrent usages of the driver).
+     * @param chromeDriver The driver.
+     * @return The snapshot.
+     * @throws Exception An unexpected exception.
+     */
+    public static C4jDomSnapshot capture(ChromeDriver chromeDriver) throws Exception {
+        long startTime = System.nanoTime();
+
+        return fromCaptureResultOrFail(captureResultOrFail(chromeDriver), startTime);
+    }
+
+    /**
+     * Captures the snapshot data of the current window of the given driver (one DevTools command). The computed styles
+     * aren't captured, because they are the largest part of a snapshot.
+     * @param chromeDriver The driver.
+     * @return The result of the command.
+     */
+    static Map<String, Object> captureResultOrFail(ChromeDriver chromeDriver) {
+        return chromeDriver.executeCdpCommand("DOMSnapshot.captureSnapshot", Map.of("computedStyles", List.of()));
+    }
+
+    /**
+     * Creates the snapshot of the given result of the DevTools command "DOMSnapshot.captureSnapshot".
+     * @param result The result of the command.
+     * @param startTime The start time of the capture (see {@link System#nanoTime()}).
+     * @return The snapshot.
+     * @throws Exception An unexpected exception (e.g. if the result is invalid).
+     */
+    static C4jDomSnapshot fromCaptureResultOrFail(Map<String, Object> result, long startTime) throws Exception {
+        return new C4jDomSnapshot(result, startTime);
+    }
+
+    /**
+     * Returns the URL of the document.
+     * @return The URL or null, if the URL is unknown.
+     */
+    public String getUrlOrNull() {
+        return url;
+    }
+
+    /**
+     * Returns the title of the document.
+     * @return The title or null, if the document has no title.
+     */
+    public String getTitleOrNull() {
+        return title;
+    }
+
+    /**
+     * Returns the time to capture the snapshot and to build its indexes.
+     * @return The duration.
+     */
+    public Duration getCaptureDuration() {
+        return captureDuration;
+    }
+
+    /**
+     * Returns the number of elements of the snapshot.
+     * @return The number of elements.
+     */
+    public int getElementCount() {
+        return elementNodes.length;
+    }
+
+    /**
+     * Returns the root element of the document (e.g. the "html" element).
+     * @return The root element or null, if the document is empty.
+     */
+    public Element getDocumentElementOrNull() {
+        for(int tmpNodeIndex : elementNodes) {
+            if(parentElementIndexes[tmpNodeIndex] == -1)
+                return new Element(this, tmpNodeIndex);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the elements, which match the given selector.
+     * @param cssSelector The CSS selector (list).
+     * @return The matching elements (in document order).
+     * @throws IllegalArgumentException If the selector is invalid or uses unsupported syntax.
+     */
+    public List<Element> querySelectorAll(String cssSelector) {
+        return select(cssSelector, 0, nodeCount, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the first element, which matches the given selector.
+     * @param cssSelector The CSS selector (list).
+     * @return The first matching element or null, if no element matches.
+     * @throws IllegalArgumentException If the selector is invalid or uses unsupported syntax.
+     */
+    public Element querySelectorOrNull(String cssSelector) {
+        List<Element> elements = select(cssSelector, 0, nodeCount, 1);
+
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    /**
+     * Returns true, if the given node is a (selectable) element.
+     */
+    boolean isElement(int nodeIndex) {
+        return elements[nodeIndex];
+    }
+
+    /**
+     * Returns the lowercase tag name of the given node (null, if the node isn't an element).
+     */
+    String getTagNameOrNull(int nodeIndex) {
+        return tagNames[nodeIndex];
+    }
+
+    /**
+     * Returns the ID of the given node (null, if the node has no ID).
+     */
+    String getIdOrNull(int nodeIndex) {
+        return ids[nodeIndex];
+    }
+
+    /**
+     * Returns true, if the given node has the given class.
+     */
+    boolean hasClass(int nodeIndex, String className) {
+        String[] nodeClassNames = classNames[nodeIndex];
+
+        if(nodeClassNames == null)
+            return false;
+
+        for(String tmpClassName : nodeClassNames) {
+            if(tmpClassName.equals(className))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the value of the given attribute of the given node (the name is case-insensitive).
+     */
+    String getAttributeValueOrNull(int nodeIndex, String name) {
+        String[] nodeAttributes = attributes[nodeIndex];
+
+        for(int i = 0; i + 1 < nodeAttributes.length; i += 2) {
+            if(nodeAttributes[i].equalsIgnoreCase(name))
+                return nodeAttributes[i + 1];
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the index of the parent element of the given node (-1, if there is none).
+     */
+    int getParentElementIndex(int nodeIndex) {
+        return parentElementIndexes[nodeIndex];
+    }
+
+    /**
+     * Returns the index of the previous sibling element of the given node (-1, if there is none).
+     */
+    int getPreviousElementSiblingIndex(int nodeIndex) {
+        return previousElementSiblingIndexes[nodeIndex];
+    }
+
+    /**
+     * Returns the index of the next sibling element of the given node (-1, if there is none).
+     */
+    int getNextElementSiblingIndex(int nodeIndex) {
+        return nextElementSiblingIndexes[nodeIndex];
+    }
+
+    /**
+     * Returns the indexes of all elements (sorted).
+     */
+    int[] getElementNodes() {
+        return elementNodes;
+    }
+
+    /**
+     * Returns the indexes of the elements with the given ID (sorted).
+     */
+    int[] getNodesWithId(String id) {
+        return idIndex.getOrDefault(id, NO_NODES);
+    }
+
+    /**
+     * Returns the indexes of the elements with the given class (sorted).
+     */
+    int[] getNodesWithClass(String className) {
+        return classIndex.getOrDefault(className, NO_NODES);
+    }
+
+    /**
+     * Returns the indexes of the elements with the given lowercase tag name (sorted).
+     */
+    int[] getNodesWithTagName(String tagName) {
+        return tagNameIndex.getOrDefault(tagName, NO_NODES);
+    }
+
+    private List<Element> select(String cssSelector, int rangeStart, int rangeEnd, int limit) {
+        int[] nodeIndexes = CssSelector.compile(cssSelector).select(this, rangeStart, rangeEnd, limit);
+
+        List<Element> selectedElements = new ArrayList<>(nodeIndexes.length);
+
+        for(int tmpNodeIndex : nodeIndexes) {
+            selectedElements.add(new Element(this, tmpNodeIndex));
+        }
+
+        return selectedElements;
+    }
+
+    private Element toElementOrNull(int nodeIndex) {
+        return nodeIndex == -1 ? null : new Element(this, nodeIndex);
+    }
+
+    private String getText(int nodeIndex, boolean renderedOnly) {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for(int i = nodeIndex + 1; i < subtreeEndIndexes[nodeIndex]; i++) {
+            if((nodeTypes[i] == TEXT_NODE_TYPE || nodeTypes[i] == CDATA_SECTION_NODE_TYPE) && nodeValues[i] != null &&
+                    (!renderedOnly || bounds[i] != null))
+                stringBuilder.append(nodeValues[i]);
+        }
+
+        return renderedOnly ? stringBuilder.toString().replaceAll("\\s+", " ").trim() : stringBuilder.toString();
+    }
+
+    private static Map<String, int[]> toIndex(Map<String, IntArrayBuilder> builders) {
+        Map<String, int[]> index = new HashMap<>(builders.size() * 2);
+
+        builders.forEach((tmpKey, tmpBuilder) -> index.put(tmpKey, tmpBuilder.toArray()));
+
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toMap(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    private static int[] toIntArray(Object value) {
+        if(!(value instanceof List<?> list))
+            return NO_NODES;
+
+        int[] values = new int[list.size()];
+
+        for(int i = 0; i < values.length; i++) {
+            values[i] = list.get(i) instanceof Number number ? number.intValue() : -1;
+        }
+
+        return values;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : 0;
+    }
+
+    private static String getStringOrNull(String[] stringTable, Object index) {
+        int stringIndex = index instanceof Number number ? number.intValue() : -1;
+
+        return stringIndex < 0 || stringIndex >= stringTable.length ? null : stringTable[stringIndex];
+    }
+
+    /**
+     * Growable array of node indexes (without boxing).
+     */
+    private static final class IntArrayBuilder {
+        private int[] values = new int[4];
+        private int size = 0;
+
+        private void add(int value) {
+            if(size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+
+            values[size++] = value;
+        }
+
+        private int getLastOrDefault(int defaultValue) {
+            return size == 0 ? defaultValue : values[size - 1];
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Class to represent a named profile template. The template is a user data directory, which is created once per
+ * Chromium revision by launching an instance and running the warm-up callback (e.g. to complete the first-run
+ * initialization or to log in). Every instance launched with the template starts with its own clone of the template,
+ * which is deleted when the instance is quit.
+ */
+public class C4jProfileTemplate {
+    /**
+     * Callback to warm up the profile of a template.
+     */
+    @FunctionalInterface
+    public interface WarmUpCallback {
+        /**
+         * Warms up the profile of the given instance. The instance is quit afterward and its profile becomes the
+         * template.
+         * @param c4jRemoteChromium The instance using the profile of the template.
+         * @throws Exception An unexpected exception (the template isn't created).
+         */
+        void warmUp(C4jRemoteChromium c4jRemoteChromium) throws Exception;
+    }
+
+    private final String name;
+    private final WarmUpCallback warmUpCallback;
+
+    public C4jProfileTemplate(String name, WarmUpCallback warmUpCallback) {
+        if(name == null || !name.matches("[A-Za-z0-9_-][A-Za-z0-9._-]*"))
+            throw new IllegalArgumentException("The template name \"" + name + "\" must start with a letter, digit, " +
+                    "underscore or hyphen and must only contain these characters and dots.");
+
+        this.name = name;
+        this.warmUpCallback = warmUpCallback;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public WarmUpCallback getWarmUpCallback() {
+        return warmUpCallback;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object == null || getClass() != object.getClass()) return false;
+        C4jProfileTemplate that = (C4jProfileTemplate) object;
+        return Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name);
+    }
+
+    @Override
+    public String toString() {
+        return "C4jProfileTemplate{" +
+                "name='" + name + '\'' +
+                '}';
+    }
+
+    /**
+     * Creates a new profile template with the given name and warm-up callback.
+     * @param name The name of the template (used as directory name).
+     * @param warmUpCallback The callback to warm up the profile of the template.
+     * @return A new profile template.
+     */
+    public static C4jProfileTemplate createProfileTemplate(String name, WarmUpCallback warmUpCallback) {
+        return new C4jProfileTemplate(name, warmUpCallback);
+    }
+
+    /**
+     * Deletes the created templates (of all revisions) with the given name, so the next instance warms up a new
+     * template (e.g. after a login expired). Clones of running instances aren't affected.
+     * @param name The name of the template.
+     * @throws IOException An unexpected exception.
+     */
+    public static void deleteProfileTemplates(String name) throws IOException {
+        ProfileTemplates.deleteTemplatesOrFail(name);
+    }
+}
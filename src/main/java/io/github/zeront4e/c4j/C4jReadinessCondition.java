@@ -0,0 +1,206 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import java.time.Duration;
+
+/**
+ * A condition of the page of a tab, which is awaited with the events of the DevTools session (see
+ * {@link C4jRemoteChromium#navigate(String, C4jReadinessCondition, Duration)} and
+ * {@link C4jRemoteChromium#awaitReadiness(C4jReadinessCondition, Duration)}). The wait returns as soon as the condition
+ * holds, without polling the page.
+ */
+public class C4jReadinessCondition {
+    /**
+     * The lifecycle events of a page (DevTools event "Page.lifecycleEvent").
+     */
+    public enum LifecycleEvent {
+        /**
+         * The HTML document was parsed.
+         */
+        DOM_CONTENT_LOADED("DOMContentLoaded"),
+        /**
+         * The document and all of its subresources were loaded.
+         */
+        LOAD("load"),
+        /**
+         * The first pixels were painted.
+         */
+        FIRST_PAINT("firstPaint"),
+        /**
+         * The first content (e.g. text or an image) was painted.
+         */
+        FIRST_CONTENTFUL_PAINT("firstContentfulPaint"),
+        /**
+         * The primary content was painted (older versions of Chromium may not report this event).
+         */
+        FIRST_MEANINGFUL_PAINT("firstMeaningfulPaint"),
+        /**
+         * There were at most 2 network connections for 500 ms (as measured by Chromium).
+         */
+        NETWORK_ALMOST_IDLE("networkAlmostIdle"),
+        /**
+         * There were no network connections for 500 ms (as measured by Chromium).
+         */
+        NETWORK_IDLE("networkIdle");
+
+        private final String devToolsName;
+
+        LifecycleEvent(String devToolsName) {
+            this.devToolsName = devToolsName;
+        }
+
+        /**
+         * Returns the name of the event in the DevTools protocol.
+         * @return The name of the event.
+         */
+        public String getDevToolsName() {
+            return devToolsName;
+        }
+    }
+
+    /**
+     * The types of conditions.
+     */
+    enum Type {
+        LIFECYCLE_EVENT,
+        NETWORK_IDLE,
+        SELECTOR
+    }
+
+    private final Type type;
+
+    private final LifecycleEvent lifecycleEvent;
+
+    private final Duration quietWindow;
+    private final int maxInflightRequests;
+
+    private final String cssSelector;
+
+    private C4jReadinessCondition(Type type, LifecycleEvent lifecycleEvent, Duration quietWindow,
+                                  int maxInflightRequests, String cssSelector) {
+        this.type = type;
+        this.lifecycleEvent = lifecycleEvent;
+        this.quietWindow = quietWindow;
+        this.maxInflightRequests = maxInflightRequests;
+        this.cssSelector = cssSelector;
+    }
+
+    /**
+     * Creates a condition, which holds once the given lifecycle event was fired for the document of the tab.
+     * @param lifecycleEvent The lifecycle event.
+     * @return The condition.
+     */
+    public static C4jReadinessCondition lifecycleEvent(LifecycleEvent lifecycleEvent) {
+        return new C4jReadinessCondition(Type.LIFECYCLE_EVENT, lifecycleEvent, null, 0, null);
+    }
+
+    /**
+     * Creates a condition, which holds once the HTML document was parsed.
+     * @return The condition.
+     */
+    public static C4jReadinessCondition domContentLoaded() {
+        return lifecycleEvent(LifecycleEvent.DOM_CONTENT_LOADED);
+    }
+
+    /**
+     * Creates a condition, which holds once the primary content was painted.
+     * @return The condition.
+     */
+    public static C4jReadinessCondition firstMeaningfulPaint() {
+        return lifecycleEvent(LifecycleEvent.FIRST_MEANINGFUL_PAINT);
+    }
+
+    /**
+     * Creates a condition, which holds once the tab had at most the given number of running requests for the given
+     * time. The requests are counted with the DevTools domain "Network" (unlike the fixed lifecycle events
+     * {@link LifecycleEvent#NETWORK_IDLE} and {@link LifecycleEvent#NETWORK_ALMOST_IDLE}).
+     * @param quietWindow The time without requests that would exceed the threshold (e.g. 250 ms).
+     * @param maxInflightRequests The maximal number of running requests (e.g. 0 or 2 for pages with long-polling
+     *                            requests).
+     * @return The condition.
+     * @throws IllegalArgumentException If the time or the number is negative.
+     */
+    public static C4jReadinessCondition networkIdle(Duration quietWindow, int maxInflightRequests) {
+        if(quietWindow.isNegative())
+            throw new IllegalArgumentException("The quiet window must not be negative.");
+
+        if(maxInflightRequests < 0)
+            throw new IllegalArgumentException("The maximal number of running requests must not be negative.");
+
+        return new C4jReadinessCondition(Type.NETWORK_IDLE, null, quietWindow, maxInflightRequests, null);
+    }
+
+    /**
+     * Creates a condition, which holds once the document contains an element matching the given selector. The
+     * document is watched with a mutation observer, which reports the element through a DevTools binding.
+     * @param cssSelector The CSS selector.
+     * @return The condition.
+     */
+    public static C4jReadinessCondition selectorAppeared(String cssSelector) {
+        return new C4jReadinessCondition(Type.SELECTOR, null, null, 0, cssSelector);
+    }
+
+    /**
+     * Returns the type of the condition.
+     * @return The type.
+     */
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the lifecycle event (of a lifecycle event condition).
+     * @return The lifecycle event or null.
+     */
+    LifecycleEvent getLifecycleEvent() {
+        return lifecycleEvent;
+    }
+
+    /**
+     * Returns the quiet window (of a network idle condition).
+     * @return The quiet window or null.
+     */
+    Duration getQuietWindow() {
+        return quietWindow;
+    }
+
+    /**
+     * Returns the maximal number of running requests (of a network idle condition).
+     * @return The maximal number of running requests.
+     */
+    int getMaxInflightRequests() {
+        return maxInflightRequests;
+    }
+
+    /**
+     * Returns the CSS selector (of a selector condition).
+     * @return The CSS selector or null.
+     */
+    String getCssSelector() {
+        return cssSelector;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case LIFECYCLE_EVENT -> "lifecycle event \"" + lifecycleEvent.getDevToolsName() + "\"";
+            case NETWORK_IDLE -> "network idle (" + maxInflightRequests + " requests for " +
+                    quietWindow.toMillis() + " ms)";
+            case SELECTOR -> "selector \"" + cssSelector + "\"";
+        };
+    }
+}
@@ -16,16 +16,24 @@ limitations under the License.
 package io.github.zeront4e.c4j;
 
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.devtools.DevTools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.math.BigInteger;
-import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -41,6 +49,19 @@ public class C4jRemoteChromium {
 
     }
 
+    /**
+     * Represents the statistics of a reset.
+     * @param duration The duration of the reset.
+     * @param closedTabs The number of closed tabs (without the tabs of disposed browser contexts).
+     * @param disposedBrowserContexts The number of disposed browser contexts.
+     * @param clearedOrigins The number of origins whose data was cleared (including the partitioned storage keys of
+     *                       third-party frames).
+     */
+    public record ResetStatistics(Duration duration, int closedTabs, int disposedBrowserContexts,
+                                  int clearedOrigins) {
+
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(C4jRemoteChromium.class);
 
     private final boolean testInstance;
@@ -50,6 +71,20 @@ public class C4jRemoteChromium {
 
     private final Set<C4jExtension> c4JExtensions;
 
+    private final Thread shutdownHookThread;
+
+    private final DistributionRevisions.RevisionUsage revisionUsage;
+
+    private final Set<C4jBrowserContext> c4jBrowserContexts = ConcurrentHashMap.newKeySet();
+
+    private final File profileCloneDirectory;
+
+    private volatile FetchInterception fetchInterception;
+
+    private volatile PageReadiness pageReadiness;
+
+    private final C4jResponseCache configuredResponseCache;
+
     /**
      * Creates a new dummy remote Chromium instance for testing.
      */
@@ -60,6 +95,14 @@ public class C4jRemoteChromium {
         chromiumVersionObtainer = null;
 
         c4JExtensions = Set.of();
+
+        shutdownHookThread = null;
+
+        revisionUsage = null;
+
+        profileCloneDirectory = null;
+
+        configuredResponseCache = null;
     }
 
     /**
@@ -68,33 +111,460 @@ public class C4jRemoteChromium {
      * @param c4jChromeOptions The Chrome options.
      */
     C4jRemoteChromium(File chromeBinaryFile, C4jChromeOptions c4jChromeOptions) throws Exception {
-        //Obtain all extensions that should be installed.
+        this(chromeBinaryFile, c4jChromeOptions, null, null);
+    }
 
-        obtainExtensionsOrFail(chromeBinaryFile, c4jChromeOptions);
+    /**
+     * Creates a new remote Chromium instance using the provided Chrome binary file and Chrome options.
+     * @param chromeBinaryFile The path to the Chrome binary file.
+     * @param c4jChromeOptions The Chrome options.
+     * @param extensionsFuture The future of the extensions that are obtained in the background or null, to obtain the
+     *                         extensions of the options.
+     * @param chromeDriverFile The resolved driver executable or null, to let Selenium resolve the driver.
+     */
+    C4jRemoteChromium(File chromeBinaryFile, C4jChromeOptions c4jChromeOptions,
+                      CompletableFuture<List<ExtensionCache.CachedExtension>> extensionsFuture,
+                      File chromeDriverFile) throws Exception {
+        this(DistributionRevisions.resolveBinaryOrFail(() -> chromeBinaryFile), c4jChromeOptions, extensionsFuture,
+                chromeDriverFile);
+    }
 
-        //Configure the ChromeDriver.
+    /**
+     * Creates a new remote Chromium instance using the provided resolved binary and Chrome options.
+     * @param resolvedBinary The resolved binary. The instance takes over the usage of the revision (it is released,
+     *                       if the launch fails or the instance is quit).
+     * @param c4jChromeOptions The Chrome options.
+     * @param extensionsFuture The future of the extensions that are obtained in the background or null, to obtain the
+     *                         extensions of the options.
+     * @param chromeDriverFile The resolved driver executable or null, to let Selenium resolve the driver.
+     */
+    C4jRemoteChromium(DistributionRevisions.ResolvedBinary resolvedBinary, C4jChromeOptions c4jChromeOptions,
+                      CompletableFuture<List<ExtensionCache.CachedExtension>> extensionsFuture,
+                      File chromeDriverFile) throws Exception {
+        File chromeBinaryFile = resolvedBinary.binaryFile();
 
         testInstance = false;
 
-        //We always overwrite the binary file path in the Chrome options.
-        c4jChromeOptions.getChromeOptions().setBinary(chromeBinaryFile);
+        //The revision was marked as used when the binary was resolved, so it isn't retired while this instance is
+        //launched or running.
+
+        revisionUsage = resolvedBinary.revisionUsage();
+
+        //Configure the ChromeDriver. Everything of this instance is added to a copy of the options, so the options
+        //can be used to launch further instances (and the arguments don't accumulate).
+
+        ChromeOptions chromeOptions = c4jChromeOptions.getChromeOptions().merge(new ChromeOptions());
+
+        File cloneDirectory = null;
+
+        try {
+            //Obtain all extensions that should be installed.
+
+            obtainExtensionsOrFail(c4jChromeOptions, extensionsFuture, chromeOptions);
+
+            //Start with a clone of the profile template (if any).
+
+            if(c4jChromeOptions.getProfileTemplateOrNull() != null) {
+                cloneDirectory = ProfileTemplates.createProfileCloneOrFail(c4jChromeOptions, chromeOptions,
+                        chromeBinaryFile, chromeDriverFile);
+
+                chromeOptions.addArguments("--user-data-dir=" + cloneDirectory.getAbsolutePath());
+            }
+
+            //We always overwrite the binary file path in the Chrome options.
+            chromeOptions.setBinary(chromeBinaryFile);
+
+            if(chromeDriverFile == null) {
+                chromeDriver = new ChromeDriver(chromeOptions);
+            }
+            else {
+                ChromeDriverService chromeDriverService = new ChromeDriverService.Builder()
+                        .usingDriverExecutable(chromeDriverFile)
+                        .build();
+
+                chromeDriver = new ChromeDriver(chromeDriverService, chromeOptions);
+            }
+        }
+        catch (Exception exception) {
+            resolvedBinary.release();
+
+            if(cloneDirectory != null)
+                ProfileTemplates.deleteProfileCloneQuietly(cloneDirectory);
 
-        chromeDriver = new ChromeDriver(c4jChromeOptions.getChromeOptions());
+            throw exception;
+        }
+
+        profileCloneDirectory = cloneDirectory;
 
-        chromiumVersionObtainer = new ChromiumVersionObtainer(chromeBinaryFile);
+        chromiumVersionObtainer = new ChromiumVersionObtainer(chromeBinaryFile, chromeDriver);
 
         c4JExtensions = Collections.unmodifiableSet(c4jChromeOptions.getC4jCommonExtensions());
 
+        //Serve the responses from the configured shared cache.
+
+        configuredResponseCache = c4jChromeOptions.getResponseCacheOrNull();
+
+        if(configuredResponseCache != null) {
+            try {
+                enableResponseCache(configuredResponseCache);
+            }
+            catch (Exception exception) {
+                quitDriver();
+
+                if(revisionUsage != null)
+                    revisionUsage.release();
+
+                if(profileCloneDirectory != null)
+                    ProfileTemplates.deleteProfileCloneQuietly(profileCloneDirectory);
+
+                throw exception;
+            }
+        }
+
         //Add a shutdown hook to quit the Chromium instance when the VM is terminated.
 
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        shutdownHookThread = new Thread(() -> {
+            quitDriver();
+
+            deleteProfileClone();
+        });
+
+        Runtime.getRuntime().addShutdownHook(shutdownHookThread);
+    }
+
+    /**
+     * Creates a new isolated browser context (incognito-like) that shares the browser process of this instance. The
+     * context has its own cookies, storage and tabs and is disposed when it is closed.
+     * @return The created browser context.
+     * @throws Exception An unexpected exception.
+     */
+    public C4jBrowserContext createBrowserContext() throws Exception {
+        if(testInstance)
+            throw new Exception("Browser contexts aren't supported by test instances.");
+
+        Map<String, Object> result;
+
+        synchronized (chromeDriver) {
+            result = chromeDriver.executeCdpCommand("Target.createBrowserContext", Map.of("disposeOnDetach",
+                    false));
+        }
+
+        Object browserContextId = result == null ? null : result.get("browserContextId");
+
+        if(browserContextId == null)
+            throw new Exception("Unable to create browser context.");
+
+        C4jBrowserContext c4jBrowserContext = new C4jBrowserContext(this, browserContextId.toString());
+
+        c4jBrowserContexts.add(c4jBrowserContext);
+
+        LOGGER.info("Created browser context \"{}\".", browserContextId);
+
+        return c4jBrowserContext;
+    }
+
+    /**
+     * Returns the open browser contexts of this instance (the set is read-only).
+     * @return The open browser contexts.
+     */
+    public Set<C4jBrowserContext> getBrowserContexts() {
+        return Collections.unmodifiableSet(c4jBrowserContexts);
+    }
+
+    void unregisterBrowserContext(C4jBrowserContext c4jBrowserContext) {
+        c4jBrowserContexts.remove(c4jBrowserContext);
+    }
+
+    /**
+     * Quits the Chromium instance and the driver. The instance can't be used afterward.
+     */
+    public void quit() {
+        if(testInstance)
+            return;
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHookThread);
+        }
+        catch (IllegalStateException illegalStateException) {
+            //The VM is already shutting down, so the hook quits the driver.
+
+            return;
+        }
+
+        quitDriver();
+
+        deleteProfileClone();
+
+        if(revisionUsage != null)
+            revisionUsage.release();
+    }
+
+    private void quitDriver() {
+        try {
+            chromeDriver.quit();
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to quit Chrome driver.", exception);
+        }
+    }
+
+    private void deleteProfileClone() {
+        if(profileCloneDirectory != null)
+            ProfileTemplates.deleteProfileCloneQuietly(profileCloneDirectory);
+    }
+
+    /**
+     * Resets the instance to a clean state without restarting Chromium, so it can be reused (e.g. by another
+     * consumer). The reset disposes all browser contexts, closes all tabs except one, shows a blank page in the
+     * remaining tab and clears its navigation history. The cookies, the cache and the data (storage, caches and
+     * service workers) of all known origins (open targets, navigation histories, frames of the open tabs and cookie
+     * domains) are cleared. The partitioned storage of the frames of the open tabs is cleared by its storage key. The
+     * data of origins that are only known to the removed frames of a tab (e.g. an iframe that was replaced) and that
+     * weren't visited otherwise isn't cleared.
+     * Granted permissions, the download behavior and the network overrides of the remaining tab (including the request
+     * blocking and the response cache) are reset as well. A response cache configured in the options stays enabled.
+     * @return The statistics of the reset.
+     * @throws Exception An unexpected exception (the instance shouldn't be reused).
+     */
+    public ResetStatistics reset() throws Exception {
+        if(testInstance)
+            return new ResetStatistics(Duration.ZERO, 0, 0, 0);
+
+        long startTime = System.nanoTime();
+
+        //Dispose the browser contexts of the previous consumer first (this closes their tabs and deletes their data).
+
+        List<C4jBrowserContext> browserContexts = List.copyOf(c4jBrowserContexts);
+
+        for(C4jBrowserContext tmpBrowserContext : browserContexts) {
+            tmpBrowserContext.close();
+        }
+
+        Set<String> origins = new LinkedHashSet<>();
+        Set<String> storageKeys = new LinkedHashSet<>();
+
+        int closedTabs;
+
+        synchronized (chromeDriver) {
+            collectTargetOrigins(origins);
+
+            List<String> windowHandles = new ArrayList<>(chromeDriver.getWindowHandles());
+
+            if(windowHandles.isEmpty())
+                throw new Exception("The instance has no open window.");
+
+            //Close the stray tabs (the origins of their histories and frames are collected before).
+
+            for(String tmpWindowHandle : windowHandles.subList(1, windowHandles.size())) {
+                chromeDriver.switchTo().window(tmpWindowHandle);
+
+                collectHistoryOrigins(origins);
+                collectFrameOrigins(origins, storageKeys);
+
+                chromeDriver.close();
+            }
+
+            closedTabs = windowHandles.size() - 1;
+
+            chromeDriver.switchTo().window(windowHandles.get(0));
+
+            collectHistoryOrigins(origins);
+            collectFrameOrigins(origins, storageKeys);
+
+            collectCookieOrigins(origins);
+
+            chromeDriver.get("about:blank");
+
+            chromeDriver.executeCdpCommand("Page.resetNavigationHistory", Map.of());
+
+            chromeDriver.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            chromeDriver.executeCdpCommand("Network.clearBrowserCache", Map.of());
+
+            resetOverrides();
+        }
+
+        //The previous DevTools session may belong to a closed tab, so a new session is created. The interception of
+        //the previous session ends with the session.
+
+        synchronized (chromeDriver) {
+            if(fetchInterception != null)
+                fetchInterception.clear();
+        }
+
+        DevTools devTools = obtainDevToolsOrFail(true);
+
+        BrowserDataClearUtil.clearDataForOriginsOrFail(devTools, origins, BrowserDataClearUtil.ALL_STORAGE_TYPES);
+
+        //The first-party storage keys were cleared with their origins.
+
+        origins.forEach(tmpOrigin -> storageKeys.remove(tmpOrigin + "/"));
+
+        BrowserDataClearUtil.clearDataForStorageKeysOrFail(devTools, storageKeys,
+                BrowserDataClearUtil.ALL_STORAGE_TYPES);
+
+        //The configured cache belongs to the instance (not to the consumer), so it's enabled again.
+
+        if(configuredResponseCache != null)
+            enableResponseCache(configuredResponseCache);
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - startTime);
+
+        int clearedOrigins = origins.size() + storageKeys.size();
+
+        LOGGER.info("Reset instance in {}ms. Closed tabs: {} Disposed browser contexts: {} Cleared origins: {}",
+                duration.toMillis(), closedTabs, browserContexts.size(), clearedOrigins);
+
+        return new ResetStatistics(duration, closedTabs, browserContexts.size(), clearedOrigins);
+    }
+
+    /**
+     * Resets the permissions, the download behavior and the network overrides. The overrides are reset on a best
+     * effort basis, because some commands fail, if their domain wasn't used.
+     */
+    private void resetOverrides() {
+        Map<String, Map<String, Object>> resetCommands = new LinkedHashMap<>();
+
+        resetCommands.put("Browser.resetPermissions", Map.of());
+        resetCommands.put("Browser.setDownloadBehavior", Map.of("behavior", "default"));
+        resetCommands.put("Fetch.disable", Map.of());
+        resetCommands.put("Network.setBlockedURLs", Map.of("urls", List.of()));
+        resetCommands.put("Network.setExtraHTTPHeaders", Map.of("headers", Map.of()));
+        resetCommands.put("Network.setCacheDisabled", Map.of("cacheDisabled", false));
+        resetCommands.put("Network.emulateNetworkConditions", Map.of("offline", false, "latency", 0,
+                "downloadThroughput", -1, "uploadThroughput", -1));
+        resetCommands.put("Emulation.clearDeviceMetricsOverride", Map.of());
+        resetCommands.put("Emulation.clearGeolocationOverride", Map.of());
+
+        resetCommands.forEach((tmpMethod, tmpParameters) -> {
             try {
-                chromeDriver.quit();
+                chromeDriver.executeCdpCommand(tmpMethod, tmpParameters);
             }
             catch (Exception exception) {
-                LOGGER.warn("Unable to quit Chrome driver.", exception);
+                LOGGER.debug("Unable to reset override. Command: {}", tmpMethod, exception);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collectTargetOrigins(Set<String> origins) {
+        try {
+            Map<String, Object> result = chromeDriver.executeCdpCommand("Target.getTargets", Map.of());
+
+            Object targetInfos = result == null ? null : result.get("targetInfos");
+
+            if(targetInfos instanceof List<?> targetInfoList) {
+                for(Object tmpTargetInfo : targetInfoList) {
+                    if(tmpTargetInfo instanceof Map<?, ?> targetInfoMap)
+                        addOrigin(origins, (String) ((Map<String, Object>) targetInfoMap).get("url"));
+                }
+            }
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to collect origins of targets.", exception);
+        }
+    }
+
+    private void collectHistoryOrigins(Set<String> origins) {
+        try {
+            Map<String, Object> result = chromeDriver.executeCdpCommand("Page.getNavigationHistory", Map.of());
+
+            Object entries = result == null ? null : result.get("entries");
+
+            if(entries instanceof List<?> entryList) {
+                for(Object tmpEntry : entryList) {
+                    if(tmpEntry instanceof Map<?, ?> entryMap)
+                        addOrigin(origins, (String) entryMap.get("url"));
+                }
             }
-        }));
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to collect origins of navigation history.", exception);
+        }
+    }
+
+    /**
+     * Collects the origins and storage keys of all frames of the current tab (including cross-origin frames).
+     */
+    private void collectFrameOrigins(Set<String> origins, Set<String> storageKeys) {
+        List<Map<?, ?>> frames = new ArrayList<>();
+
+        try {
+            Map<String, Object> result = chromeDriver.executeCdpCommand("Page.getFrameTree", Map.of());
+
+            if(result != null && result.get("frameTree") instanceof Map<?, ?> frameTree)
+                collectFrames(frameTree, frames);
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to collect origins of frames.", exception);
+
+            return;
+        }
+
+        for(Map<?, ?> tmpFrame : frames) {
+            addOrigin(origins, tmpFrame.get("url") instanceof String url ? url : null);
+
+            if(!(tmpFrame.get("id") instanceof String frameId))
+                continue;
+
+            //Third-party frames store their data in a partition of the top-level site.
+
+            try {
+                Map<String, Object> result = chromeDriver.executeCdpCommand("Storage.getStorageKeyForFrame",
+                        Map.of("frameId", frameId));
+
+                if(result != null && result.get("storageKey") instanceof String storageKey && !storageKey.isBlank())
+                    storageKeys.add(storageKey);
+            }
+            catch (Exception exception) {
+                LOGGER.debug("Unable to obtain storage key of frame \"{}\".", frameId, exception);
+            }
+        }
+    }
+
+    private static void collectFrames(Map<?, ?> frameTree, List<Map<?, ?>> frames) {
+        if(frameTree.get("frame") instanceof Map<?, ?> frame)
+            frames.add(frame);
+
+        if(frameTree.get("childFrames") instanceof List<?> childFrames) {
+            for(Object tmpChildFrame : childFrames) {
+                if(tmpChildFrame instanceof Map<?, ?> childFrameTree)
+                    collectFrames(childFrameTree, frames);
+            }
+        }
+    }
+
+    private void collectCookieOrigins(Set<String> origins) {
+        try {
+            Map<String, Object> result = chromeDriver.executeCdpCommand("Storage.getCookies", Map.of());
+
+            Object cookies = result == null ? null : result.get("cookies");
+
+            if(cookies instanceof List<?> cookieList) {
+                for(Object tmpCookie : cookieList) {
+                    if(tmpCookie instanceof Map<?, ?> cookieMap && cookieMap.get("domain") instanceof String domain) {
+                        String host = domain.startsWith(".") ? domain.substring(1) : domain;
+
+                        addOrigin(origins, "https://" + host);
+                        addOrigin(origins, "http://" + host);
+                    }
+                }
+            }
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to collect origins of cookies.", exception);
+        }
+    }
+
+    private static void addOrigin(Set<String> origins, String url) {
+        if(url == null || !(url.startsWith("http://") || url.startsWith("https://")))
+            return;
+
+        try {
+            origins.add(BrowserDataClearUtil.toOriginOrFail(url));
+        }
+        catch (Exception exception) {
+            LOGGER.debug("Unable to obtain origin of URL \"{}\".", url, exception);
+        }
     }
 
     /**
@@ -107,6 +577,289 @@ public class C4jRemoteChromium {
         BrowserDataClearUtil.clearDataForUrlPath(chromeDriver, devTools, urlPath);
     }
 
+    /**
+     * Clears all data (cookies, storage, caches and service workers) of the given origins without loading any page.
+     * The commands for all origins are sent at once and the function returns after the browser completed them.
+     * @param origins The origins (or URLs) to clear the data of (e.g. "https://example.com").
+     * @throws Exception An unexpected exception.
+     */
+    public void clearBrowserDataForOrigins(Collection<String> origins) throws Exception {
+        clearBrowserDataForOrigins(origins, BrowserDataClearUtil.ALL_STORAGE_TYPES);
+    }
+
+    /**
+     * Clears the given storage types of the given origins without loading any page (DevTools command
+     * "Storage.clearDataForOrigin"). The commands for all origins are sent at once and the function returns after the
+     * browser completed them.
+     * @param origins The origins (or URLs) to clear the data of (e.g. "https://example.com").
+     * @param storageTypes The comma-separated storage types (e.g. "cookies,local_storage,indexeddb" or "all").
+     * @throws Exception An unexpected exception.
+     */
+    public void clearBrowserDataForOrigins(Collection<String> origins, String storageTypes) throws Exception {
+        if(testInstance)
+            return;
+
+        try {
+            BrowserDataClearUtil.clearDataForOriginsOrFail(obtainDevToolsOrFail(false), origins, storageTypes);
+        }
+        catch (Exception exception) {
+            //The session may belong to a tab that was closed in the meantime. Retry with a new session.
+
+            LOGGER.info("Unable to clear browser data. Retry with a new DevTools session.", exception);
+
+            BrowserDataClearUtil.clearDataForOriginsOrFail(obtainDevToolsOrFail(true), origins, storageTypes);
+        }
+    }
+
+    /**
+     * Deletes all cookies of the default browser context (DevTools command "Network.clearBrowserCookies").
+     */
+    public void clearAllCookies() {
+        if(testInstance)
+            return;
+
+        synchronized (chromeDriver) {
+            chromeDriver.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+        }
+    }
+
+    /**
+     * Blocks requests with the given blocker at the network layer (DevTools domain "Fetch"). Every request of the
+     * current tab is matched against the compiled rules of the blocker and blocked requests fail with the reason
+     * "BlockedByClient", so they never reach the network. A previously enabled blocker is replaced. The blocking is
+     * stopped, when the instance is reset.
+     * <p>
+     * The blocking applies to the tab of the DevTools session of the driver and to the tabs opened afterward with
+     * {@link C4jBrowserContext#openTab(String)} (this includes the tabs of {@link C4jBatchFetcher}). Tabs opened in
+     * another way (e.g. popups or tabs opened with the driver), tabs opened before the call and out-of-process
+     * iframes aren't intercepted.
+     * @param c4jRequestBlocker The blocker to apply.
+     * @throws Exception An unexpected exception.
+     */
+    public void enableRequestBlocking(C4jRequestBlocker c4jRequestBlocker) throws Exception {
+        if(testInstance)
+            throw new Exception("Request blocking isn't supported by test instances.");
+
+        synchronized (chromeDriver) {
+            obtainFetchInterceptionOrFail().setRequestBlocker(c4jRequestBlocker);
+        }
+
+        LOGGER.info("Enabled request blocking. Rules: {}", c4jRequestBlocker.getRules().size());
+    }
+
+    /**
+     * Stops blocking requests.
+     */
+    public void disableRequestBlocking() {
+        if(testInstance)
+            return;
+
+        synchronized (chromeDriver) {
+            if(fetchInterception != null && fetchInterception.getRequestBlockerOrNull() != null)
+                fetchInterception.setRequestBlocker(null);
+        }
+    }
+
+    /**
+     * Returns the enabled request blocker (e.g. to read its statistics).
+     * @return The request blocker or null, if no requests are blocked.
+     */
+    public C4jRequestBlocker getRequestBlockerOrNull() {
+        FetchInterception currentFetchInterception = fetchInterception;
+
+        return currentFetchInterception == null ? null : currentFetchInterception.getRequestBlockerOrNull();
+    }
+
+    /**
+     * Serves cacheable responses of the current tab from the given shared cache and stores the cacheable responses
+     * that aren't cached yet (DevTools domain "Fetch"). The cache can be shared by all instances of the host. A
+     * previously enabled cache is replaced. The caching is stopped, when the instance is reset (unless the cache was
+     * configured in the options of the instance).
+     * <p>
+     * The cache applies to the tab of the DevTools session of the driver and to the tabs opened afterward with
+     * {@link C4jBrowserContext#openTab(String)} (this includes the tabs of {@link C4jBatchFetcher}). Requests of tabs
+     * opened in another way (e.g. popups or tabs opened with the driver), of tabs opened before the call and of
+     * out-of-process iframes bypass the cache.
+     * @param c4jResponseCache The cache to use.
+     * @throws Exception An unexpected exception.
+     */
+    public void enableResponseCache(C4jResponseCache c4jResponseCache) throws Exception {
+        if(testInstance)
+            throw new Exception("Response caching isn't supported by test instances.");
+
+        synchronized (chromeDriver) {
+            obtainFetchInterceptionOrFail().setResponseCache(c4jResponseCache);
+        }
+
+        LOGGER.info("Enabled response cache.");
+    }
+
+    /**
+     * Stops serving and storing responses with the shared cache.
+     */
+    public void disableResponseCache() {
+        if(testInstance)
+            return;
+
+        synchronized (chromeDriver) {
+            if(fetchInterception != null && fetchInterception.getResponseCacheOrNull() != null)
+                fetchInterception.setResponseCache(null);
+        }
+    }
+
+    /**
+     * Returns the cache statistics of the requests of this instance (the statistics of all instances are provided by
+     * {@link C4jResponseCache#getStatistics()}).
+     * @return The statistics (all values are 0, if no cache was enabled).
+     */
+    public C4jResponseCache.CacheStatistics getResponseCacheStatistics() {
+        FetchInterception currentFetchInterception = fetchInterception;
+
+        return currentFetchInterception == null ? new C4jResponseCache.CacheStatistics(0, 0, 0, 0) :
+                currentFetchInterception.getCacheStatistics();
+    }
+
+    /**
+     * Navigates the current tab to the given URL and waits until the given condition holds for the new document. The
+     * navigation is started with the DevTools command "Page.navigate", so the call doesn't wait for the page load of
+     * the driver. The condition is awaited with the events of the tab, so the call returns as soon as it holds.
+     * @param url The URL to navigate to.
+     * @param c4jReadinessCondition The condition to wait for (e.g.
+     *                              {@link C4jReadinessCondition#networkIdle(Duration, int)}).
+     * @param timeout The maximal time to wait (including the navigation).
+     * @return The time until the condition held.
+     * @throws Exception An unexpected exception (e.g. if the navigation failed or the timeout elapsed).
+     */
+    public Duration navigate(String url, C4jReadinessCondition c4jReadinessCondition,
+                             Duration timeout) throws Exception {
+        if(testInstance)
+            throw new Exception("Readiness conditions aren't supported by test instances.");
+
+        Duration duration = obtainPageReadinessOrFail().navigateOrFail(url, c4jReadinessCondition, timeout);
+
+        LOGGER.debug("Navigated to URL \"{}\" in {}ms. Condition: {}", url, duration.toMillis(),
+                c4jReadinessCondition);
+
+        return duration;
+    }
+
+    /**
+     * Waits until the given condition holds for the current document of the current tab (e.g. after a click). A
+     * condition that already holds returns immediately (lifecycle events that were fired before the call count as
+     * well).
+     * @param c4jReadinessCondition The condition to wait for (e.g.
+     *                              {@link C4jReadinessCondition#selectorAppeared(String)}).
+     * @param timeout The maximal time to wait.
+     * @return The time until the condition held.
+     * @throws Exception An unexpected exception (e.g. if the timeout elapsed).
+     */
+    public Duration awaitReadiness(C4jReadinessCondition c4jReadinessCondition, Duration timeout) throws Exception {
+        if(testInstance)
+            throw new Exception("Readiness conditions aren't supported by test instances.");
+
+        return obtainPageReadinessOrFail().awaitOrFail(c4jReadinessCondition, timeout);
+    }
+
+    /**
+     * Captures the document of the current tab with a single DevTools command ("DOMSnapshot.captureSnapshot"). The
+     * elements of the snapshot are queried without any further round trip to the browser, so extracting many values
+     * takes milliseconds instead of one WebDriver request per value.
+     * @return The snapshot.
+     * @throws Exception An unexpected exception.
+     */
+    public C4jDomSnapshot captureDomSnapshot() throws Exception {
+        if(testInstance)
+            throw new Exception("DOM snapshots aren't supported by test instances.");
+
+        long startTime = System.nanoTime();
+
+        Map<String, Object> result;
+
+        synchronized (chromeDriver) {
+            result = C4jDomSnapshot.captureResultOrFail(chromeDriver);
+        }
+
+        //The indexes are built without locking the driver.
+
+        C4jDomSnapshot c4jDomSnapshot = C4jDomSnapshot.fromCaptureResultOrFail(result, startTime);
+
+        LOGGER.debug("Captured DOM snapshot in {}ms. Elements: {}", c4jDomSnapshot.getCaptureDuration().toMillis(),
+                c4jDomSnapshot.getElementCount());
+
+        return c4jDomSnapshot;
+    }
+
+    private PageReadiness obtainPageReadinessOrFail() {
+        synchronized (chromeDriver) {
+            if(pageReadiness == null)
+                pageReadiness = new PageReadiness(obtainDevToolsOrFail(false));
+
+            return pageReadiness;
+        }
+    }
+
+    /**
+     * Returns true, if the requests of this instance are intercepted (request blocking or response caching).
+     * @return True, if requests are intercepted.
+     */
+    boolean isFetchInterceptionActive() {
+        FetchInterception currentFetchInterception = fetchInterception;
+
+        return currentFetchInterception != null && currentFetchInterception.isActive();
+    }
+
+    /**
+     * Intercepts the requests of the given tab with the blocker and the cache of this instance (see
+     * {@link FetchInterception#attachToTabOrFail(ChromeDriver, String)}).
+     * @param windowHandle The window handle of the tab.
+     * @return The interception of the tab (the caller has to close it) or null, if no requests are intercepted.
+     * @throws Exception An unexpected exception.
+     */
+    FetchInterception attachFetchInterceptionOrNull(String windowHandle) throws Exception {
+        FetchInterception currentFetchInterception = fetchInterception;
+
+        if(testInstance || currentFetchInterception == null || !currentFetchInterception.isActive())
+            return null;
+
+        return currentFetchInterception.attachToTabOrFail(chromeDriver, windowHandle);
+    }
+
+    private FetchInterception obtainFetchInterceptionOrFail() {
+        synchronized (chromeDriver) {
+            if(fetchInterception == null)
+                fetchInterception = new FetchInterception(obtainDevToolsOrFail(false));
+
+            return fetchInterception;
+        }
+    }
+
+    /**
+     * Returns the DevTools of the driver with a session for the current window.
+     * @param reconnect True to replace the existing session.
+     * @return The DevTools with an active session.
+     */
+    private DevTools obtainDevToolsOrFail(boolean reconnect) {
+        synchronized (chromeDriver) {
+            DevTools devTools = chromeDriver.getDevTools();
+
+            if(reconnect)
+                devTools.disconnectSession();
+
+            devTools.createSessionIfThereIsNotOne(chromeDriver.getWindowHandle());
+
+            //The interception and the readiness events belong to the session, so they're enabled for the new session
+            //again.
+
+            if(reconnect && fetchInterception != null && fetchInterception.isActive())
+                fetchInterception.applyToSession();
+
+            if(reconnect && pageReadiness != null)
+                pageReadiness.applyToSession();
+
+            return devTools;
+        }
+    }
+
     /**
      * Returns whether this instance is a test instance (without any actual functionality).
      * @return True if this instance is a test instance, false otherwise.
@@ -139,85 +892,56 @@ public class C4jRemoteChromium {
         return c4JExtensions;
     }
 
-    private void obtainExtensionsOrFail(File chromeBinaryFile, C4jChromeOptions c4jChromeOptions) throws Exception {
-        File installationDirectory = chromeBinaryFile.getParentFile();
-
-        File extensionsDirectory = new File(installationDirectory, "c4j-extensions");
-        extensionsDirectory.mkdirs();
+    private void obtainExtensionsOrFail(C4jChromeOptions c4jChromeOptions,
+                                        CompletableFuture<List<ExtensionCache.CachedExtension>> extensionsFuture,
+                                        ChromeOptions chromeOptions) throws Exception {
+        Set<C4jExtension> c4jExtensions = c4jChromeOptions.getC4jCommonExtensions();
 
-        //Download and install the common extensions.
+        if(c4jExtensions.isEmpty())
+            return;
 
-        for(C4jExtension tmpExtension : c4jChromeOptions.getC4jCommonExtensions()) {
-            LOGGER.info("Try to obtain extension \"{}\". ID: \"{}\"", tmpExtension.getName(), tmpExtension.getId());
+        ExtensionCache extensionCache = ExtensionCache.getDefaultCache();
 
-            File extensionFile = new File(extensionsDirectory, tmpExtension.getName() + ".crx");
+        //Download the missing common extensions concurrently (unless they were already obtained in the background).
 
-            if(extensionFile.isFile() && !c4jChromeOptions.isReinstallExtensions()) {
-                LOGGER.info("The extension is already installed (path \"{}\"). Skip download.",
-                        extensionFile.getAbsolutePath());
-            }
-            else {
-                LOGGER.info("The extension should be installed.");
-
-                //Delete the existing extension file if it exists.
-
-                if(extensionFile.isFile()) {
-                    extensionFile.delete();
+        if(extensionsFuture == null) {
+            extensionsFuture = extensionCache.obtainExtensionsAsync(c4jExtensions,
+                    c4jChromeOptions.isReinstallExtensions());
+        }
 
-                    LOGGER.info("Delete existing extension file (path \"{}\").", extensionFile.getAbsolutePath());
-                }
+        List<ExtensionCache.CachedExtension> cachedExtensions = ExtensionCache.awaitOrFail(extensionsFuture);
 
-                //Download the extension.
+        boolean unpacked = c4jChromeOptions.getExtensionMode() == C4jChromeOptions.ExtensionMode.UNPACKED;
 
-                String downloadUrl = tmpExtension.getDownloadUrl();
+        List<String> unpackedDirectoryPaths = new ArrayList<>();
 
+        for(ExtensionCache.CachedExtension tmpCachedExtension : cachedExtensions) {
+            File extensionFile = tmpCachedExtension.crxFile();
 
-                LOGGER.info("Try to download extension. Extension ID: \"{}\" Description: \"{}\" Source URL: \"{}\" " +
-                                "Target file: \"{}\"", tmpExtension.getId(), tmpExtension.getDescription(), downloadUrl,
-                        extensionFile.getAbsolutePath());
+            if(unpacked) {
+                //The unpacked directory is named after the checksum, so updated extensions are unpacked again.
 
-                FileDownloadUtil.downloadFileOrFail(downloadUrl, extensionFile);
+                File unpackedDirectory = CrxUtil.obtainUnpackedDirectoryOrFail(extensionFile,
+                        extensionCache.getUnpackedDirectory(), tmpCachedExtension.sha256Checksum());
 
-                LOGGER.info("Downloaded extension.");
+                LOGGER.info("Try to register unpacked extension. Path: {}", unpackedDirectory.getAbsolutePath());
 
-                verifyHashOrFail(extensionFile, tmpExtension.getOptionalSha256Checksum());
+                unpackedDirectoryPaths.add(unpackedDirectory.getAbsolutePath());
             }
+            else {
+                LOGGER.info("Try to register extension. Path: {}", extensionFile.getAbsolutePath());
 
-            LOGGER.info("Try to register extension. Path: {}", extensionFile.getAbsolutePath());
-
-            c4jChromeOptions.getChromeOptions().addExtensions(extensionFile);
-        }
-    }
-
-    private static void verifyHashOrFail(File extensionFile, String expectedChecksum) throws Exception {
-        if(expectedChecksum != null && !expectedChecksum.isBlank()) {
-            LOGGER.info("Check the SHA-256 checksum of the downloaded extension.");
-
-            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-
-            //Update the digest by using an input stream.
-
-            try(FileInputStream fileInputStream = new FileInputStream(extensionFile)) {
-                byte[] buffer = new byte[8192];
-
-                int bytesRead;
-
-                while((bytesRead = fileInputStream.read(buffer, 0, buffer.length)) != -1) {
-                    messageDigest.update(buffer, 0, bytesRead);
-                }
+                chromeOptions.addExtensions(extensionFile);
             }
+        }
 
-            byte[] digestBytes = messageDigest.digest();
-
-            String sha256Checksum = String.format("%0" + (digestBytes.length << 1) + "X",
-                    new BigInteger(1, digestBytes));
-
-            LOGGER.info("Expected hash: {} Actual hash: {}", expectedChecksum, sha256Checksum);
+        if(!unpackedDirectoryPaths.isEmpty()) {
+            //Newer builds ignore "--load-extension", unless the corresponding feature is disabled. The feature is
+            //merged with the features disabled by the options.
 
-            if(!sha256Checksum.equalsIgnoreCase(expectedChecksum))
-                throw new Exception("Invalid SHA-256 checksum for the downloaded extension.");
+            chromeOptions.addArguments("--load-extension=" + String.join(",", unpackedDirectoryPaths));
 
-            LOGGER.info("SHA-256 checksum is valid.");
+            C4jChromeOptions.addDisabledFeatures(chromeOptions, "DisableLoadExtensionCommandLineSwitch");
         }
     }
 }
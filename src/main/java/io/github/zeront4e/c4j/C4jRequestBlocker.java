@@ -0,0 +1,418 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class to block requests at the network layer (see {@link C4jRemoteChromium#enableRequestBlocking}). The rules are
+ * compiled to a matcher: Blocked hosts are stored in a domain trie (a host matches itself and all of its subdomains)
+ * and blocked URL substrings are searched with an Aho-Corasick automaton in a single pass over the URL. Blocked
+ * resource types are compared first. The matching doesn't allocate any objects and every rule counts its hits. The
+ * blocker is thread-safe and can be shared by several instances.
+ */
+public class C4jRequestBlocker {
+    /**
+     * The resource types of requests (named after the DevTools resource types).
+     */
+    public enum ResourceType {
+        DOCUMENT("Document"),
+        STYLESHEET("Stylesheet"),
+        IMAGE("Image"),
+        MEDIA("Media"),
+        FONT("Font"),
+        SCRIPT("Script"),
+        TEXT_TRACK("TextTrack"),
+        XHR("XHR"),
+        FETCH("Fetch"),
+        EVENT_SOURCE("EventSource"),
+        WEB_SOCKET("WebSocket"),
+        MANIFEST("Manifest"),
+        PING("Ping"),
+        OTHER("Other");
+
+        private final String devToolsName;
+
+        ResourceType(String devToolsName) {
+            this.devToolsName = devToolsName;
+        }
+
+        /**
+         * Returns the name of the resource type in the DevTools protocol.
+         * @return The DevTools name.
+         */
+        public String getDevToolsName() {
+            return devToolsName;
+        }
+    }
+
+    /**
+     * Represents the statistics of a blocker.
+     * @param blockedRequests The number of blocked requests.
+     * @param allowedRequests The number of allowed requests.
+     * @param ruleHits The number of blocked requests per rule (only rules with hits, in the order of the rules).
+     */
+    public record BlockingStatistics(long blockedRequests, long allowedRequests, Map<String, Long> ruleHits) {
+
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(C4jRequestBlocker.class);
+
+    private static final String HOST_RULE_PREFIX = "host:";
+    private static final String SUBSTRING_RULE_PREFIX = "substring:";
+    private static final String RESOURCE_TYPE_RULE_PREFIX = "type:";
+
+    //Internal data.
+
+    private final List<String> rules;
+    private final ResourceType[] resourceTypes;
+    private final int[] resourceTypeRuleIndexes;
+    private final DomainTrie domainTrie;
+    private final AhoCorasickAutomaton substringAutomaton;
+
+    private final AtomicLongArray ruleHits;
+    private final LongAdder allowedRequests = new LongAdder();
+
+    private C4jRequestBlocker(List<String> rules, ResourceType[] resourceTypes, int[] resourceTypeRuleIndexes,
+                              DomainTrie domainTrie, AhoCorasickAutomaton substringAutomaton) {
+        this.rules = rules;
+        this.resourceTypes = resourceTypes;
+        this.resourceTypeRuleIndexes = resourceTypeRuleIndexes;
+        this.domainTrie = domainTrie;
+        this.substringAutomaton = substringAutomaton;
+
+        ruleHits = new AtomicLongArray(rules.size());
+    }
+
+    /**
+     * Returns true, if the given request should be blocked. The hit of the matching rule (or the allowed request) is
+     * counted.
+     * @param url The URL of the request.
+     * @param devToolsResourceType The DevTools resource type of the request (e.g. "Image") or null, if it's unknown.
+     * @return True, if the request should be blocked.
+     */
+    public boolean shouldBlock(String url, String devToolsResourceType) {
+        int ruleIndex = findRuleIndex(url, devToolsResourceType);
+
+        if(ruleIndex < 0) {
+            allowedRequests.increment();
+
+            return false;
+        }
+
+        ruleHits.incrementAndGet(ruleIndex);
+
+        return true;
+    }
+
+    /**
+     * Returns the rules of the blocker (the list is read-only).
+     * @return The rules (e.g. "host:example.com", "substring:/ads/" or "type:Image").
+     */
+    public List<String> getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the current statistics of the blocker.
+     * @return The statistics.
+     */
+    public BlockingStatistics getStatistics() {
+        Map<String, Long> hits = new LinkedHashMap<>();
+
+        long blockedRequests = 0;
+
+        for(int i = 0; i < ruleHits.length(); i++) {
+            long ruleHitCount = ruleHits.get(i);
+
+            if(ruleHitCount > 0) {
+                hits.put(rules.get(i), ruleHitCount);
+
+                blockedRequests += ruleHitCount;
+            }
+        }
+
+        return new BlockingStatistics(blockedRequests, allowedRequests.sum(), Collections.unmodifiableMap(hits));
+    }
+
+    private int findRuleIndex(String url, String devToolsResourceType) {
+        if(devToolsResourceType != null) {
+            for(int i = 0; i < resourceTypes.length; i++) {
+                if(resourceTypes[i].getDevToolsName().equals(devToolsResourceType))
+                    return resourceTypeRuleIndexes[i];
+            }
+        }
+
+        //Determine the host range of the URL ("scheme://user@host:port/path").
+
+        int schemeEnd = url.indexOf("://");
+
+        if(schemeEnd >= 0) {
+            int hostStart = schemeEnd + 3;
+            int hostEnd = hostStart;
+
+            while(hostEnd < url.length()) {
+                char character = url.charAt(hostEnd);
+
+                if(character == '/' || character == '?' || character == '#')
+                    break;
+
+                if(character == '@')
+                    hostStart = hostEnd + 1;
+
+                hostEnd++;
+            }
+
+            int portStart = url.lastIndexOf(':', hostEnd - 1);
+
+            if(portStart >= hostStart && url.charAt(hostEnd - 1) != ']')
+                hostEnd = portStart;
+
+            int ruleIndex = domainTrie.findRuleIndex(url, hostStart, hostEnd);
+
+            if(ruleIndex >= 0)
+                return ruleIndex;
+        }
+
+        return substringAutomaton.findRuleIndex(url);
+    }
+
+    //Builder.
+
+    public static class Builder {
+        private final Set<String> blockedHosts = new LinkedHashSet<>();
+        private final Set<String> blockedSubstrings = new LinkedHashSet<>();
+        private final Set<ResourceType> blockedResourceTypes = EnumSet.noneOf(ResourceType.class);
+
+        Builder() {
+
+        }
+
+        /**
+         * Blocks the requests to the given host and all of its subdomains.
+         * @param host The host to block (e.g. "ads.example.com").
+         * @return The builder instance.
+         */
+        public Builder addBlockedHost(String host) {
+            String normalizedHost = host.trim().toLowerCase();
+
+            if(normalizedHost.startsWith("*."))
+                normalizedHost = normalizedHost.substring(2);
+
+            if(normalizedHost.startsWith("."))
+                normalizedHost = normalizedHost.substring(1);
+
+            if(normalizedHost.isEmpty())
+                throw new IllegalArgumentException("The host must not be empty.");
+
+            blockedHosts.add(normalizedHost);
+
+            return this;
+        }
+
+        /**
+         * Blocks the requests, whose URL contains the given substring (case-insensitive).
+         * @param urlSubstring The substring to block (e.g. "/ads/").
+         * @return The builder instance.
+         */
+        public Builder addBlockedUrlSubstring(String urlSubstring) {
+            if(urlSubstring.isEmpty())
+                throw new IllegalArgumentException("The URL substring must not be empty.");
+
+            blockedSubstrings.add(urlSubstring.toLowerCase());
+
+            return this;
+        }
+
+        /**
+         * Blocks all requests of the given resource types (e.g. images and media).
+         * @param resourceTypes The resource types to block.
+         * @return The builder instance.
+         */
+        public Builder addBlockedResourceTypes(ResourceType... resourceTypes) {
+            blockedResourceTypes.addAll(List.of(resourceTypes));
+
+            return this;
+        }
+
+        /**
+         * Adds the rules of the given filter list. Supported are hosts files ("0.0.0.0 ads.example.com"), plain
+         * domains, domain anchors ("||ads.example.com^") and URL substrings (e.g. "/banner/"). Comments, element
+         * hiding rules, exceptions ("@@") and rules with options ("$") are skipped, because they can't be applied at
+         * the network layer without further context.
+         * @param filterList The content of the filter list.
+         * @return The builder instance.
+         */
+        public Builder addFilterList(String filterList) {
+            int addedRules = 0;
+            int skippedRules = 0;
+
+            for(String tmpLine : filterList.split("\\R")) {
+                String line = tmpLine.trim();
+
+                if(line.isEmpty() || line.startsWith("#") || line.startsWith("!") || line.startsWith("["))
+                    continue;
+
+                if(line.startsWith("@@") || line.contains("##") || line.contains("#@#") || line.contains("$")) {
+                    skippedRules++;
+
+                    continue;
+                }
+
+                if(addFilterRule(line)) {
+                    addedRules++;
+                }
+                else {
+                    skippedRules++;
+                }
+            }
+
+            LOGGER.info("Added filter list. Rules: {} Skipped rules: {}", addedRules, skippedRules);
+
+            return this;
+        }
+
+        /**
+         * Adds the rules of the given filter list file (see {@link #addFilterList(String)}).
+         * @param filterListFile The filter list file.
+         * @return The builder instance.
+         * @throws Exception An unexpected exception.
+         */
+        public Builder addFilterListOrFail(File filterListFile) throws Exception {
+            return addFilterList(Files.readString(filterListFile.toPath(), StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Compiles the rules to a {@link C4jRequestBlocker} instance.
+         * @return The compiled blocker.
+         */
+        public C4jRequestBlocker build() {
+            long time = System.currentTimeMillis();
+
+            List<String> rules = new ArrayList<>();
+
+            //The rule index of every matcher starts at the offset of its rules.
+
+            ResourceType[] resourceTypes = blockedResourceTypes.toArray(ResourceType[]::new);
+            int[] resourceTypeRuleIndexes = new int[resourceTypes.length];
+
+            for(int i = 0; i < resourceTypes.length; i++) {
+                resourceTypeRuleIndexes[i] = rules.size();
+
+                rules.add(RESOURCE_TYPE_RULE_PREFIX + resourceTypes[i].getDevToolsName());
+            }
+
+            DomainTrie domainTrie = new DomainTrie();
+
+            for(String tmpHost : blockedHosts) {
+                domainTrie.add(tmpHost, rules.size());
+
+                rules.add(HOST_RULE_PREFIX + tmpHost);
+            }
+
+            List<String> substrings = List.copyOf(blockedSubstrings);
+
+            AhoCorasickAutomaton substringAutomaton = AhoCorasickAutomaton.compile(substrings, rules.size());
+
+            substrings.forEach(tmpSubstring -> rules.add(SUBSTRING_RULE_PREFIX + tmpSubstring));
+
+            LOGGER.info("Compiled request blocker in {}ms. Resource types: {} Hosts: {} URL substrings: {}",
+                    System.currentTimeMillis() - time, resourceTypes.length, blockedHosts.size(), substrings.size());
+
+            return new C4jRequestBlocker(Collections.unmodifiableList(rules), resourceTypes,
+                    resourceTypeRuleIndexes, domainTrie, substringAutomaton);
+        }
+
+        private boolean addFilterRule(String line) {
+            String[] tokens = line.split("\\s+");
+
+            //Hosts file entry (e.g. "0.0.0.0 ads.example.com # comment").
+
+            if(tokens.length > 1) {
+                if(!tokens[0].matches("[0-9.:]+") || tokens[1].equals("localhost") ||
+                        tokens[1].matches("[0-9.:]+"))
+                    return false;
+
+                addBlockedHost(tokens[1]);
+
+                return true;
+            }
+
+            //Domain anchor (e.g. "||ads.example.com^").
+
+            if(line.startsWith("||")) {
+                String host = line.substring(2);
+
+                if(host.endsWith("^"))
+                    host = host.substring(0, host.length() - 1);
+
+                if(!isHost(host))
+                    return false;
+
+                addBlockedHost(host);
+
+                return true;
+            }
+
+            //Plain domain (e.g. "ads.example.com").
+
+            if(isHost(line)) {
+                addBlockedHost(line);
+
+                return true;
+            }
+
+            //URL substring (wildcards and anchors at the start and end are removed).
+
+            String substring = line.replaceAll("^[|*]+", "").replaceAll("[|*^]+$", "");
+
+            if(substring.isEmpty() || substring.contains("*") || substring.contains("^"))
+                return false;
+
+            addBlockedUrlSubstring(substring);
+
+            return true;
+        }
+
+        private static boolean isHost(String value) {
+            return value.contains(".") && value.matches("[A-Za-z0-9.-]+") && !value.startsWith(".") &&
+                    !value.endsWith(".");
+        }
+    }
+
+    /**
+     * Creates a new builder without rules.
+     * @return A new {@link Builder} instance.
+     */
+    public static Builder fromBuilder() {
+        return new Builder();
+    }
+}
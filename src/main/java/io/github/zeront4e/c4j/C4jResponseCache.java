@@ -0,0 +1,667 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class to share cacheable HTTP responses between instances (see {@link C4jRemoteChromium#enableResponseCache}). The
+ * responses are stored in a memory tier (evicted in least-recently-used order) and an optional disk tier, which is
+ * shared by all processes of the host. Only responses that a shared cache may store are cached: Successful GET
+ * responses with an explicit freshness lifetime ("Cache-Control: max-age/s-maxage" or "Expires"), which aren't
+ * private, don't set cookies and don't vary (except by the encoding). Responses are served until they are stale
+ * (they aren't revalidated). The cache is thread-safe.
+ */
+public class C4jResponseCache {
+    /**
+     * Represents the statistics of a cache (or of an instance using the cache).
+     * @param hits The number of requests served from the cache.
+     * @param misses The number of cacheable requests that weren't served from the cache.
+     * @param storedResponses The number of stored responses.
+     * @param servedBytes The number of body bytes served from the cache.
+     */
+    public record CacheStatistics(long hits, long misses, long storedResponses, long servedBytes) {
+
+    }
+
+    /**
+     * A cached response.
+     * @param statusCode The status code.
+     * @param headers The response headers (name and value of every header).
+     * @param body The decoded body.
+     * @param expirationTime The time the response becomes stale (epoch milliseconds).
+     */
+    record CachedResponse(int statusCode, List<String[]> headers, byte[] body, long expirationTime) {
+        long size() {
+            long size = body.length;
+
+            for(String[] tmpHeader : headers) {
+                size += tmpHeader[0].length() + tmpHeader[1].length();
+            }
+
+            return size;
+        }
+    }
+
+    /**
+     * The name of the default disk directory (located at the default installation directory).
+     */
+    static final String CACHE_DIRECTORY = "c4j-response-cache";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(C4jResponseCache.class);
+
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    private static final String ENTRY_FILE_SUFFIX = ".entry";
+
+    private static final Set<Integer> CACHEABLE_STATUS_CODES = Set.of(200, 203, 204, 300, 301, 404, 410);
+
+    /**
+     * The headers that aren't stored, because the body is stored decoded and the length is determined when the
+     * response is served.
+     */
+    private static final Set<String> SKIPPED_HEADER_NAMES = Set.of("content-encoding", "content-length",
+            "transfer-encoding", "connection", "keep-alive");
+
+    /**
+     * The disk tier is trimmed after this number of stored responses.
+     */
+    private static final int DISK_TRIM_INTERVAL = 64;
+
+    //Internal data.
+
+    private final long memoryCapacityBytes;
+    private final long maxEntryBytes;
+    private final File diskDirectory;
+    private final long diskCapacityBytes;
+
+    private final LinkedHashMap<String, CachedResponse> memoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder storedResponses = new LongAdder();
+    private final LongAdder servedBytes = new LongAdder();
+
+    private final AtomicLong diskStoresSinceTrim = new AtomicLong();
+
+    //The disk tier is trimmed by one thread at a time. The trim doesn't hold the monitor of the memory tier, so it
+    //never blocks lookups.
+
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    private C4jResponseCache(long memoryCapacityBytes, long maxEntryBytes, File diskDirectory,
+                             long diskCapacityBytes) {
+        this.memoryCapacityBytes = memoryCapacityBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.diskDirectory = diskDirectory;
+        this.diskCapacityBytes = diskCapacityBytes;
+    }
+
+    /**
+     * Returns the statistics of all instances using the cache.
+     * @return The statistics.
+     */
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), storedResponses.sum(), servedBytes.sum());
+    }
+
+    /**
+     * Returns the number of bytes stored in the memory tier.
+     * @return The number of bytes.
+     */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Removes all responses from the memory tier and the disk tier.
+     */
+    public void clear() {
+        synchronized (this) {
+            memoryEntries.clear();
+            memoryBytes = 0;
+        }
+
+        if(diskDirectory != null)
+            FileUtil.deleteDirectoryQuietly(diskDirectory.toPath());
+    }
+
+    /**
+     * Returns the fresh response of the given URL. Stale responses are removed.
+     * @param url The URL of the GET request.
+     * @return The response or null, if no fresh response is cached.
+     */
+    CachedResponse lookupOrNull(String url) {
+        long now = System.currentTimeMillis();
+
+        CachedResponse cachedResponse;
+
+        synchronized (this) {
+            cachedResponse = memoryEntries.get(url);
+
+            if(cachedResponse != null && cachedResponse.expirationTime() <= now) {
+                removeFromMemory(url);
+
+                cachedResponse = null;
+            }
+        }
+
+        if(cachedResponse == null && diskDirectory != null) {
+            cachedResponse = readFromDiskOrNull(url, now);
+
+            if(cachedResponse != null)
+                putInMemory(url, cachedResponse);
+        }
+
+        if(cachedResponse == null) {
+            misses.increment();
+
+            return null;
+        }
+
+        hits.increment();
+        servedBytes.add(cachedResponse.body().length);
+
+        return cachedResponse;
+    }
+
+    /**
+     * Returns true, if a shared cache may store the response with the given status code and headers. Responses
+     * whose Content-Length header exceeds the maximum entry size are rejected, so their body is never requested.
+     * @param statusCode The status code.
+     * @param headers The response headers (name and value of every header).
+     * @return True, if the response is cacheable.
+     */
+    boolean isCacheable(int statusCode, List<String[]> headers) {
+        if(!CACHEABLE_STATUS_CODES.contains(statusCode))
+            return false;
+
+        //The decoded body is never smaller than the transferred (possibly compressed) body.
+
+        for(String[] tmpHeader : headers) {
+            if(tmpHeader[0].equalsIgnoreCase("content-length") && parseLongOrDefault(tmpHeader[1], 0) >
+                    maxEntryBytes) {
+                return false;
+            }
+        }
+
+        return computeExpirationTime(headers, System.currentTimeMillis()) > 0;
+    }
+
+    /**
+     * Stores the given response, if it's cacheable.
+     * @param url The URL of the GET request.
+     * @param statusCode The status code.
+     * @param headers The response headers (name and value of every header).
+     * @param body The decoded body.
+     * @return True, if the response was stored.
+     */
+    boolean storeIfCacheable(String url, int statusCode, List<String[]> headers, byte[] body) {
+        if(!CACHEABLE_STATUS_CODES.contains(statusCode))
+            return false;
+
+        long expirationTime = computeExpirationTime(headers, System.currentTimeMillis());
+
+        if(expirationTime <= 0)
+            return false;
+
+        List<String[]> storedHeaders = new ArrayList<>();
+
+        for(String[] tmpHeader : headers) {
+            if(!SKIPPED_HEADER_NAMES.contains(tmpHeader[0].toLowerCase(Locale.ROOT)))
+                storedHeaders.add(tmpHeader);
+        }
+
+        CachedResponse cachedResponse = new CachedResponse(statusCode, List.copyOf(storedHeaders), body,
+                expirationTime);
+
+        if(cachedResponse.size() > maxEntryBytes)
+            return false;
+
+        putInMemory(url, cachedResponse);
+
+        if(diskDirectory != null)
+            writeToDisk(url, cachedResponse);
+
+        storedResponses.increment();
+
+        return true;
+    }
+
+    /**
+     * Computes the time the response becomes stale.
+     * @return The expiration time (epoch milliseconds) or 0, if the response must not be stored.
+     */
+    private static long computeExpirationTime(List<String[]> headers, long now) {
+        String cacheControl = null;
+        String expires = null;
+        String date = null;
+
+        long age = 0;
+
+        for(String[] tmpHeader : headers) {
+            String name = tmpHeader[0].toLowerCase(Locale.ROOT);
+            String value = tmpHeader[1];
+
+            switch (name) {
+                case "cache-control" -> cacheControl = cacheControl == null ? value : cacheControl + "," + value;
+                case "expires" -> expires = value;
+                case "date" -> date = value;
+                case "age" -> age = parseLongOrDefault(value, 0);
+                case "set-cookie" -> {
+                    return 0;
+                }
+                case "vary" -> {
+                    if(!value.trim().equalsIgnoreCase("accept-encoding"))
+                        return 0;
+                }
+                default -> {
+
+                }
+            }
+        }
+
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+
+        if(cacheControl != null) {
+            for(String tmpDirective : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                String directive = tmpDirective.trim();
+
+                if(directive.equals("no-store") || directive.equals("private") || directive.startsWith("no-cache"))
+                    return 0;
+
+                if(directive.startsWith("max-age="))
+                    maxAge = parseLongOrDefault(directive.substring(8), -1);
+
+                if(directive.startsWith("s-maxage="))
+                    sharedMaxAge = parseLongOrDefault(directive.substring(9), -1);
+            }
+        }
+
+        //A shared cache prefers "s-maxage" over "max-age" over "Expires".
+
+        long lifetimeMillis;
+
+        if(sharedMaxAge >= 0) {
+            lifetimeMillis = (sharedMaxAge - age) * 1000;
+        }
+        else if(maxAge >= 0) {
+            lifetimeMillis = (maxAge - age) * 1000;
+        }
+        else if(expires != null) {
+            long expiresTime = parseHttpDateOrDefault(expires, 0);
+            long dateTime = date == null ? now : parseHttpDateOrDefault(date, now);
+
+            lifetimeMillis = expiresTime - dateTime;
+        }
+        else {
+            return 0;
+        }
+
+        return lifetimeMillis > 0 ? now + lifetimeMillis : 0;
+    }
+
+    private static long parseLongOrDefault(String value, long defaultValue) {
+        try {
+            return Long.parseLong(value.trim().replace("\"", ""));
+        }
+        catch (NumberFormatException numberFormatException) {
+            return defaultValue;
+        }
+    }
+
+    private static long parseHttpDateOrDefault(String value, long defaultValue) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        }
+        catch (Exception exception) {
+            return defaultValue;
+        }
+    }
+
+    private synchronized void putInMemory(String url, CachedResponse cachedResponse) {
+        removeFromMemory(url);
+
+        memoryEntries.put(url, cachedResponse);
+        memoryBytes += cachedResponse.size();
+
+        //Evict the least recently used responses.
+
+        Iterator<Map.Entry<String, CachedResponse>> iterator = memoryEntries.entrySet().iterator();
+
+        while(memoryBytes > memoryCapacityBytes && iterator.hasNext()) {
+            Map.Entry<String, CachedResponse> entry = iterator.next();
+
+            memoryBytes -= entry.getValue().size();
+
+            iterator.remove();
+        }
+    }
+
+    private void removeFromMemory(String url) {
+        CachedResponse removedResponse = memoryEntries.remove(url);
+
+        if(removedResponse != null)
+            memoryBytes -= removedResponse.size();
+    }
+
+    private CachedResponse readFromDiskOrNull(String url, long now) {
+        File entryFile = getEntryFile(url);
+
+        if(!entryFile.isFile())
+            return null;
+
+        try (DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(entryFile)))) {
+            if(dataInputStream.readInt() != FILE_FORMAT_VERSION || !readString(dataInputStream).equals(url))
+                return null;
+
+            long expirationTime = dataInputStream.readLong();
+
+            if(expirationTime > now) {
+                CachedResponse cachedResponse = readResponseOrFail(dataInputStream, expirationTime);
+
+                //The modification time is used to trim the least recently used entries.
+
+                entryFile.setLastModified(now);
+
+                return cachedResponse;
+            }
+        }
+        catch (Exception exception) {
+            LOGGER.debug("Unable to read cached response \"{}\".", entryFile.getAbsolutePath(), exception);
+
+            return null;
+        }
+
+        //The stale entry is deleted after it was closed (open files can't be deleted on some platforms).
+
+        try {
+            Files.deleteIfExists(entryFile.toPath());
+        }
+        catch (IOException ioException) {
+            LOGGER.debug("Unable to delete stale response \"{}\".", entryFile.getAbsolutePath(), ioException);
+        }
+
+        return null;
+    }
+
+    private static CachedResponse readResponseOrFail(DataInputStream dataInputStream,
+                                                     long expirationTime) throws IOException {
+        int statusCode = dataInputStream.readInt();
+
+        int headerCount = dataInputStream.readInt();
+
+        List<String[]> headers = new ArrayList<>(headerCount);
+
+        for(int i = 0; i < headerCount; i++) {
+            headers.add(new String[] {readString(dataInputStream), readString(dataInputStream)});
+        }
+
+        byte[] body = new byte[dataInputStream.readInt()];
+
+        dataInputStream.readFully(body);
+
+        return new CachedResponse(statusCode, List.copyOf(headers), body, expirationTime);
+    }
+
+    private void writeToDisk(String url, CachedResponse cachedResponse) {
+        File entryFile = getEntryFile(url);
+
+        try {
+            Files.createDirectories(entryFile.getParentFile().toPath());
+
+            //The entry is written to a temporary file, so other processes never read partial entries.
+
+            Path temporaryFilePath = Files.createTempFile(entryFile.getParentFile().toPath(), "entry", ".tmp");
+
+            try {
+                try (DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(
+                        new FileOutputStream(temporaryFilePath.toFile())))) {
+                    dataOutputStream.writeInt(FILE_FORMAT_VERSION);
+                    writeString(dataOutputStream, url);
+                    dataOutputStream.writeLong(cachedResponse.expirationTime());
+                    dataOutputStream.writeInt(cachedResponse.statusCode());
+                    dataOutputStream.writeInt(cachedResponse.headers().size());
+
+                    for(String[] tmpHeader : cachedResponse.headers()) {
+                        writeString(dataOutputStream, tmpHeader[0]);
+                        writeString(dataOutputStream, tmpHeader[1]);
+                    }
+
+                    dataOutputStream.writeInt(cachedResponse.body().length);
+                    dataOutputStream.write(cachedResponse.body());
+                }
+
+                Files.move(temporaryFilePath, entryFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temporaryFilePath);
+            }
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to store cached response \"{}\".", entryFile.getAbsolutePath(), exception);
+
+            return;
+        }
+
+        if(diskStoresSinceTrim.incrementAndGet() % DISK_TRIM_INTERVAL == 0)
+            Thread.ofVirtual().name("c4j-response-cache-trim").start(this::trimDisk);
+    }
+
+    /**
+     * Deletes the least recently used entries of the disk tier, until the disk tier fits its capacity. The call is
+     * skipped, if another thread is trimming the disk tier already.
+     */
+    void trimDisk() {
+        if(!trimming.compareAndSet(false, true))
+            return;
+
+        try {
+            trimDiskEntries();
+        }
+        finally {
+            trimming.set(false);
+        }
+    }
+
+    private void trimDiskEntries() {
+        File[] directories = diskDirectory.listFiles(File::isDirectory);
+
+        if(directories == null)
+            return;
+
+        List<File> entryFiles = new ArrayList<>();
+
+        long totalBytes = 0;
+
+        for(File tmpDirectory : directories) {
+            File[] files = tmpDirectory.listFiles((tmpParent, tmpName) -> tmpName.endsWith(ENTRY_FILE_SUFFIX));
+
+            if(files == null)
+                continue;
+
+            entryFiles.addAll(Arrays.asList(files));
+
+            for(File tmpFile : files) {
+                totalBytes += tmpFile.length();
+            }
+        }
+
+        if(totalBytes <= diskCapacityBytes)
+            return;
+
+        entryFiles.sort(Comparator.comparingLong(File::lastModified));
+
+        int deletedFiles = 0;
+
+        for(File tmpEntryFile : entryFiles) {
+            if(totalBytes <= diskCapacityBytes)
+                break;
+
+            long length = tmpEntryFile.length();
+
+            if(tmpEntryFile.delete()) {
+                totalBytes -= length;
+
+                deletedFiles++;
+            }
+        }
+
+        LOGGER.info("Trimmed response cache \"{}\". Deleted entries: {}", diskDirectory.getAbsolutePath(),
+                deletedFiles);
+    }
+
+    private File getEntryFile(String url) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(FileDownloadUtil.CHECKSUM_ALGORITHM);
+
+            String hash = HexFormat.of().formatHex(messageDigest.digest(url.getBytes(StandardCharsets.UTF_8)));
+
+            //The entries are distributed over subdirectories, so no directory contains too many files.
+
+            return new File(new File(diskDirectory, hash.substring(0, 2)), hash + ENTRY_FILE_SUFFIX);
+        }
+        catch (Exception exception) {
+            throw new IllegalStateException("Unable to hash URL.", exception);
+        }
+    }
+
+    private static void writeString(DataOutputStream dataOutputStream, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        dataOutputStream.writeInt(bytes.length);
+        dataOutputStream.write(bytes);
+    }
+
+    private static String readString(DataInputStream dataInputStream) throws IOException {
+        byte[] bytes = new byte[dataInputStream.readInt()];
+
+        dataInputStream.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //Builder.
+
+    public static class Builder {
+        private long memoryCapacityBytes = 256L * 1024 * 1024;
+        private long maxEntryBytes = 16L * 1024 * 1024;
+        private File diskDirectory = new File(C4jChromiumDownloader.getDefaultInstallationDirectory(),
+                CACHE_DIRECTORY);
+        private long diskCapacityBytes = 1024L * 1024 * 1024;
+
+        Builder() {
+
+        }
+
+        /**
+         * Sets the capacity of the memory tier (default: 256 MiB).
+         * @param memoryCapacityBytes The capacity in bytes.
+         * @return The builder instance.
+         */
+        public Builder setMemoryCapacityBytes(long memoryCapacityBytes) {
+            this.memoryCapacityBytes = memoryCapacityBytes;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum size of a single response (default: 16 MiB). Larger responses aren't stored.
+         * @param maxEntryBytes The maximum size in bytes.
+         * @return The builder instance.
+         */
+        public Builder setMaxEntryBytes(long maxEntryBytes) {
+            this.maxEntryBytes = maxEntryBytes;
+
+            return this;
+        }
+
+        /**
+         * Sets the directory of the disk tier (default: "c4j-response-cache" in the default installation directory).
+         * @param diskDirectory The directory or null, to disable the disk tier.
+         * @return The builder instance.
+         */
+        public Builder setDiskDirectory(File diskDirectory) {
+            this.diskDirectory = diskDirectory;
+
+            return this;
+        }
+
+        /**
+         * Sets the capacity of the disk tier (default: 1 GiB).
+         * @param diskCapacityBytes The capacity in bytes.
+         * @return The builder instance.
+         */
+        public Builder setDiskCapacityBytes(long diskCapacityBytes) {
+            this.diskCapacityBytes = diskCapacityBytes;
+
+            return this;
+        }
+
+        /**
+         * Creates the {@link C4jResponseCache} instance with the configured options.
+         * @return The configured {@link C4jResponseCache} instance.
+         */
+        public C4jResponseCache build() {
+            LOGGER.info("Create response cache. Memory capacity: {} bytes Disk directory: \"{}\"",
+                    memoryCapacityBytes, diskDirectory == null ? "disabled" : diskDirectory.getAbsolutePath());
+
+            return new C4jResponseCache(memoryCapacityBytes, maxEntryBytes, diskDirectory, diskCapacityBytes);
+        }
+    }
+
+    /**
+     * Creates a new builder with the default options.
+     * @return A new {@link Builder} instance.
+     */
+    public static Builder fromBuilder() {
+        return new Builder();
+    }
+}
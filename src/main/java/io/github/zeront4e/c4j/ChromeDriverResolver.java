@@ -0,0 +1,109 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.service.DriverFinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolves the ChromeDriver executable of a Chromium binary (using the driver finder of Selenium, which may download a
+ * matching driver). The resolved driver is remembered per binary, so the driver is only resolved once per JVM.
+ */
+class ChromeDriverResolver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChromeDriverResolver.class);
+
+    private static final Map<String, CompletableFuture<File>> RESOLVED_DRIVERS = new ConcurrentHashMap<>();
+
+    /**
+     * Resolves the driver of the given binary in the background. Concurrent callers share the resolution.
+     * @param chromeBinaryFile The Chromium binary.
+     * @param executor The executor to resolve the driver with.
+     * @return The future of the driver executable.
+     */
+    static CompletableFuture<File> resolveDriverAsync(File chromeBinaryFile, Executor executor) {
+        String binaryPath = chromeBinaryFile.getAbsolutePath();
+
+        CompletableFuture<File> resolvedFuture = RESOLVED_DRIVERS.get(binaryPath);
+
+        //Resolve the driver again, if the previous resolution failed or the driver was deleted.
+
+        if(resolvedFuture != null && (resolvedFuture.isCompletedExceptionally() ||
+                (resolvedFuture.isDone() && !resolvedFuture.join().isFile()))) {
+            RESOLVED_DRIVERS.remove(binaryPath, resolvedFuture);
+
+            resolvedFuture = null;
+        }
+
+        if(resolvedFuture != null)
+            return resolvedFuture;
+
+        CompletableFuture<File> resolutionFuture = new CompletableFuture<>();
+
+        CompletableFuture<File> runningFuture = RESOLVED_DRIVERS.putIfAbsent(binaryPath, resolutionFuture);
+
+        if(runningFuture != null)
+            return runningFuture;
+
+        executor.execute(() -> {
+            try {
+                resolutionFuture.complete(resolveDriverOrFail(chromeBinaryFile));
+            }
+            catch (Exception exception) {
+                RESOLVED_DRIVERS.remove(binaryPath, resolutionFuture);
+
+                resolutionFuture.completeExceptionally(exception);
+            }
+        });
+
+        return resolutionFuture;
+    }
+
+    /**
+     * Resolves the driver of the given binary or fails.
+     * @param chromeBinaryFile The Chromium binary.
+     * @return The driver executable.
+     * @throws Exception An unexpected exception.
+     */
+    static File resolveDriverOrFail(File chromeBinaryFile) throws Exception {
+        long time = System.currentTimeMillis();
+
+        //The driver finder detects the version of the given binary, so the driver matches the binary.
+
+        ChromeOptions chromeOptions = new ChromeOptions();
+        chromeOptions.setBinary(chromeBinaryFile);
+
+        DriverFinder driverFinder = new DriverFinder(ChromeDriverService.createDefaultService(), chromeOptions);
+
+        String driverPath = driverFinder.getDriverPath();
+
+        if(driverPath == null)
+            throw new Exception("Unable to resolve ChromeDriver for binary \"" + chromeBinaryFile.getAbsolutePath() +
+                    "\".");
+
+        LOGGER.info("Resolved ChromeDriver \"{}\" in {}ms.", driverPath, System.currentTimeMillis() - time);
+
+        return new File(driverPath);
+    }
+}
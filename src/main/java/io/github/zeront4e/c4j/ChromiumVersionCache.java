@@ -0,0 +1,136 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Persistent cache of the Chromium versions of binaries. The entries are keyed by the absolute path of the binary and
+ * are only valid as long as the size and the modification time of the binary don't change.
+ */
+class ChromiumVersionCache {
+    /**
+     * The name of the cache file (located at the default installation directory).
+     */
+    static final String CACHE_FILE_NAME = "c4j-version-cache.properties";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChromiumVersionCache.class);
+
+    private static final String SEPARATOR = "|";
+
+    private final File cacheFile;
+
+    /**
+     * Creates a new cache that is stored in the given file.
+     * @param cacheFile The file to store the cache in.
+     */
+    ChromiumVersionCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Returns the cache of the default installation directory.
+     * @return The cache.
+     */
+    static ChromiumVersionCache getDefaultCache() {
+        return new ChromiumVersionCache(new File(C4jChromiumDownloader.getDefaultInstallationDirectory(),
+                CACHE_FILE_NAME));
+    }
+
+    /**
+     * Returns the cached version of the given binary or null, if there is no (valid) entry.
+     * @param chromeBinaryFile The binary to get the version of.
+     * @return The cached version or null.
+     */
+    synchronized C4jRemoteChromium.ChromiumVersion getVersionOrNull(File chromeBinaryFile) {
+        if(!chromeBinaryFile.isFile())
+            return null;
+
+        String value = loadProperties().getProperty(chromeBinaryFile.getAbsolutePath());
+
+        if(value == null)
+            return null;
+
+        //The value has the format "size|mtime|version-id|full-version".
+
+        String[] parts = value.split("\\" + SEPARATOR, 4);
+
+        if(parts.length != 4 || !parts[0].equals(String.valueOf(chromeBinaryFile.length())) ||
+                !parts[1].equals(String.valueOf(chromeBinaryFile.lastModified()))) {
+            return null;
+        }
+
+        return new C4jRemoteChromium.ChromiumVersion(parts[2], parts[3]);
+    }
+
+    /**
+     * Stores the version of the given binary. Failures are logged, but not propagated.
+     * @param chromeBinaryFile The binary of the version.
+     * @param chromiumVersion The version to store.
+     */
+    synchronized void putVersion(File chromeBinaryFile, C4jRemoteChromium.ChromiumVersion chromiumVersion) {
+        //Reload the file first, so entries written by other processes are kept.
+
+        Properties properties = loadProperties();
+
+        properties.setProperty(chromeBinaryFile.getAbsolutePath(), chromeBinaryFile.length() + SEPARATOR +
+                chromeBinaryFile.lastModified() + SEPARATOR + chromiumVersion.guessedVersionId() + SEPARATOR +
+                chromiumVersion.fullVersionString());
+
+        File temporaryFile = new File(cacheFile.getParentFile(), CACHE_FILE_NAME + "." + UUID.randomUUID() + ".tmp");
+
+        try {
+            cacheFile.getParentFile().mkdirs();
+
+            try (FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile)) {
+                properties.store(fileOutputStream, "chromium4j version cache");
+            }
+
+            Files.move(temporaryFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to store version cache \"{}\".", cacheFile.getAbsolutePath(), exception);
+
+            temporaryFile.delete();
+        }
+    }
+
+    private Properties loadProperties() {
+        Properties properties = new Properties();
+
+        if(!cacheFile.isFile())
+            return properties;
+
+        try (FileInputStream fileInputStream = new FileInputStream(cacheFile)) {
+            properties.load(fileInputStream);
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to load version cache \"{}\".", cacheFile.getAbsolutePath(), exception);
+        }
+
+        return properties;
+    }
+}
@@ -1,34 +1,55 @@
 package io.github.zeront4e.c4j;
 
-import org.openqa.selenium.By;
 import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Helper class to obtain the Chromium version.
+ * Helper class to obtain the Chromium version. The version is read from a persistent cache first. Otherwise, it is
+ * requested from the running instance (DevTools command "Browser.getVersion") or from the binary itself ("--version")
+ * and stored in the cache afterward. No additional browser is started.
  */
 class ChromiumVersionObtainer {
     private static final Logger LOGGER = LoggerFactory.getLogger(ChromiumVersionObtainer.class);
 
+    private static final Pattern VERSION_ID_PATTERN = Pattern.compile("\\d+(\\.\\d+)+");
+
+    private static final long VERSION_PROCESS_TIMEOUT_SECONDS = 10;
+
     private boolean versionWasObtained = false;
 
     private C4jRemoteChromium.ChromiumVersion chromiumVersion = null;
 
     private final File chromeBinaryFile;
 
-    public ChromiumVersionObtainer(File chromeBinaryFile) {
+    private final ChromeDriver chromeDriver;
+
+    private final ChromiumVersionCache chromiumVersionCache;
+
+    public ChromiumVersionObtainer(File chromeBinaryFile, ChromeDriver chromeDriver) {
+        this(chromeBinaryFile, chromeDriver, ChromiumVersionCache.getDefaultCache());
+    }
+
+    ChromiumVersionObtainer(File chromeBinaryFile, ChromeDriver chromeDriver,
+                            ChromiumVersionCache chromiumVersionCache) {
         this.chromeBinaryFile = chromeBinaryFile;
+        this.chromeDriver = chromeDriver;
+        this.chromiumVersionCache = chromiumVersionCache;
     }
 
     /**
      * Obtains the Chromium version of returns null on a failure.
      * @return The obtained Chromium version, or null if failure occurred.
      */
-    public C4jRemoteChromium.ChromiumVersion obtainChromiumVersionOrNull() {
+    public synchronized C4jRemoteChromium.ChromiumVersion obtainChromiumVersionOrNull() {
         if(!versionWasObtained) {
             versionWasObtained = true;
 
@@ -39,38 +60,103 @@ class ChromiumVersionObtainer {
     }
 
     private C4jRemoteChromium.ChromiumVersion obtainChromiumVersionOrNull(File chromeBinaryFile) {
-        ChromeOptions chromeOptions = C4jChromeOptions.withHeadlessOptions().build().getChromeOptions();
+        C4jRemoteChromium.ChromiumVersion cachedVersion = chromiumVersionCache.getVersionOrNull(chromeBinaryFile);
 
-        chromeOptions.setBinary(chromeBinaryFile);
+        if(cachedVersion != null)
+            return cachedVersion;
 
-        ChromeDriver chromeDriver = new ChromeDriver(chromeOptions);
+        //Ask the running instance first. The binary is only executed, if the instance doesn't provide a version.
+
+        C4jRemoteChromium.ChromiumVersion obtainedVersion = obtainDevToolsVersionOrNull();
+
+        if(obtainedVersion == null)
+            obtainedVersion = obtainProcessVersionOrNull(chromeBinaryFile);
+
+        if(obtainedVersion == null) {
+            LOGGER.warn("Unable to obtain Chromium version. Binary: {}", chromeBinaryFile.getAbsolutePath());
+
+            return null;
+        }
+
+        chromiumVersionCache.putVersion(chromeBinaryFile, obtainedVersion);
+
+        return obtainedVersion;
+    }
+
+    private C4jRemoteChromium.ChromiumVersion obtainDevToolsVersionOrNull() {
+        if(chromeDriver == null)
+            return null;
 
         try {
-            //Navigate to the internal Chromium version page.
+            //The product has the format "Chrome/<version>" (or "HeadlessChrome/<version>").
 
-            chromeDriver.get("chrome://version/");
+            Map<String, Object> result = chromeDriver.executeCdpCommand("Browser.getVersion", Map.of());
 
-            //Extract the version and build details.
+            Object product = result.get("product");
 
-            String fullVersion = chromeDriver.findElement(By.id("version")).getText();
+            if(product == null)
+                return null;
 
-            //Try to obtain the pure version ID, if present.
+            String versionId = parseVersionIdOrNull(product.toString());
 
-            String versionId;
+            if(versionId == null)
+                return null;
 
-            if(fullVersion.contains(" ")) {
-                versionId = fullVersion.substring(0, fullVersion.indexOf(" "));
-            }
-            else {
-                versionId = fullVersion;
-            }
+            Object revision = result.get("revision");
+
+            String fullVersion = revision == null ? versionId : versionId + " (" + revision + ")";
 
             return new C4jRemoteChromium.ChromiumVersion(versionId, fullVersion);
         }
         catch (Exception exception) {
-            LOGGER.warn("Unable to obtain Chromium version.", exception);
+            LOGGER.warn("Unable to obtain Chromium version of the running instance.", exception);
         }
 
         return null;
     }
+
+    private static C4jRemoteChromium.ChromiumVersion obtainProcessVersionOrNull(File chromeBinaryFile) {
+        File outputFile = null;
+
+        try {
+            //The output is redirected to a file, so a hanging process can't block the reading thread.
+
+            outputFile = File.createTempFile("c4j-version", ".txt");
+
+            Process process = new ProcessBuilder(chromeBinaryFile.getAbsolutePath(), "--version")
+                    .redirectErrorStream(true).redirectOutput(outputFile).start();
+
+            if(!process.waitFor(VERSION_PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+
+                return null;
+            }
+
+            String output = Files.readString(outputFile.toPath(), StandardCharsets.UTF_8).trim();
+
+            //The output has the format "Chromium <version> <channel>" (Windows binaries print nothing).
+
+            String versionId = parseVersionIdOrNull(output);
+
+            if(versionId == null)
+                return null;
+
+            return new C4jRemoteChromium.ChromiumVersion(versionId, output.substring(output.indexOf(versionId)));
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to obtain Chromium version by executing the binary.", exception);
+        }
+        finally {
+            if(outputFile != null)
+                outputFile.delete();
+        }
+
+        return null;
+    }
+
+    static String parseVersionIdOrNull(String text) {
+        Matcher matcher = VERSION_ID_PATTERN.matcher(text);
+
+        return matcher.find() ? matcher.group() : null;
+    }
 }
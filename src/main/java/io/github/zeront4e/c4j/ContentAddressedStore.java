@@ -0,0 +1,488 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Content-addressed store for extracted files. Every file is stored once as a blob (keyed by its SHA-256 hash) and is
+ * materialized in the installation directories (trees) as a hard link. If hard links aren't supported (e.g. across
+ * file systems), the blob is copied instead. Every tree records the referenced blobs (with the name, CRC-32 and size
+ * of their archive entries), so unreferenced blobs can be removed and unchanged entries of later archives are only
+ * compared with their blob instead of being hashed and written again.
+ */
+class ContentAddressedStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentAddressedStore.class);
+
+    private static final String BLOBS_DIRECTORY = "blobs";
+    private static final String REFERENCES_DIRECTORY = "refs";
+    private static final String TEMPORARY_DIRECTORY = "tmp";
+
+    private static final String REFERENCES_FILE_SUFFIX = ".refs";
+
+    private static final String REFERENCES_FIELD_SEPARATOR = "\t";
+
+    /**
+     * Unreferenced blobs are only deleted, if they weren't modified in this period (they may be used by an ongoing
+     * extraction).
+     */
+    private static final Duration GARBAGE_COLLECTION_GRACE_PERIOD = Duration.ofHours(1);
+
+    private static final int BUFFER_SIZE = 256 * 1024; //Use 256 KiB as buffer size.
+
+    private final Path storeDirectoryPath;
+
+    /**
+     * Creates a new store in the given directory.
+     * @param storeDirectoryPath The directory to store the blobs and references in.
+     */
+    ContentAddressedStore(Path storeDirectoryPath) {
+        this.storeDirectoryPath = storeDirectoryPath.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Opens a tree (installation directory) to materialize blobs in. The references of the tree are recorded when
+     * {@link Tree#commitOrFail()} is called.
+     * @param treeDirectoryPath The directory of the tree.
+     * @return The tree.
+     * @throws IOException An unexpected exception.
+     */
+    Tree openTree(Path treeDirectoryPath) throws IOException {
+        Files.createDirectories(storeDirectoryPath.resolve(BLOBS_DIRECTORY));
+        Files.createDirectories(storeDirectoryPath.resolve(REFERENCES_DIRECTORY));
+        Files.createDirectories(storeDirectoryPath.resolve(TEMPORARY_DIRECTORY));
+
+        return new Tree(treeDirectoryPath.toAbsolutePath().normalize(), readKnownEntries());
+    }
+
+    /**
+     * Deletes the references of trees that don't exist anymore and all blobs that aren't referenced by any tree.
+     * A blob may be deleted while a tree links it (e.g. if the only referencing tree was removed in the meantime).
+     * Trees store or link such blobs again, so they never depend on a blob that was deleted concurrently.
+     */
+    void collectGarbage() {
+        Path blobsDirectoryPath = storeDirectoryPath.resolve(BLOBS_DIRECTORY);
+
+        if(!Files.isDirectory(blobsDirectoryPath))
+            return;
+
+        try {
+            Map<String, Integer> referenceCounts = countReferences();
+
+            Instant minModificationTime = Instant.now().minus(GARBAGE_COLLECTION_GRACE_PERIOD);
+
+            List<Path> blobPaths;
+
+            try (Stream<Path> pathStream = Files.walk(blobsDirectoryPath, 2)) {
+                blobPaths = pathStream.filter(Files::isRegularFile).toList();
+            }
+
+            long deletedBlobs = 0;
+            long deletedBytes = 0;
+
+            for(Path tmpBlobPath : blobPaths) {
+                String hash = tmpBlobPath.getFileName().toString();
+
+                if(referenceCounts.getOrDefault(hash, 0) > 0 || isLinked(tmpBlobPath) ||
+                        Files.getLastModifiedTime(tmpBlobPath).toInstant().isAfter(minModificationTime)) {
+                    continue;
+                }
+
+                long size = Files.size(tmpBlobPath);
+
+                if(Files.deleteIfExists(tmpBlobPath)) {
+                    deletedBlobs++;
+                    deletedBytes += size;
+                }
+            }
+
+            LOGGER.info("Collected unreferenced blobs. Deleted blobs: {} Freed: {} MiB", deletedBlobs,
+                    deletedBytes / (1024 * 1024));
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to collect unreferenced blobs.", exception);
+        }
+    }
+
+    private Map<String, Integer> countReferences() throws IOException {
+        Map<String, Integer> referenceCounts = new HashMap<>();
+
+        List<Path> referencesFilePaths;
+
+        try (Stream<Path> pathStream = Files.list(storeDirectoryPath.resolve(REFERENCES_DIRECTORY))) {
+            referencesFilePaths = pathStream.filter(tmpPath -> tmpPath.getFileName().toString()
+                    .endsWith(REFERENCES_FILE_SUFFIX)).toList();
+        }
+
+        for(Path tmpReferencesFilePath : referencesFilePaths) {
+            List<String> lines = Files.readAllLines(tmpReferencesFilePath, StandardCharsets.UTF_8);
+
+            if(lines.isEmpty() || !Files.isDirectory(Path.of(lines.get(0)))) {
+                LOGGER.info("Delete references of removed tree. References file: {}", tmpReferencesFilePath);
+
+                Files.deleteIfExists(tmpReferencesFilePath);
+
+                continue;
+            }
+
+            for(String tmpLine : lines.subList(1, lines.size())) {
+                referenceCounts.merge(tmpLine.split(REFERENCES_FIELD_SEPARATOR, 2)[0], 1, Integer::sum);
+            }
+        }
+
+        return referenceCounts;
+    }
+
+    /**
+     * Reads the archive entries of all recorded trees (entry key to blob hash).
+     */
+    private Map<String, String> readKnownEntries() throws IOException {
+        Map<String, String> knownEntries = new HashMap<>();
+
+        List<Path> referencesFilePaths;
+
+        try (Stream<Path> pathStream = Files.list(storeDirectoryPath.resolve(REFERENCES_DIRECTORY))) {
+            referencesFilePaths = pathStream.filter(tmpPath -> tmpPath.getFileName().toString()
+                    .endsWith(REFERENCES_FILE_SUFFIX)).toList();
+        }
+
+        for(Path tmpReferencesFilePath : referencesFilePaths) {
+            List<String> lines;
+
+            try {
+                lines = Files.readAllLines(tmpReferencesFilePath, StandardCharsets.UTF_8);
+            }
+            catch (NoSuchFileException noSuchFileException) {
+                //The references were deleted concurrently.
+
+                continue;
+            }
+
+            for(String tmpLine : lines.subList(Math.min(1, lines.size()), lines.size())) {
+                //Every line contains the hash, the CRC-32, the size and the name of the entry.
+
+                String[] fields = tmpLine.split(REFERENCES_FIELD_SEPARATOR, 4);
+
+                if(fields.length == 4)
+                    knownEntries.put(getEntryKey(fields[3], Long.parseLong(fields[1]), Long.parseLong(fields[2])),
+                            fields[0]);
+            }
+        }
+
+        return knownEntries;
+    }
+
+    private static String getEntryKey(String entryName, long crc, long size) {
+        return crc + REFERENCES_FIELD_SEPARATOR + size + REFERENCES_FIELD_SEPARATOR + entryName;
+    }
+
+    private static boolean isLinked(Path blobPath) {
+        //The link count is only available on POSIX file systems. A blob with more than one link is still in use.
+
+        try {
+            Object linkCount = Files.getAttribute(blobPath, "unix:nlink");
+
+            return linkCount instanceof Integer count && count > 1;
+        }
+        catch (Exception exception) {
+            return false;
+        }
+    }
+
+    private Path getBlobPath(String hash) {
+        return storeDirectoryPath.resolve(BLOBS_DIRECTORY).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * A directory that contains materialized blobs.
+     */
+    class Tree {
+        private final Path treeDirectoryPath;
+
+        private final Map<String, String> knownEntries;
+
+        private final Set<String> referencedHashes = ConcurrentHashMap.newKeySet();
+
+        //The materialized archive entries (entry name to blob).
+        private final Map<String, EntryBlob> entryBlobs = new ConcurrentHashMap<>();
+
+        private Tree(Path treeDirectoryPath, Map<String, String> knownEntries) {
+            this.treeDirectoryPath = treeDirectoryPath;
+            this.knownEntries = knownEntries;
+        }
+
+        /**
+         * Materializes an archive entry at the given path. If a previously committed tree contained an entry with the
+         * same name, CRC-32 and size, its blob is linked and the content of the entry is compared with the blob, so
+         * the content isn't hashed, written and stored again (the blob is read instead). A CRC-32 collision never
+         * links a blob with another content: If the content differs, it is stored like
+         * {@link #materializeOrFail(InputStream, Path, String)}. This function is thread-safe.
+         * @param inputStream The stream to read the content of the entry from.
+         * @param targetPath The path to materialize the blob at.
+         * @param entryName The name of the archive entry.
+         * @param crc The CRC-32 of the entry (from the archive) or -1, if it is unknown.
+         * @param size The uncompressed size of the entry (from the archive) or -1, if it is unknown.
+         * @return The number of bytes of the file.
+         * @throws IOException An unexpected exception.
+         */
+        long materializeEntryOrFail(InputStream inputStream, Path targetPath, String entryName, long crc,
+                                    long size) throws IOException {
+            String hash = crc == -1 || size == -1 ? null : knownEntries.get(getEntryKey(entryName, crc, size));
+
+            if(hash == null)
+                return materializeOrFail(inputStream, targetPath, entryName);
+
+            try {
+                linkOrCopyOrFail(getBlobPath(hash), targetPath);
+            }
+            catch (NoSuchFileException noSuchFileException) {
+                //The blob was collected in the meantime.
+
+                return materializeOrFail(inputStream, targetPath, entryName);
+            }
+
+            //The linked file is compared, because it keeps the content, even if the blob is collected concurrently.
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] linkedBuffer = new byte[BUFFER_SIZE];
+
+            long matchedBytes = 0;
+
+            int readBytes;
+
+            try (InputStream linkedInputStream = Files.newInputStream(targetPath)) {
+                while ((readBytes = inputStream.readNBytes(buffer, 0, buffer.length)) > 0) {
+                    int linkedBytes = linkedInputStream.readNBytes(linkedBuffer, 0, readBytes);
+
+                    if(linkedBytes != readBytes || !Arrays.equals(buffer, 0, readBytes, linkedBuffer, 0, readBytes))
+                        break;
+
+                    matchedBytes += readBytes;
+                }
+
+                if(readBytes == 0 && linkedInputStream.read() == -1) {
+                    recordEntry(entryName, hash, crc, size);
+
+                    return matchedBytes;
+                }
+            }
+
+            //The matched bytes are read from the linked file again, because they were neither stored nor buffered.
+
+            LOGGER.warn("The content of entry \"{}\" differs from blob {} with the same CRC-32 and size. Store the " +
+                    "content.", entryName, hash);
+
+            return materializeOrFail(targetPath, matchedBytes, buffer, readBytes, inputStream, targetPath, entryName);
+        }
+
+        /**
+         * Stores the data of the given stream as blob (if there is no blob with the same content yet) and
+         * materializes the blob at the given path. This function is thread-safe.
+         * @param inputStream The stream to read the file content from.
+         * @param targetPath The path to materialize the blob at.
+         * @param entryName The name of the archive entry (recorded with the CRC-32 and size of the content).
+         * @return The number of bytes of the file.
+         * @throws IOException An unexpected exception.
+         */
+        long materializeOrFail(InputStream inputStream, Path targetPath, String entryName) throws IOException {
+            return materializeOrFail(null, 0, null, 0, inputStream, targetPath, entryName);
+        }
+
+        /**
+         * Stores the given prefix of a file, the given pending bytes and the data of the given stream as blob and
+         * materializes the blob at the given path.
+         */
+        private long materializeOrFail(Path prefixPath, long prefixLength, byte[] pendingBytes, int pendingLength,
+                                       InputStream inputStream, Path targetPath,
+                                       String entryName) throws IOException {
+            Path temporaryPath = storeDirectoryPath.resolve(TEMPORARY_DIRECTORY).resolve(UUID.randomUUID().toString());
+
+            MessageDigest messageDigest = createMessageDigest();
+
+            CRC32 crc32 = new CRC32();
+
+            long totalBytes = 0;
+
+            try {
+                try (OutputStream outputStream = Files.newOutputStream(temporaryPath)) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+
+                    if(prefixPath != null) {
+                        try (InputStream prefixInputStream = Files.newInputStream(prefixPath)) {
+                            totalBytes += copyOrFail(prefixInputStream, prefixLength, outputStream, messageDigest,
+                                    crc32, buffer);
+                        }
+                    }
+
+                    if(pendingLength > 0) {
+                        outputStream.write(pendingBytes, 0, pendingLength);
+                        messageDigest.update(pendingBytes, 0, pendingLength);
+                        crc32.update(pendingBytes, 0, pendingLength);
+
+                        totalBytes += pendingLength;
+                    }
+
+                    totalBytes += copyOrFail(inputStream, Long.MAX_VALUE, outputStream, messageDigest, crc32, buffer);
+                }
+
+                String hash = HexFormat.of().formatHex(messageDigest.digest());
+
+                Path blobPath = getBlobPath(hash);
+
+                Files.createDirectories(blobPath.getParent());
+
+                //An existing blob is linked directly. If it is collected before it is linked, the stored content
+                //becomes the blob.
+
+                if(!Files.exists(blobPath))
+                    Files.move(temporaryPath, blobPath, StandardCopyOption.ATOMIC_MOVE);
+
+                try {
+                    linkOrCopyOrFail(blobPath, targetPath);
+                }
+                catch (NoSuchFileException noSuchFileException) {
+                    LOGGER.info("The blob {} was collected concurrently. Store the blob again.", hash);
+
+                    Files.move(temporaryPath, blobPath, StandardCopyOption.ATOMIC_MOVE);
+
+                    linkOrCopyOrFail(blobPath, targetPath);
+                }
+
+                recordEntry(entryName, hash, crc32.getValue(), totalBytes);
+
+                return totalBytes;
+            }
+            finally {
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+
+        /**
+         * Records the blobs referenced by this tree.
+         * @throws IOException An unexpected exception.
+         */
+        void commitOrFail() throws IOException {
+            List<String> lines = new ArrayList<>();
+
+            lines.add(treeDirectoryPath.toString());
+
+            entryBlobs.forEach((tmpEntryName, tmpEntryBlob) -> lines.add(String.join(REFERENCES_FIELD_SEPARATOR,
+                    tmpEntryBlob.hash(), String.valueOf(tmpEntryBlob.crc()), String.valueOf(tmpEntryBlob.size()),
+                    tmpEntryName)));
+
+            //Blobs of entries that can't be recorded (e.g. names with line breaks) are only referenced.
+
+            Set<String> recordedHashes = new HashSet<>();
+
+            entryBlobs.values().forEach(tmpEntryBlob -> recordedHashes.add(tmpEntryBlob.hash()));
+
+            referencedHashes.stream().filter(tmpHash -> !recordedHashes.contains(tmpHash)).forEach(lines::add);
+
+            String referencesFileName = HexFormat.of().formatHex(createMessageDigest()
+                    .digest(treeDirectoryPath.toString().getBytes(StandardCharsets.UTF_8))) + REFERENCES_FILE_SUFFIX;
+
+            Path referencesFilePath = storeDirectoryPath.resolve(REFERENCES_DIRECTORY).resolve(referencesFileName);
+
+            Path temporaryPath = storeDirectoryPath.resolve(TEMPORARY_DIRECTORY).resolve(referencesFileName);
+
+            Files.write(temporaryPath, lines, StandardCharsets.UTF_8);
+
+            Files.move(temporaryPath, referencesFilePath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+            LOGGER.info("Committed tree \"{}\". Referenced blobs: {}", treeDirectoryPath, referencedHashes.size());
+        }
+
+        /**
+         * Copies up to the given number of bytes of the given stream and updates the given checksums.
+         * @return The number of copied bytes.
+         */
+        private static long copyOrFail(InputStream inputStream, long maxBytes, OutputStream outputStream,
+                                       MessageDigest messageDigest, CRC32 crc32, byte[] buffer) throws IOException {
+            long copiedBytes = 0;
+
+            int readBytes;
+
+            while (copiedBytes < maxBytes && (readBytes = inputStream.read(buffer, 0, (int) Math.min(buffer.length,
+                    maxBytes - copiedBytes))) != -1) {
+                outputStream.write(buffer, 0, readBytes);
+                messageDigest.update(buffer, 0, readBytes);
+                crc32.update(buffer, 0, readBytes);
+
+                copiedBytes += readBytes;
+            }
+
+            return copiedBytes;
+        }
+
+        private void recordEntry(String entryName, String hash, long crc, long size) {
+            referencedHashes.add(hash);
+
+            if(entryName.indexOf('\n') == -1 && entryName.indexOf('\r') == -1)
+                entryBlobs.put(entryName, new EntryBlob(hash, crc, size));
+        }
+
+        private static void linkOrCopyOrFail(Path blobPath, Path targetPath) throws IOException {
+            //Existing files are removed first. Writing into them would modify a blob that is linked elsewhere.
+
+            Files.deleteIfExists(targetPath);
+
+            try {
+                Files.createLink(targetPath, blobPath);
+            }
+            catch (UnsupportedOperationException | IOException exception) {
+                Files.copy(blobPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private record EntryBlob(String hash, long crc, long size) {}
+
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw new IllegalStateException("SHA-256 isn't supported.", noSuchAlgorithmException);
+        }
+    }
+}
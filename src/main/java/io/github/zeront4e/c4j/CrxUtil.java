@@ -0,0 +1,366 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Utility class to unpack Chromium extension files (CRX). Unpacked extensions are cached in directories named after
+ * the checksum of their CRX file, so every version of an extension is only unpacked once. The public key of the CRX
+ * header is written to the unpacked manifest, so the unpacked extension keeps the ID of the packed extension.
+ */
+class CrxUtil {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrxUtil.class);
+
+    private static final int CRX_MAGIC_NUMBER = 0x43723234; //"Cr24"
+
+    private static final int ZIP_MAGIC_NUMBER = 0x504B0304; //"PK\3\4"
+
+    private static final int MAX_HEADER_LENGTH = 16 * 1024 * 1024;
+
+    private static final String MANIFEST_FILE_NAME = "manifest.json";
+
+    private static final int EXTENSION_ID_LENGTH = 16;
+
+    //The field numbers of the CRX3 header (see "crx3.proto" of Chromium).
+
+    private static final int CRX_FILE_HEADER_SHA256_WITH_RSA = 2;
+
+    private static final int CRX_FILE_HEADER_SHA256_WITH_ECDSA = 3;
+
+    private static final int CRX_FILE_HEADER_SIGNED_HEADER_DATA = 10000;
+
+    private static final int ASYMMETRIC_KEY_PROOF_PUBLIC_KEY = 1;
+
+    private static final int SIGNED_DATA_CRX_ID = 1;
+
+    private static final int WIRE_TYPE_VARINT = 0;
+
+    private static final int WIRE_TYPE_FIXED64 = 1;
+
+    private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+
+    private static final int WIRE_TYPE_FIXED32 = 5;
+
+    /**
+     * Returns the cached unpacked directory of the given CRX file. The file is unpacked, if it wasn't unpacked yet.
+     * The directory is created atomically, so concurrent callers (of any process) never see a partial directory.
+     * @param crxFile The CRX file.
+     * @param cacheDirectory The directory containing the unpacked extensions.
+     * @param sha256Checksum The SHA-256 checksum of the CRX file (the name of the unpacked directory).
+     * @return The unpacked directory.
+     * @throws Exception An unexpected exception.
+     */
+    static File obtainUnpackedDirectoryOrFail(File crxFile, File cacheDirectory,
+                                              String sha256Checksum) throws Exception {
+        Path unpackedDirectoryPath = cacheDirectory.toPath().resolve(sha256Checksum.toLowerCase());
+
+        if(Files.isDirectory(unpackedDirectoryPath)) {
+            LOGGER.info("The extension \"{}\" is already unpacked (path \"{}\").", crxFile.getName(),
+                    unpackedDirectoryPath);
+
+            return unpackedDirectoryPath.toFile();
+        }
+
+        Files.createDirectories(cacheDirectory.toPath());
+
+        Path temporaryDirectoryPath = Files.createTempDirectory(cacheDirectory.toPath(), sha256Checksum + ".tmp");
+
+        try {
+            long time = System.currentTimeMillis();
+
+            unpackOrFail(crxFile, temporaryDirectoryPath.toFile());
+
+            try {
+                Files.move(temporaryDirectoryPath, unpackedDirectoryPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (FileAlreadyExistsException fileAlreadyExistsException) {
+                LOGGER.info("The extension \"{}\" was unpacked concurrently.", crxFile.getName());
+            }
+            catch (IOException ioException) {
+                //Some platforms report a non-empty target directory instead of an existing file.
+
+                if(!Files.isDirectory(unpackedDirectoryPath))
+                    throw ioException;
+            }
+
+            LOGGER.info("Unpacked extension \"{}\" to \"{}\" in {}ms.", crxFile.getName(), unpackedDirectoryPath,
+                    System.currentTimeMillis() - time);
+
+            return unpackedDirectoryPath.toFile();
+        }
+        finally {
+            FileUtil.deleteDirectoryQuietly(temporaryDirectoryPath);
+        }
+    }
+
+    /**
+     * Unpacks the given CRX file (version 2 or 3) or ZIP file to the given directory. The public key of the CRX header
+     * is written to the "key" field of the manifest (a key of the manifest itself takes precedence).
+     * @param crxFile The CRX file.
+     * @param destinationDirectory The directory to unpack the extension to.
+     * @throws Exception An unexpected exception (e.g. if the file isn't a valid CRX file).
+     */
+    static void unpackOrFail(File crxFile, File destinationDirectory) throws Exception {
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(crxFile))) {
+            byte[] publicKey = readHeaderOrFail(inputStream, crxFile);
+
+            ZipUtil.ExtractionResult extractionResult = ZipUtil.unzip(inputStream, destinationDirectory);
+
+            if(extractionResult.fileCount() == 0)
+                throw new Exception("The extension file \"" + crxFile.getName() + "\" doesn't contain any files.");
+
+            if(publicKey != null)
+                addManifestKeyOrFail(new File(destinationDirectory, MANIFEST_FILE_NAME), publicKey);
+        }
+    }
+
+    /**
+     * Reads the CRX header of the given stream, so the stream is positioned at the start of the ZIP data.
+     * @param inputStream The stream of the CRX file (must support marks).
+     * @param crxFile The CRX file (used for error messages).
+     * @return The public key the extension ID is derived from or null, if the file is a plain ZIP file or the header
+     * contains no suitable key.
+     * @throws Exception An unexpected exception (e.g. if the file isn't a valid CRX file).
+     */
+    static byte[] readHeaderOrFail(InputStream inputStream, File crxFile) throws Exception {
+        inputStream.mark(4);
+
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+
+        int magicNumber = dataInputStream.readInt();
+
+        if(magicNumber == ZIP_MAGIC_NUMBER) {
+            //The extension is a plain ZIP file.
+
+            inputStream.reset();
+
+            return null;
+        }
+
+        if(magicNumber != CRX_MAGIC_NUMBER)
+            throw new Exception("The extension file \"" + crxFile.getName() + "\" isn't a CRX file.");
+
+        //The header fields are stored in little-endian byte order.
+
+        int version = Integer.reverseBytes(dataInputStream.readInt());
+
+        switch (version) {
+            case 2 -> {
+                //Version 2: public key length, signature length, public key and signature.
+
+                int publicKeyLength = readHeaderLengthOrFail(dataInputStream, crxFile);
+                int signatureLength = readHeaderLengthOrFail(dataInputStream, crxFile);
+
+                byte[] publicKey = dataInputStream.readNBytes(publicKeyLength);
+
+                if(publicKey.length != publicKeyLength)
+                    throw new Exception("The header of the extension file \"" + crxFile.getName() + "\" is truncated.");
+
+                dataInputStream.skipNBytes(signatureLength);
+
+                return publicKey;
+            }
+            case 3 -> {
+                //Version 3: header length and header (protocol buffer).
+
+                int headerLength = readHeaderLengthOrFail(dataInputStream, crxFile);
+
+                byte[] header = dataInputStream.readNBytes(headerLength);
+
+                if(header.length != headerLength)
+                    throw new Exception("The header of the extension file \"" + crxFile.getName() + "\" is truncated.");
+
+                return getCrx3PublicKeyOrNull(header);
+            }
+            default -> throw new Exception("The CRX version " + version + " of the extension file \"" +
+                    crxFile.getName() + "\" is unsupported.");
+        }
+    }
+
+    /**
+     * Returns the public key of the given CRX3 header, the extension ID is derived from. This is the key whose hash
+     * matches the CRX ID of the signed header data (or the first RSA key, if the header contains no CRX ID).
+     * @param header The CRX3 header (a "CrxFileHeader" protocol buffer).
+     * @return The public key or null, if the header contains no suitable key.
+     * @throws Exception An unexpected exception (e.g. if the header is malformed).
+     */
+    static byte[] getCrx3PublicKeyOrNull(byte[] header) throws Exception {
+        List<byte[]> rsaPublicKeys = new ArrayList<>();
+        List<byte[]> publicKeys = new ArrayList<>();
+
+        byte[] crxId = null;
+
+        for(ProtobufField tmpField : readProtobufFieldsOrFail(header)) {
+            if(tmpField.number() == CRX_FILE_HEADER_SHA256_WITH_RSA ||
+                    tmpField.number() == CRX_FILE_HEADER_SHA256_WITH_ECDSA) {
+                byte[] publicKey = getFieldValueOrNull(tmpField.value(), ASYMMETRIC_KEY_PROOF_PUBLIC_KEY);
+
+                if(publicKey == null)
+                    continue;
+
+                publicKeys.add(publicKey);
+
+                if(tmpField.number() == CRX_FILE_HEADER_SHA256_WITH_RSA)
+                    rsaPublicKeys.add(publicKey);
+            }
+            else if(tmpField.number() == CRX_FILE_HEADER_SIGNED_HEADER_DATA) {
+                crxId = getFieldValueOrNull(tmpField.value(), SIGNED_DATA_CRX_ID);
+            }
+        }
+
+        if(crxId != null) {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+
+            for(byte[] tmpPublicKey : publicKeys) {
+                byte[] hash = messageDigest.digest(tmpPublicKey);
+
+                if(Arrays.equals(hash, 0, EXTENSION_ID_LENGTH, crxId, 0, crxId.length))
+                    return tmpPublicKey;
+            }
+        }
+
+        return rsaPublicKeys.isEmpty() ? null : rsaPublicKeys.getFirst();
+    }
+
+    /**
+     * Adds the given public key to the given manifest. The key is added as first field, so a key of the manifest
+     * itself takes precedence (the last occurrence of a duplicate field wins).
+     */
+    private static void addManifestKeyOrFail(File manifestFile, byte[] publicKey) throws Exception {
+        if(!manifestFile.isFile()) {
+            LOGGER.warn("The extension directory \"{}\" doesn't contain a manifest. The key isn't added.",
+                    manifestFile.getParent());
+
+            return;
+        }
+
+        String manifest = Files.readString(manifestFile.toPath(), StandardCharsets.UTF_8);
+
+        int objectStartIndex = manifest.indexOf('{');
+
+        if(objectStartIndex == -1)
+            throw new Exception("The manifest \"" + manifestFile.getAbsolutePath() + "\" isn't a JSON object.");
+
+        String keyField = "\"key\": \"" + Base64.getEncoder().encodeToString(publicKey) + "\"";
+
+        //An empty object must not get a trailing comma.
+
+        String remainder = manifest.substring(objectStartIndex + 1);
+
+        String separator = remainder.strip().startsWith("}") ? "" : ",";
+
+        Files.writeString(manifestFile.toPath(), manifest.substring(0, objectStartIndex + 1) + keyField +
+                separator + remainder, StandardCharsets.UTF_8);
+    }
+
+    private static int readHeaderLengthOrFail(DataInputStream dataInputStream, File crxFile) throws Exception {
+        long length = Integer.toUnsignedLong(Integer.reverseBytes(dataInputStream.readInt()));
+
+        if(length > MAX_HEADER_LENGTH)
+            throw new Exception("The header of the extension file \"" + crxFile.getName() + "\" is too large.");
+
+        return (int) length;
+    }
+
+    //Protocol buffer parsing (only the wire format, which is sufficient for the CRX3 header).
+
+    private record ProtobufField(int number, byte[] value) {}
+
+    private static byte[] getFieldValueOrNull(byte[] message, int fieldNumber) throws Exception {
+        for(ProtobufField tmpField : readProtobufFieldsOrFail(message)) {
+            if(tmpField.number() == fieldNumber)
+                return tmpField.value();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the length-delimited fields of the given message. Fields of other wire types are skipped.
+     */
+    private static List<ProtobufField> readProtobufFieldsOrFail(byte[] message) throws Exception {
+        List<ProtobufField> fields = new ArrayList<>();
+
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(message);
+
+        while(inputStream.available() > 0) {
+            long tag = readVarintOrFail(inputStream);
+
+            int fieldNumber = (int) (tag >>> 3);
+            int wireType = (int) (tag & 0x7);
+
+            switch (wireType) {
+                case WIRE_TYPE_VARINT -> readVarintOrFail(inputStream);
+                case WIRE_TYPE_FIXED64 -> skipOrFail(inputStream, 8);
+                case WIRE_TYPE_FIXED32 -> skipOrFail(inputStream, 4);
+                case WIRE_TYPE_LENGTH_DELIMITED -> {
+                    long length = readVarintOrFail(inputStream);
+
+                    if(length > inputStream.available())
+                        throw new Exception("The protocol buffer field " + fieldNumber + " is truncated.");
+
+                    fields.add(new ProtobufField(fieldNumber, inputStream.readNBytes((int) length)));
+                }
+                default -> throw new Exception("The protocol buffer wire type " + wireType + " is unsupported.");
+            }
+        }
+
+        return fields;
+    }
+
+    private static long readVarintOrFail(ByteArrayInputStream inputStream) throws Exception {
+        long value = 0;
+
+        for(int shift = 0; shift < 64; shift += 7) {
+            int currentByte = inputStream.read();
+
+            if(currentByte == -1)
+                throw new Exception("The protocol buffer varint is truncated.");
+
+            value |= (long) (currentByte & 0x7F) << shift;
+
+            if((currentByte & 0x80) == 0)
+                return value;
+        }
+
+        throw new Exception("The protocol buffer varint is too long.");
+    }
+
+    private static void skipOrFail(ByteArrayInputStream inputStream, int length) throws Exception {
+        if(inputStream.skip(length) != length)
+            throw new Exception("The protocol buffer field is truncated.");
+    }
+}
@@ -0,0 +1,559 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compiled list of CSS selectors, which is matched against the elements of a {@link C4jDomSnapshot}. The supported
+ * syntax covers type, universal, ID, class and attribute selectors (including all attribute operators and the "i"
+ * flag), the pseudo-classes ":first-child", ":last-child" and ":only-child" and the combinators " ", "&gt;", "+" and
+ * "~". The candidates of a selector are taken from the index of its most selective part (ID, class or tag name) and
+ * are matched from right to left.
+ */
+class CssSelector {
+    private record AttributeCondition(String name, char operator, String value, boolean ignoreCase) {
+
+    }
+
+    private static final class CompoundSelector {
+        private String tagName;
+        private String id;
+        private final List<String> classNames = new ArrayList<>();
+        private final List<AttributeCondition> attributeConditions = new ArrayList<>();
+        private boolean firstChild;
+        private boolean lastChild;
+    }
+
+    /**
+     * A selector of compound selectors and the combinators between them (the combinator at index i is placed between
+     * the compound selectors i and i + 1).
+     */
+    private record ComplexSelector(CompoundSelector[] compoundSelectors, char[] combinators) {
+
+    }
+
+    private final String source;
+
+    private final List<ComplexSelector> complexSelectors;
+
+    private CssSelector(String source, List<ComplexSelector> complexSelectors) {
+        this.source = source;
+        this.complexSelectors = complexSelectors;
+    }
+
+    /**
+     * Compiles the given selector list.
+     * @param selector The selector list (e.g. "div.item &gt; a[href^='https']").
+     * @return The compiled selector.
+     * @throws IllegalArgumentException If the selector is invalid or uses unsupported syntax.
+     */
+    static CssSelector compile(String selector) {
+        return new CssSelector(selector, new Parser(selector).parseSelectorList());
+    }
+
+    /**
+     * Selects the matching elements of the given range of nodes.
+     * @param c4jDomSnapshot The snapshot.
+     * @param rangeStart The first node of the range (inclusive).
+     * @param rangeEnd The last node of the range (exclusive).
+     * @param limit The maximal number of elements to select.
+     * @return The indexes of the matching elements (in document order).
+     */
+    int[] select(C4jDomSnapshot c4jDomSnapshot, int rangeStart, int rangeEnd, int limit) {
+        if(complexSelectors.size() == 1)
+            return selectOrdered(c4jDomSnapshot, complexSelectors.get(0), rangeStart, rangeEnd, limit);
+
+        //The matches of several selectors are merged in document order without duplicates.
+
+        BitSet matches = new BitSet();
+
+        for(ComplexSelector tmpComplexSelector : complexSelectors) {
+            for(int tmpNodeIndex : selectOrdered(c4jDomSnapshot, tmpComplexSelector, rangeStart, rangeEnd, limit)) {
+                matches.set(tmpNodeIndex);
+            }
+        }
+
+        return matches.stream().limit(limit).toArray();
+    }
+
+    /**
+     * Returns true, if the given element matches any selector of the list.
+     * @param c4jDomSnapshot The snapshot.
+     * @param nodeIndex The index of the element.
+     * @return True, if the element matches.
+     */
+    boolean matches(C4jDomSnapshot c4jDomSnapshot, int nodeIndex) {
+        if(!c4jDomSnapshot.isElement(nodeIndex))
+            return false;
+
+        for(ComplexSelector tmpComplexSelector : complexSelectors) {
+            if(matches(c4jDomSnapshot, tmpComplexSelector, tmpComplexSelector.compoundSelectors().length - 1,
+                    nodeIndex))
+                return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static int[] selectOrdered(C4jDomSnapshot c4jDomSnapshot, ComplexSelector complexSelector,
+                                       int rangeStart, int rangeEnd, int limit) {
+        int lastIndex = complexSelector.compoundSelectors().length - 1;
+
+        int[] candidates = getCandidates(c4jDomSnapshot, complexSelector.compoundSelectors()[lastIndex]);
+
+        //The candidates are sorted, so the range is found with a binary search.
+
+        int position = Arrays.binarySearch(candidates, rangeStart);
+
+        if(position < 0)
+            position = -position - 1;
+
+        int[] matches = new int[Math.min(limit, Math.max(0, candidates.length - position))];
+
+        int matchCount = 0;
+
+        for(; position < candidates.length && candidates[position] < rangeEnd && matchCount < limit; position++) {
+            if(matches(c4jDomSnapshot, complexSelector, lastIndex, candidates[position]))
+                matches[matchCount++] = candidates[position];
+        }
+
+        return matchCount == matches.length ? matches : Arrays.copyOf(matches, matchCount);
+    }
+
+    private static int[] getCandidates(C4jDomSnapshot c4jDomSnapshot, CompoundSelector compoundSelector) {
+        if(compoundSelector.id != null)
+            return c4jDomSnapshot.getNodesWithId(compoundSelector.id);
+
+        int[] candidates = null;
+
+        for(String tmpClassName : compoundSelector.classNames) {
+            int[] classCandidates = c4jDomSnapshot.getNodesWithClass(tmpClassName);
+
+            if(candidates == null || classCandidates.length < candidates.length)
+                candidates = classCandidates;
+        }
+
+        if(compoundSelector.tagName != null) {
+            int[] tagCandidates = c4jDomSnapshot.getNodesWithTagName(compoundSelector.tagName);
+
+            if(candidates == null || tagCandidates.length < candidates.length)
+                candidates = tagCandidates;
+        }
+
+        return candidates == null ? c4jDomSnapshot.getElementNodes() : candidates;
+    }
+
+    private static boolean matches(C4jDomSnapshot c4jDomSnapshot, ComplexSelector complexSelector, int index,
+                                   int nodeIndex) {
+        if(!matches(c4jDomSnapshot, complexSelector.compoundSelectors()[index], nodeIndex))
+            return false;
+
+        if(index == 0)
+            return true;
+
+        switch (complexSelector.combinators()[index - 1]) {
+            case '>' -> {
+                int parentIndex = c4jDomSnapshot.getParentElementIndex(nodeIndex);
+
+                return parentIndex != -1 && matches(c4jDomSnapshot, complexSelector, index - 1, parentIndex);
+            }
+            case '+' -> {
+                int siblingIndex = c4jDomSnapshot.getPreviousElementSiblingIndex(nodeIndex);
+
+                return siblingIndex != -1 && matches(c4jDomSnapshot, complexSelector, index - 1, siblingIndex);
+            }
+            case '~' -> {
+                for(int i = c4jDomSnapshot.getPreviousElementSiblingIndex(nodeIndex); i != -1;
+                    i = c4jDomSnapshot.getPreviousElementSiblingIndex(i)) {
+                    if(matches(c4jDomSnapshot, complexSelector, index - 1, i))
+                        return true;
+                }
+
+                return false;
+            }
+            default -> {
+                for(int i = c4jDomSnapshot.getParentElementIndex(nodeIndex); i != -1;
+                    i = c4jDomSnapshot.getParentElementIndex(i)) {
+                    if(matches(c4jDomSnapshot, complexSelector, index - 1, i))
+                        return true;
+                }
+
+                return false;
+            }
+        }
+    }
+
+    private static boolean matches(C4jDomSnapshot c4jDomSnapshot, CompoundSelector compoundSelector,
+                                   int nodeIndex) {
+        if(compoundSelector.tagName != null && !compoundSelector.tagName.equals(
+                c4jDomSnapshot.getTagNameOrNull(nodeIndex)))
+            return false;
+
+        if(compoundSelector.id != null && !compoundSelector.id.equals(c4jDomSnapshot.getIdOrNull(nodeIndex)))
+            return false;
+
+        for(String tmpClassName : compoundSelector.classNames) {
+            if(!c4jDomSnapshot.hasClass(nodeIndex, tmpClassName))
+                return false;
+        }
+
+        for(AttributeCondition tmpAttributeCondition : compoundSelector.attributeConditions) {
+            if(!matches(tmpAttributeCondition, c4jDomSnapshot.getAttributeValueOrNull(nodeIndex,
+                    tmpAttributeCondition.name())))
+                return false;
+        }
+
+        if(compoundSelector.firstChild && c4jDomSnapshot.getPreviousElementSiblingIndex(nodeIndex) != -1)
+            return false;
+
+        return !compoundSelector.lastChild || c4jDomSnapshot.getNextElementSiblingIndex(nodeIndex) == -1;
+    }
+
+    private static boolean matches(AttributeCondition attributeCondition, String attributeValue) {
+        if(attributeValue == null)
+            return false;
+
+        if(attributeCondition.operator() == 0)
+            return true;
+
+        String value = attributeCondition.value();
+
+        if(attributeCondition.ignoreCase()) {
+            attributeValue = attributeValue.toLowerCase(Locale.ROOT);
+            value = value.toLowerCase(Locale.ROOT);
+        }
+
+        return switch (attributeCondition.operator()) {
+            case '=' -> attributeValue.equals(value);
+            case '~' -> !value.isEmpty() && !containsWhitespace(value) &&
+                    Arrays.asList(attributeValue.trim().split("\\s+")).contains(value);
+            case '|' -> attributeValue.equals(value) || attributeValue.startsWith(value + "-");
+            case '^' -> !value.isEmpty() && attributeValue.startsWith(value);
+            case '$' -> !value.isEmpty() && attributeValue.endsWith(value);
+            default -> !value.isEmpty() && attributeValue.contains(value);
+        };
+    }
+
+    private static boolean containsWhitespace(String value) {
+        for(int i = 0; i < value.length(); i++) {
+            if(Character.isWhitespace(value.charAt(i)))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Parser of selector lists (recursive descent).
+     */
+    private static final class Parser {
+        private final String text;
+
+        private int position = 0;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private List<ComplexSelector> parseSelectorList() {
+            List<ComplexSelector> complexSelectors = new ArrayList<>();
+
+            do {
+                skipWhitespace();
+
+                complexSelectors.add(parseComplexSelector());
+            }
+            while(consume(','));
+
+            if(position < text.length())
+                throw createException("Unexpected character '" + text.charAt(position) + "'");
+
+            return complexSelectors;
+        }
+
+        private ComplexSelector parseComplexSelector() {
+            List<CompoundSelector> compoundSelectors = new ArrayList<>();
+
+            StringBuilder combinators = new StringBuilder();
+
+            compoundSelectors.add(parseCompoundSelector());
+
+            while(true) {
+                boolean whitespace = skipWhitespace();
+
+                if(position >= text.length() || text.charAt(position) == ',')
+                    break;
+
+                char character = text.charAt(position);
+
+                if(character == '>' || character == '+' || character == '~') {
+                    position++;
+
+                    skipWhitespace();
+
+                    combinators.append(character);
+                }
+                else if(whitespace) {
+                    combinators.append(' ');
+                }
+                else {
+                    throw createException("Unexpected character '" + character + "'");
+                }
+
+                compoundSelectors.add(parseCompoundSelector());
+            }
+
+            return new ComplexSelector(compoundSelectors.toArray(CompoundSelector[]::new),
+                    combinators.toString().toCharArray());
+        }
+
+        private CompoundSelector parseCompoundSelector() {
+            CompoundSelector compoundSelector = new CompoundSelector();
+
+            boolean empty = true;
+
+            if(consume('*')) {
+                empty = false;
+            }
+            else if(position < text.length() && isIdentifierStart(text.charAt(position))) {
+                compoundSelector.tagName = parseIdentifier().toLowerCase(Locale.ROOT);
+
+                empty = false;
+            }
+
+            while(position < text.length()) {
+                char character = text.charAt(position);
+
+                if(character == '#') {
+                    position++;
+
+                    String id = parseIdentifier();
+
+                    //Further IDs are matched as attributes.
+
+                    if(compoundSelector.id == null)
+                        compoundSelector.id = id;
+                    else
+                        compoundSelector.attributeConditions.add(new AttributeCondition("id", '=', id, false));
+                }
+                else if(character == '.') {
+                    position++;
+
+                    compoundSelector.classNames.add(parseIdentifier());
+                }
+                else if(character == '[') {
+                    position++;
+
+                    compoundSelector.attributeConditions.add(parseAttributeCondition());
+                }
+                else if(character == ':') {
+                    position++;
+
+                    String pseudoClass = parseIdentifier().toLowerCase(Locale.ROOT);
+
+                    switch (pseudoClass) {
+                        case "first-child" -> compoundSelector.firstChild = true;
+                        case "last-child" -> compoundSelector.lastChild = true;
+                        case "only-child" -> {
+                            compoundSelector.firstChild = true;
+                            compoundSelector.lastChild = true;
+                        }
+                        default -> throw createException("Unsupported pseudo-class \":" + pseudoClass + "\"");
+                    }
+                }
+                else {
+                    break;
+                }
+
+                empty = false;
+            }
+
+            if(empty)
+                throw createException("Expected selector");
+
+            return compoundSelector;
+        }
+
+        private AttributeCondition parseAttributeCondition() {
+            skipWhitespace();
+
+            String name = parseIdentifier();
+
+            skipWhitespace();
+
+            if(consume(']'))
+                return new AttributeCondition(name, (char) 0, null, false);
+
+            char operator;
+
+            if(consume('=')) {
+                operator = '=';
+            }
+            else if(position + 1 < text.length() && "~|^$*".indexOf(text.charAt(position)) >= 0 &&
+                    text.charAt(position + 1) == '=') {
+                operator = text.charAt(position);
+
+                position += 2;
+            }
+            else {
+                throw createException("Expected attribute operator");
+            }
+
+            skipWhitespace();
+
+            String value = position < text.length() && (text.charAt(position) == '"' ||
+                    text.charAt(position) == '\'') ? parseString() : parseIdentifier();
+
+            skipWhitespace();
+
+            boolean ignoreCase = false;
+
+            if(consume('i') || consume('I')) {
+                ignoreCase = true;
+
+                skipWhitespace();
+            }
+            else if(consume('s') || consume('S')) {
+                skipWhitespace();
+            }
+
+            if(!consume(']'))
+                throw createException("Expected ']'");
+
+            return new AttributeCondition(name, operator, value, ignoreCase);
+        }
+
+        private String parseIdentifier() {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            while(position < text.length()) {
+                char character = text.charAt(position);
+
+                if(character == '\\') {
+                    position++;
+
+                    parseEscape(stringBuilder);
+                }
+                else if(isIdentifierPart(character)) {
+                    stringBuilder.append(character);
+
+                    position++;
+                }
+                else {
+                    break;
+                }
+            }
+
+            if(stringBuilder.isEmpty())
+                throw createException("Expected identifier");
+
+            return stringBuilder.toString();
+        }
+
+        private String parseString() {
+            char quote = text.charAt(position++);
+
+            StringBuilder stringBuilder = new StringBuilder();
+
+            while(position < text.length()) {
+                char character = text.charAt(position++);
+
+                if(character == quote)
+                    return stringBuilder.toString();
+
+                if(character == '\\')
+                    parseEscape(stringBuilder);
+                else
+                    stringBuilder.append(character);
+            }
+
+            throw createException("Unterminated string");
+        }
+
+        /**
+         * Parses the escape sequence after a backslash (a hexadecimal code point or a literal character).
+         */
+        private void parseEscape(StringBuilder stringBuilder) {
+            if(position >= text.length())
+                throw createException("Unterminated escape sequence");
+
+            int end = position;
+
+            while(end < text.length() && end - position < 6 && Character.digit(text.charAt(end), 16) != -1) {
+                end++;
+            }
+
+            if(end == position) {
+                stringBuilder.append(text.charAt(position++));
+
+                return;
+            }
+
+            stringBuilder.appendCodePoint(Integer.parseInt(text, position, end, 16));
+
+            position = end;
+
+            //A single whitespace terminates the code point.
+
+            if(position < text.length() && Character.isWhitespace(text.charAt(position)))
+                position++;
+        }
+
+        private boolean skipWhitespace() {
+            int start = position;
+
+            while(position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+
+            return position > start;
+        }
+
+        private boolean consume(char character) {
+            if(position < text.length() && text.charAt(position) == character) {
+                position++;
+
+                return true;
+            }
+
+            return false;
+        }
+
+        private IllegalArgumentException createException(String reason) {
+            return new IllegalArgumentException(reason + " at position " + position + " of selector \"" + text +
+                    "\".");
+        }
+
+        private static boolean isIdentifierStart(char character) {
+            return Character.isLetter(character) || character == '_' || character == '-' || character == '\\' ||
+                    character >= 0x80;
+        }
+
+        private static boolean isIdentifierPart(char character) {
+            return isIdentifierStart(character) || Character.isDigit(character);
+        }
+    }
+}
@@ -0,0 +1,571 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * Manages the installed revisions of a distribution. Every installation is stored in its own revision directory
+ * (located at the "revisions" directory of the distribution directory). A pointer file selects the current revision
+ * and is replaced atomically, so running instances keep their binary while a new revision is installed.
+ * <p>
+ * Running instances mark their revision as used by holding a shared lock on a lock file next to the revision
+ * directory. Revisions that aren't current and aren't used (by any process) are retired. Installations of previous
+ * versions (without revision directories) are stored directly in the distribution directory. They are tracked and
+ * retired the same way, once the distribution has a current revision.
+ */
+class DistributionRevisions {
+    /**
+     * The name of the directory containing the revision directories.
+     */
+    static final String REVISIONS_DIRECTORY = "revisions";
+
+    /**
+     * The name of the pointer file of the current revision (located at the distribution directory).
+     */
+    static final String CURRENT_FILE_NAME = "current.properties";
+
+    /**
+     * The suffix of revision directories that are being installed.
+     */
+    static final String STAGING_DIRECTORY_SUFFIX = ".staging";
+
+    private static final String CURRENT_REVISION_KEY = "revision";
+
+    /**
+     * The suffix of the usage lock files of revisions (located next to the revision directories).
+     */
+    static final String USAGE_LOCK_FILE_SUFFIX = ".in-use.lock";
+
+    /**
+     * The name of the usage lock file of legacy installations (located at the distribution directory).
+     */
+    private static final String USAGE_LOCK_FILE_NAME = "c4j-in-use.lock";
+
+    /**
+     * The maximum number of resolutions of a binary, whose revision was retired before it could be marked as used.
+     */
+    private static final int MAX_RESOLUTION_ATTEMPTS = 3;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistributionRevisions.class);
+
+    //The usages of the revision directories by the instances of this JVM.
+
+    private static final Map<Path, Usage> USAGES = new HashMap<>();
+
+    private static class Usage {
+        private final FileChannel fileChannel;
+        private final FileLock fileLock;
+
+        private int referenceCount = 0;
+
+        private Usage(FileChannel fileChannel, FileLock fileLock) {
+            this.fileChannel = fileChannel;
+            this.fileLock = fileLock;
+        }
+    }
+
+    /**
+     * The usage of a revision (or a legacy installation) by an instance. The usage has to be released, if the
+     * instance was quit.
+     */
+    static class RevisionUsage {
+        private final Path revisionDirectoryPath;
+
+        private boolean released = false;
+
+        private RevisionUsage(Path revisionDirectoryPath) {
+            this.revisionDirectoryPath = revisionDirectoryPath;
+        }
+
+        /**
+         * Releases the usage and retires the revision, if it was replaced and isn't used anymore.
+         */
+        void release() {
+            synchronized (this) {
+                if(released)
+                    return;
+
+                released = true;
+            }
+
+            releaseUsage(revisionDirectoryPath);
+
+            retireUnusedRevisions(getDistributionDirectoryPath(revisionDirectoryPath));
+        }
+    }
+
+    /**
+     * A resolved binary and the usage of its revision.
+     * @param binaryFile The binary.
+     * @param revisionUsage The usage of the revision or null, if the binary isn't located in a distribution
+     *                      directory.
+     */
+    record ResolvedBinary(File binaryFile, RevisionUsage revisionUsage) {
+        /**
+         * Releases the usage of the revision (if any).
+         */
+        void release() {
+            if(revisionUsage != null)
+                revisionUsage.release();
+        }
+    }
+
+    /**
+     * Returns the directory of the current revision or null, if there is no current revision (e.g. for installations
+     * without revision directories).
+     * @param distributionDirectory The distribution directory.
+     * @return The directory of the current revision or null.
+     */
+    static File getCurrentRevisionDirectoryOrNull(File distributionDirectory) {
+        File currentFile = new File(distributionDirectory, CURRENT_FILE_NAME);
+
+        if(!currentFile.isFile())
+            return null;
+
+        Properties properties = new Properties();
+
+        try (FileInputStream fileInputStream = new FileInputStream(currentFile)) {
+            properties.load(fileInputStream);
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to load current revision \"{}\".", currentFile.getAbsolutePath(), exception);
+
+            return null;
+        }
+
+        String revisionName = properties.getProperty(CURRENT_REVISION_KEY);
+
+        if(revisionName == null)
+            return null;
+
+        File revisionDirectory = new File(new File(distributionDirectory, REVISIONS_DIRECTORY), revisionName);
+
+        return revisionDirectory.isDirectory() ? revisionDirectory : null;
+    }
+
+    /**
+     * Returns the directory of the current revision or the distribution directory itself, if there is no current
+     * revision.
+     * @param distributionDirectory The distribution directory.
+     * @return The installation directory.
+     */
+    static File getInstallationDirectory(File distributionDirectory) {
+        File currentRevisionDirectory = getCurrentRevisionDirectoryOrNull(distributionDirectory);
+
+        return currentRevisionDirectory == null ? distributionDirectory : currentRevisionDirectory;
+    }
+
+    /**
+     * Returns the path of a new revision directory.
+     * @param distributionDirectoryPath The distribution directory.
+     * @return The path of the new revision directory (the directory isn't created).
+     */
+    static Path createRevisionDirectoryPath(Path distributionDirectoryPath) {
+        return distributionDirectoryPath.resolve(REVISIONS_DIRECTORY).resolve(String.valueOf(
+                System.currentTimeMillis()));
+    }
+
+    /**
+     * Deletes the staging directories of the given distribution (e.g. of interrupted installations). This function
+     * must only be called while the installation lock is held.
+     * @param distributionDirectoryPath The distribution directory.
+     */
+    static void deleteStagingDirectories(Path distributionDirectoryPath) {
+        Path revisionsDirectoryPath = distributionDirectoryPath.resolve(REVISIONS_DIRECTORY);
+
+        if(!Files.isDirectory(revisionsDirectoryPath))
+            return;
+
+        try (Stream<Path> pathStream = Files.list(revisionsDirectoryPath)) {
+            pathStream.filter(tmpPath -> tmpPath.getFileName().toString().endsWith(STAGING_DIRECTORY_SUFFIX))
+                    .forEach(FileUtil::deleteDirectoryQuietly);
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to delete staging directories of \"{}\".", distributionDirectoryPath, exception);
+        }
+    }
+
+    /**
+     * Makes the given revision the current revision by replacing the pointer file atomically.
+     * @param revisionDirectoryPath The revision directory.
+     * @throws IOException An unexpected exception.
+     */
+    static void setCurrentRevisionOrFail(Path revisionDirectoryPath) throws IOException {
+        Path distributionDirectoryPath = revisionDirectoryPath.getParent().getParent();
+
+        Properties properties = new Properties();
+        properties.setProperty(CURRENT_REVISION_KEY, revisionDirectoryPath.getFileName().toString());
+
+        Path currentFilePath = distributionDirectoryPath.resolve(CURRENT_FILE_NAME);
+        Path temporaryFilePath = distributionDirectoryPath.resolve(CURRENT_FILE_NAME + ".tmp");
+
+        try (FileOutputStream fileOutputStream = new FileOutputStream(temporaryFilePath.toFile())) {
+            properties.store(fileOutputStream, "chromium4j current revision");
+        }
+
+        Files.move(temporaryFilePath, currentFilePath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        LOGGER.info("Switched current revision to \"{}\".", revisionDirectoryPath);
+    }
+
+    /**
+     * Resolves a binary and marks its revision as used, so the revision isn't retired until the usage is released.
+     * A revision can be retired between the resolution and the acquisition of the usage (e.g. if another process
+     * installed a new revision), so the binary is resolved again in this case. Binaries of legacy installations are
+     * tracked by their distribution directory. Binaries outside distribution directories aren't tracked.
+     * @param binaryResolution The resolution of the binary (e.g. the binary of the current revision).
+     * @return The resolved binary with the usage of its revision.
+     * @throws Exception An unexpected exception (e.g. if the revision can't be marked as used).
+     */
+    static ResolvedBinary resolveBinaryOrFail(Callable<File> binaryResolution) throws Exception {
+        for(int i = 0; i < MAX_RESOLUTION_ATTEMPTS; i++) {
+            File binaryFile = binaryResolution.call();
+
+            if(binaryFile == null)
+                throw new Exception("Unable to resolve Chromium binary.");
+
+            Path revisionDirectoryPath = findInstallationDirectoryOrNull(binaryFile.toPath());
+
+            if(revisionDirectoryPath == null)
+                return new ResolvedBinary(binaryFile, null);
+
+            RevisionUsage revisionUsage = acquireUsageOrNull(revisionDirectoryPath);
+
+            //The revision is retired while the exclusive lock is held, so the binary exists as long as the usage is
+            //held, if it exists now.
+
+            if(revisionUsage != null && binaryFile.isFile())
+                return new ResolvedBinary(binaryFile, revisionUsage);
+
+            if(revisionUsage != null)
+                revisionUsage.release();
+
+            LOGGER.info("The revision \"{}\" was retired before it could be marked as used. Resolve the binary " +
+                    "again.", revisionDirectoryPath);
+        }
+
+        throw new Exception("Unable to mark the revision of the Chromium binary as used. The revision was retired " +
+                MAX_RESOLUTION_ATTEMPTS + " times during the resolution.");
+    }
+
+    /**
+     * Marks the given revision as used.
+     * @return The usage or null, if the revision directory doesn't exist anymore.
+     */
+    private static RevisionUsage acquireUsageOrNull(Path revisionDirectoryPath) throws IOException {
+        synchronized (USAGES) {
+            Usage usage = USAGES.get(revisionDirectoryPath);
+
+            if(usage == null) {
+                //The lock file may outlive a revision that is retired in the meantime. The binary is checked once
+                //the lock is held, so such a lock file is never mistaken for a usage of an existing revision.
+
+                if(!Files.isDirectory(revisionDirectoryPath))
+                    return null;
+
+                FileChannel fileChannel;
+
+                try {
+                    fileChannel = FileChannel.open(getUsageLockFilePath(revisionDirectoryPath),
+                            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+                catch (NoSuchFileException noSuchFileException) {
+                    return null;
+                }
+
+                try {
+                    usage = new Usage(fileChannel, fileChannel.lock(0, Long.MAX_VALUE, true));
+                }
+                catch (IOException | RuntimeException exception) {
+                    fileChannel.close();
+
+                    throw new IOException("Unable to mark revision \"" + revisionDirectoryPath + "\" as used.",
+                            exception);
+                }
+
+                USAGES.put(revisionDirectoryPath, usage);
+            }
+
+            usage.referenceCount++;
+        }
+
+        return new RevisionUsage(revisionDirectoryPath);
+    }
+
+    private static void releaseUsage(Path revisionDirectoryPath) {
+        synchronized (USAGES) {
+            Usage usage = USAGES.get(revisionDirectoryPath);
+
+            if(usage == null || --usage.referenceCount > 0)
+                return;
+
+            USAGES.remove(revisionDirectoryPath);
+
+            try {
+                usage.fileLock.release();
+                usage.fileChannel.close();
+            }
+            catch (Exception exception) {
+                LOGGER.warn("Unable to release usage of revision \"{}\".", revisionDirectoryPath, exception);
+            }
+        }
+    }
+
+    /**
+     * Deletes all revisions of the given distribution that aren't current and aren't used by any process. The files
+     * of a legacy installation (stored directly in the distribution directory) are deleted as well, if they aren't
+     * used. Failures are logged, but not propagated.
+     * @param distributionDirectoryPath The distribution directory.
+     */
+    static void retireUnusedRevisions(Path distributionDirectoryPath) {
+        Path revisionsDirectoryPath = distributionDirectoryPath.resolve(REVISIONS_DIRECTORY);
+
+        if(!Files.isDirectory(revisionsDirectoryPath))
+            return;
+
+        File currentRevisionDirectory = getCurrentRevisionDirectoryOrNull(distributionDirectoryPath.toFile());
+
+        if(currentRevisionDirectory == null)
+            return;
+
+        Path currentRevisionDirectoryPath = currentRevisionDirectory.toPath().toAbsolutePath().normalize();
+
+        List<Path> revisionDirectoryPaths;
+        List<Path> usageLockFilePaths;
+
+        try (Stream<Path> pathStream = Files.list(revisionsDirectoryPath)) {
+            List<Path> paths = pathStream.map(tmpPath -> tmpPath.toAbsolutePath().normalize()).toList();
+
+            revisionDirectoryPaths = paths.stream()
+                    .filter(Files::isDirectory)
+                    .filter(tmpPath -> !tmpPath.equals(currentRevisionDirectoryPath))
+                    .filter(tmpPath -> !tmpPath.getFileName().toString().endsWith(STAGING_DIRECTORY_SUFFIX))
+                    .toList();
+
+            usageLockFilePaths = paths.stream()
+                    .filter(tmpPath -> tmpPath.getFileName().toString().endsWith(USAGE_LOCK_FILE_SUFFIX))
+                    .toList();
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to list revisions of \"{}\".", distributionDirectoryPath, exception);
+
+            return;
+        }
+
+        for(Path tmpRevisionDirectoryPath : revisionDirectoryPaths) {
+            retireRevisionIfUnused(tmpRevisionDirectoryPath);
+        }
+
+        retireLegacyInstallationIfUnused(distributionDirectoryPath.toAbsolutePath().normalize());
+
+        deleteOrphanedUsageLockFiles(usageLockFilePaths);
+    }
+
+    private static void retireRevisionIfUnused(Path revisionDirectoryPath) {
+        synchronized (USAGES) {
+            if(USAGES.containsKey(revisionDirectoryPath))
+                return;
+
+            Path usageLockFilePath = getUsageLockFilePath(revisionDirectoryPath);
+
+            //Other processes hold a shared lock, while they use the revision. The revision is deleted while the
+            //exclusive lock is held, so no process can start to use it in the meantime. The lock file is located
+            //outside the revision directory, so it isn't unlinked (and replaced by a new lock file of another
+            //process) before the deletion is complete.
+
+            if(!lockAndDeleteIfUnused(usageLockFilePath, List.of(revisionDirectoryPath)))
+                return;
+
+            //Delete the lock file once it is closed (it can't be deleted while it is open on some platforms).
+            //Processes that open it afterward don't find the binary anymore and resolve it again.
+
+            try {
+                Files.deleteIfExists(usageLockFilePath);
+            }
+            catch (Exception exception) {
+                LOGGER.warn("Unable to delete usage lock file \"{}\".", usageLockFilePath, exception);
+            }
+        }
+    }
+
+    /**
+     * Deletes the files of a legacy installation, which are stored directly in the distribution directory, if they
+     * aren't used. This function must only be called, if the distribution has a current revision.
+     */
+    private static void retireLegacyInstallationIfUnused(Path distributionDirectoryPath) {
+        List<Path> legacyPaths;
+
+        try (Stream<Path> pathStream = Files.list(distributionDirectoryPath)) {
+            legacyPaths = pathStream.filter(tmpPath -> !isDistributionFile(tmpPath.getFileName().toString()))
+                    .toList();
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to list legacy installation of \"{}\".", distributionDirectoryPath, exception);
+
+            return;
+        }
+
+        if(legacyPaths.isEmpty())
+            return;
+
+        synchronized (USAGES) {
+            if(USAGES.containsKey(distributionDirectoryPath))
+                return;
+
+            //The lock file is located at the distribution directory and is kept, because the distribution directory
+            //isn't deleted.
+
+            lockAndDeleteIfUnused(getUsageLockFilePath(distributionDirectoryPath), legacyPaths);
+        }
+    }
+
+    /**
+     * Deletes the given paths, if the exclusive lock of the given usage lock file can be acquired.
+     * @return True, if the paths were deleted.
+     */
+    private static boolean lockAndDeleteIfUnused(Path usageLockFilePath, List<Path> paths) {
+        try (FileChannel fileChannel = FileChannel.open(usageLockFilePath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock fileLock = fileChannel.tryLock();
+
+            if(fileLock == null)
+                return false;
+
+            for(Path tmpPath : paths) {
+                LOGGER.info("Retire unused installation files \"{}\".", tmpPath);
+
+                FileUtil.deleteDirectoryQuietly(tmpPath);
+            }
+
+            fileLock.release();
+
+            return true;
+        }
+        catch (OverlappingFileLockException overlappingFileLockException) {
+            return false;
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to check usage of \"{}\".", usageLockFilePath, exception);
+
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the usage lock files of revisions that don't exist anymore (e.g. if a process created the lock file
+     * of a revision that was retired concurrently).
+     */
+    private static void deleteOrphanedUsageLockFiles(List<Path> usageLockFilePaths) {
+        for(Path tmpUsageLockFilePath : usageLockFilePaths) {
+            String fileName = tmpUsageLockFilePath.getFileName().toString();
+
+            Path revisionDirectoryPath = tmpUsageLockFilePath.resolveSibling(fileName.substring(0,
+                    fileName.length() - USAGE_LOCK_FILE_SUFFIX.length()));
+
+            if(Files.exists(revisionDirectoryPath))
+                continue;
+
+            try {
+                Files.deleteIfExists(tmpUsageLockFilePath);
+            }
+            catch (Exception exception) {
+                LOGGER.warn("Unable to delete usage lock file \"{}\".", tmpUsageLockFilePath, exception);
+            }
+        }
+    }
+
+    private static boolean isDistributionFile(String fileName) {
+        return fileName.equals(REVISIONS_DIRECTORY) || fileName.equals(CURRENT_FILE_NAME) ||
+                fileName.equals(CURRENT_FILE_NAME + ".tmp") || fileName.equals(USAGE_LOCK_FILE_NAME);
+    }
+
+    /**
+     * Returns the usage lock file of the given revision directory or legacy installation (distribution directory).
+     */
+    private static Path getUsageLockFilePath(Path revisionDirectoryPath) {
+        if(isRevisionDirectory(revisionDirectoryPath)) {
+            return revisionDirectoryPath.resolveSibling(revisionDirectoryPath.getFileName() +
+                    USAGE_LOCK_FILE_SUFFIX);
+        }
+
+        return revisionDirectoryPath.resolve(USAGE_LOCK_FILE_NAME);
+    }
+
+    private static Path getDistributionDirectoryPath(Path revisionDirectoryPath) {
+        return isRevisionDirectory(revisionDirectoryPath) ? revisionDirectoryPath.getParent().getParent() :
+                revisionDirectoryPath;
+    }
+
+    private static boolean isRevisionDirectory(Path path) {
+        Path parentPath = path.getParent();
+
+        return parentPath != null && parentPath.getFileName() != null &&
+                parentPath.getFileName().toString().equals(REVISIONS_DIRECTORY);
+    }
+
+    /**
+     * Returns the revision directory of the given path, the distribution directory, if the path belongs to a legacy
+     * installation (the directory is named after a distribution), or null.
+     */
+    private static Path findInstallationDirectoryOrNull(Path path) {
+        Path currentPath = path.toAbsolutePath().normalize();
+
+        while (currentPath.getParent() != null) {
+            if(isRevisionDirectory(currentPath))
+                return currentPath;
+
+            Path parentPath = currentPath.getParent();
+
+            if(parentPath.getFileName() != null && isDistributionDirectoryName(parentPath.getFileName().toString()))
+                return parentPath;
+
+            currentPath = parentPath;
+        }
+
+        return null;
+    }
+
+    private static boolean isDistributionDirectoryName(String directoryName) {
+        for(C4jOsChromiumDistribution tmpC4jOsChromiumDistribution : C4jOsChromiumDistribution.values()) {
+            if(tmpC4jOsChromiumDistribution.getId().equals(directoryName))
+                return true;
+        }
+
+        return false;
+    }
+}
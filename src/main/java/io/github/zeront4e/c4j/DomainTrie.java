@@ -0,0 +1,108 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import java.util.Arrays;
+
+/**
+ * Trie of domains, which is keyed by the characters of the domains in reverse order. A domain matches the host itself
+ * and all of its subdomains (e.g. "example.com" matches "ads.example.com", but not "badexample.com"). The lookup
+ * doesn't allocate any objects.
+ */
+class DomainTrie {
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int ruleIndex = -1;
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Adds the given domain (case-insensitive).
+     * @param domain The domain to add.
+     * @param ruleIndex The index of the rule, which is returned for matching hosts.
+     */
+    void add(String domain, int ruleIndex) {
+        Node node = root;
+
+        for(int i = domain.length() - 1; i >= 0; i--) {
+            char character = Character.toLowerCase(domain.charAt(i));
+
+            int index = Arrays.binarySearch(node.keys, character);
+
+            if(index < 0) {
+                //Insert the child at its sorted position, so the lookup can use a binary search.
+
+                index = -index - 1;
+
+                Node child = new Node();
+
+                node.keys = insert(node.keys, index, character);
+
+                Node[] children = new Node[node.children.length + 1];
+                System.arraycopy(node.children, 0, children, 0, index);
+                System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+                children[index] = child;
+
+                node.children = children;
+            }
+
+            node = node.children[index];
+        }
+
+        if(node.ruleIndex < 0)
+            node.ruleIndex = ruleIndex;
+    }
+
+    /**
+     * Finds the rule of the given host (the host is a range of the given URL).
+     * @param url The URL containing the host.
+     * @param hostStart The start index of the host (inclusive).
+     * @param hostEnd The end index of the host (exclusive).
+     * @return The index of the rule of the most general matching domain or -1, if no domain matches.
+     */
+    int findRuleIndex(String url, int hostStart, int hostEnd) {
+        Node node = root;
+
+        for(int i = hostEnd - 1; i >= hostStart; i--) {
+            int index = Arrays.binarySearch(node.keys, Character.toLowerCase(url.charAt(i)));
+
+            if(index < 0)
+                return -1;
+
+            node = node.children[index];
+
+            //The domain must end at a label boundary.
+
+            if(node.ruleIndex >= 0 && (i == hostStart || url.charAt(i - 1) == '.'))
+                return node.ruleIndex;
+        }
+
+        return -1;
+    }
+
+    private static char[] insert(char[] keys, int index, char character) {
+        char[] result = new char[keys.length + 1];
+
+        System.arraycopy(keys, 0, result, 0, index);
+        System.arraycopy(keys, index, result, index + 1, keys.length - index);
+
+        result[index] = character;
+
+        return result;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Sidecar journal of a partially downloaded file. The journal stores the validator (ETag or Last-Modified) and the
+ * total length of the remote file and the byte ranges that were already written to disk. This allows to resume an
+ * interrupted download with range requests.
+ */
+class DownloadJournal {
+    /**
+     * Represents a byte range of a file.
+     * @param start The first byte of the range (inclusive).
+     * @param end The last byte of the range (exclusive).
+     */
+    record ByteRange(long start, long end) {
+        /**
+         * Returns the number of bytes of the range.
+         * @return The number of bytes.
+         */
+        long length() {
+            return end - start;
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownloadJournal.class);
+
+    private static final String URL_KEY = "url";
+    private static final String VALIDATOR_KEY = "validator";
+    private static final String CONTENT_LENGTH_KEY = "content-length";
+    private static final String COMPLETED_RANGES_KEY = "completed-ranges";
+
+    private final File journalFile;
+
+    private final String url;
+    private final String validator;
+    private final long contentLength;
+
+    private final List<ByteRange> completedRanges = new ArrayList<>();
+
+    private DownloadJournal(File journalFile, String url, String validator, long contentLength) {
+        this.journalFile = journalFile;
+        this.url = url;
+        this.validator = validator;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Creates a new (empty) journal. The journal isn't written to disk until {@link #storeOrFail()} is called.
+     * @param journalFile The file to store the journal in.
+     * @param url The (resolved) URL of the downloaded file.
+     * @param validator The validator (ETag or Last-Modified) of the downloaded file.
+     * @param contentLength The total length of the downloaded file.
+     * @return The new journal.
+     */
+    static DownloadJournal create(File journalFile, String url, String validator, long contentLength) {
+        return new DownloadJournal(journalFile, url, validator, contentLength);
+    }
+
+    /**
+     * Loads an existing journal or returns null, if there is no (valid) journal.
+     * @param journalFile The file to load the journal from.
+     * @return The loaded journal or null.
+     */
+    static DownloadJournal loadOrNull(File journalFile) {
+        if(!journalFile.isFile())
+            return null;
+
+        Properties properties = new Properties();
+
+        try (FileInputStream fileInputStream = new FileInputStream(journalFile)) {
+            properties.load(fileInputStream);
+
+            DownloadJournal downloadJournal = new DownloadJournal(journalFile, properties.getProperty(URL_KEY),
+                    properties.getProperty(VALIDATOR_KEY),
+                    Long.parseLong(properties.getProperty(CONTENT_LENGTH_KEY, "-1")));
+
+            String completedRanges = properties.getProperty(COMPLETED_RANGES_KEY, "");
+
+            for(String tmpRange : completedRanges.split(",")) {
+                if(tmpRange.isBlank())
+                    continue;
+
+                String[] rangeParts = tmpRange.trim().split("-");
+
+                downloadJournal.markCompleted(Long.parseLong(rangeParts[0]), Long.parseLong(rangeParts[1]));
+            }
+
+            return downloadJournal;
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to load download journal \"{}\".", journalFile.getAbsolutePath(), exception);
+
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the journal refers to the given remote file.
+     * @param url The (resolved) URL of the remote file.
+     * @param validator The validator (ETag or Last-Modified) of the remote file.
+     * @param contentLength The total length of the remote file.
+     * @return True if the journal refers to the given remote file.
+     */
+    boolean matches(String url, String validator, long contentLength) {
+        return validator != null && Objects.equals(this.url, url) && Objects.equals(this.validator, validator) &&
+                this.contentLength == contentLength;
+    }
+
+    String getValidator() {
+        return validator;
+    }
+
+    long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Marks the given byte range as completed (written to disk). Overlapping or adjacent ranges are merged.
+     * @param start The first byte of the range (inclusive).
+     * @param end The last byte of the range (exclusive).
+     */
+    synchronized void markCompleted(long start, long end) {
+        if(start < 0 || end > contentLength || start >= end)
+            return;
+
+        long mergedStart = start;
+        long mergedEnd = end;
+
+        List<ByteRange> mergedRanges = new ArrayList<>();
+
+        for(ByteRange tmpRange : completedRanges) {
+            if(tmpRange.end() < mergedStart || tmpRange.start() > mergedEnd) {
+                mergedRanges.add(tmpRange);
+            }
+            else {
+                mergedStart = Math.min(mergedStart, tmpRange.start());
+                mergedEnd = Math.max(mergedEnd, tmpRange.end());
+            }
+        }
+
+        mergedRanges.add(new ByteRange(mergedStart, mergedEnd));
+        mergedRanges.sort((range1, range2) -> Long.compare(range1.start(), range2.start()));
+
+        completedRanges.clear();
+        completedRanges.addAll(mergedRanges);
+    }
+
+    /**
+     * Returns the byte ranges that weren't downloaded yet.
+     * @return The missing byte ranges.
+     */
+    synchronized List<ByteRange> getMissingRanges() {
+        List<ByteRange> missingRanges = new ArrayList<>();
+
+        long position = 0;
+
+        for(ByteRange tmpRange : completedRanges) {
+            if(tmpRange.start() > position)
+                missingRanges.add(new ByteRange(position, tmpRange.start()));
+
+            position = tmpRange.end();
+        }
+
+        if(position < contentLength)
+            missingRanges.add(new ByteRange(position, contentLength));
+
+        return missingRanges;
+    }
+
+    /**
+     * Returns the number of bytes that were already downloaded.
+     * @return The number of completed bytes.
+     */
+    synchronized long getCompletedBytes() {
+        return completedRanges.stream().mapToLong(ByteRange::length).sum();
+    }
+
+    /**
+     * Writes the journal to disk. The journal is written to a temporary file first, which replaces the existing
+     * journal afterward, so an interruption never leaves a corrupted journal.
+     * @throws IOException An unexpected exception.
+     */
+    synchronized void storeOrFail() throws IOException {
+        Properties properties = new Properties();
+
+        properties.setProperty(URL_KEY, url);
+        properties.setProperty(VALIDATOR_KEY, validator);
+        properties.setProperty(CONTENT_LENGTH_KEY, String.valueOf(contentLength));
+
+        StringBuilder completedRangesBuilder = new StringBuilder();
+
+        for(ByteRange tmpRange : completedRanges) {
+            if(!completedRangesBuilder.isEmpty())
+                completedRangesBuilder.append(",");
+
+            completedRangesBuilder.append(tmpRange.start()).append("-").append(tmpRange.end());
+        }
+
+        properties.setProperty(COMPLETED_RANGES_KEY, completedRangesBuilder.toString());
+
+        File temporaryFile = new File(journalFile.getParentFile(), journalFile.getName() + ".tmp");
+
+        try (FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile)) {
+            properties.store(fileOutputStream, "chromium4j download journal");
+
+            fileOutputStream.getFD().sync();
+        }
+
+        Files.move(temporaryFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the journal from disk.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(journalFile.toPath());
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to delete download journal \"{}\".", journalFile.getAbsolutePath(), exception);
+        }
+    }
+}
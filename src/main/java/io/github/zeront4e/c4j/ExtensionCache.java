@@ -0,0 +1,309 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Cache of downloaded extensions, which is shared by all distributions and revisions. Every extension file is stored
+ * once per extension ID and checksum ("&lt;ID&gt;/&lt;SHA-256&gt;.crx"). The checksum of extensions without an expected
+ * checksum is looked up by their download URL in an index file of the extension directory. Missing extensions are
+ * downloaded concurrently and every extension is only downloaded once at a time (per JVM).
+ */
+class ExtensionCache {
+    /**
+     * A cached extension file.
+     * @param c4jExtension The extension.
+     * @param crxFile The cached extension file.
+     * @param sha256Checksum The SHA-256 checksum of the extension file (lowercase hex).
+     */
+    record CachedExtension(C4jExtension c4jExtension, File crxFile, String sha256Checksum) {
+
+    }
+
+    /**
+     * The name of the cache directory (located at the default installation directory).
+     */
+    static final String CACHE_DIRECTORY = "c4j-extensions";
+
+    /**
+     * The name of the directory of the unpacked extensions (located at the cache directory). The name is versioned,
+     * because directories of earlier versions lack the key in their manifest.
+     */
+    static final String UNPACKED_DIRECTORY = "unpacked-v2";
+
+    private static final String INDEX_FILE_NAME = "index.properties";
+
+    private static final String CRX_FILE_SUFFIX = ".crx";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExtensionCache.class);
+
+    private static final Map<String, CompletableFuture<CachedExtension>> RUNNING_DOWNLOADS =
+            new ConcurrentHashMap<>();
+
+    private static final Executor DOWNLOAD_EXECUTOR = runnable -> Thread.ofVirtual()
+            .name("c4j-extension-download")
+            .start(runnable);
+
+    private final File cacheDirectory;
+
+    ExtensionCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Returns the cache of the default installation directory.
+     * @return The default cache.
+     */
+    static ExtensionCache getDefaultCache() {
+        return new ExtensionCache(new File(C4jChromiumDownloader.getDefaultInstallationDirectory(),
+                CACHE_DIRECTORY));
+    }
+
+    /**
+     * Returns the directory of the unpacked extensions.
+     * @return The directory of the unpacked extensions.
+     */
+    File getUnpackedDirectory() {
+        return new File(cacheDirectory, UNPACKED_DIRECTORY);
+    }
+
+    /**
+     * Obtains the given extensions in the background. Missing extensions are downloaded concurrently.
+     * @param c4jExtensions The extensions to obtain.
+     * @param reinstallExtensions Whether to download the extensions, even if they are cached.
+     * @return The future of the cached extensions (in the iteration order of the given extensions).
+     */
+    CompletableFuture<List<CachedExtension>> obtainExtensionsAsync(Collection<C4jExtension> c4jExtensions,
+                                                                   boolean reinstallExtensions) {
+        List<CompletableFuture<CachedExtension>> futures = new ArrayList<>();
+
+        for(C4jExtension tmpExtension : c4jExtensions) {
+            futures.add(obtainExtensionAsync(tmpExtension, reinstallExtensions));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Obtains the given extensions or fails. Missing extensions are downloaded concurrently, so the time is bounded by
+     * the slowest download.
+     * @param c4jExtensions The extensions to obtain.
+     * @param reinstallExtensions Whether to download the extensions, even if they are cached.
+     * @return The cached extensions (in the iteration order of the given extensions).
+     * @throws Exception An unexpected exception.
+     */
+    List<CachedExtension> obtainExtensionsOrFail(Collection<C4jExtension> c4jExtensions,
+                                                 boolean reinstallExtensions) throws Exception {
+        return awaitOrFail(obtainExtensionsAsync(c4jExtensions, reinstallExtensions));
+    }
+
+    /**
+     * Waits for the given future and unwraps the exception of a failed future.
+     * @param future The future to wait for.
+     * @return The result of the future.
+     * @param <T> The type of the result.
+     * @throws Exception The exception of the failed future.
+     */
+    static <T> T awaitOrFail(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+
+            if(cause instanceof CompletionException completionException && completionException.getCause() != null)
+                cause = completionException.getCause();
+
+            if(cause instanceof Exception exception)
+                throw exception;
+
+            throw executionException;
+        }
+    }
+
+    private CompletableFuture<CachedExtension> obtainExtensionAsync(C4jExtension c4jExtension,
+                                                                    boolean reinstallExtensions) {
+        File extensionDirectory = new File(cacheDirectory, toFileName(c4jExtension.getId()));
+
+        if(!reinstallExtensions) {
+            CachedExtension cachedExtension = findCachedExtensionOrNull(c4jExtension, extensionDirectory);
+
+            if(cachedExtension != null) {
+                LOGGER.info("The extension \"{}\" is already cached (path \"{}\"). Skip download.",
+                        c4jExtension.getId(), cachedExtension.crxFile().getAbsolutePath());
+
+                return CompletableFuture.completedFuture(cachedExtension);
+            }
+        }
+
+        //Concurrent requests of the same extension share a single download.
+
+        String downloadKey = extensionDirectory.getAbsolutePath() + "|" + getLookupKey(c4jExtension);
+
+        CompletableFuture<CachedExtension> downloadFuture = new CompletableFuture<>();
+
+        CompletableFuture<CachedExtension> runningFuture = RUNNING_DOWNLOADS.putIfAbsent(downloadKey, downloadFuture);
+
+        if(runningFuture != null) {
+            LOGGER.info("The extension \"{}\" is already being downloaded. Wait for the download.",
+                    c4jExtension.getId());
+
+            return runningFuture;
+        }
+
+        DOWNLOAD_EXECUTOR.execute(() -> {
+            try {
+                downloadFuture.complete(downloadExtensionOrFail(c4jExtension, extensionDirectory));
+            }
+            catch (Exception exception) {
+                downloadFuture.completeExceptionally(exception);
+            }
+            finally {
+                RUNNING_DOWNLOADS.remove(downloadKey, downloadFuture);
+            }
+        });
+
+        return downloadFuture;
+    }
+
+    private CachedExtension findCachedExtensionOrNull(C4jExtension c4jExtension, File extensionDirectory) {
+        String sha256Checksum = getExpectedChecksumOrNull(c4jExtension);
+
+        if(sha256Checksum == null)
+            sha256Checksum = loadIndex(extensionDirectory).getProperty(c4jExtension.getDownloadUrl());
+
+        if(sha256Checksum == null)
+            return null;
+
+        File crxFile = new File(extensionDirectory, sha256Checksum + CRX_FILE_SUFFIX);
+
+        return crxFile.isFile() ? new CachedExtension(c4jExtension, crxFile, sha256Checksum) : null;
+    }
+
+    private CachedExtension downloadExtensionOrFail(C4jExtension c4jExtension,
+                                                    File extensionDirectory) throws Exception {
+        Files.createDirectories(extensionDirectory.toPath());
+
+        LOGGER.info("Try to download extension. Extension ID: \"{}\" Description: \"{}\" Source URL: \"{}\"",
+                c4jExtension.getId(), c4jExtension.getDescription(), c4jExtension.getDownloadUrl());
+
+        //The extension is downloaded to a temporary file, so the cache never contains partial files. The checksum (if
+        //any) is verified while the extension is downloaded.
+
+        Path temporaryFilePath = Files.createTempFile(extensionDirectory.toPath(), "download", ".tmp");
+
+        try {
+            FileDownloadUtil.DownloadResult downloadResult = FileDownloadUtil.downloadFileOrFail(
+                    c4jExtension.getDownloadUrl(), temporaryFilePath.toFile(),
+                    c4jExtension.getOptionalSha256Checksum());
+
+            String sha256Checksum = downloadResult.sha256Checksum();
+
+            Path crxFilePath = extensionDirectory.toPath().resolve(sha256Checksum + CRX_FILE_SUFFIX);
+
+            Files.move(temporaryFilePath, crxFilePath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+            if(getExpectedChecksumOrNull(c4jExtension) == null)
+                storeIndexEntry(extensionDirectory, c4jExtension.getDownloadUrl(), sha256Checksum);
+
+            LOGGER.info("Downloaded extension \"{}\" to \"{}\".", c4jExtension.getId(), crxFilePath);
+
+            return new CachedExtension(c4jExtension, crxFilePath.toFile(), sha256Checksum);
+        }
+        finally {
+            Files.deleteIfExists(temporaryFilePath);
+        }
+    }
+
+    private static Properties loadIndex(File extensionDirectory) {
+        Properties properties = new Properties();
+
+        File indexFile = new File(extensionDirectory, INDEX_FILE_NAME);
+
+        if(!indexFile.isFile())
+            return properties;
+
+        try (FileInputStream fileInputStream = new FileInputStream(indexFile)) {
+            properties.load(fileInputStream);
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to load extension index \"{}\".", indexFile.getAbsolutePath(), exception);
+        }
+
+        return properties;
+    }
+
+    private static synchronized void storeIndexEntry(File extensionDirectory, String downloadUrl,
+                                                     String sha256Checksum) {
+        //Reload the index, so entries of other processes aren't lost.
+
+        Properties properties = loadIndex(extensionDirectory);
+        properties.setProperty(downloadUrl, sha256Checksum);
+
+        Path indexFilePath = extensionDirectory.toPath().resolve(INDEX_FILE_NAME);
+
+        try {
+            Path temporaryFilePath = Files.createTempFile(extensionDirectory.toPath(), INDEX_FILE_NAME, ".tmp");
+
+            try (FileOutputStream fileOutputStream = new FileOutputStream(temporaryFilePath.toFile())) {
+                properties.store(fileOutputStream, "chromium4j extension index");
+            }
+
+            Files.move(temporaryFilePath, indexFilePath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to store extension index \"{}\".", indexFilePath, exception);
+        }
+    }
+
+    private static String getExpectedChecksumOrNull(C4jExtension c4jExtension) {
+        String sha256Checksum = c4jExtension.getOptionalSha256Checksum();
+
+        return sha256Checksum == null || sha256Checksum.isBlank() ? null : sha256Checksum.trim().toLowerCase();
+    }
+
+    private static String getLookupKey(C4jExtension c4jExtension) {
+        String sha256Checksum = getExpectedChecksumOrNull(c4jExtension);
+
+        return sha256Checksum == null ? c4jExtension.getDownloadUrl() : sha256Checksum;
+    }
+
+    private static String toFileName(String extensionId) {
+        return extensionId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
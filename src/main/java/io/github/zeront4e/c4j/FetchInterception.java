@@ -0,0 +1,420 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.SeleniumCdpConnection;
+import org.openqa.selenium.devtools.idealized.Domains;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Intercepts the requests of a DevTools session with the "Fetch" domain. Every paused request is handled on a virtual
+ * thread, because the DevTools events are dispatched on the thread of the connection (which must not wait for
+ * command responses). Requests are blocked with the configured {@link C4jRequestBlocker} first. Cacheable requests
+ * are served from the configured {@link C4jResponseCache} or their responses are intercepted to be stored. All other
+ * requests are continued.
+ * <p>
+ * The DevTools session of the driver is attached to a single tab. Further tabs are intercepted with their own
+ * connection (see {@link #attachToTabOrFail(ChromeDriver, String)}), which shares the blocker, the cache and the
+ * statistics of this interception.
+ */
+class FetchInterception implements AutoCloseable {
+    /**
+     * The configuration and the statistics shared by the interception of the driver session and the interceptions of
+     * further tabs.
+     */
+    private static final class SharedState {
+        private volatile C4jRequestBlocker requestBlocker;
+        private volatile C4jResponseCache responseCache;
+
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder storedResponses = new LongAdder();
+        private final LongAdder servedBytes = new LongAdder();
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FetchInterception.class);
+
+    private static final Event<Map<String, Object>> REQUEST_PAUSED_EVENT = new Event<>("Fetch.requestPaused",
+            tmpJsonInput -> tmpJsonInput.read(Json.MAP_TYPE));
+
+    private static final Executor HANDLER_EXECUTOR = runnable -> Thread.ofVirtual()
+            .name("c4j-fetch-interception")
+            .start(runnable);
+
+    private final DevTools devTools;
+
+    private final SharedState sharedState;
+
+    private final Connection tabConnection;
+
+    /**
+     * Creates a new interception and registers its listener. The listener stays registered for the lifetime of the
+     * DevTools instance (also if the session is reconnected).
+     * @param devTools The DevTools instance.
+     */
+    FetchInterception(DevTools devTools) {
+        this(devTools, new SharedState(), null);
+    }
+
+    private FetchInterception(DevTools devTools, SharedState sharedState, Connection tabConnection) {
+        this.devTools = devTools;
+        this.sharedState = sharedState;
+        this.tabConnection = tabConnection;
+
+        devTools.addListener(REQUEST_PAUSED_EVENT, tmpParameters -> HANDLER_EXECUTOR.execute(() ->
+                handlePausedRequest(tmpParameters)));
+    }
+
+    /**
+     * Intercepts the requests of the given tab with the blocker, the cache and the statistics of this interception.
+     * The tab gets its own DevTools connection, because the session of a connection can only be attached to a single
+     * tab (and the events of a connection don't tell the session they belong to). The interception of the tab ends,
+     * when it is closed.
+     * @param chromeDriver The driver of the tab.
+     * @param windowHandle The window handle of the tab.
+     * @return The interception of the tab.
+     * @throws Exception An unexpected exception (e.g. if the driver doesn't provide a DevTools connection).
+     */
+    FetchInterception attachToTabOrFail(ChromeDriver chromeDriver, String windowHandle) throws Exception {
+        Connection connection = SeleniumCdpConnection.create(chromeDriver)
+                .orElseThrow(() -> new Exception("The driver doesn't provide a DevTools connection."));
+
+        try {
+            //The domains only create the commands to attach the session, so the domains of the driver are reused.
+
+            Domains domains = devTools.getDomains();
+
+            DevTools tabDevTools = new DevTools(tmpDevTools -> domains, connection);
+
+            tabDevTools.createSession(windowHandle);
+
+            FetchInterception tabFetchInterception = new FetchInterception(tabDevTools, sharedState, connection);
+
+            tabFetchInterception.applyToSession();
+
+            return tabFetchInterception;
+        }
+        catch (Exception exception) {
+            connection.close();
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Navigates the tab of this interception (DevTools command "Page.navigate").
+     * @param url The URL to navigate to.
+     */
+    void navigate(String url) {
+        devTools.send(new Command<>("Page.navigate", Map.of("url", url)));
+    }
+
+    /**
+     * Returns the configured blocker.
+     * @return The blocker or null, if no requests are blocked.
+     */
+    C4jRequestBlocker getRequestBlockerOrNull() {
+        return sharedState.requestBlocker;
+    }
+
+    /**
+     * Sets the blocker and enables or disables the interception of the current session.
+     * @param requestBlocker The blocker or null, to stop blocking requests.
+     */
+    void setRequestBlocker(C4jRequestBlocker requestBlocker) {
+        sharedState.requestBlocker = requestBlocker;
+
+        applyToSession();
+    }
+
+    /**
+     * Returns the configured response cache.
+     * @return The response cache or null, if no responses are cached.
+     */
+    C4jResponseCache getResponseCacheOrNull() {
+        return sharedState.responseCache;
+    }
+
+    /**
+     * Sets the response cache and enables or disables the interception of the current session.
+     * @param responseCache The response cache or null, to stop caching responses.
+     */
+    void setResponseCache(C4jResponseCache responseCache) {
+        sharedState.responseCache = responseCache;
+
+        applyToSession();
+    }
+
+    /**
+     * Returns the cache statistics of this interception (the requests of this instance).
+     * @return The statistics.
+     */
+    C4jResponseCache.CacheStatistics getCacheStatistics() {
+        return new C4jResponseCache.CacheStatistics(sharedState.cacheHits.sum(), sharedState.cacheMisses.sum(),
+                sharedState.storedResponses.sum(), sharedState.servedBytes.sum());
+    }
+
+    /**
+     * Returns true, if requests are intercepted.
+     * @return True, if requests are intercepted.
+     */
+    boolean isActive() {
+        return sharedState.requestBlocker != null || sharedState.responseCache != null;
+    }
+
+    /**
+     * Enables the interception of the current session (e.g. after the session was reconnected), if requests are
+     * intercepted. The interception is disabled otherwise.
+     */
+    void applyToSession() {
+        if(!isActive()) {
+            devTools.send(new Command<>("Fetch.disable", Map.of()));
+
+            return;
+        }
+
+        devTools.send(new Command<>("Fetch.enable", Map.of("patterns", List.of(Map.of("urlPattern", "*",
+                "requestStage", "Request")))));
+    }
+
+    /**
+     * Stops the interception without sending any command (e.g. if the session was already detached). The
+     * interceptions of further tabs are stopped as well.
+     */
+    void clear() {
+        sharedState.requestBlocker = null;
+        sharedState.responseCache = null;
+    }
+
+    /**
+     * Closes the connection of a tab interception (see {@link #attachToTabOrFail(ChromeDriver, String)}). The
+     * interception of the driver session isn't affected.
+     */
+    @Override
+    public void close() {
+        if(tabConnection == null)
+            return;
+
+        try {
+            tabConnection.close();
+        }
+        catch (Exception exception) {
+            LOGGER.debug("Unable to close the DevTools connection of a tab.", exception);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handlePausedRequest(Map<String, Object> parameters) {
+        Object requestId = parameters.get("requestId");
+
+        Map<String, Object> request = (Map<String, Object>) parameters.get("request");
+
+        String url = request == null || request.get("url") == null ? null : request.get("url").toString();
+
+        try {
+            //The request is at the response stage, if the response status (or error) is present.
+
+            if(parameters.containsKey("responseStatusCode") || parameters.containsKey("responseErrorReason")) {
+                handlePausedResponse(requestId, url, parameters);
+
+                return;
+            }
+
+            C4jRequestBlocker currentRequestBlocker = sharedState.requestBlocker;
+
+            Object resourceType = parameters.get("resourceType");
+
+            if(currentRequestBlocker != null && url != null &&
+                    currentRequestBlocker.shouldBlock(url, resourceType == null ? null : resourceType.toString())) {
+                devTools.send(new Command<>("Fetch.failRequest", Map.of("requestId", requestId, "errorReason",
+                        "BlockedByClient")));
+
+                return;
+            }
+
+            C4jResponseCache currentResponseCache = sharedState.responseCache;
+
+            if(currentResponseCache != null && url != null && isCacheableRequest(url, request)) {
+                C4jResponseCache.CachedResponse cachedResponse = isRevalidationRequested(request) ? null :
+                        currentResponseCache.lookupOrNull(url);
+
+                if(cachedResponse != null) {
+                    fulfillRequest(requestId, cachedResponse);
+
+                    return;
+                }
+
+                //Intercept the response, so it can be stored.
+
+                sharedState.cacheMisses.increment();
+
+                devTools.send(new Command<>("Fetch.continueRequest", Map.of("requestId", requestId,
+                        "interceptResponse", true)));
+
+                return;
+            }
+
+            devTools.send(new Command<>("Fetch.continueRequest", Map.of("requestId", requestId)));
+        }
+        catch (Exception exception) {
+            LOGGER.debug("Unable to handle paused request \"{}\".", requestId, exception);
+
+            //A paused request is never resumed by the browser itself, so the page would hang until its own timeout.
+
+            continueRequestQuietly(requestId);
+        }
+    }
+
+    /**
+     * Continues the given paused request after its handling failed. Errors are ignored, because the request may have
+     * been canceled or the session was detached in the meantime.
+     * @param requestId The ID of the paused request.
+     */
+    private void continueRequestQuietly(Object requestId) {
+        if(requestId == null)
+            return;
+
+        try {
+            devTools.send(new Command<>("Fetch.continueRequest", Map.of("requestId", requestId)));
+        }
+        catch (Exception exception) {
+            LOGGER.debug("Unable to continue paused request \"{}\".", requestId, exception);
+        }
+    }
+
+    private void handlePausedResponse(Object requestId, String url, Map<String, Object> parameters) {
+        C4jResponseCache currentResponseCache = sharedState.responseCache;
+
+        Object statusCode = parameters.get("responseStatusCode");
+
+        if(currentResponseCache != null && url != null && statusCode instanceof Number statusCodeNumber) {
+            List<String[]> headers = toHeaders(parameters.get("responseHeaders"));
+
+            //The body is only requested, if the response may be stored (e.g. its Content-Length header doesn't
+            //exceed the maximum entry size).
+
+            if(currentResponseCache.isCacheable(statusCodeNumber.intValue(), headers)) {
+                try {
+                    Map<String, Object> result = devTools.send(new Command<>("Fetch.getResponseBody",
+                            Map.of("requestId", requestId), tmpJsonInput -> tmpJsonInput.read(Json.MAP_TYPE)));
+
+                    if(currentResponseCache.storeIfCacheable(url, statusCodeNumber.intValue(), headers,
+                            decodeBody(result)))
+                        sharedState.storedResponses.increment();
+                }
+                catch (Exception exception) {
+                    LOGGER.debug("Unable to store response of request \"{}\".", requestId, exception);
+                }
+            }
+        }
+
+        devTools.send(new Command<>("Fetch.continueRequest", Map.of("requestId", requestId)));
+    }
+
+    private void fulfillRequest(Object requestId, C4jResponseCache.CachedResponse cachedResponse) {
+        List<Map<String, Object>> responseHeaders = new ArrayList<>();
+
+        for(String[] tmpHeader : cachedResponse.headers()) {
+            responseHeaders.add(Map.of("name", tmpHeader[0], "value", tmpHeader[1]));
+        }
+
+        Map<String, Object> fulfillParameters = new LinkedHashMap<>();
+        fulfillParameters.put("requestId", requestId);
+        fulfillParameters.put("responseCode", cachedResponse.statusCode());
+        fulfillParameters.put("responseHeaders", responseHeaders);
+        fulfillParameters.put("body", Base64.getEncoder().encodeToString(cachedResponse.body()));
+
+        devTools.send(new Command<>("Fetch.fulfillRequest", fulfillParameters));
+
+        sharedState.cacheHits.increment();
+        sharedState.servedBytes.add(cachedResponse.body().length);
+    }
+
+    private static boolean isCacheableRequest(String url, Map<String, Object> request) {
+        if(!"GET".equals(request.get("method")) || !(url.startsWith("http://") || url.startsWith("https://")))
+            return false;
+
+        //Responses to authorized requests are specific to the user.
+
+        return getRequestHeaderOrNull(request, "authorization") == null;
+    }
+
+    /**
+     * Returns true, if the request asks for a revalidated response (e.g. on a reload).
+     */
+    private static boolean isRevalidationRequested(Map<String, Object> request) {
+        String cacheControl = getRequestHeaderOrNull(request, "cache-control");
+        String pragma = getRequestHeaderOrNull(request, "pragma");
+
+        return (cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("max-age=0"))) ||
+                (pragma != null && pragma.contains("no-cache"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String getRequestHeaderOrNull(Map<String, Object> request, String name) {
+        if(!(request.get("headers") instanceof Map<?, ?> headers))
+            return null;
+
+        for(Map.Entry<String, Object> tmpEntry : ((Map<String, Object>) headers).entrySet()) {
+            if(tmpEntry.getKey().equalsIgnoreCase(name))
+                return String.valueOf(tmpEntry.getValue());
+        }
+
+        return null;
+    }
+
+    private static List<String[]> toHeaders(Object responseHeaders) {
+        List<String[]> headers = new ArrayList<>();
+
+        if(!(responseHeaders instanceof List<?> headerList))
+            return headers;
+
+        for(Object tmpHeader : headerList) {
+            if(tmpHeader instanceof Map<?, ?> header && header.get("name") != null && header.get("value") != null)
+                headers.add(new String[] {header.get("name").toString(), header.get("value").toString()});
+        }
+
+        return headers;
+    }
+
+    private static byte[] decodeBody(Map<String, Object> result) {
+        Object body = result == null ? null : result.get("body");
+
+        if(body == null)
+            return new byte[0];
+
+        if(Boolean.TRUE.equals(result.get("base64Encoded")))
+            return Base64.getDecoder().decode(body.toString());
+
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
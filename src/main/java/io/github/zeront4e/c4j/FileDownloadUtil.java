@@ -22,10 +22,26 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Utility class for downloading files using Java's HttpClient.
@@ -35,6 +51,17 @@ class FileDownloadUtil {
         void onDownloadProgress(long totalDownloadedBytes);
     }
 
+    /**
+     * Represents the result of a download.
+     * @param resolvedUri The final URI of the downloaded file (after following redirects).
+     * @param validator The validator of the downloaded file (ETag or Last-Modified) or null, if there is none.
+     * @param contentLength The total length of the downloaded file.
+     * @param sha256Checksum The SHA-256 checksum of the downloaded file (lowercase hex) or null, if it wasn't computed.
+     */
+    public record DownloadResult(URI resolvedUri, String validator, long contentLength, String sha256Checksum) {
+
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(FileDownloadUtil.class);
 
     private static final HttpClient httpClient = HttpClient.newBuilder()
@@ -43,6 +70,20 @@ class FileDownloadUtil {
 
     private static final int BUFFER_SIZE = 8 * 1024 * 1024; //Use 8 MiB as buffer size.
 
+    private static final int SEGMENT_BUFFER_SIZE = 1024 * 1024; //Use 1 MiB as buffer size per segment.
+
+    /**
+     * The algorithm of the checksums of downloaded files.
+     */
+    public static final String CHECKSUM_ALGORITHM = "SHA-256";
+
+    /**
+     * The minimum size of a single segment. Smaller files are downloaded using a single stream.
+     */
+    public static final long MIN_SEGMENT_SIZE = 4 * 1024 * 1024; //Use 4 MiB as minimum segment size.
+
+    private static final long JOURNAL_INTERVAL = 4 * 1024 * 1024; //Record the progress every 4 MiB per segment.
+
     /**
      * The log interval threshold.
      */
@@ -53,13 +94,29 @@ class FileDownloadUtil {
      * if the total downloaded bytes exceed the LOG_INTERVAL_MB threshold.
      * @param fileUrl The URL of the file to download.
      * @param file The file to save the downloaded content to.
+     * @return The result of the download.
      * @throws Exception An unexpected exception.
      */
-    public static void downloadFileOrFail(String fileUrl, File file) throws Exception {
+    public static DownloadResult downloadFileOrFail(String fileUrl, File file) throws Exception {
+        return downloadFileOrFail(fileUrl, file, (String) null);
+    }
+
+    /**
+     * Downloads a file for the given URL and verifies its SHA-256 checksum or fails. The checksum is computed while
+     * the file is written, so the file isn't read again. The file is deleted, if the checksum doesn't match.
+     * @param fileUrl The URL of the file to download.
+     * @param file The file to save the downloaded content to.
+     * @param expectedSha256Checksum The expected SHA-256 checksum (hex, case-insensitive) or null, to skip the
+     *                               verification.
+     * @return The result of the download.
+     * @throws Exception An unexpected exception (e.g. if the checksum doesn't match).
+     */
+    public static DownloadResult downloadFileOrFail(String fileUrl, File file,
+                                                    String expectedSha256Checksum) throws Exception {
         DownloadProgressCallback downloadProgressCallback = totalDownloadedBytes ->
                 LOGGER.info("Downloaded {} MiB...", totalDownloadedBytes / (1024 * 1024));
 
-        downloadFileOrFail(fileUrl, file, downloadProgressCallback);
+        return downloadFileOrFail(fileUrl, file, expectedSha256Checksum, downloadProgressCallback);
     }
 
     /**
@@ -67,9 +124,27 @@ class FileDownloadUtil {
      * @param fileUrl The URL of the file to download.
      * @param file The file to save the downloaded content to.
      * @param downloadProgressCallback Callback for tracking download progress.
+     * @return The result of the download.
      * @throws Exception An unexpected exception.
      */
-    public static void downloadFileOrFail(String fileUrl, File file, DownloadProgressCallback downloadProgressCallback) throws Exception {
+    public static DownloadResult downloadFileOrFail(String fileUrl, File file,
+                                                    DownloadProgressCallback downloadProgressCallback) throws Exception {
+        return downloadFileOrFail(fileUrl, file, null, downloadProgressCallback);
+    }
+
+    /**
+     * Downloads a file for the given URL and verifies its SHA-256 checksum or fails. The checksum is computed while
+     * the file is written, so the file isn't read again. The file is deleted, if the checksum doesn't match.
+     * @param fileUrl The URL of the file to download.
+     * @param file The file to save the downloaded content to.
+     * @param expectedSha256Checksum The expected SHA-256 checksum (hex, case-insensitive) or null, to skip the
+     *                               verification.
+     * @param downloadProgressCallback Callback for tracking download progress.
+     * @return The result of the download.
+     * @throws Exception An unexpected exception (e.g. if the checksum doesn't match).
+     */
+    public static DownloadResult downloadFileOrFail(String fileUrl, File file, String expectedSha256Checksum,
+                                                    DownloadProgressCallback downloadProgressCallback) throws Exception {
         try {
             HttpRequest httpRequest = HttpRequest.newBuilder()
                     .uri(URI.create(fileUrl))
@@ -79,6 +154,8 @@ class FileDownloadUtil {
                     HttpResponse.BodyHandlers.ofInputStream());
 
             if (httpResponse.statusCode() != 200) {
+                httpResponse.body().close();
+
                 LOGGER.warn("Failed to download file \"{}\". HTTP status code: {}", file.getName(),
                         httpResponse.statusCode());
 
@@ -86,35 +163,376 @@ class FileDownloadUtil {
                         httpResponse.statusCode());
             }
 
-            try (InputStream inputStream = httpResponse.body();
-                 FileOutputStream fileOutputStream = new FileOutputStream(file);
+            return writeResponseOrFail(httpResponse, file, expectedSha256Checksum, downloadProgressCallback);
+        }
+        catch (Exception exception) {
+            LOGGER.error("Error downloading file \"{}\".", file.getName(), exception);
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Writes the body of the given (successful) response to the given file and verifies its SHA-256 checksum or
+     * fails. The checksum is computed while the file is written, so the file isn't read again.
+     * @param httpResponse The response to write the body of.
+     * @param file The file to save the content to.
+     * @param expectedSha256Checksum The expected SHA-256 checksum or null, to skip the verification.
+     * @param downloadProgressCallback Callback for tracking download progress.
+     * @return The result of the download.
+     * @throws Exception An unexpected exception (e.g. if the checksum doesn't match).
+     */
+    private static DownloadResult writeResponseOrFail(HttpResponse<InputStream> httpResponse, File file,
+                                                      String expectedSha256Checksum,
+                                                      DownloadProgressCallback downloadProgressCallback)
+            throws Exception {
+        try (InputStream inputStream = httpResponse.body();
+             FileOutputStream fileOutputStream = new FileOutputStream(file);
+
+             BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(fileOutputStream, BUFFER_SIZE)) {
 
-                 BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(fileOutputStream, BUFFER_SIZE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
 
-                byte[] buffer = new byte[BUFFER_SIZE];
+            int bytesRead;
 
-                int bytesRead;
+            long totalBytes = 0;
 
-                long totalBytes = 0;
+            long nextLogThreshold = LOG_INTERVAL_MB;
 
-                long nextLogThreshold = LOG_INTERVAL_MB;
+            //The digest is updated with every written buffer, so it is complete when the last byte was written.
 
-                LOGGER.info("Starting download: {}", file.getName());
+            MessageDigest messageDigest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
 
-                while ((bytesRead = inputStream.read(buffer)) != -1) {
-                    bufferedOutputStream.write(buffer, 0, bytesRead);
-                    totalBytes += bytesRead;
+            LOGGER.info("Starting download: {}", file.getName());
 
-                    if (totalBytes >= nextLogThreshold) {
-                        downloadProgressCallback.onDownloadProgress(totalBytes);
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                bufferedOutputStream.write(buffer, 0, bytesRead);
+                messageDigest.update(buffer, 0, bytesRead);
+                totalBytes += bytesRead;
 
-                        nextLogThreshold += LOG_INTERVAL_MB;
-                    }
+                if (totalBytes >= nextLogThreshold) {
+                    downloadProgressCallback.onDownloadProgress(totalBytes);
+
+                    nextLogThreshold += LOG_INTERVAL_MB;
                 }
+            }
 
-                LOGGER.info("Download of \"{}\" completed. Total size: {} MiB", file.getName(),
-                        totalBytes / (1024 * 1024));
+            LOGGER.info("Download of \"{}\" completed. Total size: {} MiB", file.getName(),
+                    totalBytes / (1024 * 1024));
+
+            bufferedOutputStream.flush();
+
+            String sha256Checksum = HexFormat.of().formatHex(messageDigest.digest());
+
+            verifyChecksumOrFail(file, expectedSha256Checksum, sha256Checksum);
+
+            return new DownloadResult(httpResponse.uri(), getValidatorOrNull(httpResponse), totalBytes,
+                    sha256Checksum);
+        }
+    }
+
+    /**
+     * Opens a response to read the content of the given URL or fails. The caller has to close the response body.
+     * @param fileUrl The URL of the file to download.
+     * @return The response with the body stream.
+     * @throws Exception An unexpected exception.
+     */
+    public static HttpResponse<InputStream> openResponseOrFail(String fileUrl) throws Exception {
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(fileUrl))
+                .build();
+
+        HttpResponse<InputStream> httpResponse = httpClient.send(httpRequest,
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        if (httpResponse.statusCode() != 200) {
+            httpResponse.body().close();
+
+            LOGGER.warn("Failed to open stream for URL \"{}\". HTTP status code: {}", fileUrl,
+                    httpResponse.statusCode());
+
+            throw new Exception("Failed to open stream for URL \"" + fileUrl + "\". HTTP status code: " +
+                    httpResponse.statusCode());
+        }
+
+        return httpResponse;
+    }
+
+    /**
+     * Requests the metadata of the file of the given URL (HEAD request) or fails. Redirects are followed, so the
+     * result contains the final URI of the file.
+     * @param fileUrl The URL of the file.
+     * @return The metadata of the file (the content length is -1, if it is unknown).
+     * @throws Exception An unexpected exception.
+     */
+    public static DownloadResult probeFileOrFail(String fileUrl) throws Exception {
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(fileUrl))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        HttpResponse<Void> httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+
+        if (httpResponse.statusCode() != 200) {
+            throw new Exception("Failed to probe URL \"" + fileUrl + "\". HTTP status code: " +
+                    httpResponse.statusCode());
+        }
+
+        return new DownloadResult(httpResponse.uri(), getValidatorOrNull(httpResponse),
+                httpResponse.headers().firstValueAsLong("Content-Length").orElse(-1), null);
+    }
+
+    /**
+     * Downloads the (small) text content of the given URL or fails.
+     * @param textUrl The URL of the text.
+     * @return The text.
+     * @throws Exception An unexpected exception.
+     */
+    public static String downloadTextOrFail(String textUrl) throws Exception {
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(textUrl))
+                .build();
+
+        HttpResponse<String> httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+
+        if (httpResponse.statusCode() != 200) {
+            throw new Exception("Failed to download text of URL \"" + textUrl + "\". HTTP status code: " +
+                    httpResponse.statusCode());
+        }
+
+        return httpResponse.body();
+    }
+
+    /**
+     * Returns the validator (ETag or Last-Modified) of the given response or null, if there is none.
+     * @param httpResponse The response to get the validator of.
+     * @return The validator or null.
+     */
+    static String getValidatorOrNull(HttpResponse<?> httpResponse) {
+        return httpResponse.headers().firstValue("ETag")
+                .or(() -> httpResponse.headers().firstValue("Last-Modified"))
+                .orElse(null);
+    }
+
+    /**
+     * Returns the validator to send in the If-Range header of range requests for the given response or null, if there
+     * is none. RFC 9110 only allows strong validators in the If-Range header, so a weak ETag (prefixed with "W/") is
+     * skipped in favor of the Last-Modified date.
+     * @param httpResponse The response to get the validator of.
+     * @return The strong ETag, the Last-Modified date or null.
+     */
+    static String getIfRangeValidatorOrNull(HttpResponse<?> httpResponse) {
+        return httpResponse.headers().firstValue("ETag")
+                .filter(FileDownloadUtil::isStrongEntityTag)
+                .or(() -> httpResponse.headers().firstValue("Last-Modified"))
+                .orElse(null);
+    }
+
+    /**
+     * Checks if the given ETag is a strong entity tag.
+     * @param entityTag The ETag to check.
+     * @return True, if the ETag isn't weak (prefixed with "W/").
+     */
+    static boolean isStrongEntityTag(String entityTag) {
+        return !entityTag.trim().startsWith("W/");
+    }
+
+    /**
+     * Downloads a file for the given URL or fails. The file is split into the given number of byte ranges, which are
+     * downloaded concurrently and written to their offsets in the (preallocated) target file. The function falls back
+     * to a single stream, if the server doesn't support range requests or doesn't report the content length.
+     * @param fileUrl The URL of the file to download.
+     * @param file The file to save the downloaded content to.
+     * @param segmentCount The maximum number of segments to download concurrently.
+     * @return The result of the download.
+     * @throws Exception An unexpected exception.
+     */
+    public static DownloadResult downloadFileSegmentedOrFail(String fileUrl, File file,
+                                                             int segmentCount) throws Exception {
+        DownloadProgressCallback downloadProgressCallback = totalDownloadedBytes ->
+                LOGGER.info("Downloaded {} MiB...", totalDownloadedBytes / (1024 * 1024));
+
+        return downloadFileSegmentedOrFail(fileUrl, file, segmentCount, downloadProgressCallback);
+    }
+
+    /**
+     * Downloads a file for the given URL or fails. The file is split into the given number of byte ranges, which are
+     * downloaded concurrently and written to their offsets in the (preallocated) target file. The function falls back
+     * to a single stream, if the server doesn't support range requests or doesn't report the content length.
+     * @param fileUrl The URL of the file to download.
+     * @param file The file to save the downloaded content to.
+     * @param segmentCount The maximum number of segments to download concurrently.
+     * @param downloadProgressCallback Callback for tracking download progress (aggregated over all segments).
+     * @return The result of the download.
+     * @throws Exception An unexpected exception.
+     */
+    public static DownloadResult downloadFileSegmentedOrFail(String fileUrl, File file, int segmentCount,
+                                                             DownloadProgressCallback downloadProgressCallback)
+            throws Exception {
+        return downloadFileResumableOrFail(fileUrl, file, null, segmentCount, downloadProgressCallback);
+    }
+
+    /**
+     * Downloads a file for the given URL or fails. The download can be resumed after an interruption. The progress is
+     * recorded in the given journal file (validator, total length and completed byte ranges). If the journal matches
+     * the remote file, only the missing byte ranges are downloaded. The journal is deleted after the download was
+     * completed. The function falls back to a single stream (without resume support), if the server doesn't support
+     * range requests.
+     * @param fileUrl The URL of the file to download.
+     * @param file The file to save the downloaded content to (the partial file, if the download is resumed).
+     * @param journalFile The journal file to record the progress in or null, to disable resume support.
+     * @param segmentCount The maximum number of segments to download concurrently.
+     * @param downloadProgressCallback Callback for tracking download progress (aggregated over all segments).
+     * @return The result of the download.
+     * @throws Exception An unexpected exception.
+     */
+    public static DownloadResult downloadFileResumableOrFail(String fileUrl, File file, File journalFile,
+                                                             int segmentCount,
+                                                             DownloadProgressCallback downloadProgressCallback)
+            throws Exception {
+        return downloadFileResumableOrFail(fileUrl, file, journalFile, segmentCount, null,
+                downloadProgressCallback);
+    }
+
+    /**
+     * Downloads a file for the given URL and verifies its SHA-256 checksum or fails (see
+     * {@link #downloadFileResumableOrFail(String, File, File, int, DownloadProgressCallback)}). The checksum is
+     * computed while the file is written. The segments of segmented downloads are written out of order, so data
+     * beyond the digested prefix of the file is digested as soon as the prefix reaches it (the ranges of a resumed
+     * download are digested concurrently to the missing ranges). The file (and the journal) is deleted, if the
+     * checksum doesn't match.
+     * @param fileUrl The URL of the file to download.
+     * @param file The file to save the downloaded content to (the partial file, if the download is resumed).
+     * @param journalFile The journal file to record the progress in or null, to disable resume support.
+     * @param segmentCount The maximum number of segments to download concurrently.
+     * @param expectedSha256Checksum The expected SHA-256 checksum (hex, case-insensitive) or null, to skip the
+     *                               verification.
+     * @param downloadProgressCallback Callback for tracking download progress (aggregated over all segments).
+     * @return The result of the download.
+     * @throws Exception An unexpected exception (e.g. if the checksum doesn't match).
+     */
+    public static DownloadResult downloadFileResumableOrFail(String fileUrl, File file, File journalFile,
+                                                             int segmentCount, String expectedSha256Checksum,
+                                                             DownloadProgressCallback downloadProgressCallback)
+            throws Exception {
+        boolean resumable = journalFile != null;
+
+        RangeSupport rangeSupport = segmentCount > 1 || resumable ? probeRangeSupportOrNull(fileUrl) : null;
+
+        if(rangeSupport == null || (!resumable && rangeSupport.contentLength() < MIN_SEGMENT_SIZE * 2)) {
+            LOGGER.info("Download \"{}\" using a single stream.", file.getName());
+
+            if(resumable)
+                deleteJournalAndPartialFile(journalFile, null);
+
+            return downloadFileOrFail(fileUrl, file, expectedSha256Checksum, downloadProgressCallback);
+        }
+
+        long contentLength = rangeSupport.contentLength();
+
+        DownloadJournal downloadJournal = null;
+
+        if(resumable) {
+            downloadJournal = obtainJournalOrNull(journalFile, file, rangeSupport);
+        }
+
+        try {
+            if(downloadJournal == null || downloadJournal.getCompletedBytes() == 0) {
+                //Preallocate the target file, so every segment can be written to its offset.
+
+                try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                    randomAccessFile.setLength(contentLength);
+                }
+            }
+
+            List<DownloadJournal.ByteRange> missingRanges = downloadJournal == null ?
+                    List.of(new DownloadJournal.ByteRange(0, contentLength)) : downloadJournal.getMissingRanges();
+
+            List<DownloadJournal.ByteRange> segmentRanges = splitRanges(missingRanges, Math.max(1, segmentCount));
+
+            long completedBytes = downloadJournal == null ? 0 : downloadJournal.getCompletedBytes();
+
+            LOGGER.info("Starting segmented download: {} Total size: {} MiB Already downloaded: {} MiB " +
+                    "Segments: {}", file.getName(), contentLength / (1024 * 1024), completedBytes / (1024 * 1024),
+                    segmentRanges.size());
+
+            ProgressAggregator progressAggregator = new ProgressAggregator(downloadProgressCallback, completedBytes);
+
+            //The first segment response with the whole file (instead of a range) is kept, so the download can
+            //continue with this response.
+
+            AtomicReference<HttpResponse<InputStream>> fullResponseReference = new AtomicReference<>();
+
+            boolean verifyChecksum = expectedSha256Checksum != null && !expectedSha256Checksum.isBlank();
+
+            String sha256Checksum = null;
+
+            try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+                 ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+
+                List<Future<?>> futures = new ArrayList<>();
+
+                DownloadJournal finalDownloadJournal = downloadJournal;
+
+                OrderedDigest orderedDigest = verifyChecksum ?
+                        new OrderedDigest(fileChannel, contentLength, missingRanges) : null;
+
+                if(orderedDigest != null) {
+                    //Digest the ranges of a resumed download while the missing ranges are downloaded.
+
+                    futures.add(executorService.submit(() -> {
+                        orderedDigest.digestWrittenRangesOrFail();
+
+                        return null;
+                    }));
+                }
+
+                for(DownloadJournal.ByteRange tmpSegmentRange : segmentRanges) {
+                    futures.add(executorService.submit(() -> {
+                        downloadSegmentOrFail(rangeSupport, fileChannel, tmpSegmentRange, progressAggregator,
+                                finalDownloadJournal, orderedDigest, fullResponseReference);
+
+                        return null;
+                    }));
+                }
+
+                awaitSegmentsOrFail(futures);
+
+                if(orderedDigest != null)
+                    sha256Checksum = orderedDigest.getChecksumOrFail();
+            }
+            catch (FullContentException fullContentException) {
+                //The file was changed since the probe (or the server ignores ranges for the validator). The ranges
+                //that were already written are useless, so the whole file is written again from this response.
+
+                LOGGER.info("The server sent the whole file \"{}\" instead of a range. Continue the download using " +
+                        "a single stream.", file.getName());
+
+                if(downloadJournal != null)
+                    downloadJournal.delete();
+
+                return writeResponseOrFail(fullResponseReference.getAndSet(null), file, expectedSha256Checksum,
+                        downloadProgressCallback);
             }
+            finally {
+                HttpResponse<InputStream> unusedFullResponse = fullResponseReference.getAndSet(null);
+
+                if(unusedFullResponse != null)
+                    unusedFullResponse.body().close();
+            }
+
+            if(downloadJournal != null)
+                downloadJournal.delete();
+
+            LOGGER.info("Download of \"{}\" completed. Total size: {} MiB", file.getName(),
+                    progressAggregator.getTotalBytes() / (1024 * 1024));
+
+            if(verifyChecksum)
+                verifyChecksumOrFail(file, expectedSha256Checksum, sha256Checksum);
+
+            return new DownloadResult(rangeSupport.resolvedUri(), rangeSupport.validator(), contentLength,
+                    sha256Checksum);
         }
         catch (Exception exception) {
             LOGGER.error("Error downloading file \"{}\".", file.getName(), exception);
@@ -122,4 +540,503 @@ class FileDownloadUtil {
             throw exception;
         }
     }
+
+    /**
+     * Verifies the computed checksum of a downloaded file or fails. The file is deleted, if the checksum doesn't
+     * match.
+     * @param file The downloaded file or null, if the content wasn't stored.
+     * @param expectedSha256Checksum The expected SHA-256 checksum or null, to skip the verification.
+     * @param sha256Checksum The computed SHA-256 checksum.
+     * @throws Exception An exception, if the checksum doesn't match.
+     */
+    static void verifyChecksumOrFail(File file, String expectedSha256Checksum,
+                                     String sha256Checksum) throws Exception {
+        if(expectedSha256Checksum == null || expectedSha256Checksum.isBlank())
+            return;
+
+        String fileName = file == null ? "archive" : file.getName();
+
+        LOGGER.info("Expected hash: {} Actual hash: {}", expectedSha256Checksum.trim(), sha256Checksum);
+
+        if(!expectedSha256Checksum.trim().equalsIgnoreCase(sha256Checksum)) {
+            if(file != null && file.isFile() && !file.delete())
+                LOGGER.warn("Unable to delete file \"{}\" with invalid checksum.", file.getAbsolutePath());
+
+            throw new Exception("Invalid SHA-256 checksum for the downloaded file \"" + fileName + "\". Expected: " +
+                    expectedSha256Checksum.trim() + " Actual: " + sha256Checksum);
+        }
+
+        LOGGER.info("SHA-256 checksum of \"{}\" is valid.", fileName);
+    }
+
+    private static DownloadJournal obtainJournalOrNull(File journalFile, File file, RangeSupport rangeSupport)
+            throws Exception {
+        String resolvedUrl = rangeSupport.resolvedUri().toString();
+
+        if(rangeSupport.validator() == null) {
+            LOGGER.info("The server doesn't provide a validator (ETag or Last-Modified). The download of \"{}\" " +
+                    "can't be resumed.", file.getName());
+
+            deleteJournalAndPartialFile(journalFile, file);
+
+            return null;
+        }
+
+        DownloadJournal existingJournal = DownloadJournal.loadOrNull(journalFile);
+
+        if(existingJournal != null && file.isFile() && file.length() == rangeSupport.contentLength() &&
+                existingJournal.matches(resolvedUrl, rangeSupport.validator(), rangeSupport.contentLength())) {
+            LOGGER.info("Resume download of \"{}\". Already downloaded: {} MiB", file.getName(),
+                    existingJournal.getCompletedBytes() / (1024 * 1024));
+
+            return existingJournal;
+        }
+
+        if(existingJournal != null || file.isFile()) {
+            LOGGER.info("Discard outdated partial download of \"{}\".", file.getName());
+
+            deleteJournalAndPartialFile(journalFile, file);
+        }
+
+        DownloadJournal downloadJournal = DownloadJournal.create(journalFile, resolvedUrl, rangeSupport.validator(),
+                rangeSupport.contentLength());
+
+        downloadJournal.storeOrFail();
+
+        return downloadJournal;
+    }
+
+    private static void deleteJournalAndPartialFile(File journalFile, File file) {
+        try {
+            Files.deleteIfExists(journalFile.toPath());
+
+            if(file != null)
+                Files.deleteIfExists(file.toPath());
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to delete journal \"{}\" and partial file.", journalFile.getAbsolutePath(),
+                    exception);
+        }
+    }
+
+    /**
+     * Splits the given byte ranges into segments that can be downloaded concurrently. Large ranges are split into
+     * multiple segments, as long as each segment isn't smaller than {@link #MIN_SEGMENT_SIZE}.
+     * @param byteRanges The byte ranges to split.
+     * @param segmentCount The preferred number of segments.
+     * @return The segments.
+     */
+    static List<DownloadJournal.ByteRange> splitRanges(List<DownloadJournal.ByteRange> byteRanges, int segmentCount) {
+        long totalBytes = byteRanges.stream().mapToLong(DownloadJournal.ByteRange::length).sum();
+
+        long segmentSize = Math.max(MIN_SEGMENT_SIZE, (totalBytes + segmentCount - 1) / segmentCount);
+
+        List<DownloadJournal.ByteRange> segmentRanges = new ArrayList<>();
+
+        for(DownloadJournal.ByteRange tmpRange : byteRanges) {
+            long parts = Math.max(1, tmpRange.length() / segmentSize);
+
+            long partSize = tmpRange.length() / parts;
+
+            for(long i = 0; i < parts; i++) {
+                long start = tmpRange.start() + i * partSize;
+                long end = i == parts - 1 ? tmpRange.end() : start + partSize;
+
+                segmentRanges.add(new DownloadJournal.ByteRange(start, end));
+            }
+        }
+
+        return segmentRanges;
+    }
+
+    /**
+     * Represents the range support of a remote file.
+     * @param resolvedUri The final URI (after following redirects) to request the ranges from.
+     * @param contentLength The total length of the remote file.
+     * @param validator The validator of the remote file (ETag or Last-Modified) or null, if there is none.
+     * @param ifRangeValidator The validator to send in the If-Range header (a strong ETag or Last-Modified) or null,
+     *                         if there is none. Weak ETags are forbidden in the If-Range header.
+     */
+    record RangeSupport(URI resolvedUri, long contentLength, String validator, String ifRangeValidator) {
+
+    }
+
+    /**
+     * Sends a HEAD request to check if the server accepts byte-range requests for the given URL.
+     * @param fileUrl The URL of the file to check.
+     * @return The range support of the file or null, if ranges are unsupported or the probe failed.
+     */
+    static RangeSupport probeRangeSupportOrNull(String fileUrl) {
+        try {
+            HttpRequest httpRequest = HttpRequest.newBuilder()
+                    .uri(URI.create(fileUrl))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .build();
+
+            HttpResponse<Void> httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+
+            if(httpResponse.statusCode() != 200) {
+                LOGGER.info("Unable to probe range support. HTTP status code: {}", httpResponse.statusCode());
+
+                return null;
+            }
+
+            boolean acceptsRanges = httpResponse.headers().firstValue("Accept-Ranges")
+                    .map(value -> value.trim().equalsIgnoreCase("bytes"))
+                    .orElse(false);
+
+            long contentLength = httpResponse.headers().firstValueAsLong("Content-Length").orElse(-1);
+
+            if(!acceptsRanges || contentLength <= 0) {
+                LOGGER.info("The server doesn't support range requests. Accept-Ranges: {} Content-Length: {}",
+                        acceptsRanges, contentLength);
+
+                return null;
+            }
+
+            String validator = getValidatorOrNull(httpResponse);
+
+            //We use the resolved URI, so all segments refer to the same file (even if the original URL is
+            //redirected to another file in the meantime).
+
+            return new RangeSupport(httpResponse.uri(), contentLength, validator,
+                    getIfRangeValidatorOrNull(httpResponse));
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to probe range support for URL \"{}\".", fileUrl, exception);
+
+            return null;
+        }
+    }
+
+    private static void downloadSegmentOrFail(RangeSupport rangeSupport, FileChannel fileChannel,
+                                              DownloadJournal.ByteRange byteRange,
+                                              ProgressAggregator progressAggregator,
+                                              DownloadJournal downloadJournal, OrderedDigest orderedDigest,
+                                              AtomicReference<HttpResponse<InputStream>> fullResponseReference)
+            throws Exception {
+        HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder()
+                .uri(rangeSupport.resolvedUri())
+                .header("Range", "bytes=" + byteRange.start() + "-" + (byteRange.end() - 1));
+
+        //The server sends the whole file (instead of the range), if the file was changed in the meantime.
+
+        if(rangeSupport.ifRangeValidator() != null)
+            httpRequestBuilder.header("If-Range", rangeSupport.ifRangeValidator());
+
+        HttpResponse<InputStream> httpResponse = httpClient.send(httpRequestBuilder.build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        if(httpResponse.statusCode() == 200) {
+            //Only the first full response is kept. The download continues with this response.
+
+            if(!fullResponseReference.compareAndSet(null, httpResponse))
+                httpResponse.body().close();
+
+            throw new FullContentException();
+        }
+
+        if(httpResponse.statusCode() != 206) {
+            httpResponse.body().close();
+
+            throw new Exception("Failed to download segment " + byteRange.start() + "-" + byteRange.end() +
+                    ". HTTP status code: " + httpResponse.statusCode());
+        }
+
+        try (InputStream inputStream = httpResponse.body()) {
+            byte[] buffer = new byte[SEGMENT_BUFFER_SIZE];
+
+            long position = byteRange.start();
+
+            long journalPosition = position;
+
+            int bytesRead;
+
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                //Another segment received the whole file, so the ranges are obsolete.
+
+                if(fullResponseReference.get() != null)
+                    throw new FullContentException();
+
+                if(position + bytesRead > byteRange.end())
+                    throw new Exception("The server sent more data than requested for segment " + byteRange.start() +
+                            "-" + byteRange.end() + ".");
+
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, bytesRead);
+
+                long writePosition = position;
+
+                while (byteBuffer.hasRemaining()) {
+                    position += fileChannel.write(byteBuffer, position);
+                }
+
+                if(orderedDigest != null)
+                    orderedDigest.updateOrFail(writePosition, buffer, bytesRead);
+
+                progressAggregator.addBytes(bytesRead);
+
+                if(downloadJournal != null && position - journalPosition >= JOURNAL_INTERVAL) {
+                    recordProgressOrFail(fileChannel, downloadJournal, byteRange.start(), position);
+
+                    journalPosition = position;
+                }
+            }
+
+            if(position != byteRange.end())
+                throw new Exception("Incomplete segment " + byteRange.start() + "-" + byteRange.end() +
+                        ". Received " + (position - byteRange.start()) + " bytes.");
+
+            if(downloadJournal != null)
+                recordProgressOrFail(fileChannel, downloadJournal, byteRange.start(), position);
+        }
+    }
+
+    private static void recordProgressOrFail(FileChannel fileChannel, DownloadJournal downloadJournal, long start,
+                                             long end) throws Exception {
+        //Flush the written data first, so the journal never refers to data that isn't stored on disk.
+
+        fileChannel.force(false);
+
+        downloadJournal.markCompleted(start, end);
+        downloadJournal.storeOrFail();
+    }
+
+    private static void awaitSegmentsOrFail(List<Future<?>> futures) throws Exception {
+        try {
+            for(Future<?> tmpFuture : futures) {
+                tmpFuture.get();
+            }
+        }
+        catch (ExecutionException executionException) {
+            futures.forEach(tmpFuture -> tmpFuture.cancel(true));
+
+            if(executionException.getCause() instanceof Exception exception)
+                throw exception;
+
+            throw executionException;
+        }
+        catch (InterruptedException interruptedException) {
+            futures.forEach(tmpFuture -> tmpFuture.cancel(true));
+
+            Thread.currentThread().interrupt();
+
+            throw interruptedException;
+        }
+    }
+
+    /**
+     * Signals that the server responded to a range request with the whole file.
+     */
+    private static class FullContentException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        FullContentException() {
+            super("The server sent the whole file instead of the requested range.");
+        }
+    }
+
+    /**
+     * Aggregates the progress of concurrently downloaded segments and reports it to a single callback.
+     */
+    private static class ProgressAggregator {
+        private final DownloadProgressCallback downloadProgressCallback;
+
+        private long totalBytes;
+
+        private long nextLogThreshold = LOG_INTERVAL_MB;
+
+        ProgressAggregator(DownloadProgressCallback downloadProgressCallback, long initialBytes) {
+            this.downloadProgressCallback = downloadProgressCallback;
+
+            totalBytes = initialBytes;
+
+            while (nextLogThreshold <= totalBytes) {
+                nextLogThreshold += LOG_INTERVAL_MB;
+            }
+        }
+
+        synchronized void addBytes(long bytes) {
+            totalBytes += bytes;
+
+            if (totalBytes >= nextLogThreshold) {
+                downloadProgressCallback.onDownloadProgress(totalBytes);
+
+                while (nextLogThreshold <= totalBytes) {
+                    nextLogThreshold += LOG_INTERVAL_MB;
+                }
+            }
+        }
+
+        synchronized long getTotalBytes() {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * Computes the checksum of a file, whose segments are written concurrently (and out of order). Data written at
+     * the end of the digested prefix is digested directly. Data written beyond the prefix is recorded and read from
+     * the file as soon as the prefix reaches it, so the file doesn't have to be read again after the download.
+     * <p>
+     * Only the first segment is digested from the received buffers. The other segments (about (N-1)/N of the file for
+     * N segments) are read from the file again, while the remaining segments are downloaded. SHA-256 digests of
+     * separate segments can't be combined, so the alternative would be to keep the received buffers of every segment
+     * until the prefix reaches them, which needs memory in the order of the file size. The data was written
+     * recently, so it's usually read from the page cache.
+     */
+    private static class OrderedDigest {
+        private final MessageDigest messageDigest;
+
+        private final FileChannel fileChannel;
+
+        private final long contentLength;
+
+        //The written, but not yet digested ranges (start to end). Adjacent ranges are merged.
+        private final TreeMap<Long, Long> writtenRanges = new TreeMap<>();
+
+        private long digestedLength = 0;
+
+        //Whether a thread reads written ranges from the file (only this thread updates the digest meanwhile).
+        private boolean readingWrittenRanges = false;
+
+        OrderedDigest(FileChannel fileChannel, long contentLength,
+                      List<DownloadJournal.ByteRange> missingRanges) throws Exception {
+            this.fileChannel = fileChannel;
+            this.contentLength = contentLength;
+
+            messageDigest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+
+            //Everything outside the missing ranges was written by a previous download.
+
+            long position = 0;
+
+            for(DownloadJournal.ByteRange tmpMissingRange : missingRanges) {
+                if(tmpMissingRange.start() > position)
+                    addWrittenRange(position, tmpMissingRange.start());
+
+                position = tmpMissingRange.end();
+            }
+
+            if(contentLength > position)
+                addWrittenRange(position, contentLength);
+        }
+
+        /**
+         * Digests the given data, which was written to the given position of the file.
+         */
+        void updateOrFail(long position, byte[] data, int length) throws Exception {
+            synchronized (this) {
+                if(readingWrittenRanges || position != digestedLength) {
+                    addWrittenRange(position, position + length);
+
+                    return;
+                }
+
+                messageDigest.update(data, 0, length);
+
+                digestedLength += length;
+
+                if(!writtenRanges.containsKey(digestedLength))
+                    return;
+
+                readingWrittenRanges = true;
+            }
+
+            readWrittenRangesOrFail();
+        }
+
+        /**
+         * Digests the written ranges, which are adjacent to the digested prefix.
+         */
+        void digestWrittenRangesOrFail() throws Exception {
+            synchronized (this) {
+                if(readingWrittenRanges || !writtenRanges.containsKey(digestedLength))
+                    return;
+
+                readingWrittenRanges = true;
+            }
+
+            readWrittenRangesOrFail();
+        }
+
+        /**
+         * Returns the checksum of the completely written file or fails.
+         */
+        String getChecksumOrFail() throws Exception {
+            digestWrittenRangesOrFail();
+
+            synchronized (this) {
+                if(readingWrittenRanges || digestedLength != contentLength)
+                    throw new Exception("The checksum is incomplete. Digested: " + digestedLength + " Expected: " +
+                            contentLength);
+
+                return HexFormat.of().formatHex(messageDigest.digest());
+            }
+        }
+
+        private void readWrittenRangesOrFail() throws Exception {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(SEGMENT_BUFFER_SIZE);
+
+            try {
+                while (true) {
+                    long start;
+                    long end;
+
+                    synchronized (this) {
+                        Long writtenRangeEnd = writtenRanges.remove(digestedLength);
+
+                        if(writtenRangeEnd == null) {
+                            readingWrittenRanges = false;
+
+                            return;
+                        }
+
+                        start = digestedLength;
+                        end = writtenRangeEnd;
+                    }
+
+                    for(long position = start; position < end; ) {
+                        byteBuffer.clear();
+                        byteBuffer.limit((int) Math.min(byteBuffer.capacity(), end - position));
+
+                        int bytesRead = fileChannel.read(byteBuffer, position);
+
+                        if(bytesRead == -1)
+                            throw new Exception("Unexpected end of file at position " + position + ".");
+
+                        byteBuffer.flip();
+
+                        messageDigest.update(byteBuffer);
+
+                        position += bytesRead;
+                    }
+
+                    synchronized (this) {
+                        digestedLength = end;
+                    }
+                }
+            }
+            catch (Exception exception) {
+                synchronized (this) {
+                    readingWrittenRanges = false;
+                }
+
+                throw exception;
+            }
+        }
+
+        private void addWrittenRange(long start, long end) {
+            Map.Entry<Long, Long> previousRange = writtenRanges.floorEntry(start);
+
+            if(previousRange != null && previousRange.getValue() == start) {
+                start = previousRange.getKey();
+            }
+
+            Long nextRangeEnd = writtenRanges.remove(end);
+
+            if(nextRangeEnd != null)
+                end = nextRangeEnd;
+
+            writtenRanges.put(start, end);
+        }
+    }
 }
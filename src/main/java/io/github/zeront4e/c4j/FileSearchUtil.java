@@ -19,12 +19,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class FileSearchUtil {
     public static final Logger LOGGER = LoggerFactory.getLogger(FileSearchUtil.class);
 
     /**
-     * Finds a file in a directory and its subdirectories.
+     * Finds a file in a directory and its subdirectories. The subdirectories of the given directory are searched
+     * concurrently. If there are several matches, the least nested file is returned (files of the same depth are
+     * ordered by their path), so the result doesn't depend on the order the subdirectories are searched in.
      * @param directoryFile The directory to search in.
      * @param fileName The name of the file to find.
      * @return The found file if found, null otherwise.
@@ -38,24 +50,86 @@ class FileSearchUtil {
 
         File[] files = directoryFile.listFiles();
 
-        if (files != null) {
-            for (File tmpFile : files) {
-                if (tmpFile.isDirectory()) {
+        if (files == null)
+            return null;
+
+        List<File> subdirectoryFiles = new ArrayList<>();
+
+        for (File tmpFile : files) {
+            if (tmpFile.isDirectory()) {
+                //Add Mac OS specific exception.
+                if(tmpFile.getName().endsWith(".app") && tmpFile.getName().equals(fileName))
+                    return tmpFile;
+
+                subdirectoryFiles.add(tmpFile);
+            }
+            else if (tmpFile.getName().equals(fileName)) {
+                return tmpFile;
+            }
+        }
+
+        //Directories nested deeper than the best match so far are skipped, because they can't contain a better match.
+
+        AtomicInteger bestDepth = new AtomicInteger(Integer.MAX_VALUE);
+
+        List<Path> foundPaths = subdirectoryFiles.parallelStream()
+                .flatMap(tmpSubdirectoryFile -> searchFiles(tmpSubdirectoryFile.toPath(), fileName,
+                        bestDepth).stream())
+                .toList();
+
+        return foundPaths.stream()
+                .min(Comparator.comparingInt(Path::getNameCount).thenComparing(Path::toString))
+                .map(Path::toFile)
+                .orElse(null);
+    }
+
+    private static List<Path> searchFiles(Path directoryPath, String fileName, AtomicInteger bestDepth) {
+        List<Path> foundPaths = new ArrayList<>();
+
+        try {
+            Files.walkFileTree(directoryPath, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                    Path directoryName = directory.getFileName();
+
                     //Add Mac OS specific exception.
-                    if(tmpFile.getName().endsWith(".app") && tmpFile.getName().equals(fileName))
-                        return tmpFile;
+                    if(directoryName != null && directoryName.toString().endsWith(".app") &&
+                            directoryName.toString().equals(fileName)) {
+                        addFoundPath(directory);
 
-                    File foundFile = findFileOrNull(tmpFile, fileName);
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
 
-                    if (foundFile != null)
-                        return foundFile;
+                    //The files of this directory are one level deeper than the directory.
+
+                    return directory.getNameCount() >= bestDepth.get() ? FileVisitResult.SKIP_SUBTREE :
+                            FileVisitResult.CONTINUE;
                 }
-                else if (tmpFile.getName().equals(fileName)) {
-                    return tmpFile;
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if(file.getFileName().toString().equals(fileName))
+                        addFoundPath(file);
+
+                    return FileVisitResult.CONTINUE;
                 }
-            }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exception) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                private void addFoundPath(Path path) {
+                    foundPaths.add(path);
+
+                    bestDepth.accumulateAndGet(path.getNameCount(), Math::min);
+                }
+            });
+        }
+        catch (IOException exception) {
+            LOGGER.warn("Unable to search directory \"{}\".", directoryPath, exception);
         }
 
-        return null;
+        return foundPaths;
     }
 }
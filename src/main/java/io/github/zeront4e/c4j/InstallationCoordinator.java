@@ -0,0 +1,153 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coordinates the installations of distributions, so a distribution is only installed once at a time. Concurrent
+ * callers of the same JVM await the installation of the first caller. Other processes are excluded by a lock file
+ * next to the distribution directory. Callers that waited for another installation reuse its result.
+ */
+class InstallationCoordinator {
+    /**
+     * The suffix of the lock file (located next to the distribution directory).
+     */
+    static final String LOCK_FILE_SUFFIX = ".lock";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstallationCoordinator.class);
+
+    private static final Map<Path, CompletableFuture<File>> RUNNING_INSTALLATIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Installs a distribution.
+     */
+    interface Installation {
+        /**
+         * Performs the installation.
+         * @return The installation directory.
+         * @throws Exception An unexpected exception.
+         */
+        File installOrFail() throws Exception;
+    }
+
+    /**
+     * Performs the given installation, unless the distribution is already being installed. If the installation of this
+     * JVM is in progress, the result of that installation is returned. If another process installs the distribution,
+     * this function waits for it and returns the directory it installed.
+     * @param distributionDirectoryPath The directory of the distribution.
+     * @param installation The installation to perform.
+     * @return The installation directory.
+     * @throws Exception An unexpected exception.
+     */
+    static File installOrFail(Path distributionDirectoryPath, Installation installation) throws Exception {
+        Path normalizedPath = distributionDirectoryPath.toAbsolutePath().normalize();
+
+        long requestTime = System.currentTimeMillis();
+
+        CompletableFuture<File> installationFuture = new CompletableFuture<>();
+
+        CompletableFuture<File> runningFuture = RUNNING_INSTALLATIONS.putIfAbsent(normalizedPath, installationFuture);
+
+        if(runningFuture != null) {
+            LOGGER.info("The distribution \"{}\" is already being installed. Wait for the installation.",
+                    normalizedPath);
+
+            return awaitOrFail(runningFuture);
+        }
+
+        try {
+            File installationDirectory = installExclusivelyOrFail(normalizedPath, requestTime, installation);
+
+            installationFuture.complete(installationDirectory);
+
+            return installationDirectory;
+        }
+        catch (Exception exception) {
+            installationFuture.completeExceptionally(exception);
+
+            throw exception;
+        }
+        finally {
+            RUNNING_INSTALLATIONS.remove(normalizedPath, installationFuture);
+        }
+    }
+
+    private static File installExclusivelyOrFail(Path distributionDirectoryPath, long requestTime,
+                                                 Installation installation) throws Exception {
+        Files.createDirectories(distributionDirectoryPath.getParent());
+
+        Path lockFilePath = distributionDirectoryPath.resolveSibling(distributionDirectoryPath.getFileName() +
+                LOCK_FILE_SUFFIX);
+
+        try (FileChannel fileChannel = FileChannel.open(lockFilePath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            FileLock fileLock = fileChannel.tryLock();
+
+            if(fileLock == null) {
+                LOGGER.info("The distribution \"{}\" is being installed by another process. Wait for the lock \"{}\".",
+                        distributionDirectoryPath, lockFilePath);
+
+                fileLock = fileChannel.lock();
+            }
+
+            try {
+                //Reuse an installation that was completed while we were waiting for the lock.
+
+                File installationDirectory = DistributionRevisions.getInstallationDirectory(
+                        distributionDirectoryPath.toFile());
+
+                InstallationManifest installationManifest = InstallationManifest.loadOrNull(installationDirectory);
+
+                if(installationManifest != null && installationManifest.installationTime() >= requestTime) {
+                    LOGGER.info("The distribution \"{}\" was installed by another process. Skip installation.",
+                            distributionDirectoryPath);
+
+                    return installationDirectory;
+                }
+
+                return installation.installOrFail();
+            }
+            finally {
+                fileLock.release();
+            }
+        }
+    }
+
+    private static File awaitOrFail(CompletableFuture<File> installationFuture) throws Exception {
+        try {
+            return installationFuture.get();
+        }
+        catch (ExecutionException executionException) {
+            if(executionException.getCause() instanceof Exception exception)
+                throw exception;
+
+            throw executionException;
+        }
+    }
+}
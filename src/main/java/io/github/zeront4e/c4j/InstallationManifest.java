@@ -0,0 +1,151 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Manifest of an installation. The manifest is written after the extraction was completed and records the location of
+ * the executable, so it can be resolved without searching the installation directory.
+ * @param executablePath The path of the executable (relative to the installation directory).
+ * @param revision The revision of the installation or null, if the revision is unknown.
+ * @param c4jOsArchitecture The architecture of the installation.
+ * @param fileCount The number of extracted files.
+ * @param sourceUrl The (resolved) URL the installation was downloaded from or null, if the URL is unknown.
+ * @param validator The validator (ETag or Last-Modified) of the downloaded file or null, if there is none.
+ * @param installationTime The time of the installation (in milliseconds since the epoch).
+ */
+record InstallationManifest(String executablePath, String revision, C4jOsArchitecture c4jOsArchitecture,
+                            long fileCount, String sourceUrl, String validator, long installationTime) {
+    /**
+     * The name of the manifest file (located at the installation directory).
+     */
+    static final String MANIFEST_FILE_NAME = "c4j-installation.properties";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstallationManifest.class);
+
+    private static final String EXECUTABLE_PATH_KEY = "executable-path";
+    private static final String REVISION_KEY = "revision";
+    private static final String ARCHITECTURE_KEY = "architecture";
+    private static final String FILE_COUNT_KEY = "file-count";
+    private static final String SOURCE_URL_KEY = "source-url";
+    private static final String VALIDATOR_KEY = "validator";
+    private static final String INSTALLATION_TIME_KEY = "installation-time";
+
+    /**
+     * Returns the executable file of the manifest for the given installation directory.
+     * @param installationDirectory The installation directory.
+     * @return The executable file.
+     */
+    File getExecutableFile(File installationDirectory) {
+        return new File(installationDirectory, executablePath);
+    }
+
+    /**
+     * Writes the manifest to the given installation directory. The manifest is written to a temporary file first,
+     * which replaces the existing manifest afterward.
+     * @param installationDirectory The installation directory.
+     * @throws IOException An unexpected exception.
+     */
+    void storeOrFail(File installationDirectory) throws IOException {
+        Properties properties = new Properties();
+
+        properties.setProperty(EXECUTABLE_PATH_KEY, executablePath);
+        properties.setProperty(ARCHITECTURE_KEY, c4jOsArchitecture.name());
+        properties.setProperty(FILE_COUNT_KEY, String.valueOf(fileCount));
+        properties.setProperty(INSTALLATION_TIME_KEY, String.valueOf(installationTime));
+
+        if(revision != null)
+            properties.setProperty(REVISION_KEY, revision);
+
+        if(sourceUrl != null)
+            properties.setProperty(SOURCE_URL_KEY, sourceUrl);
+
+        if(validator != null)
+            properties.setProperty(VALIDATOR_KEY, validator);
+
+        File manifestFile = new File(installationDirectory, MANIFEST_FILE_NAME);
+        File temporaryFile = new File(installationDirectory, MANIFEST_FILE_NAME + ".tmp");
+
+        try (FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile)) {
+            properties.store(fileOutputStream, "chromium4j installation manifest");
+        }
+
+        Files.move(temporaryFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the manifest of the given installation directory or returns null, if there is no (valid) manifest.
+     * @param installationDirectory The installation directory.
+     * @return The manifest or null.
+     */
+    static InstallationManifest loadOrNull(File installationDirectory) {
+        File manifestFile = new File(installationDirectory, MANIFEST_FILE_NAME);
+
+        if(!manifestFile.isFile())
+            return null;
+
+        Properties properties = new Properties();
+
+        try (FileInputStream fileInputStream = new FileInputStream(manifestFile)) {
+            properties.load(fileInputStream);
+
+            return new InstallationManifest(
+                    properties.getProperty(EXECUTABLE_PATH_KEY),
+                    properties.getProperty(REVISION_KEY),
+                    C4jOsArchitecture.valueOf(properties.getProperty(ARCHITECTURE_KEY)),
+                    Long.parseLong(properties.getProperty(FILE_COUNT_KEY, "0")),
+                    properties.getProperty(SOURCE_URL_KEY),
+                    properties.getProperty(VALIDATOR_KEY),
+                    Long.parseLong(properties.getProperty(INSTALLATION_TIME_KEY, "0")));
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to load installation manifest \"{}\".", manifestFile.getAbsolutePath(), exception);
+
+            return null;
+        }
+    }
+
+    /**
+     * Returns the executable of the given installation directory, if the manifest of the directory matches the given
+     * architecture and the executable exists. Returns null otherwise.
+     * @param installationDirectory The installation directory.
+     * @param c4jOsArchitecture The architecture of the executable.
+     * @return The executable or null.
+     */
+    static File findExecutableOrNull(File installationDirectory, C4jOsArchitecture c4jOsArchitecture) {
+        InstallationManifest installationManifest = loadOrNull(installationDirectory);
+
+        if(installationManifest == null || installationManifest.executablePath() == null ||
+                installationManifest.c4jOsArchitecture() != c4jOsArchitecture) {
+            return null;
+        }
+
+        File executableFile = installationManifest.getExecutableFile(installationDirectory);
+
+        return executableFile.exists() ? executableFile : null;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Provisions a remote Chromium instance asynchronously. The provisioning is split into stages, which run concurrently
+ * where possible: The extensions are obtained while the distribution is installed and the driver is resolved as soon
+ * as the binary is available. The instance is launched once all stages are completed.
+ * <p>
+ * Cancelling the returned future interrupts the running stages. An instance that was launched in the meantime is quit.
+ * Shared downloads of extensions (that other callers may await) aren't cancelled.
+ */
+class InstanceProvisioning {
+    /**
+     * The default executor, which runs every stage on a new virtual thread.
+     */
+    static final Executor DEFAULT_EXECUTOR = runnable -> Thread.ofVirtual()
+            .name("c4j-provisioning")
+            .start(runnable);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstanceProvisioning.class);
+
+    private record LaunchParameters(DistributionRevisions.ResolvedBinary resolvedBinary, File chromeDriverFile) {
+
+    }
+
+    private final Executor executor;
+
+    private final CompletableFuture<C4jRemoteChromium> resultFuture = new CompletableFuture<>();
+
+    private final List<CompletableFuture<?>> stageFutures = new CopyOnWriteArrayList<>();
+
+    private InstanceProvisioning(Executor executor) {
+        this.executor = executor;
+
+        //Propagate the cancellation to the running stages.
+
+        resultFuture.whenComplete((ignoredInstance, ignoredThrowable) -> {
+            if(resultFuture.isCancelled())
+                stageFutures.forEach(tmpStageFuture -> tmpStageFuture.cancel(true));
+        });
+    }
+
+    /**
+     * Provisions an instance asynchronously.
+     * @param installation The installation stage, which returns the Chromium binary. It is called again, if the
+     *                     revision of the binary is retired before it is marked as used.
+     * @param c4jChromeOptions The options to launch the instance with.
+     * @param executor The executor to run the stages with.
+     * @return The future of the launched instance.
+     */
+    static CompletableFuture<C4jRemoteChromium> provisionAsync(Callable<File> installation,
+                                                               C4jChromeOptions c4jChromeOptions, Executor executor) {
+        InstanceProvisioning instanceProvisioning = new InstanceProvisioning(executor);
+
+        instanceProvisioning.start(installation, c4jChromeOptions);
+
+        return instanceProvisioning.resultFuture;
+    }
+
+    private void start(Callable<File> installation, C4jChromeOptions c4jChromeOptions) {
+        long startTime = System.nanoTime();
+
+        boolean testInstance = C4j.isTestInstance();
+
+        //Stage 1: Install the distribution and obtain the extensions concurrently. The revision of the binary is
+        //marked as used right away, so it isn't retired before the instance is launched.
+
+        CompletableFuture<DistributionRevisions.ResolvedBinary> installationFuture = runStage(() ->
+                DistributionRevisions.resolveBinaryOrFail(() -> {
+                    File chromiumFile = installation.call();
+
+                    if(chromiumFile == null)
+                        throw new Exception("Unable to obtain Chromium binary.");
+
+                    return chromiumFile;
+                }));
+
+        CompletableFuture<List<ExtensionCache.CachedExtension>> extensionsFuture = null;
+
+        if(!testInstance && !c4jChromeOptions.getC4jCommonExtensions().isEmpty()) {
+            extensionsFuture = ExtensionCache.getDefaultCache().obtainExtensionsAsync(
+                    c4jChromeOptions.getC4jCommonExtensions(), c4jChromeOptions.isReinstallExtensions());
+        }
+
+        //Stage 2: Resolve the driver, as soon as the binary is available.
+
+        CompletableFuture<File> driverFuture = testInstance ? CompletableFuture.completedFuture(null) :
+                installationFuture.thenCompose(tmpResolvedBinary -> ChromeDriverResolver.resolveDriverAsync(
+                        tmpResolvedBinary.binaryFile(), executor));
+
+        //Stage 3: Launch the instance.
+
+        CompletableFuture<List<ExtensionCache.CachedExtension>> finalExtensionsFuture = extensionsFuture;
+
+        CompletableFuture<C4jRemoteChromium> launchFuture = installationFuture.thenCombine(driverFuture,
+                LaunchParameters::new).thenCompose(tmpLaunchParameters -> runStage(() -> {
+                    if(testInstance) {
+                        tmpLaunchParameters.resolvedBinary().release();
+
+                        return new C4jRemoteChromium();
+                    }
+
+                    C4jRemoteChromium c4jRemoteChromium = new C4jRemoteChromium(tmpLaunchParameters.resolvedBinary(),
+                            c4jChromeOptions, finalExtensionsFuture, tmpLaunchParameters.chromeDriverFile());
+
+                    //The launch can't be interrupted, so an instance launched after the cancellation is quit.
+
+                    if(resultFuture.isCancelled()) {
+                        c4jRemoteChromium.quit();
+
+                        throw new CancellationException("The provisioning was cancelled.");
+                    }
+
+                    return c4jRemoteChromium;
+                }));
+
+        launchFuture.whenComplete((c4jRemoteChromium, throwable) -> {
+            if(throwable != null) {
+                //The usage of the revision isn't taken over, if the instance wasn't launched (releasing it twice has
+                //no effect).
+
+                installationFuture.thenAccept(DistributionRevisions.ResolvedBinary::release);
+
+                resultFuture.completeExceptionally(unwrap(throwable));
+
+                return;
+            }
+
+            if(!resultFuture.complete(c4jRemoteChromium)) {
+                LOGGER.info("The provisioning was cancelled. Quit launched instance.");
+
+                c4jRemoteChromium.quit();
+
+                return;
+            }
+
+            LOGGER.info("Provisioned instance in {}ms.", (System.nanoTime() - startTime) / 1_000_000);
+        });
+    }
+
+    /**
+     * Runs the given stage with the executor. The thread of the stage is interrupted, if the stage is cancelled.
+     */
+    private <T> CompletableFuture<T> runStage(Callable<T> callable) {
+        CompletableFuture<T> stageFuture = new CompletableFuture<>();
+
+        FutureTask<T> futureTask = new FutureTask<>(callable) {
+            @Override
+            protected void done() {
+                if(isCancelled()) {
+                    stageFuture.cancel(false);
+
+                    return;
+                }
+
+                try {
+                    stageFuture.complete(get());
+                }
+                catch (ExecutionException executionException) {
+                    stageFuture.completeExceptionally(executionException.getCause());
+                }
+                catch (Exception exception) {
+                    stageFuture.completeExceptionally(exception);
+                }
+            }
+        };
+
+        stageFuture.whenComplete((ignoredResult, ignoredThrowable) -> {
+            if(stageFuture.isCancelled())
+                futureTask.cancel(true);
+        });
+
+        stageFutures.add(stageFuture);
+
+        if(resultFuture.isCancelled()) {
+            stageFuture.cancel(true);
+
+            return stageFuture;
+        }
+
+        executor.execute(futureTask);
+
+        return stageFuture;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException) &&
+                throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+
+        return throwable;
+    }
+}
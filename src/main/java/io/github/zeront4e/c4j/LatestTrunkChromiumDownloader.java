@@ -20,9 +20,18 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 class LatestTrunkChromiumDownloader {
     private static final Logger LOGGER = LoggerFactory.getLogger(LatestTrunkChromiumDownloader.class);
@@ -33,6 +42,24 @@ class LatestTrunkChromiumDownloader {
     public static final String LINUX_X86_ARCHITECTURE_PROPERTY = "chromium4j.download-url.latest-trunk.linux_x86";
     public static final String LINUX_X64_ARCHITECTURE_PROPERTY = "chromium4j.download-url.latest-trunk.linux_x64";
 
+    public static final String WINDOWS_X86_LAST_CHANGE_PROPERTY =
+            "chromium4j.download-url.latest-trunk.last-change.windows_x86";
+    public static final String WINDOWS_X64_LAST_CHANGE_PROPERTY =
+            "chromium4j.download-url.latest-trunk.last-change.windows_x64";
+
+    public static final String LINUX_X86_LAST_CHANGE_PROPERTY =
+            "chromium4j.download-url.latest-trunk.last-change.linux_x86";
+    public static final String LINUX_X64_LAST_CHANGE_PROPERTY =
+            "chromium4j.download-url.latest-trunk.last-change.linux_x64";
+
+    //The optional SHA-256 checksums of the downloaded archives (e.g. for pinned download URLs).
+
+    public static final String WINDOWS_X86_CHECKSUM_PROPERTY = "chromium4j.download-checksum.latest-trunk.windows_x86";
+    public static final String WINDOWS_X64_CHECKSUM_PROPERTY = "chromium4j.download-checksum.latest-trunk.windows_x64";
+
+    public static final String LINUX_X86_CHECKSUM_PROPERTY = "chromium4j.download-checksum.latest-trunk.linux_x86";
+    public static final String LINUX_X64_CHECKSUM_PROPERTY = "chromium4j.download-checksum.latest-trunk.linux_x64";
+
     public static final String DEFAULT_WINDOWS_X86_URL =
             "https://download-chromium.appspot.com/dl/Win";
 
@@ -45,9 +72,37 @@ class LatestTrunkChromiumDownloader {
     public static final String DEFAULT_LINUX_X64_URL =
             "https://download-chromium.appspot.com/dl/Linux_x64";
 
+    /**
+     * The property to configure the number of concurrently downloaded segments (1 disables segmented downloads).
+     */
+    public static final String DOWNLOAD_SEGMENTS_PROPERTY = "chromium4j.download-segments";
+
+    public static final int DEFAULT_DOWNLOAD_SEGMENTS = 4;
+
+    /**
+     * The property to enable or disable resumable downloads (enabled by default).
+     */
+    public static final String DOWNLOAD_RESUMABLE_PROPERTY = "chromium4j.download-resumable";
+
+    /**
+     * The maximum age of a partial download. Older partial downloads are deleted instead of being resumed. Downloaded
+     * archives of interrupted installations are deleted after the same period.
+     */
+    public static final Duration MAX_PARTIAL_FILE_AGE = Duration.ofDays(7);
+
     private static final String ZIP_FILE_PREFIX = "chromium-trunk";
     private static final String ZIP_FILE_SUFFIX = ".zip";
 
+    private static final Pattern REVISION_PATTERN = Pattern.compile("/(\\d+)/[^/]+\\.zip$");
+
+    private static final Pattern ARCHIVE_FILE_NAME_PATTERN = Pattern.compile(Pattern.quote(ZIP_FILE_PREFIX) +
+            "\\d+" + Pattern.quote(ZIP_FILE_SUFFIX));
+
+    private static final String PARTIAL_FILE_NAME = ZIP_FILE_PREFIX + ZIP_FILE_SUFFIX + ".part";
+    private static final String JOURNAL_FILE_NAME = ZIP_FILE_PREFIX + ZIP_FILE_SUFFIX + ".journal";
+
+    private static final String DOWNLOAD_DIRECTORY_SUFFIX = ".download";
+
     /**
      * Downloads and extracts the latest Chromium build for the given OS architecture and returns the final
      * browser-directory.
@@ -73,20 +128,92 @@ class LatestTrunkChromiumDownloader {
             throw new Exception("The given OS \"" + infoString + "\" is unsupported.");
         }
 
-        Path extractionDir = downloadDirectoryPath.resolve(c4jOsChromiumDistribution.getId());
+        //The revision is usually part of the resolved download URL. The revision of the LAST_CHANGE file (if
+        //configured) is recorded for download URLs without a revision.
+
+        String lastChangeRevision = obtainLastChangeRevisionOrNull(c4jOsArchitecture, properties);
+
+        String expectedChecksum = getChecksumOrNull(c4jOsArchitecture, properties);
+
+        Path distributionDir = downloadDirectoryPath.resolve(c4jOsChromiumDistribution.getId());
+
+        //Every installation is extracted to a new revision directory. The revision directory is staged first and
+        //becomes the current revision once the installation is complete, so running instances keep their binary. The
+        //(partial) download is stored in a separate directory, so it can be resumed.
+
+        Path extractionDir = DistributionRevisions.createRevisionDirectoryPath(distributionDir);
+        Path stagingDir = extractionDir.resolveSibling(extractionDir.getFileName() +
+                DistributionRevisions.STAGING_DIRECTORY_SUFFIX);
+        Path partialDownloadDir = downloadDirectoryPath.resolve(c4jOsChromiumDistribution.getId() +
+                DOWNLOAD_DIRECTORY_SUFFIX);
+
+        //Remove the staging directories of interrupted installations.
+
+        DistributionRevisions.deleteStagingDirectories(distributionDir);
 
         Files.createDirectories(downloadDirectoryPath);
-        Files.createDirectories(extractionDir);
+        Files.createDirectories(stagingDir);
+        Files.createDirectories(partialDownloadDir);
+
+        deleteStaleArchives(partialDownloadDir);
 
         String zipFileName = ZIP_FILE_PREFIX + System.currentTimeMillis() + ZIP_FILE_SUFFIX;
 
-        Path zipFilePath = extractionDir.resolve(zipFileName);
+        ContentAddressedStore contentAddressedStore = null;
+        ContentAddressedStore.Tree tree = null;
 
-        downloadFileOrFail(obtainDownloadUrl, zipFilePath);
+        if(isDeduplicatedInstallation(properties)) {
+            contentAddressedStore = new ContentAddressedStore(downloadDirectoryPath.resolve(
+                    C4jChromiumDownloader.BLOB_STORE_DIRECTORY));
 
-        extractZipOrFail(zipFilePath, extractionDir);
+            //The references are recorded for the final directory, because the staging directory is renamed.
 
-        LOGGER.info("Chromium downloaded and extracted successfully to: {}", extractionDir);
+            tree = contentAddressedStore.openTree(extractionDir);
+        }
+
+        if(isStreamingInstallation(properties)) {
+            StreamingZipInstaller.InstallationStatistics statistics = installStreamingOrFail(obtainDownloadUrl,
+                    stagingDir, deleteDownloadedFile ? null : stagingDir.resolve(zipFileName), tree, expectedChecksum);
+
+            writeManifestOrFail(c4jOsChromiumDistribution, c4jOsArchitecture, stagingDir,
+                    statistics.downloadResult(), statistics.extractionResult(), lastChangeRevision);
+
+            publishStagingDirectoryOrFail(stagingDir, extractionDir);
+
+            commitTree(contentAddressedStore, tree);
+
+            LOGGER.info("Chromium downloaded and extracted successfully to: {}", extractionDir);
+
+            return extractionDir.toFile();
+        }
+
+        Path zipFilePath = partialDownloadDir.resolve(zipFileName);
+
+        FileDownloadUtil.DownloadResult downloadResult;
+
+        if(isDownloadResumable(properties)) {
+            Path partialFilePath = partialDownloadDir.resolve(PARTIAL_FILE_NAME);
+            Path journalFilePath = partialDownloadDir.resolve(JOURNAL_FILE_NAME);
+
+            deleteStalePartialFiles(partialFilePath, journalFilePath);
+
+            downloadResult = downloadFileOrFail(obtainDownloadUrl, partialFilePath, journalFilePath,
+                    getDownloadSegments(properties), expectedChecksum);
+
+            //The complete file is moved to its final name, so a partial file is never extracted.
+
+            Files.move(partialFilePath, zipFilePath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        else {
+            downloadResult = downloadFileOrFail(obtainDownloadUrl, zipFilePath, null, getDownloadSegments(properties),
+                    expectedChecksum);
+        }
+
+        ZipUtil.ExtractionResult extractionResult = extractZipOrFail(zipFilePath, stagingDir,
+                getExtractionParallelism(properties), tree);
+
+        writeManifestOrFail(c4jOsChromiumDistribution, c4jOsArchitecture, stagingDir, downloadResult,
+                extractionResult, lastChangeRevision);
 
         if(deleteDownloadedFile) {
             LOGGER.info("Try to delete downloaded file.");
@@ -100,10 +227,137 @@ class LatestTrunkChromiumDownloader {
                 LOGGER.warn("Unable to delete downloaded file.", exception);
             }
         }
+        else {
+            //Keep the downloaded file in the distribution directory.
+
+            Files.move(zipFilePath, stagingDir.resolve(zipFileName));
+        }
+
+        publishStagingDirectoryOrFail(stagingDir, extractionDir);
+
+        commitTree(contentAddressedStore, tree);
+
+        LOGGER.info("Chromium downloaded and extracted successfully to: {}", extractionDir);
 
         return extractionDir.toFile();
     }
 
+    /**
+     * Renames the staging directory to the revision directory and makes the revision the current revision. Unused
+     * previous revisions are retired afterward.
+     * @param stagingDir The staging directory of the completed installation.
+     * @param extractionDir The revision directory.
+     * @throws IOException An unexpected exception.
+     */
+    private static void publishStagingDirectoryOrFail(Path stagingDir, Path extractionDir) throws IOException {
+        Files.move(stagingDir, extractionDir, StandardCopyOption.ATOMIC_MOVE);
+
+        DistributionRevisions.setCurrentRevisionOrFail(extractionDir);
+
+        DistributionRevisions.retireUnusedRevisions(extractionDir.getParent().getParent());
+    }
+
+    /**
+     * Checks whether the latest build differs from the current installation. If a LAST_CHANGE URL is configured for
+     * the architecture, the latest revision is read from it. Otherwise, the download URL is requested with a HEAD
+     * request and the revision of the resolved URL (or the validator) is compared with the installation manifest.
+     * @param c4jOsChromiumDistribution The Chromium distribution.
+     * @param downloadDirectoryPath The directory the distributions are installed to.
+     * @param c4jOsArchitecture The OS architecture.
+     * @param properties The properties containing the download URLs (overwrites of the default URLs).
+     * @return The result of the check.
+     * @throws Exception An unexpected exception.
+     */
+    static C4jChromiumDownloader.UpdateCheck checkForUpdateOrFail(C4jOsChromiumDistribution c4jOsChromiumDistribution,
+                                                                  Path downloadDirectoryPath,
+                                                                  C4jOsArchitecture c4jOsArchitecture,
+                                                                  Properties properties) throws Exception {
+        File installationDirectory = DistributionRevisions.getInstallationDirectory(downloadDirectoryPath
+                .resolve(c4jOsChromiumDistribution.getId()).toFile());
+
+        InstallationManifest installationManifest = InstallationManifest.loadOrNull(installationDirectory);
+
+        if(installationManifest != null && installationManifest.c4jOsArchitecture() != c4jOsArchitecture)
+            installationManifest = null;
+
+        String installedRevision = installationManifest == null ? null : installationManifest.revision();
+
+        String lastChangeUrl = getLastChangeUrlOrNull(c4jOsArchitecture, properties);
+
+        if(lastChangeUrl != null) {
+            String latestRevision = FileDownloadUtil.downloadTextOrFail(lastChangeUrl).trim();
+
+            return new C4jChromiumDownloader.UpdateCheck(installationManifest == null ||
+                    !latestRevision.equals(installedRevision), installedRevision, latestRevision);
+        }
+
+        String downloadUrl = getDownloadUrl(c4jOsArchitecture, properties);
+
+        if(downloadUrl == null)
+            throw new Exception("The given OS architecture \"" + c4jOsArchitecture.name() + "\" is unsupported.");
+
+        FileDownloadUtil.DownloadResult probeResult = FileDownloadUtil.probeFileOrFail(downloadUrl);
+
+        String latestRevision = parseRevisionOrNull(probeResult.resolvedUri());
+
+        boolean updateAvailable;
+
+        if(installationManifest == null) {
+            updateAvailable = true;
+        }
+        else if(latestRevision != null && installedRevision != null) {
+            updateAvailable = !latestRevision.equals(installedRevision);
+        }
+        else if(probeResult.validator() != null && installationManifest.validator() != null) {
+            updateAvailable = !probeResult.validator().equals(installationManifest.validator());
+        }
+        else {
+            //There is nothing to compare, so we can't rule out an update.
+
+            updateAvailable = true;
+        }
+
+        return new C4jChromiumDownloader.UpdateCheck(updateAvailable, installedRevision, latestRevision);
+    }
+
+    private static String getLastChangeUrlOrNull(C4jOsArchitecture osArchitecture, Properties properties) {
+        return switch (osArchitecture) {
+            case WINDOWS_X86 -> properties.getProperty(WINDOWS_X86_LAST_CHANGE_PROPERTY);
+            case WINDOWS_X64 -> properties.getProperty(WINDOWS_X64_LAST_CHANGE_PROPERTY);
+            case LINUX_X86 -> properties.getProperty(LINUX_X86_LAST_CHANGE_PROPERTY);
+            case LINUX_X64 -> properties.getProperty(LINUX_X64_LAST_CHANGE_PROPERTY);
+            default -> null;
+        };
+    }
+
+    private static String getChecksumOrNull(C4jOsArchitecture osArchitecture, Properties properties) {
+        String checksum = switch (osArchitecture) {
+            case WINDOWS_X86 -> properties.getProperty(WINDOWS_X86_CHECKSUM_PROPERTY);
+            case WINDOWS_X64 -> properties.getProperty(WINDOWS_X64_CHECKSUM_PROPERTY);
+            case LINUX_X86 -> properties.getProperty(LINUX_X86_CHECKSUM_PROPERTY);
+            case LINUX_X64 -> properties.getProperty(LINUX_X64_CHECKSUM_PROPERTY);
+            default -> null;
+        };
+
+        return checksum == null || checksum.isBlank() ? null : checksum.trim();
+    }
+
+    private static String obtainLastChangeRevisionOrNull(C4jOsArchitecture osArchitecture, Properties properties) {
+        String lastChangeUrl = getLastChangeUrlOrNull(osArchitecture, properties);
+
+        if(lastChangeUrl == null)
+            return null;
+
+        try {
+            return FileDownloadUtil.downloadTextOrFail(lastChangeUrl).trim();
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to obtain the latest revision of URL \"{}\".", lastChangeUrl, exception);
+
+            return null;
+        }
+    }
+
     private static String getDownloadUrl(C4jOsArchitecture osArchitecture, Properties properties) {
         return switch (osArchitecture) {
             case WINDOWS_X86 -> properties.getProperty(WINDOWS_X86_ARCHITECTURE_PROPERTY, DEFAULT_WINDOWS_X86_URL);
@@ -114,29 +368,238 @@ class LatestTrunkChromiumDownloader {
         };
     }
 
-    private static void downloadFileOrFail(String fileUrl, Path destinationPath) throws Exception {
-        LOGGER.info("Try to download Chromium browser from URL: {}", fileUrl);
+    private static int getDownloadSegments(Properties properties) {
+        String downloadSegments = properties.getProperty(DOWNLOAD_SEGMENTS_PROPERTY);
+
+        if(downloadSegments == null)
+            return DEFAULT_DOWNLOAD_SEGMENTS;
+
+        try {
+            return Math.max(1, Integer.parseInt(downloadSegments.trim()));
+        }
+        catch (NumberFormatException numberFormatException) {
+            LOGGER.warn("Invalid value \"{}\" for property \"{}\". Use default value {}.", downloadSegments,
+                    DOWNLOAD_SEGMENTS_PROPERTY, DEFAULT_DOWNLOAD_SEGMENTS);
+
+            return DEFAULT_DOWNLOAD_SEGMENTS;
+        }
+    }
+
+    private static int getExtractionParallelism(Properties properties) {
+        int defaultParallelism = Runtime.getRuntime().availableProcessors();
+
+        String extractionParallelism = properties.getProperty(
+                C4jChromiumDownloader.EXTRACTION_PARALLELISM_PROPERTY);
+
+        if(extractionParallelism == null)
+            return defaultParallelism;
+
+        try {
+            return Math.max(1, Integer.parseInt(extractionParallelism.trim()));
+        }
+        catch (NumberFormatException numberFormatException) {
+            LOGGER.warn("Invalid value \"{}\" for property \"{}\". Use default value {}.", extractionParallelism,
+                    C4jChromiumDownloader.EXTRACTION_PARALLELISM_PROPERTY, defaultParallelism);
+
+            return defaultParallelism;
+        }
+    }
+
+    private static boolean isDeduplicatedInstallation(Properties properties) {
+        return Boolean.parseBoolean(properties.getProperty(
+                C4jChromiumDownloader.DEDUPLICATED_INSTALLATION_PROPERTY, "false").trim());
+    }
+
+    private static void commitTree(ContentAddressedStore contentAddressedStore,
+                                   ContentAddressedStore.Tree tree) throws IOException {
+        if(tree == null)
+            return;
+
+        tree.commitOrFail();
+
+        //Remove the blobs of replaced installations.
+
+        contentAddressedStore.collectGarbage();
+    }
+
+    private static boolean isStreamingInstallation(Properties properties) {
+        return Boolean.parseBoolean(properties.getProperty(C4jChromiumDownloader.STREAMING_INSTALLATION_PROPERTY,
+                "false").trim());
+    }
+
+    private static boolean isDownloadResumable(Properties properties) {
+        return Boolean.parseBoolean(properties.getProperty(DOWNLOAD_RESUMABLE_PROPERTY, "true").trim());
+    }
+
+    /**
+     * Deletes partial downloads that can't be resumed (a partial file without a journal or vice versa) or that are
+     * older than {@link #MAX_PARTIAL_FILE_AGE}.
+     * @param partialFilePath The path of the partial file.
+     * @param journalFilePath The path of the journal file.
+     */
+    private static void deleteStalePartialFiles(Path partialFilePath, Path journalFilePath) {
+        try {
+            boolean partialFileExists = Files.isRegularFile(partialFilePath);
+            boolean journalFileExists = Files.isRegularFile(journalFilePath);
+
+            Instant minModificationTime = Instant.now().minus(MAX_PARTIAL_FILE_AGE);
+
+            boolean stale = partialFileExists != journalFileExists || (journalFileExists &&
+                    Files.getLastModifiedTime(journalFilePath).toInstant().isBefore(minModificationTime));
+
+            if(stale) {
+                LOGGER.info("Delete stale partial download \"{}\".", partialFilePath);
+
+                Files.deleteIfExists(partialFilePath);
+                Files.deleteIfExists(journalFilePath);
+            }
+
+            Files.deleteIfExists(journalFilePath.resolveSibling(journalFilePath.getFileName() + ".tmp"));
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to delete stale partial download \"{}\".", partialFilePath, exception);
+        }
+    }
+
+    /**
+     * Deletes the downloaded archives of interrupted installations (e.g. if the extraction failed), which are older
+     * than {@link #MAX_PARTIAL_FILE_AGE}. Every installation uses a new archive name, so these archives are never
+     * reused.
+     */
+    private static void deleteStaleArchives(Path partialDownloadDir) {
+        Instant minModificationTime = Instant.now().minus(MAX_PARTIAL_FILE_AGE);
+
+        try (Stream<Path> pathStream = Files.list(partialDownloadDir)) {
+            List<Path> archivePaths = pathStream.filter(tmpPath -> ARCHIVE_FILE_NAME_PATTERN.matcher(
+                    tmpPath.getFileName().toString()).matches()).toList();
+
+            for(Path tmpArchivePath : archivePaths) {
+                if(Files.getLastModifiedTime(tmpArchivePath).toInstant().isBefore(minModificationTime)) {
+                    LOGGER.info("Delete stale downloaded archive \"{}\".", tmpArchivePath);
+
+                    Files.deleteIfExists(tmpArchivePath);
+                }
+            }
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to delete stale downloaded archives of \"{}\".", partialDownloadDir, exception);
+        }
+    }
+
+    private static FileDownloadUtil.DownloadResult downloadFileOrFail(String fileUrl, Path destinationPath,
+                                                                      Path journalFilePath, int segmentCount,
+                                                                      String expectedChecksum) throws Exception {
+        LOGGER.info("Try to download Chromium browser from URL: {} Segments: {} Resumable: {} Checksum: {}",
+                fileUrl, segmentCount, journalFilePath != null, expectedChecksum != null);
 
         long time = System.currentTimeMillis();
 
-        FileDownloadUtil.downloadFileOrFail(fileUrl, destinationPath.toFile());
+        FileDownloadUtil.DownloadResult downloadResult = FileDownloadUtil.downloadFileResumableOrFail(fileUrl,
+                destinationPath.toFile(), journalFilePath == null ? null : journalFilePath.toFile(), segmentCount,
+                expectedChecksum, totalDownloadedBytes -> LOGGER.info("Downloaded {} MiB...", totalDownloadedBytes / (1024 * 1024)));
 
         time = System.currentTimeMillis() - time;
 
         LOGGER.info("Downloaded file in {}ms.", time);
+
+        return downloadResult;
     }
 
-    private static void extractZipOrFail(Path zipFilePath, Path outputDirectoryPath) throws IOException {
-        LOGGER.info("Try to extract downloaded ZIP file \"{}\" to \"{}\".", zipFilePath.toString(),
-                outputDirectoryPath.toString());
+    private static StreamingZipInstaller.InstallationStatistics installStreamingOrFail(
+            String fileUrl, Path outputDirectoryPath, Path archiveFilePath, ContentAddressedStore.Tree tree,
+            String expectedChecksum) throws Exception {
+        LOGGER.info("Try to download and extract Chromium browser at the same time from URL: {} Archive file: {}",
+                fileUrl, archiveFilePath);
+
+        StreamingZipInstaller.InstallationStatistics statistics = StreamingZipInstaller.installOrFail(fileUrl,
+                outputDirectoryPath, archiveFilePath, tree, expectedChecksum);
+
+        LOGGER.info("Downloaded {} MiB in {}ms ({} MiB/s). Extracted {} MiB in {}ms ({} MiB/s). Total time: {}ms.",
+                statistics.downloadedBytes() / (1024 * 1024), statistics.downloadNanos() / 1_000_000,
+                String.format(Locale.ROOT, "%.1f", statistics.getDownloadThroughput()),
+                statistics.extractedBytes() / (1024 * 1024), statistics.extractionNanos() / 1_000_000,
+                String.format(Locale.ROOT, "%.1f", statistics.getExtractionThroughput()),
+                statistics.totalNanos() / 1_000_000);
+
+        return statistics;
+    }
+
+    private static ZipUtil.ExtractionResult extractZipOrFail(Path zipFilePath, Path outputDirectoryPath,
+                                                             int parallelism,
+                                                             ContentAddressedStore.Tree tree) throws IOException {
+        LOGGER.info("Try to extract downloaded ZIP file \"{}\" to \"{}\". Parallelism: {}", zipFilePath.toString(),
+                outputDirectoryPath.toString(), parallelism);
 
         long time = System.currentTimeMillis();
 
-        ZipUtil.unzip(zipFilePath.toFile(), outputDirectoryPath.toFile());
+        ZipUtil.ExtractionResult extractionResult;
+
+        if(parallelism > 1) {
+            extractionResult = ZipUtil.unzipParallel(zipFilePath.toFile(), outputDirectoryPath.toFile(), parallelism,
+                    tree);
+        }
+        else {
+            extractionResult = ZipUtil.unzip(zipFilePath.toFile(), outputDirectoryPath.toFile(), tree);
+        }
 
         time = System.currentTimeMillis() - time;
 
-        LOGGER.info("Extracted ZIP file in {}ms.", time);
+        LOGGER.info("Extracted ZIP file in {}ms. Files: {}", time, extractionResult.fileCount());
+
+        return extractionResult;
     }
-}
 
+    /**
+     * Writes the installation manifest, so the executable can be resolved without searching the installation
+     * directory.
+     */
+    private static void writeManifestOrFail(C4jOsChromiumDistribution c4jOsChromiumDistribution,
+                                            C4jOsArchitecture c4jOsArchitecture, Path extractionDir,
+                                            FileDownloadUtil.DownloadResult downloadResult,
+                                            ZipUtil.ExtractionResult extractionResult,
+                                            String fallbackRevision) throws IOException {
+        String executableName = c4jOsChromiumDistribution.getArchitectureExecutableNameMap().get(c4jOsArchitecture);
+
+        File executableFile = executableName == null ? null :
+                FileSearchUtil.findFileOrNull(extractionDir.toFile(), executableName);
+
+        if(executableFile == null) {
+            LOGGER.warn("Unable to find the executable \"{}\". Skip writing the installation manifest.",
+                    executableName);
+
+            return;
+        }
+
+        String executablePath = extractionDir.toAbsolutePath().relativize(executableFile.toPath().toAbsolutePath())
+                .toString();
+
+        URI resolvedUri = downloadResult == null ? null : downloadResult.resolvedUri();
+
+        String revision = parseRevisionOrNull(resolvedUri);
+
+        InstallationManifest installationManifest = new InstallationManifest(executablePath,
+                revision == null ? fallbackRevision : revision, c4jOsArchitecture, extractionResult.fileCount(),
+                resolvedUri == null ? null : resolvedUri.toString(),
+                downloadResult == null ? null : downloadResult.validator(), System.currentTimeMillis());
+
+        installationManifest.storeOrFail(extractionDir.toFile());
+
+        LOGGER.info("Wrote installation manifest. Executable: \"{}\" Revision: {}", executablePath,
+                installationManifest.revision());
+    }
+
+    /**
+     * Parses the revision of a trunk build URL (e.g. ".../Linux_x64/1234567/chrome-linux.zip") or returns null, if
+     * the URL doesn't contain a revision.
+     * @param resolvedUri The resolved download URL.
+     * @return The revision or null.
+     */
+    static String parseRevisionOrNull(URI resolvedUri) {
+        if(resolvedUri == null || resolvedUri.getPath() == null)
+            return null;
+
+        Matcher matcher = REVISION_PATTERN.matcher(resolvedUri.getPath());
+
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
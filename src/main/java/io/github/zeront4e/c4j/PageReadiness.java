@@ -0,0 +1,401 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the readiness of the page of a DevTools session with events: The lifecycle events of the main frame (domain
+ * "Page"), the running requests (domain "Network") and the calls of a binding, which reports appeared elements
+ * (domain "Runtime"). The events are dispatched on the thread of the connection, so the listeners only update the state
+ * and wake up the waiting threads. The lifecycle events are remembered per document, so a condition of the current
+ * document also holds, if its event was fired before the wait.
+ */
+class PageReadiness {
+    /**
+     * The name of the binding, which is called by the mutation observers with their token.
+     */
+    static final String BINDING_NAME = "c4jSelectorAppeared";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageReadiness.class);
+
+    private static final Event<Map<String, Object>> LIFECYCLE_EVENT = createEvent("Page.lifecycleEvent");
+
+    private static final Event<Map<String, Object>> REQUEST_WILL_BE_SENT_EVENT = createEvent(
+            "Network.requestWillBeSent");
+
+    private static final Event<Map<String, Object>> LOADING_FINISHED_EVENT = createEvent("Network.loadingFinished");
+
+    private static final Event<Map<String, Object>> LOADING_FAILED_EVENT = createEvent("Network.loadingFailed");
+
+    private static final Event<Map<String, Object>> BINDING_CALLED_EVENT = createEvent("Runtime.bindingCalled");
+
+    private static final String INIT_LIFECYCLE_EVENT = "init";
+
+    private static final AtomicLong SELECTOR_TOKEN_COUNTER = new AtomicLong();
+
+    private static final Json JSON = new Json();
+
+    private final DevTools devTools;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChangedCondition = lock.newCondition();
+
+    //The state of the session (guarded by the lock).
+
+    private String mainFrameId;
+    private String loaderId;
+    private long documentGeneration;
+
+    private final Set<String> lifecycleEvents = new HashSet<>();
+
+    private final Map<String, String> inflightRequestLoaderIds = new HashMap<>();
+    private long lastNetworkActivityTime = System.nanoTime();
+
+    private final Set<String> awaitedSelectorTokens = new HashSet<>();
+    private final Set<String> appearedSelectorTokens = new HashSet<>();
+
+    /**
+     * Creates a new tracker, registers its listeners and enables the events of the current session. The listeners
+     * stay registered for the lifetime of the DevTools instance (also if the session is reconnected).
+     * @param devTools The DevTools instance.
+     */
+    PageReadiness(DevTools devTools) {
+        this.devTools = devTools;
+
+        devTools.addListener(LIFECYCLE_EVENT, this::handleLifecycleEvent);
+        devTools.addListener(REQUEST_WILL_BE_SENT_EVENT, this::handleRequestWillBeSent);
+        devTools.addListener(LOADING_FINISHED_EVENT, this::handleLoadingEnded);
+        devTools.addListener(LOADING_FAILED_EVENT, this::handleLoadingEnded);
+        devTools.addListener(BINDING_CALLED_EVENT, this::handleBindingCalled);
+
+        applyToSession();
+    }
+
+    /**
+     * Enables the events of the current session (e.g. after the session was reconnected) and resets the state to the
+     * current document.
+     */
+    @SuppressWarnings("unchecked")
+    void applyToSession() {
+        devTools.send(new Command<>("Page.enable", Map.of()));
+        devTools.send(new Command<>("Network.enable", Map.of()));
+        devTools.send(new Command<>("Runtime.addBinding", Map.of("name", BINDING_NAME)));
+
+        Map<String, Object> result = devTools.send(new Command<>("Page.getFrameTree", Map.of(),
+                tmpJsonInput -> tmpJsonInput.read(Json.MAP_TYPE)));
+
+        Map<String, Object> frame = result.get("frameTree") instanceof Map<?, ?> frameTree &&
+                frameTree.get("frame") instanceof Map<?, ?> mainFrame ? (Map<String, Object>) mainFrame : Map.of();
+
+        lock.lock();
+
+        try {
+            mainFrameId = getStringOrNull(frame, "id");
+
+            startDocument(getStringOrNull(frame, "loaderId"));
+
+            inflightRequestLoaderIds.clear();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        //Chromium fires the past lifecycle events of the current document again, once the events are enabled.
+
+        devTools.send(new Command<>("Page.setLifecycleEventsEnabled", Map.of("enabled", true)));
+    }
+
+    /**
+     * Navigates the tab to the given URL (DevTools command "Page.navigate") and waits until the given condition holds
+     * for the new document.
+     * @param url The URL to navigate to.
+     * @param c4jReadinessCondition The condition to wait for.
+     * @param timeout The maximal time to wait (including the navigation).
+     * @return The time until the condition held.
+     * @throws Exception An unexpected exception (e.g. if the navigation failed or the timeout elapsed).
+     */
+    Duration navigateOrFail(String url, C4jReadinessCondition c4jReadinessCondition,
+                            Duration timeout) throws Exception {
+        long startTime = System.nanoTime();
+
+        Map<String, Object> result = devTools.send(new Command<>("Page.navigate", Map.of("url", url),
+                tmpJsonInput -> tmpJsonInput.read(Json.MAP_TYPE)));
+
+        String errorText = getStringOrNull(result, "errorText");
+
+        if(errorText != null && !errorText.isEmpty())
+            throw new Exception("Unable to navigate to URL \"" + url + "\". Reason: " + errorText);
+
+        //A navigation within the document (e.g. to a fragment) doesn't create a new loader.
+
+        return awaitOrFail(c4jReadinessCondition, getStringOrNull(result, "loaderId"), startTime, timeout);
+    }
+
+    /**
+     * Waits until the given condition holds for the current document.
+     * @param c4jReadinessCondition The condition to wait for.
+     * @param timeout The maximal time to wait.
+     * @return The time until the condition held.
+     * @throws Exception An unexpected exception (e.g. if the timeout elapsed).
+     */
+    Duration awaitOrFail(C4jReadinessCondition c4jReadinessCondition, Duration timeout) throws Exception {
+        return awaitOrFail(c4jReadinessCondition, null, System.nanoTime(), timeout);
+    }
+
+    private Duration awaitOrFail(C4jReadinessCondition c4jReadinessCondition, String expectedLoaderId,
+                                 long startTime, Duration timeout) throws Exception {
+        long deadline = startTime + timeout.toNanos();
+
+        boolean selectorCondition = c4jReadinessCondition.getType() == C4jReadinessCondition.Type.SELECTOR;
+
+        String selectorToken = selectorCondition ? "c4j-" + SELECTOR_TOKEN_COUNTER.incrementAndGet() : null;
+
+        long observedGeneration = -1;
+
+        lock.lock();
+
+        try {
+            if(selectorToken != null)
+                awaitedSelectorTokens.add(selectorToken);
+
+            while(true) {
+                long currentTime = System.nanoTime();
+
+                long waitNanos = deadline - currentTime;
+
+                //The condition is only checked, once the expected document is committed.
+
+                if(expectedLoaderId == null || expectedLoaderId.equals(loaderId)) {
+                    switch (c4jReadinessCondition.getType()) {
+                        case LIFECYCLE_EVENT -> {
+                            if(lifecycleEvents.contains(c4jReadinessCondition.getLifecycleEvent().getDevToolsName()))
+                                return Duration.ofNanos(currentTime - startTime);
+                        }
+                        case NETWORK_IDLE -> {
+                            if(inflightRequestLoaderIds.size() <= c4jReadinessCondition.getMaxInflightRequests()) {
+                                long remainingQuietNanos = c4jReadinessCondition.getQuietWindow().toNanos() -
+                                        (currentTime - lastNetworkActivityTime);
+
+                                if(remainingQuietNanos <= 0)
+                                    return Duration.ofNanos(currentTime - startTime);
+
+                                waitNanos = Math.min(waitNanos, remainingQuietNanos);
+                            }
+                        }
+                        case SELECTOR -> {
+                            if(appearedSelectorTokens.contains(selectorToken))
+                                return Duration.ofNanos(currentTime - startTime);
+
+                            //Every document needs its own observer.
+
+                            if(observedGeneration != documentGeneration) {
+                                observedGeneration = documentGeneration;
+
+                                lock.unlock();
+
+                                try {
+                                    observeSelectorOrFail(c4jReadinessCondition.getCssSelector(), selectorToken);
+                                }
+                                finally {
+                                    lock.lock();
+                                }
+
+                                continue;
+                            }
+                        }
+                    }
+                }
+
+                if(waitNanos <= 0)
+                    throw new Exception("The condition (" + c4jReadinessCondition + ") wasn't met within " +
+                            timeout.toMillis() + " ms.");
+
+                stateChangedCondition.awaitNanos(waitNanos);
+            }
+        }
+        finally {
+            if(selectorToken != null) {
+                awaitedSelectorTokens.remove(selectorToken);
+                appearedSelectorTokens.remove(selectorToken);
+            }
+
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Injects a mutation observer into the current document, which calls the binding with the given token, once an
+     * element matches the given selector.
+     */
+    private void observeSelectorOrFail(String cssSelector, String selectorToken) throws Exception {
+        //The strings are embedded as JSON literals.
+
+        String expression = "(() => {" +
+                "const selector = " + JSON.toJson(cssSelector) + ";" +
+                "const report = () => window." + BINDING_NAME + "(" + JSON.toJson(selectorToken) + ");" +
+                "if(document.querySelector(selector)) { report(); return; }" +
+                "const observer = new MutationObserver(() => {" +
+                "if(document.querySelector(selector)) { observer.disconnect(); report(); }" +
+                "});" +
+                "observer.observe(document, {childList: true, subtree: true, attributes: true});" +
+                "})()";
+
+        Map<String, Object> result;
+
+        try {
+            result = devTools.send(new Command<>("Runtime.evaluate", Map.of("expression", expression),
+                    tmpJsonInput -> tmpJsonInput.read(Json.MAP_TYPE)));
+        }
+        catch (Exception exception) {
+            //The document may have been replaced in the meantime (the next document is observed again).
+
+            LOGGER.debug("Unable to observe selector \"{}\".", cssSelector, exception);
+
+            return;
+        }
+
+        if(result != null && result.get("exceptionDetails") != null)
+            throw new Exception("Unable to observe selector \"" + cssSelector + "\". Details: " +
+                    result.get("exceptionDetails"));
+    }
+
+    private void handleLifecycleEvent(Map<String, Object> parameters) {
+        String frameId = getStringOrNull(parameters, "frameId");
+        String eventLoaderId = getStringOrNull(parameters, "loaderId");
+        String name = getStringOrNull(parameters, "name");
+
+        lock.lock();
+
+        try {
+            if(name == null || frameId == null || !frameId.equals(mainFrameId))
+                return;
+
+            //The "init" event starts a new document of the main frame.
+
+            if(INIT_LIFECYCLE_EVENT.equals(name)) {
+                startDocument(eventLoaderId);
+
+                //The requests of the previous document are canceled.
+
+                inflightRequestLoaderIds.values().removeIf(tmpLoaderId -> !tmpLoaderId.equals(eventLoaderId));
+            }
+            else if(eventLoaderId != null && eventLoaderId.equals(loaderId)) {
+                lifecycleEvents.add(name);
+            }
+
+            stateChangedCondition.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void handleRequestWillBeSent(Map<String, Object> parameters) {
+        String requestId = getStringOrNull(parameters, "requestId");
+
+        if(requestId == null)
+            return;
+
+        String requestLoaderId = getStringOrNull(parameters, "loaderId");
+
+        lock.lock();
+
+        try {
+            //A redirect reuses the request ID, so it doesn't count as a new request.
+
+            inflightRequestLoaderIds.put(requestId, requestLoaderId == null ? "" : requestLoaderId);
+
+            lastNetworkActivityTime = System.nanoTime();
+
+            stateChangedCondition.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void handleLoadingEnded(Map<String, Object> parameters) {
+        String requestId = getStringOrNull(parameters, "requestId");
+
+        lock.lock();
+
+        try {
+            if(requestId == null || inflightRequestLoaderIds.remove(requestId) == null)
+                return;
+
+            lastNetworkActivityTime = System.nanoTime();
+
+            stateChangedCondition.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void handleBindingCalled(Map<String, Object> parameters) {
+        String payload = getStringOrNull(parameters, "payload");
+
+        lock.lock();
+
+        try {
+            if(!BINDING_NAME.equals(getStringOrNull(parameters, "name")) || !awaitedSelectorTokens.contains(payload))
+                return;
+
+            appearedSelectorTokens.add(payload);
+
+            stateChangedCondition.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new document of the main frame (the lock has to be held).
+     */
+    private void startDocument(String documentLoaderId) {
+        loaderId = documentLoaderId;
+
+        lifecycleEvents.clear();
+
+        documentGeneration++;
+    }
+
+    private static Event<Map<String, Object>> createEvent(String method) {
+        return new Event<>(method, tmpJsonInput -> tmpJsonInput.read(Json.MAP_TYPE));
+    }
+
+    private static String getStringOrNull(Map<String, Object> map, String key) {
+        Object value = map == null ? null : map.get(key);
+
+        return value == null ? null : value.toString();
+    }
+}
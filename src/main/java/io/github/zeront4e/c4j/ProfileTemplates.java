@@ -0,0 +1,520 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Creates the profile templates and their clones. Every template is stored per name and Chromium revision
+ * ("&lt;name&gt;/template-&lt;revision key&gt;"), because profiles of newer revisions can't be used by older
+ * revisions. The template is created atomically, so concurrent callers (of any process) never see a partial template.
+ * <p>
+ * The clones are stored next to the templates, so they are located on the same file system. Files of directories that
+ * Chromium never modifies in place (installed extensions and component versions) are hard-linked. All other files are
+ * copied concurrently. Every clone is locked by its process while it is used, so clones of crashed processes can be
+ * detected and deleted, if a new clone is created.
+ */
+class ProfileTemplates {
+    /**
+     * The name of the profile directory (located at the default installation directory).
+     */
+    static final String PROFILE_DIRECTORY = "c4j-profiles";
+
+    private static final String TEMPLATE_DIRECTORY_PREFIX = "template-";
+
+    private static final String CLONES_DIRECTORY = "clones";
+
+    private static final String CLONE_DIRECTORY_PREFIX = "clone";
+
+    private static final String CLONE_LOCK_FILE_NAME = "c4j-clone.lock";
+
+    /**
+     * The minimum age of a clone, which isn't locked by any process, before it is deleted (the clone is locked shortly
+     * after its directory was created).
+     */
+    private static final Duration MIN_STALE_CLONE_AGE = Duration.ofMinutes(10);
+
+    /**
+     * The directories whose files are only replaced (never modified in place), so they can be hard-linked.
+     */
+    private static final Set<String> IMMUTABLE_DIRECTORY_NAMES = Set.of("Extensions", "component_crx_cache",
+            "CertificateRevocation", "FileTypePolicies", "hyphen-data", "MEIPreload", "OriginTrials", "PKIMetadata",
+            "SafetyTips", "Subresource Filter", "TrustTokenKeyCommitments", "WidevineCdm", "ZxcvbnData");
+
+    /**
+     * The files that belong to the process, which used the profile (they are skipped while cloning).
+     */
+    private static final Set<String> PROCESS_FILE_NAMES = Set.of("SingletonLock", "SingletonSocket",
+            "SingletonCookie", "lockfile", "RunningChromeVersion");
+
+    private static final int COPY_PARALLELISM = 16;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProfileTemplates.class);
+
+    private static final Map<Path, CompletableFuture<Path>> RUNNING_WARM_UPS = new ConcurrentHashMap<>();
+
+    //The locks of the clones, which are used by the instances of this JVM.
+
+    private static final Map<Path, FileChannel> CLONE_LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the directory of the templates and clones with the given name.
+     * @param name The name of the template.
+     * @return The directory of the templates.
+     */
+    static File getTemplatesDirectory(String name) {
+        return new File(new File(C4jChromiumDownloader.getDefaultInstallationDirectory(), PROFILE_DIRECTORY), name);
+    }
+
+    /**
+     * Returns true, if the given path is a (completely created) template directory.
+     * @param path The path to check.
+     * @return True, if the path is a template directory.
+     */
+    static boolean isTemplateDirectory(Path path) {
+        String fileName = path.getFileName().toString();
+
+        return fileName.startsWith(TEMPLATE_DIRECTORY_PREFIX) && !fileName.contains(".") && Files.isDirectory(path);
+    }
+
+    /**
+     * Creates a clone of the profile template of the given options. The template is created, if it doesn't exist
+     * yet.
+     * @param c4jChromeOptions The options containing the profile template.
+     * @param chromeOptions The ChromeOptions of the instance (with the already registered extensions).
+     * @param chromeBinaryFile The Chromium binary.
+     * @param chromeDriverFile The resolved driver executable or null, to let Selenium resolve the driver.
+     * @return The directory of the clone (to be used as user data directory).
+     * @throws Exception An unexpected exception.
+     */
+    static File createProfileCloneOrFail(C4jChromeOptions c4jChromeOptions, ChromeOptions chromeOptions,
+                                         File chromeBinaryFile, File chromeDriverFile) throws Exception {
+        C4jProfileTemplate c4jProfileTemplate = c4jChromeOptions.getProfileTemplateOrNull();
+
+        Path templatesDirectoryPath = getTemplatesDirectory(c4jProfileTemplate.getName()).toPath();
+
+        Path templatePath = templatesDirectoryPath.resolve(TEMPLATE_DIRECTORY_PREFIX +
+                getRevisionKey(chromeBinaryFile));
+
+        obtainTemplateOrFail(c4jChromeOptions, chromeOptions, chromeBinaryFile, chromeDriverFile, templatePath);
+
+        Path clonesDirectoryPath = templatesDirectoryPath.resolve(CLONES_DIRECTORY);
+
+        Files.createDirectories(clonesDirectoryPath);
+
+        deleteStaleClones(clonesDirectoryPath);
+
+        Path clonePath = Files.createTempDirectory(clonesDirectoryPath, CLONE_DIRECTORY_PREFIX);
+
+        try {
+            lockCloneOrFail(clonePath);
+
+            long time = System.currentTimeMillis();
+
+            int clonedFiles = cloneOrFail(templatePath, clonePath);
+
+            LOGGER.info("Cloned profile template \"{}\" to \"{}\" in {}ms. Files: {}", c4jProfileTemplate.getName(),
+                    clonePath, System.currentTimeMillis() - time, clonedFiles);
+
+            return clonePath.toFile();
+        }
+        catch (Exception exception) {
+            unlockClone(clonePath);
+
+            FileUtil.deleteDirectoryQuietly(clonePath);
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Deletes the given clone. Failures are logged, but not propagated.
+     * @param cloneDirectory The directory of the clone.
+     */
+    static void deleteProfileCloneQuietly(File cloneDirectory) {
+        //The lock file can't be deleted while it is open on some platforms.
+
+        unlockClone(cloneDirectory.toPath());
+
+        FileUtil.deleteDirectoryQuietly(cloneDirectory.toPath());
+
+        LOGGER.info("Deleted profile clone \"{}\".", cloneDirectory.getAbsolutePath());
+    }
+
+    private static void lockCloneOrFail(Path clonePath) throws IOException {
+        FileChannel fileChannel = FileChannel.open(clonePath.resolve(CLONE_LOCK_FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            fileChannel.lock();
+        }
+        catch (IOException | RuntimeException exception) {
+            fileChannel.close();
+
+            throw new IOException("Unable to lock profile clone \"" + clonePath + "\".", exception);
+        }
+
+        CLONE_LOCKS.put(clonePath, fileChannel);
+    }
+
+    private static void unlockClone(Path clonePath) {
+        FileChannel fileChannel = CLONE_LOCKS.remove(clonePath);
+
+        if(fileChannel == null)
+            return;
+
+        try {
+            fileChannel.close();
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to unlock profile clone \"{}\".", clonePath, exception);
+        }
+    }
+
+    /**
+     * Deletes the clones of the given directory, which aren't locked by any process (e.g. the clones of crashed
+     * processes) and which are older than {@link #MIN_STALE_CLONE_AGE}. Failures are logged, but not propagated.
+     * @param clonesDirectoryPath The directory of the clones.
+     */
+    static void deleteStaleClones(Path clonesDirectoryPath) {
+        Instant maxModificationTime = Instant.now().minus(MIN_STALE_CLONE_AGE);
+
+        List<Path> clonePaths;
+
+        try (Stream<Path> pathStream = Files.list(clonesDirectoryPath)) {
+            clonePaths = pathStream.filter(tmpPath -> tmpPath.getFileName().toString()
+                    .startsWith(CLONE_DIRECTORY_PREFIX) && Files.isDirectory(tmpPath)).toList();
+        }
+        catch (IOException ioException) {
+            LOGGER.warn("Unable to list profile clones of \"{}\".", clonesDirectoryPath, ioException);
+
+            return;
+        }
+
+        for(Path tmpClonePath : clonePaths) {
+            if(CLONE_LOCKS.containsKey(tmpClonePath))
+                continue;
+
+            try {
+                if(!Files.getLastModifiedTime(tmpClonePath).toInstant().isBefore(maxModificationTime))
+                    continue;
+            }
+            catch (IOException ioException) {
+                continue;
+            }
+
+            deleteCloneIfUnlocked(tmpClonePath);
+        }
+    }
+
+    private static void deleteCloneIfUnlocked(Path clonePath) {
+        //Processes hold an exclusive lock, while they use the clone. The lock file doesn't exist, if the process
+        //crashed while the clone was created.
+
+        try (FileChannel fileChannel = FileChannel.open(clonePath.resolve(CLONE_LOCK_FILE_NAME),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock fileLock = fileChannel.tryLock();
+
+            if(fileLock == null)
+                return;
+
+            FileUtil.deleteDirectoryQuietly(clonePath);
+
+            fileLock.release();
+        }
+        catch (NoSuchFileException noSuchFileException) {
+            //Delete the clone without a lock file below.
+        }
+        catch (OverlappingFileLockException overlappingFileLockException) {
+            return;
+        }
+        catch (Exception exception) {
+            LOGGER.warn("Unable to check usage of profile clone \"{}\".", clonePath, exception);
+
+            return;
+        }
+
+        //Delete the remaining lock file (it can't be deleted while it is open on some platforms).
+
+        FileUtil.deleteDirectoryQuietly(clonePath);
+
+        LOGGER.info("Deleted stale profile clone \"{}\".", clonePath);
+    }
+
+    /**
+     * Deletes all templates with the given name. Every template is renamed first, so concurrent callers never clone a
+     * partially deleted template.
+     * @param name The name of the template.
+     * @throws IOException An unexpected exception.
+     */
+    static void deleteTemplatesOrFail(String name) throws IOException {
+        Path templatesDirectoryPath = getTemplatesDirectory(name).toPath();
+
+        if(!Files.isDirectory(templatesDirectoryPath))
+            return;
+
+        List<Path> templatePaths;
+
+        try (Stream<Path> pathStream = Files.list(templatesDirectoryPath)) {
+            templatePaths = pathStream.filter(ProfileTemplates::isTemplateDirectory).toList();
+        }
+
+        for(Path tmpTemplatePath : templatePaths) {
+            Path deletedPath = tmpTemplatePath.resolveSibling(tmpTemplatePath.getFileName() + ".deleted" +
+                    System.nanoTime());
+
+            Files.move(tmpTemplatePath, deletedPath, StandardCopyOption.ATOMIC_MOVE);
+
+            FileUtil.deleteDirectoryQuietly(deletedPath);
+
+            LOGGER.info("Deleted profile template \"{}\".", tmpTemplatePath);
+        }
+    }
+
+    private static void obtainTemplateOrFail(C4jChromeOptions c4jChromeOptions, ChromeOptions chromeOptions,
+                                             File chromeBinaryFile, File chromeDriverFile,
+                                             Path templatePath) throws Exception {
+        if(Files.isDirectory(templatePath))
+            return;
+
+        //Concurrent requests of the same template share a single warm-up.
+
+        CompletableFuture<Path> warmUpFuture = new CompletableFuture<>();
+
+        CompletableFuture<Path> runningFuture = RUNNING_WARM_UPS.putIfAbsent(templatePath, warmUpFuture);
+
+        if(runningFuture != null) {
+            LOGGER.info("The profile template \"{}\" is already being created. Wait for the warm-up.", templatePath);
+
+            ExtensionCache.awaitOrFail(runningFuture);
+
+            return;
+        }
+
+        try {
+            if(!Files.isDirectory(templatePath))
+                createTemplateOrFail(c4jChromeOptions, chromeOptions, chromeBinaryFile, chromeDriverFile,
+                        templatePath);
+
+            warmUpFuture.complete(templatePath);
+        }
+        catch (Exception exception) {
+            warmUpFuture.completeExceptionally(exception);
+
+            throw exception;
+        }
+        finally {
+            RUNNING_WARM_UPS.remove(templatePath, warmUpFuture);
+        }
+    }
+
+    private static void createTemplateOrFail(C4jChromeOptions c4jChromeOptions, ChromeOptions chromeOptions,
+                                             File chromeBinaryFile, File chromeDriverFile,
+                                             Path templatePath) throws Exception {
+        C4jProfileTemplate c4jProfileTemplate = c4jChromeOptions.getProfileTemplateOrNull();
+
+        Files.createDirectories(templatePath.getParent());
+
+        Path temporaryDirectoryPath = Files.createTempDirectory(templatePath.getParent(),
+                templatePath.getFileName() + ".tmp");
+
+        try {
+            long time = System.currentTimeMillis();
+
+            LOGGER.info("Try to create profile template \"{}\" (path \"{}\").", c4jProfileTemplate.getName(),
+                    templatePath);
+
+            //The warm-up instance uses a copy of the options of the instance, so the user data directory isn't added
+            //to the options. The extensions were already registered at the options of the instance.
+
+            ChromeOptions warmUpChromeOptions = chromeOptions.merge(new ChromeOptions());
+            warmUpChromeOptions.addArguments("--user-data-dir=" + temporaryDirectoryPath.toAbsolutePath());
+
+            C4jRemoteChromium c4jRemoteChromium = new C4jRemoteChromium(chromeBinaryFile,
+                    c4jChromeOptions.withChromeOptions(warmUpChromeOptions), null, chromeDriverFile);
+
+            try {
+                c4jProfileTemplate.getWarmUpCallback().warmUp(c4jRemoteChromium);
+            }
+            finally {
+                c4jRemoteChromium.quit();
+            }
+
+            try {
+                Files.move(temporaryDirectoryPath, templatePath, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (FileAlreadyExistsException fileAlreadyExistsException) {
+                LOGGER.info("The profile template \"{}\" was created concurrently.", templatePath);
+            }
+            catch (IOException ioException) {
+                //Some platforms report a non-empty target directory instead of an existing file.
+
+                if(!Files.isDirectory(templatePath))
+                    throw ioException;
+            }
+
+            LOGGER.info("Created profile template \"{}\" in {}ms.", c4jProfileTemplate.getName(),
+                    System.currentTimeMillis() - time);
+        }
+        finally {
+            FileUtil.deleteDirectoryQuietly(temporaryDirectoryPath);
+        }
+    }
+
+    /**
+     * Clones the given template. The directories are created first and the files are linked or copied concurrently.
+     * @return The number of cloned files.
+     */
+    private static int cloneOrFail(Path templatePath, Path clonePath) throws Exception {
+        List<Path> relativeFilePaths = new ArrayList<>();
+
+        Files.walkFileTree(templatePath, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes)
+                    throws IOException {
+                Files.createDirectories(clonePath.resolve(templatePath.relativize(directory)));
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                //Symbolic links (e.g. the singleton files on Linux) refer to the process, which used the profile.
+
+                if(attributes.isRegularFile() && !PROCESS_FILE_NAMES.contains(file.getFileName().toString()))
+                    relativeFilePaths.add(templatePath.relativize(file));
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Semaphore semaphore = new Semaphore(COPY_PARALLELISM);
+
+        List<Future<Void>> futures = new ArrayList<>();
+
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(Path tmpRelativeFilePath : relativeFilePaths) {
+                futures.add(executorService.submit(() -> {
+                    semaphore.acquire();
+
+                    try {
+                        cloneFileOrFail(templatePath.resolve(tmpRelativeFilePath),
+                                clonePath.resolve(tmpRelativeFilePath), isImmutable(tmpRelativeFilePath));
+                    }
+                    finally {
+                        semaphore.release();
+                    }
+
+                    return null;
+                }));
+            }
+
+            for(Future<Void> tmpFuture : futures) {
+                try {
+                    tmpFuture.get();
+                }
+                catch (ExecutionException executionException) {
+                    futures.forEach(tmpRunningFuture -> tmpRunningFuture.cancel(true));
+
+                    if(executionException.getCause() instanceof Exception exception)
+                        throw exception;
+
+                    throw executionException;
+                }
+            }
+        }
+
+        return relativeFilePaths.size();
+    }
+
+    private static void cloneFileOrFail(Path sourcePath, Path targetPath, boolean immutable) throws IOException {
+        if(immutable) {
+            try {
+                Files.createLink(targetPath, sourcePath);
+
+                return;
+            }
+            catch (UnsupportedOperationException | IOException exception) {
+                //Fall back to a copy (e.g. if hard links aren't supported by the file system).
+            }
+        }
+
+        Files.copy(sourcePath, targetPath, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    private static boolean isImmutable(Path relativeFilePath) {
+        for(Path tmpNamePath : relativeFilePath) {
+            if(IMMUTABLE_DIRECTORY_NAMES.contains(tmpNamePath.toString()))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the key of the revision of the given binary (the profile of every revision is stored separately). The
+     * key contains the version of the binary, so binaries that are updated in place (e.g. system installations) get a
+     * new template. The size and the modification time of the binary are used, if the version can't be obtained.
+     */
+    private static String getRevisionKey(File chromeBinaryFile) throws Exception {
+        C4jRemoteChromium.ChromiumVersion chromiumVersion = new ChromiumVersionObtainer(chromeBinaryFile, null)
+                .obtainChromiumVersionOrNull();
+
+        String revision = chromiumVersion != null ? chromiumVersion.fullVersionString() :
+                chromeBinaryFile.length() + "-" + chromeBinaryFile.lastModified();
+
+        MessageDigest messageDigest = MessageDigest.getInstance(FileDownloadUtil.CHECKSUM_ALGORITHM);
+
+        byte[] hash = messageDigest.digest((chromeBinaryFile.getAbsolutePath() + "\n" + revision)
+                .getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(hash, 0, 8);
+    }
+}
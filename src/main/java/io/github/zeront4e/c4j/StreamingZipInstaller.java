@@ -0,0 +1,339 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Installer that extracts a ZIP file while it is downloaded. The download and the extraction run concurrently and are
+ * connected by a bounded chunk queue. The archive is only written to disk, if an archive path is given.
+ */
+class StreamingZipInstaller {
+    /**
+     * The statistics of a streaming installation.
+     * @param downloadResult The result of the download.
+     * @param extractionResult The result of the extraction.
+     * @param downloadedBytes The number of downloaded (compressed) bytes.
+     * @param downloadNanos The time spent to read from the network.
+     * @param extractedBytes The number of extracted (uncompressed) bytes.
+     * @param extractionNanos The time spent to inflate and write the entries (without waiting for the network).
+     * @param totalNanos The total time of the installation.
+     */
+    record InstallationStatistics(FileDownloadUtil.DownloadResult downloadResult,
+                                  ZipUtil.ExtractionResult extractionResult, long downloadedBytes,
+                                  long downloadNanos, long extractedBytes, long extractionNanos, long totalNanos) {
+        /**
+         * Returns the download throughput in MiB/s.
+         * @return The download throughput.
+         */
+        double getDownloadThroughput() {
+            return toMibPerSecond(downloadedBytes, downloadNanos);
+        }
+
+        /**
+         * Returns the inflate throughput in MiB/s.
+         * @return The inflate throughput.
+         */
+        double getExtractionThroughput() {
+            return toMibPerSecond(extractedBytes, extractionNanos);
+        }
+
+        private static double toMibPerSecond(long bytes, long nanos) {
+            return nanos <= 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingZipInstaller.class);
+
+    private static final int CHUNK_SIZE = 1024 * 1024; //Use 1 MiB chunks.
+
+    private static final int MAX_QUEUED_CHUNKS = 16; //Buffer at most 16 MiB between download and extraction.
+
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    /**
+     * Downloads the ZIP file of the given URL and extracts it to the given directory at the same time.
+     * @param fileUrl The URL of the ZIP file.
+     * @param outputDirectoryPath The directory to extract the ZIP file to.
+     * @param archiveFilePath The path to store a copy of the downloaded archive at or null, if the archive shouldn't
+     *                        be stored.
+     * @param tree The tree of a content-addressed store to materialize the files in or null, to write the files
+     *             directly.
+     * @param expectedSha256Checksum The expected SHA-256 checksum of the archive or null, to skip the verification.
+     *                               The checksum is computed while the archive is downloaded.
+     * @return The statistics of the installation.
+     * @throws Exception An unexpected exception (e.g. if the checksum doesn't match).
+     */
+    static InstallationStatistics installOrFail(String fileUrl, Path outputDirectoryPath, Path archiveFilePath,
+                                                ContentAddressedStore.Tree tree,
+                                                String expectedSha256Checksum) throws Exception {
+        long startTime = System.nanoTime();
+
+        BlockingQueue<byte[]> chunkQueue = new ArrayBlockingQueue<>(MAX_QUEUED_CHUNKS);
+
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            DownloadTask downloadTask = new DownloadTask(fileUrl, archiveFilePath, chunkQueue);
+
+            Future<Void> downloadFuture = executorService.submit(downloadTask);
+
+            ChunkInputStream chunkInputStream = new ChunkInputStream(chunkQueue, downloadFuture);
+
+            try {
+                ZipUtil.ExtractionResult extractionResult = ZipUtil.unzip(chunkInputStream,
+                        outputDirectoryPath.toFile(), tree);
+
+                //Consume the remaining data (e.g. the central directory), so the archive copy is complete.
+
+                chunkInputStream.transferTo(OutputStream.nullOutputStream());
+
+                downloadFuture.get();
+
+                //The extracted files are only published by the caller, so an invalid archive is never installed.
+
+                FileDownloadUtil.verifyChecksumOrFail(archiveFilePath == null ? null : archiveFilePath.toFile(),
+                        expectedSha256Checksum, downloadTask.getSha256Checksum());
+
+                long totalNanos = System.nanoTime() - startTime;
+
+                long extractionNanos = totalNanos - chunkInputStream.getWaitNanos();
+
+                FileDownloadUtil.DownloadResult downloadResult = new FileDownloadUtil.DownloadResult(
+                        downloadTask.getResolvedUri(), downloadTask.getValidator(), downloadTask.getDownloadedBytes(),
+                        downloadTask.getSha256Checksum());
+
+                return new InstallationStatistics(downloadResult, extractionResult, downloadTask.getDownloadedBytes(),
+                        downloadTask.getReadNanos(), extractionResult.totalBytes(), extractionNanos, totalNanos);
+            }
+            catch (Exception exception) {
+                downloadFuture.cancel(true);
+
+                if(exception instanceof ExecutionException executionException &&
+                        executionException.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Reads the response body in chunks and passes them to the extraction (and the optional archive file).
+     */
+    private static class DownloadTask implements Callable<Void> {
+        private final String fileUrl;
+        private final Path archiveFilePath;
+        private final BlockingQueue<byte[]> chunkQueue;
+
+        private volatile long downloadedBytes = 0;
+        private volatile long readNanos = 0;
+
+        private volatile URI resolvedUri = null;
+        private volatile String validator = null;
+
+        private volatile String sha256Checksum = null;
+
+        DownloadTask(String fileUrl, Path archiveFilePath, BlockingQueue<byte[]> chunkQueue) {
+            this.fileUrl = fileUrl;
+            this.archiveFilePath = archiveFilePath;
+            this.chunkQueue = chunkQueue;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            HttpResponse<InputStream> httpResponse = FileDownloadUtil.openResponseOrFail(fileUrl);
+
+            resolvedUri = httpResponse.uri();
+            validator = FileDownloadUtil.getValidatorOrNull(httpResponse);
+
+            try (InputStream inputStream = httpResponse.body();
+                 OutputStream archiveOutputStream = archiveFilePath == null ? OutputStream.nullOutputStream() :
+                         new BufferedOutputStream(new FileOutputStream(archiveFilePath.toFile()), CHUNK_SIZE)) {
+
+                MessageDigest messageDigest = MessageDigest.getInstance(FileDownloadUtil.CHECKSUM_ALGORITHM);
+
+                long nextLogThreshold = FileDownloadUtil.LOG_INTERVAL_MB;
+
+                while (true) {
+                    long readStartTime = System.nanoTime();
+
+                    byte[] chunk = inputStream.readNBytes(CHUNK_SIZE);
+
+                    readNanos += System.nanoTime() - readStartTime;
+
+                    if(chunk.length == 0)
+                        break;
+
+                    archiveOutputStream.write(chunk);
+                    messageDigest.update(chunk);
+
+                    chunkQueue.put(chunk);
+
+                    downloadedBytes += chunk.length;
+
+                    if (downloadedBytes >= nextLogThreshold) {
+                        LOGGER.info("Downloaded {} MiB...", downloadedBytes / (1024 * 1024));
+
+                        nextLogThreshold += FileDownloadUtil.LOG_INTERVAL_MB;
+                    }
+                }
+
+                sha256Checksum = HexFormat.of().formatHex(messageDigest.digest());
+            }
+
+            chunkQueue.put(END_OF_STREAM);
+
+            return null;
+        }
+
+        long getDownloadedBytes() {
+            return downloadedBytes;
+        }
+
+        long getReadNanos() {
+            return readNanos;
+        }
+
+        URI getResolvedUri() {
+            return resolvedUri;
+        }
+
+        String getValidator() {
+            return validator;
+        }
+
+        String getSha256Checksum() {
+            return sha256Checksum;
+        }
+    }
+
+    /**
+     * Stream to read the chunks of the download task. The stream fails, if the download task fails.
+     */
+    private static class ChunkInputStream extends InputStream {
+        private final BlockingQueue<byte[]> chunkQueue;
+        private final Future<Void> downloadFuture;
+
+        private byte[] currentChunk = null;
+        private int currentPosition = 0;
+
+        private boolean endOfStream = false;
+
+        private long waitNanos = 0;
+
+        ChunkInputStream(BlockingQueue<byte[]> chunkQueue, Future<Void> downloadFuture) {
+            this.chunkQueue = chunkQueue;
+            this.downloadFuture = downloadFuture;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] singleByte = new byte[1];
+
+            return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if(length == 0)
+                return 0;
+
+            if(!obtainChunkOrFail())
+                return -1;
+
+            int readBytes = Math.min(length, currentChunk.length - currentPosition);
+
+            System.arraycopy(currentChunk, currentPosition, buffer, offset, readBytes);
+
+            currentPosition += readBytes;
+
+            return readBytes;
+        }
+
+        private boolean obtainChunkOrFail() throws IOException {
+            while (!endOfStream && (currentChunk == null || currentPosition >= currentChunk.length)) {
+                long waitStartTime = System.nanoTime();
+
+                try {
+                    byte[] chunk = chunkQueue.poll(100, TimeUnit.MILLISECONDS);
+
+                    if(chunk == null) {
+                        if(downloadFuture.isDone() && chunkQueue.isEmpty())
+                            failOnDownloadError();
+
+                        continue;
+                    }
+
+                    if(chunk == END_OF_STREAM) {
+                        endOfStream = true;
+                    }
+                    else {
+                        currentChunk = chunk;
+                        currentPosition = 0;
+                    }
+                }
+                catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+
+                    throw new IOException("Interrupted while waiting for downloaded data.", interruptedException);
+                }
+                finally {
+                    waitNanos += System.nanoTime() - waitStartTime;
+                }
+            }
+
+            return !endOfStream;
+        }
+
+        private void failOnDownloadError() throws IOException {
+            try {
+                downloadFuture.get();
+            }
+            catch (ExecutionException executionException) {
+                throw new IOException("The download failed.", executionException.getCause());
+            }
+            catch (Exception exception) {
+                throw new IOException("The download was aborted.", exception);
+            }
+
+            throw new IOException("The download ended unexpectedly.");
+        }
+
+        long getWaitNanos() {
+            return waitNanos;
+        }
+    }
+}
@@ -16,13 +16,42 @@ limitations under the License.
 package io.github.zeront4e.c4j;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 /**
  * Utility class for working with ZIP files.
  */
 class ZipUtil {
+    /**
+     * The result of an extraction.
+     * @param fileCount The number of extracted files (without directories).
+     * @param totalBytes The total number of extracted (uncompressed) bytes.
+     */
+    record ExtractionResult(long fileCount, long totalBytes) {
+
+    }
+
+    private static final int BUFFER_SIZE = 256 * 1024; //Use 256 KiB as buffer size.
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
     /**
      * Extracts a ZIP file to the specified destination directory.
      * @param zipFile The ZIP file to be extracted.
@@ -30,22 +59,77 @@ class ZipUtil {
      * @throws IOException An unexpected exception.
      */
     public static void unzip(File zipFile, File destinationFile) throws IOException {
-        if (!destinationFile.exists())
-            destinationFile.mkdirs();
+        unzip(zipFile, destinationFile, null);
+    }
+
+    /**
+     * Extracts a ZIP file to the specified destination directory.
+     * @param zipFile The ZIP file to be extracted.
+     * @param destinationFile The destination directory where the ZIP file will be extracted.
+     * @param tree The tree of a content-addressed store to materialize the files in or null, to write the files
+     *             directly.
+     * @return The result of the extraction.
+     * @throws IOException An unexpected exception.
+     */
+    public static ExtractionResult unzip(File zipFile, File destinationFile,
+                                         ContentAddressedStore.Tree tree) throws IOException {
+        try (FileInputStream fileInputStream = new FileInputStream(zipFile)) {
+            return unzip(fileInputStream, destinationFile, tree);
+        }
+    }
+
+    /**
+     * Extracts the ZIP data of the given stream to the specified destination directory. The entries are extracted as
+     * they arrive, so the stream may be a network stream. The stream isn't closed.
+     * @param inputStream The stream to read the ZIP data from.
+     * @param destinationFile The destination directory where the ZIP data will be extracted.
+     * @return The result of the extraction.
+     * @throws IOException An unexpected exception.
+     */
+    public static ExtractionResult unzip(InputStream inputStream, File destinationFile) throws IOException {
+        return unzip(inputStream, destinationFile, null);
+    }
+
+    /**
+     * Extracts the ZIP data of the given stream to the specified destination directory. The entries are extracted as
+     * they arrive, so the stream may be a network stream. The stream isn't closed.
+     * @param inputStream The stream to read the ZIP data from.
+     * @param destinationFile The destination directory where the ZIP data will be extracted.
+     * @param tree The tree of a content-addressed store to materialize the files in or null, to write the files
+     *             directly.
+     * @return The result of the extraction.
+     * @throws IOException An unexpected exception.
+     */
+    public static ExtractionResult unzip(InputStream inputStream, File destinationFile,
+                                         ContentAddressedStore.Tree tree) throws IOException {
+        Path destinationPath = destinationFile.toPath().toAbsolutePath().normalize();
+
+        Files.createDirectories(destinationPath);
+
+        long fileCount = 0;
+        long totalBytes = 0;
+
+        //We don't close the given stream, but we have to close the ZIP stream to release the inflater.
+
+        FilterInputStream unclosableInputStream = new FilterInputStream(inputStream) {
+            @Override
+            public void close() {
 
-        try (ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(zipFile))) {
+            }
+        };
+
+        try (ZipInputStream zipInputStream = new ZipInputStream(unclosableInputStream)) {
             ZipEntry entry = zipInputStream.getNextEntry();
 
             while (entry != null) {
-                String filePath = destinationFile.getAbsolutePath() + "/" + entry.getName();
+                Path entryPath = resolveEntryPathOrFail(destinationPath, entry);
 
                 if (!entry.isDirectory()) {
-                    extractFile(zipInputStream, filePath);
+                    totalBytes += extractFile(zipInputStream, entry, entryPath, tree);
+                    fileCount++;
                 }
                 else {
-                    File directoryFile = new File(filePath);
-
-                    directoryFile.mkdirs();
+                    Files.createDirectories(entryPath);
                 }
 
                 zipInputStream.closeEntry();
@@ -53,22 +137,212 @@ class ZipUtil {
                 entry = zipInputStream.getNextEntry();
             }
         }
+
+        return new ExtractionResult(fileCount, totalBytes);
     }
 
-    private static void extractFile(ZipInputStream zipIn, String filePath) throws IOException {
-        File file = new File(filePath);
+    private static long extractFile(ZipInputStream zipIn, ZipEntry zipEntry, Path entryPath,
+                                    ContentAddressedStore.Tree tree) throws IOException {
+        Files.createDirectories(entryPath.getParent());
+
+        if(tree != null) {
+            //The CRC-32 and size are only known up front, if the local header contains them. A known entry is
+            //inflated and compared with its blob, but it isn't hashed and written again.
+
+            return tree.materializeEntryOrFail(zipIn, entryPath, zipEntry.getName(), zipEntry.getCrc(),
+                    zipEntry.getSize());
+        }
+
+        //Existing files are removed first. They may be hard links to the blobs of a content-addressed store.
 
-        if(!file.getParentFile().exists())
-            file.getParentFile().mkdirs();
+        Files.deleteIfExists(entryPath);
 
-        try (BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(filePath))) {
-            byte[] byteBuffer = new byte[4096];
+        long totalBytes = 0;
+
+        try (BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(Files.newOutputStream(entryPath),
+                BUFFER_SIZE)) {
+            byte[] byteBuffer = BUFFER.get();
 
             int readBytes;
 
             while ((readBytes = zipIn.read(byteBuffer)) != -1) {
                 bufferedOutputStream.write(byteBuffer, 0, readBytes);
+
+                totalBytes += readBytes;
             }
         }
+
+        return totalBytes;
+    }
+
+    /**
+     * Extracts a ZIP file to the specified destination directory by using multiple threads. The entries are read
+     * from the central directory of the ZIP file, so every entry can be inflated independently. All directories are
+     * created up front and the largest entries are extracted first.
+     * @param zipFile The ZIP file to be extracted.
+     * @param destinationFile The destination directory where the ZIP file will be extracted.
+     * @param parallelism The maximum number of entries to extract concurrently.
+     * @return The result of the extraction.
+     * @throws IOException An unexpected exception.
+     */
+    public static ExtractionResult unzipParallel(File zipFile, File destinationFile,
+                                                 int parallelism) throws IOException {
+        return unzipParallel(zipFile, destinationFile, parallelism, null);
+    }
+
+    /**
+     * Extracts a ZIP file to the specified destination directory by using multiple threads. The entries are read
+     * from the central directory of the ZIP file, so every entry can be inflated independently. All directories are
+     * created up front and the largest entries are extracted first.
+     * @param zipFile The ZIP file to be extracted.
+     * @param destinationFile The destination directory where the ZIP file will be extracted.
+     * @param parallelism The maximum number of entries to extract concurrently.
+     * @param tree The tree of a content-addressed store to materialize the files in or null, to write the files
+     *             directly.
+     * @return The result of the extraction.
+     * @throws IOException An unexpected exception.
+     */
+    public static ExtractionResult unzipParallel(File zipFile, File destinationFile, int parallelism,
+                                                 ContentAddressedStore.Tree tree) throws IOException {
+        Path destinationPath = destinationFile.toPath().toAbsolutePath().normalize();
+
+        Files.createDirectories(destinationPath);
+
+        try (ZipFile openedZipFile = new ZipFile(zipFile)) {
+            List<ZipEntry> fileEntries = new ArrayList<>();
+
+            Set<Path> directoryPaths = new LinkedHashSet<>();
+
+            for(ZipEntry tmpEntry : Collections.list(openedZipFile.entries())) {
+                Path entryPath = resolveEntryPathOrFail(destinationPath, tmpEntry);
+
+                if(tmpEntry.isDirectory()) {
+                    directoryPaths.add(entryPath);
+                }
+                else {
+                    directoryPaths.add(entryPath.getParent());
+
+                    fileEntries.add(tmpEntry);
+                }
+            }
+
+            for(Path tmpDirectoryPath : directoryPaths) {
+                Files.createDirectories(tmpDirectoryPath);
+            }
+
+            //Extract the largest entries first, so a single large entry doesn't delay the end of the extraction.
+
+            fileEntries.sort(Comparator.comparingLong(ZipEntry::getSize).reversed());
+
+            ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, parallelism));
+
+            try {
+                List<Future<Long>> futures = new ArrayList<>();
+
+                for(ZipEntry tmpEntry : fileEntries) {
+                    Path entryPath = resolveEntryPathOrFail(destinationPath, tmpEntry);
+
+                    futures.add(executorService.submit(() -> extractEntry(openedZipFile, tmpEntry, entryPath,
+                            tree)));
+                }
+
+                long totalBytes = 0;
+
+                for(Future<Long> tmpFuture : futures) {
+                    totalBytes += tmpFuture.get();
+                }
+
+                return new ExtractionResult(fileEntries.size(), totalBytes);
+            }
+            catch (ExecutionException executionException) {
+                if(executionException.getCause() instanceof IOException ioException)
+                    throw ioException;
+
+                throw new IOException("Unable to extract ZIP file.", executionException.getCause());
+            }
+            catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+
+                throw new IOException("Interrupted while extracting ZIP file.", interruptedException);
+            }
+            finally {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    private static long extractEntry(ZipFile zipFile, ZipEntry zipEntry, Path entryPath,
+                                     ContentAddressedStore.Tree tree) throws IOException {
+        if(tree != null) {
+            //The central directory contains the CRC-32 and size, so known entries are only compared with their blob
+            //(they aren't hashed and written again).
+
+            try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+                return tree.materializeEntryOrFail(inputStream, entryPath, zipEntry.getName(), zipEntry.getCrc(),
+                        zipEntry.getSize());
+            }
+        }
+
+        //Existing files are removed first. They may be hard links to the blobs of a content-addressed store.
+
+        Files.deleteIfExists(entryPath);
+
+        byte[] byteBuffer = BUFFER.get();
+
+        long totalBytes = 0;
+
+        try (InputStream inputStream = zipFile.getInputStream(zipEntry);
+             FileChannel fileChannel = FileChannel.open(entryPath, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int readBytes;
+
+            while ((readBytes = inputStream.read(byteBuffer)) != -1) {
+                ByteBuffer wrappedBuffer = ByteBuffer.wrap(byteBuffer, 0, readBytes);
+
+                while (wrappedBuffer.hasRemaining()) {
+                    fileChannel.write(wrappedBuffer);
+                }
+
+                totalBytes += readBytes;
+            }
+        }
+
+        return totalBytes;
+    }
+
+    /**
+     * Resolves the path of the given entry within the destination directory. Absolute entry names, names with ".."
+     * segments and names resolving outside of the destination directory are rejected, so an archive can't write
+     * files outside of the destination directory ("zip slip").
+     * @param destinationPath The absolute and normalized destination directory.
+     * @param zipEntry The entry to resolve the path of.
+     * @return The resolved path of the entry.
+     * @throws IOException The entry name is invalid.
+     */
+    static Path resolveEntryPathOrFail(Path destinationPath, ZipEntry zipEntry) throws IOException {
+        String entryName = zipEntry.getName().replace('\\', '/');
+
+        boolean isAbsolute = entryName.startsWith("/") || (entryName.length() > 1 && entryName.charAt(1) == ':');
+
+        boolean hasParentSegment = false;
+
+        for(String tmpSegment : entryName.split("/")) {
+            if(tmpSegment.equals("..")) {
+                hasParentSegment = true;
+
+                break;
+            }
+        }
+
+        if(entryName.isEmpty() || isAbsolute || hasParentSegment)
+            throw new IOException("The ZIP entry \"" + zipEntry.getName() + "\" has an invalid name.");
+
+        Path entryPath = destinationPath.resolve(entryName).normalize();
+
+        if(!entryPath.startsWith(destinationPath) || (entryPath.equals(destinationPath) && !zipEntry.isDirectory()))
+            throw new IOException("The ZIP entry \"" + zipEntry.getName() + "\" is outside of the destination " +
+                    "directory.");
+
+        return entryPath;
     }
 }
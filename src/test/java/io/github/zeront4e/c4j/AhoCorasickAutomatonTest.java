@@ -0,0 +1,96 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AhoCorasickAutomatonTest {
+    @Test
+    void testFindRuleIndexWithoutPatterns() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of(), 0);
+
+        assertEquals(-1, automaton.findRuleIndex("https://example.com/ads/banner.png"));
+        assertEquals(-1, automaton.findRuleIndex(""));
+    }
+
+    @Test
+    void testFindRuleIndexWithSinglePattern() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("/ads/"), 0);
+
+        assertEquals(0, automaton.findRuleIndex("https://example.com/ads/banner.png"));
+        assertEquals(-1, automaton.findRuleIndex("https://example.com/adsl/banner.png"));
+        assertEquals(-1, automaton.findRuleIndex("https://example.com/ad"));
+    }
+
+    @Test
+    void testFindRuleIndexIsCaseInsensitive() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("/Banner/"), 0);
+
+        assertEquals(0, automaton.findRuleIndex("https://example.com/BANNER/1.png"));
+        assertEquals(0, automaton.findRuleIndex("https://example.com/banner/1.png"));
+    }
+
+    @Test
+    void testFindRuleIndexWithOverlappingPatterns() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("he", "she", "his", "hers"), 0);
+
+        //The first pattern that ends in the text is found ("she" ends at the same position as "he").
+
+        assertEquals(1, automaton.findRuleIndex("ushers"));
+        assertEquals(0, automaton.findRuleIndex("ahem"));
+        assertEquals(2, automaton.findRuleIndex("this"));
+        assertEquals(-1, automaton.findRuleIndex("hxs"));
+    }
+
+    @Test
+    void testFindRuleIndexFollowsFailureLinks() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("abcd", "bce"), 0);
+
+        //The text leaves the branch of "abcd" after "abc" and has to continue with the suffix "bc".
+
+        assertEquals(1, automaton.findRuleIndex("xabcex"));
+        assertEquals(0, automaton.findRuleIndex("xabcdx"));
+        assertEquals(-1, automaton.findRuleIndex("xabcx"));
+    }
+
+    @Test
+    void testFindRuleIndexWithContainedPattern() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("tracking", "rack"), 0);
+
+        //The shorter pattern ends before the longer pattern.
+
+        assertEquals(1, automaton.findRuleIndex("/tracking.js"));
+    }
+
+    @Test
+    void testFindRuleIndexWithDuplicatePatterns() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("/ads/", "/ADS/"), 0);
+
+        assertEquals(0, automaton.findRuleIndex("/ads/1.png"));
+    }
+
+    @Test
+    void testFindRuleIndexAddsOffset() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("/ads/", "/pixel"), 5);
+
+        assertEquals(5, automaton.findRuleIndex("/ads/1.png"));
+        assertEquals(6, automaton.findRuleIndex("/pixel.gif"));
+    }
+}
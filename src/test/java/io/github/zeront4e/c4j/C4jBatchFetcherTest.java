@@ -0,0 +1,280 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.chrome.ChromeDriver;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class C4jBatchFetcherTest {
+    @Test
+    void testFetchPublishesResults() throws Exception {
+        List<C4jBrowserContext> c4jBrowserContexts = new CopyOnWriteArrayList<>();
+
+        C4jBatchFetcher c4jBatchFetcher = C4jBatchFetcher.fromBuilder(List.of(createInstanceOrFail(
+                c4jBrowserContexts), createInstanceOrFail(c4jBrowserContexts))).setConcurrencyPerInstance(2).build();
+
+        List<String> urls = List.of("https://example.com/a", "https://example.com/b", "https://example.com/c",
+                "https://example.com/d", "https://example.com/e");
+
+        ResultCollector<String> resultCollector = new ResultCollector<>(Long.MAX_VALUE);
+
+        c4jBatchFetcher.fetch(urls, (tmpChromeDriver, tmpUrl) -> "title of " + tmpChromeDriver.getCurrentUrl())
+                .subscribe(resultCollector);
+
+        List<C4jBatchFetcher.Result<String>> results = resultCollector.completionFuture.get(10, TimeUnit.SECONDS);
+
+        //Verify.
+
+        assertEquals(urls.size(), results.size());
+
+        for(C4jBatchFetcher.Result<String> tmpResult : results) {
+            assertTrue(tmpResult.isSuccessful());
+            assertEquals("title of " + tmpResult.url(), tmpResult.value());
+            assertEquals(1, tmpResult.attempts());
+        }
+
+        assertEquals(urls, results.stream().map(C4jBatchFetcher.Result::url).sorted().toList());
+
+        //Every URL is loaded in its own context, which is closed afterward.
+
+        assertEquals(urls.size(), c4jBrowserContexts.size());
+
+        for(C4jBrowserContext tmpC4jBrowserContext : c4jBrowserContexts) {
+            verify(tmpC4jBrowserContext).close();
+        }
+    }
+
+    @Test
+    void testFailedUrlsAreRetried() throws Exception {
+        List<C4jBrowserContext> c4jBrowserContexts = new CopyOnWriteArrayList<>();
+
+        C4jBatchFetcher c4jBatchFetcher = C4jBatchFetcher.fromBuilder(List.of(createInstanceOrFail(
+                c4jBrowserContexts))).setMaxRetries(2).build();
+
+        AtomicInteger retryAttempts = new AtomicInteger();
+
+        ResultCollector<String> resultCollector = new ResultCollector<>(Long.MAX_VALUE);
+
+        C4jBatchFetcher.Extractor<String> extractor = (tmpChromeDriver, tmpUrl) -> {
+            if(tmpUrl.endsWith("fail") || retryAttempts.incrementAndGet() == 1)
+                throw new Exception("Extraction failed.");
+
+            return "value";
+        };
+
+        c4jBatchFetcher.fetch(List.of("https://example.com/retry", "https://example.com/fail"), extractor)
+                .subscribe(resultCollector);
+
+        List<C4jBatchFetcher.Result<String>> results = resultCollector.completionFuture.get(10, TimeUnit.SECONDS)
+                .stream().sorted(Comparator.comparing(C4jBatchFetcher.Result::url)).toList();
+
+        //Verify.
+
+        assertEquals(2, results.size());
+
+        C4jBatchFetcher.Result<String> failedResult = results.get(0);
+
+        assertFalse(failedResult.isSuccessful());
+        assertNull(failedResult.value());
+        assertEquals("Extraction failed.", failedResult.failure().getMessage());
+        assertEquals(3, failedResult.attempts());
+
+        C4jBatchFetcher.Result<String> retriedResult = results.get(1);
+
+        assertTrue(retriedResult.isSuccessful());
+        assertEquals("value", retriedResult.value());
+        assertEquals(2, retriedResult.attempts());
+
+        //Every attempt uses a fresh context.
+
+        assertEquals(5, c4jBrowserContexts.size());
+    }
+
+    @Test
+    void testUrlsAreTakenOnDemand() throws Exception {
+        C4jBatchFetcher c4jBatchFetcher = C4jBatchFetcher.fromBuilder(List.of(createInstanceOrFail(
+                new CopyOnWriteArrayList<>()))).setConcurrencyPerInstance(1).setBufferSize(1).build();
+
+        AtomicInteger takenUrls = new AtomicInteger();
+
+        Stream<String> urls = Stream.iterate(0, tmpIndex -> tmpIndex + 1)
+                .map(tmpIndex -> "https://example.com/" + tmpIndex)
+                .peek(tmpUrl -> takenUrls.incrementAndGet());
+
+        ResultCollector<String> resultCollector = new ResultCollector<>(1);
+
+        c4jBatchFetcher.fetch(urls, (tmpChromeDriver, tmpUrl) -> tmpUrl).subscribe(resultCollector);
+
+        //The subscriber requested a single result, so the workers wait for demand once the buffer is full.
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+
+        while (resultCollector.results.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Thread.sleep(200);
+
+        //Verify.
+
+        assertEquals(1, resultCollector.results.size());
+        assertTrue(takenUrls.get() <= 4, "Taken URLs: " + takenUrls.get());
+
+        //No further URLs are taken after the subscription was cancelled.
+
+        resultCollector.subscriptionReference.get().cancel();
+
+        Thread.sleep(200);
+
+        int cancelledTakenUrls = takenUrls.get();
+
+        Thread.sleep(200);
+
+        assertEquals(cancelledTakenUrls, takenUrls.get());
+    }
+
+    @Test
+    void testPooledInstancesAreReleased() throws Exception {
+        C4jChromiumPool.InstanceFactory instanceFactory = mock(C4jChromiumPool.InstanceFactory.class);
+
+        when(instanceFactory.createInstanceOrFail()).thenAnswer(tmpInvocation -> createInstanceOrFail(
+                new CopyOnWriteArrayList<>()));
+
+        try (C4jChromiumPool c4jChromiumPool = new C4jChromiumPool.Builder(instanceFactory).setMinSize(0)
+                .setMaxSize(2).build()) {
+            C4jBatchFetcher c4jBatchFetcher = C4jBatchFetcher.fromBuilder(c4jChromiumPool, 2).build();
+
+            ResultCollector<String> resultCollector = new ResultCollector<>(Long.MAX_VALUE);
+
+            c4jBatchFetcher.fetch(List.of("https://example.com/a", "https://example.com/b"),
+                    (tmpChromeDriver, tmpUrl) -> tmpUrl).subscribe(resultCollector);
+
+            assertEquals(2, resultCollector.completionFuture.get(10, TimeUnit.SECONDS).size());
+
+            //The leases are released after the publisher was closed.
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+
+            while (c4jChromiumPool.getIdleCount() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            //Verify.
+
+            assertEquals(2, c4jChromiumPool.getIdleCount());
+            verify(instanceFactory, times(2)).createInstanceOrFail();
+        }
+    }
+
+    /**
+     * Creates an instance, whose contexts load every URL immediately. The created contexts are added to the given
+     * list.
+     */
+    private static C4jRemoteChromium createInstanceOrFail(List<C4jBrowserContext> c4jBrowserContexts)
+            throws Exception {
+        C4jRemoteChromium c4jRemoteChromium = mock(C4jRemoteChromium.class);
+
+        when(c4jRemoteChromium.createBrowserContext()).thenAnswer(tmpInvocation -> {
+            C4jBrowserContext c4jBrowserContext = createBrowserContextOrFail();
+
+            c4jBrowserContexts.add(c4jBrowserContext);
+
+            return c4jBrowserContext;
+        });
+
+        return c4jRemoteChromium;
+    }
+
+    private static C4jBrowserContext createBrowserContextOrFail() throws Exception {
+        C4jBrowserContext c4jBrowserContext = mock(C4jBrowserContext.class);
+
+        AtomicReference<String> urlReference = new AtomicReference<>();
+
+        ChromeDriver chromeDriver = mock(ChromeDriver.class, tmpInvocation -> switch (tmpInvocation.getMethod()
+                .getName()) {
+            case "executeScript" -> "complete";
+            case "getCurrentUrl" -> urlReference.get();
+            default -> null;
+        });
+
+        when(c4jBrowserContext.openTab(anyString())).thenAnswer(tmpInvocation -> {
+            urlReference.set(tmpInvocation.getArgument(0));
+
+            return "tab";
+        });
+
+        when(c4jBrowserContext.callInTabOrFail(anyString(), any())).thenAnswer(tmpInvocation ->
+                tmpInvocation.<C4jBrowserContext.TabCallable<?>>getArgument(1).call(chromeDriver));
+
+        return c4jBrowserContext;
+    }
+
+    /**
+     * Collects the published results and requests the given number of results.
+     */
+    private static class ResultCollector<T> implements Flow.Subscriber<C4jBatchFetcher.Result<T>> {
+        private final long requestedResults;
+
+        private final List<C4jBatchFetcher.Result<T>> results = new CopyOnWriteArrayList<>();
+
+        private final CompletableFuture<List<C4jBatchFetcher.Result<T>>> completionFuture =
+                new CompletableFuture<>();
+
+        private final AtomicReference<Flow.Subscription> subscriptionReference = new AtomicReference<>();
+
+        private ResultCollector(long requestedResults) {
+            this.requestedResults = requestedResults;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscriptionReference.set(subscription);
+
+            subscription.request(requestedResults);
+        }
+
+        @Override
+        public void onNext(C4jBatchFetcher.Result<T> result) {
+            results.add(result);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completionFuture.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completionFuture.complete(List.copyOf(results));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class C4jChromeOptionsTest {
+    @Test
+    void testDisabledFeaturesArgumentMergesExistingArguments() {
+        List<String> arguments = List.of("--headless=new", "--disable-features=Translate,MediaRouter",
+                "--disable-features=AutofillServerCommunication, Translate");
+
+        String argument = C4jChromeOptions.getDisabledFeaturesArgument(arguments,
+                "DisableLoadExtensionCommandLineSwitch");
+
+        //Verify.
+
+        assertEquals("--disable-features=Translate,MediaRouter,AutofillServerCommunication," +
+                "DisableLoadExtensionCommandLineSwitch", argument);
+    }
+
+    @Test
+    void testDisabledFeaturesArgumentWithoutExistingArguments() {
+        String argument = C4jChromeOptions.getDisabledFeaturesArgument(List.of("--headless=new"),
+                "DisableLoadExtensionCommandLineSwitch");
+
+        //Verify.
+
+        assertEquals("--disable-features=DisableLoadExtensionCommandLineSwitch", argument);
+    }
+}
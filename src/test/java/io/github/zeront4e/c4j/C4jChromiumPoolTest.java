@@ -0,0 +1,211 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class C4jChromiumPoolTest {
+    @Test
+    void testLeaseTimeout() throws Exception {
+        C4jChromiumPool.InstanceFactory instanceFactory = createInstanceFactoryOrFail();
+
+        try (C4jChromiumPool c4jChromiumPool = new C4jChromiumPool.Builder(instanceFactory).setMinSize(0)
+                .setMaxSize(1).build()) {
+            C4jChromiumPool.Lease lease = c4jChromiumPool.lease();
+
+            //Verify.
+
+            assertThrows(Exception.class, () -> c4jChromiumPool.lease(Duration.ofMillis(50)));
+
+            lease.close();
+
+            //The released instance is reset and leased again.
+
+            try (C4jChromiumPool.Lease nextLease = c4jChromiumPool.lease(Duration.ofMillis(50))) {
+                assertSame(lease.getRemoteChromium(), nextLease.getRemoteChromium());
+                assertEquals(2, nextLease.getUseCount());
+            }
+
+            verify(lease.getRemoteChromium(), times(2)).reset();
+            verify(instanceFactory, times(1)).createInstanceOrFail();
+        }
+    }
+
+    @Test
+    void testLeaseWaitsForReleasedInstance() throws Exception {
+        try (C4jChromiumPool c4jChromiumPool = new C4jChromiumPool.Builder(createInstanceFactoryOrFail())
+                .setMinSize(0).setMaxSize(1).build()) {
+            C4jChromiumPool.Lease lease = c4jChromiumPool.lease();
+
+            Thread.ofVirtual().start(() -> {
+                try {
+                    Thread.sleep(100);
+                }
+                catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+
+                lease.close();
+            });
+
+            //Verify.
+
+            try (C4jChromiumPool.Lease nextLease = c4jChromiumPool.lease(Duration.ofSeconds(10))) {
+                assertSame(lease.getRemoteChromium(), nextLease.getRemoteChromium());
+            }
+        }
+    }
+
+    @Test
+    void testMaxUsesRecyclesInstance() throws Exception {
+        C4jChromiumPool.InstanceFactory instanceFactory = createInstanceFactoryOrFail();
+
+        try (C4jChromiumPool c4jChromiumPool = new C4jChromiumPool.Builder(instanceFactory).setMinSize(0)
+                .setMaxSize(1).setMaxUsesPerInstance(2).build()) {
+            C4jChromiumPool.Lease firstLease = c4jChromiumPool.lease();
+            firstLease.close();
+
+            C4jChromiumPool.Lease secondLease = c4jChromiumPool.lease();
+            secondLease.close();
+
+            //Verify.
+
+            C4jRemoteChromium recycledInstance = firstLease.getRemoteChromium();
+
+            assertSame(recycledInstance, secondLease.getRemoteChromium());
+            assertEquals(2, secondLease.getUseCount());
+
+            verify(recycledInstance, times(1)).reset();
+            verify(recycledInstance).quit();
+
+            assertEquals(0, c4jChromiumPool.getInstanceCount());
+
+            try (C4jChromiumPool.Lease thirdLease = c4jChromiumPool.lease()) {
+                assertNotSame(recycledInstance, thirdLease.getRemoteChromium());
+                assertEquals(1, thirdLease.getUseCount());
+            }
+
+            verify(instanceFactory, times(2)).createInstanceOrFail();
+        }
+    }
+
+    @Test
+    void testFailedResetDiscardsInstance() throws Exception {
+        C4jChromiumPool.InstanceFactory instanceFactory = createInstanceFactoryOrFail();
+
+        try (C4jChromiumPool c4jChromiumPool = new C4jChromiumPool.Builder(instanceFactory).setMinSize(0)
+                .setMaxSize(1).build()) {
+            C4jChromiumPool.Lease lease = c4jChromiumPool.lease();
+
+            doThrow(new IllegalStateException("reset failed")).when(lease.getRemoteChromium()).reset();
+
+            lease.close();
+
+            //Verify.
+
+            verify(lease.getRemoteChromium()).quit();
+
+            assertEquals(0, c4jChromiumPool.getIdleCount());
+            assertEquals(0, c4jChromiumPool.getInstanceCount());
+        }
+    }
+
+    @Test
+    void testIdleInstancesAboveMinimumAreEvicted() throws Exception {
+        C4jChromiumPool.InstanceFactory instanceFactory = createInstanceFactoryOrFail();
+
+        try (C4jChromiumPool c4jChromiumPool = new C4jChromiumPool.Builder(instanceFactory).setMinSize(1)
+                .setMaxSize(3).setIdleTimeout(Duration.ofMillis(10)).build()) {
+            C4jChromiumPool.Lease firstLease = c4jChromiumPool.lease();
+            C4jChromiumPool.Lease secondLease = c4jChromiumPool.lease();
+            C4jChromiumPool.Lease thirdLease = c4jChromiumPool.lease();
+
+            firstLease.close();
+            secondLease.close();
+            thirdLease.close();
+
+            assertEquals(3, c4jChromiumPool.getIdleCount());
+
+            //The maintenance runs at least once per second.
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+
+            while (c4jChromiumPool.getInstanceCount() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            //Verify.
+
+            assertEquals(1, c4jChromiumPool.getInstanceCount());
+            assertEquals(1, c4jChromiumPool.getIdleCount());
+
+            //The most recently released instance is kept.
+
+            verify(firstLease.getRemoteChromium()).quit();
+            verify(secondLease.getRemoteChromium()).quit();
+            verify(thirdLease.getRemoteChromium(), never()).quit();
+        }
+    }
+
+    @Test
+    void testCloseWithOutstandingLeases() throws Exception {
+        C4jChromiumPool.InstanceFactory instanceFactory = createInstanceFactoryOrFail();
+
+        C4jChromiumPool c4jChromiumPool = new C4jChromiumPool.Builder(instanceFactory).setMinSize(1).setMaxSize(2)
+                .build();
+
+        C4jChromiumPool.Lease leasedLease = c4jChromiumPool.lease();
+        C4jChromiumPool.Lease idleLease = c4jChromiumPool.lease();
+
+        idleLease.close();
+
+        c4jChromiumPool.close();
+
+        //Verify.
+
+        verify(idleLease.getRemoteChromium()).quit();
+        verify(leasedLease.getRemoteChromium(), never()).quit();
+
+        assertEquals(1, c4jChromiumPool.getInstanceCount());
+        assertThrows(Exception.class, c4jChromiumPool::lease);
+
+        //The leased instance is quit when it is released (instead of being returned to the closed pool).
+
+        leasedLease.close();
+
+        verify(leasedLease.getRemoteChromium()).quit();
+
+        assertEquals(0, c4jChromiumPool.getInstanceCount());
+        assertEquals(0, c4jChromiumPool.getIdleCount());
+
+        //No replacement instances are launched after the pool was closed.
+
+        verify(instanceFactory, times(2)).createInstanceOrFail();
+    }
+
+    private static C4jChromiumPool.InstanceFactory createInstanceFactoryOrFail() throws Exception {
+        C4jChromiumPool.InstanceFactory instanceFactory = mock(C4jChromiumPool.InstanceFactory.class);
+
+        when(instanceFactory.createInstanceOrFail()).thenAnswer(tmpInvocation -> mock(C4jRemoteChromium.class));
+
+        return instanceFactory;
+    }
+}
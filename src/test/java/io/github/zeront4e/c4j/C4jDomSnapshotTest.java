@@ -0,0 +1,246 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class C4jDomSnapshotTest {
+    /**
+     * Builds the result of the DevTools command "DOMSnapshot.captureSnapshot" (nodes in document order).
+     */
+    static final class CaptureResultBuilder {
+        private final List<String> strings = new ArrayList<>();
+
+        private final List<Integer> parentIndexes = new ArrayList<>();
+        private final List<Integer> nodeTypes = new ArrayList<>();
+        private final List<Integer> nodeNames = new ArrayList<>();
+        private final List<Integer> nodeValues = new ArrayList<>();
+        private final List<List<Integer>> attributes = new ArrayList<>();
+
+        private final List<Integer> inputValueNodes = new ArrayList<>();
+        private final List<Integer> inputValueStrings = new ArrayList<>();
+
+        private final List<Integer> layoutNodes = new ArrayList<>();
+        private final List<List<Double>> layoutBounds = new ArrayList<>();
+
+        CaptureResultBuilder() {
+            addNode(-1, 9, "#document", null);
+        }
+
+        int addElement(int parentIndex, String tagName, String... nameValuePairs) {
+            int nodeIndex = addNode(parentIndex, 1, tagName.toUpperCase(), null);
+
+            List<Integer> attributeIndexes = attributes.get(nodeIndex);
+
+            for(String tmpNameOrValue : nameValuePairs) {
+                attributeIndexes.add(getStringIndex(tmpNameOrValue));
+            }
+
+            return nodeIndex;
+        }
+
+        int addNode(int parentIndex, int nodeType, String nodeName, String nodeValue) {
+            parentIndexes.add(parentIndex);
+            nodeTypes.add(nodeType);
+            nodeNames.add(getStringIndex(nodeName));
+            nodeValues.add(nodeValue == null ? -1 : getStringIndex(nodeValue));
+            attributes.add(new ArrayList<>());
+
+            return parentIndexes.size() - 1;
+        }
+
+        void setInputValue(int nodeIndex, String value) {
+            inputValueNodes.add(nodeIndex);
+            inputValueStrings.add(getStringIndex(value));
+        }
+
+        void setBounds(int nodeIndex, double x, double y, double width, double height) {
+            layoutNodes.add(nodeIndex);
+            layoutBounds.add(List.of(x, y, width, height));
+        }
+
+        Map<String, Object> build() {
+            Map<String, Object> nodes = new HashMap<>();
+
+            nodes.put("parentIndex", parentIndexes);
+            nodes.put("nodeType", nodeTypes);
+            nodes.put("nodeName", nodeNames);
+            nodes.put("nodeValue", nodeValues);
+            nodes.put("attributes", attributes);
+            nodes.put("inputValue", Map.of("index", inputValueNodes, "value", inputValueStrings));
+
+            Map<String, Object> document = new HashMap<>();
+
+            document.put("documentURL", getStringIndex("https://example.com/"));
+            document.put("title", getStringIndex("Example"));
+            document.put("nodes", nodes);
+            document.put("layout", Map.of("nodeIndex", layoutNodes, "bounds", layoutBounds));
+
+            return Map.of("documents", List.of(document), "strings", strings);
+        }
+
+        C4jDomSnapshot buildSnapshotOrFail() throws Exception {
+            return C4jDomSnapshot.fromCaptureResultOrFail(build(), System.nanoTime());
+        }
+
+        private int getStringIndex(String value) {
+            int index = strings.indexOf(value);
+
+            if(index != -1)
+                return index;
+
+            strings.add(value);
+
+            return strings.size() - 1;
+        }
+    }
+
+    @Test
+    void testDocumentProperties() throws Exception {
+        CaptureResultBuilder captureResultBuilder = new CaptureResultBuilder();
+
+        int html = captureResultBuilder.addElement(0, "html");
+        int body = captureResultBuilder.addElement(html, "body");
+        int input = captureResultBuilder.addElement(body, "input", "id", "name", "class", " field  wide field ");
+
+        captureResultBuilder.setInputValue(input, "text");
+        captureResultBuilder.setBounds(input, 1, 2, 3, 4);
+
+        C4jDomSnapshot c4jDomSnapshot = captureResultBuilder.buildSnapshotOrFail();
+
+        //Verify.
+
+        assertEquals("https://example.com/", c4jDomSnapshot.getUrlOrNull());
+        assertEquals("Example", c4jDomSnapshot.getTitleOrNull());
+        assertEquals(3, c4jDomSnapshot.getElementCount());
+        assertEquals("html", c4jDomSnapshot.getDocumentElementOrNull().getTagName());
+
+        C4jDomSnapshot.Element element = c4jDomSnapshot.querySelectorOrNull("#name");
+
+        assertNotNull(element);
+        assertEquals("input", element.getTagName());
+        assertEquals("text", element.getValueOrNull());
+        assertEquals(new C4jDomSnapshot.Bounds(1, 2, 3, 4), element.getBoundsOrNull());
+        assertEquals(Map.of("id", "name", "class", " field  wide field "), element.getAttributes());
+        assertEquals("body", element.getParentOrNull().getTagName());
+
+        //The repeated class is indexed once.
+
+        assertEquals(1, c4jDomSnapshot.querySelectorAll(".field").size());
+        assertEquals(1, c4jDomSnapshot.querySelectorAll(".field.wide").size());
+    }
+
+    @Test
+    void testText() throws Exception {
+        CaptureResultBuilder captureResultBuilder = new CaptureResultBuilder();
+
+        int html = captureResultBuilder.addElement(0, "html");
+        int paragraph = captureResultBuilder.addElement(html, "p");
+        int visibleText = captureResultBuilder.addNode(paragraph, 3, "#text", " Hello \n ");
+        int span = captureResultBuilder.addElement(paragraph, "span");
+
+        captureResultBuilder.addNode(span, 3, "#text", "hidden");
+
+        int worldText = captureResultBuilder.addNode(paragraph, 3, "#text", "world ");
+
+        captureResultBuilder.setBounds(visibleText, 0, 0, 10, 10);
+        captureResultBuilder.setBounds(worldText, 10, 0, 10, 10);
+
+        C4jDomSnapshot c4jDomSnapshot = captureResultBuilder.buildSnapshotOrFail();
+
+        C4jDomSnapshot.Element element = c4jDomSnapshot.querySelectorOrNull("p");
+
+        //Verify.
+
+        assertEquals(" Hello \n hiddenworld ", element.getTextContent());
+        assertEquals("Hello world", element.getText());
+    }
+
+    @Test
+    void testShadowRootChildrenAreLinkedAtHost() throws Exception {
+        CaptureResultBuilder captureResultBuilder = new CaptureResultBuilder();
+
+        int html = captureResultBuilder.addElement(0, "html");
+        int host = captureResultBuilder.addElement(html, "div", "id", "host");
+        int shadowRoot = captureResultBuilder.addNode(host, 11, "#document-fragment", null);
+
+        captureResultBuilder.addElement(shadowRoot, "span", "class", "first");
+        captureResultBuilder.addElement(shadowRoot, "span", "class", "second");
+        captureResultBuilder.addElement(host, "p", "class", "light");
+
+        C4jDomSnapshot c4jDomSnapshot = captureResultBuilder.buildSnapshotOrFail();
+
+        C4jDomSnapshot.Element hostElement = c4jDomSnapshot.querySelectorOrNull("#host");
+
+        //Verify.
+
+        assertEquals(List.of("span", "span", "p"), hostElement.getChildren().stream()
+                .map(C4jDomSnapshot.Element::getTagName).toList());
+
+        assertEquals(hostElement, c4jDomSnapshot.querySelectorOrNull(".first").getParentOrNull());
+        assertEquals(3, c4jDomSnapshot.querySelectorAll("#host > *").size());
+
+        assertEquals(List.of(c4jDomSnapshot.querySelectorOrNull(".first")),
+                c4jDomSnapshot.querySelectorAll("#host > :first-child"));
+        assertEquals(List.of(c4jDomSnapshot.querySelectorOrNull(".light")),
+                c4jDomSnapshot.querySelectorAll("#host > :last-child"));
+        assertEquals(List.of(c4jDomSnapshot.querySelectorOrNull(".second")),
+                c4jDomSnapshot.querySelectorAll(".first + span"));
+        assertEquals(List.of(c4jDomSnapshot.querySelectorOrNull(".light")),
+                c4jDomSnapshot.querySelectorAll(".first ~ p"));
+    }
+
+    @Test
+    void testQueryOfElement() throws Exception {
+        CaptureResultBuilder captureResultBuilder = new CaptureResultBuilder();
+
+        int html = captureResultBuilder.addElement(0, "html");
+        int first = captureResultBuilder.addElement(html, "div", "id", "first");
+
+        captureResultBuilder.addElement(first, "a", "id", "inner");
+
+        captureResultBuilder.addElement(html, "a", "id", "outer");
+
+        C4jDomSnapshot c4jDomSnapshot = captureResultBuilder.buildSnapshotOrFail();
+
+        C4jDomSnapshot.Element element = c4jDomSnapshot.querySelectorOrNull("#first");
+
+        //Verify.
+
+        assertEquals(List.of(c4jDomSnapshot.querySelectorOrNull("#inner")), element.querySelectorAll("a"));
+        assertNull(element.querySelectorOrNull("#outer"));
+        assertTrue(element.matches("html > div"));
+        assertFalse(element.matches("a"));
+    }
+
+    @Test
+    void testInvalidCaptureResult() {
+        assertThrows(Exception.class, () -> C4jDomSnapshot.fromCaptureResultOrFail(Map.of("documents", List.of(),
+                "strings", List.of()), System.nanoTime()));
+
+        CaptureResultBuilder captureResultBuilder = new CaptureResultBuilder();
+
+        captureResultBuilder.addElement(2, "html");
+
+        assertThrows(Exception.class, captureResultBuilder::buildSnapshotOrFail);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark to measure the effect of the performance presets on the launch time and the memory usage. Every preset
+ * (and the plain headless options as baseline) is launched several times. The launch time covers the start of the
+ * browser and the driver (the distribution is installed beforehand). The memory usage is the sum of the resident set
+ * sizes of the driver and browser processes after the given URL was loaded (shared pages are counted per process, so
+ * the sum is an upper bound). The resident set sizes are only available on Linux.
+ * <p>
+ * The benchmark is part of the test sources (it isn't run by the tests) and can be run from the command line:
+ * "mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=io.github.zeront4e.c4j.C4jPresetBenchmark
+ * -Dexec.args="[launches] [URL]""
+ */
+public class C4jPresetBenchmark {
+    /**
+     * Represents the result of a preset.
+     * @param presetName The name of the preset ("BASELINE" for the plain headless options).
+     * @param launches The number of launches.
+     * @param averageLaunchDuration The average launch time.
+     * @param averageResidentSetSizeBytes The average memory usage in bytes or -1, if it's unavailable.
+     */
+    public record Result(String presetName, int launches, Duration averageLaunchDuration,
+                         long averageResidentSetSizeBytes) {
+
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(C4jPresetBenchmark.class);
+
+    private static final String BASELINE_NAME = "BASELINE";
+
+    private static final String DEFAULT_URL = "about:blank";
+
+    /**
+     * Runs the benchmark with the given arguments (the number of launches per preset and the URL to load).
+     * @param args The arguments.
+     * @throws Exception An unexpected exception.
+     */
+    public static void main(String[] args) throws Exception {
+        int launches = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String url = args.length > 1 ? args[1] : DEFAULT_URL;
+
+        List<Result> results = runOrFail(C4jOsChromiumDistribution.LATEST_CHROMIUM_BUILD, launches, url);
+
+        for(Result tmpResult : results) {
+            LOGGER.info("{} (preset version {}): Launch time: {}ms RSS: {}", tmpResult.presetName(),
+                    C4jChromeOptions.PERFORMANCE_PRESET_VERSION, tmpResult.averageLaunchDuration().toMillis(),
+                    tmpResult.averageResidentSetSizeBytes() < 0 ? "unavailable" :
+                            (tmpResult.averageResidentSetSizeBytes() / (1024 * 1024)) + " MiB");
+        }
+    }
+
+    /**
+     * Runs the benchmark for the baseline and every preset.
+     * @param c4jOsChromiumDistribution The distribution to launch.
+     * @param launches The number of launches per preset.
+     * @param url The URL to load after every launch.
+     * @return The results (the baseline first).
+     * @throws Exception An unexpected exception.
+     */
+    public static List<Result> runOrFail(C4jOsChromiumDistribution c4jOsChromiumDistribution, int launches,
+                                         String url) throws Exception {
+        if(launches < 1)
+            throw new IllegalArgumentException("At least one launch is required.");
+
+        //Install the distribution beforehand, so the installation isn't measured.
+
+        File chromiumFile = C4j.obtainDefaultChromiumOrFail(c4jOsChromiumDistribution, LOGGER::info, false);
+
+        if(chromiumFile == null)
+            throw new Exception("Unable to obtain Chromium binary.");
+
+        List<Result> results = new ArrayList<>();
+
+        results.add(measureOrFail(BASELINE_NAME, null, chromiumFile, launches, url));
+
+        for(C4jChromeOptions.PerformancePreset tmpPerformancePreset : C4jChromeOptions.PerformancePreset.values()) {
+            results.add(measureOrFail(tmpPerformancePreset.name(), tmpPerformancePreset, chromiumFile, launches,
+                    url));
+        }
+
+        return results;
+    }
+
+    private static Result measureOrFail(String presetName, C4jChromeOptions.PerformancePreset performancePreset,
+                                        File chromiumFile, int launches, String url) throws Exception {
+        long totalLaunchNanos = 0;
+        long totalResidentSetSizeBytes = 0;
+
+        boolean residentSetSizeAvailable = true;
+
+        for(int i = 0; i < launches; i++) {
+            C4jChromeOptions c4jChromeOptions = performancePreset == null ?
+                    C4jChromeOptions.withHeadlessOptions(true).build() :
+                    C4jChromeOptions.withPerformanceOptions(performancePreset).build();
+
+            long startTime = System.nanoTime();
+
+            C4jRemoteChromium c4jRemoteChromium = C4j.createInstance(chromiumFile, c4jChromeOptions);
+
+            totalLaunchNanos += System.nanoTime() - startTime;
+
+            try {
+                c4jRemoteChromium.getChromeDriver().get(url);
+
+                long residentSetSizeBytes = measureResidentSetSizeBytes();
+
+                if(residentSetSizeBytes < 0)
+                    residentSetSizeAvailable = false;
+
+                totalResidentSetSizeBytes += residentSetSizeBytes;
+            }
+            finally {
+                c4jRemoteChromium.quit();
+            }
+        }
+
+        Result result = new Result(presetName, launches, Duration.ofNanos(totalLaunchNanos / launches),
+                residentSetSizeAvailable ? totalResidentSetSizeBytes / launches : -1);
+
+        LOGGER.info("Measured {}: {}", presetName, result);
+
+        return result;
+    }
+
+    /**
+     * Returns the sum of the resident set sizes of all processes started by this process (the driver and the browser
+     * processes) or -1, if the resident set sizes are unavailable.
+     */
+    private static long measureResidentSetSizeBytes() {
+        File procDirectory = new File("/proc");
+
+        if(!procDirectory.isDirectory())
+            return -1;
+
+        return ProcessHandle.current().descendants()
+                .mapToLong(tmpProcessHandle -> readResidentSetSizeBytes(new File(procDirectory,
+                        tmpProcessHandle.pid() + "/status")))
+                .sum();
+    }
+
+    private static long readResidentSetSizeBytes(File statusFile) {
+        try {
+            for(String tmpLine : Files.readAllLines(statusFile.toPath())) {
+                //The line has the format "VmRSS:     12345 kB".
+
+                if(tmpLine.startsWith("VmRSS:"))
+                    return Long.parseLong(tmpLine.substring(6).replace("kB", "").trim()) * 1024;
+            }
+        }
+        catch (Exception exception) {
+            //The process terminated in the meantime.
+        }
+
+        return 0;
+    }
+}
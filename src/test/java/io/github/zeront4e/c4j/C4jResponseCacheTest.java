@@ -0,0 +1,229 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class C4jResponseCacheTest {
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testIsCacheable() {
+        C4jResponseCache c4jResponseCache = C4jResponseCache.fromBuilder().setDiskDirectory(null).build();
+
+        //Verify.
+
+        assertTrue(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60")));
+        assertTrue(c4jResponseCache.isCacheable(200, headers("Cache-Control", "public, s-maxage=60, max-age=0")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "s-maxage=0, max-age=60")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=0")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers()));
+
+        //The age is subtracted from the lifetime.
+
+        assertTrue(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60", "Age", "30")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60", "Age", "60")));
+
+        //The lifetime of "Expires" is relative to the date of the response.
+
+        ZonedDateTime date = ZonedDateTime.now(ZoneOffset.UTC).minusDays(1);
+
+        assertTrue(c4jResponseCache.isCacheable(200, headers("Date", formatHttpDate(date),
+                "Expires", formatHttpDate(date.plusMinutes(1)))));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Date", formatHttpDate(date),
+                "Expires", formatHttpDate(date.minusMinutes(1)))));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Expires", "0")));
+
+        //Responses, which a shared cache must not store.
+
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "private, max-age=60")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60",
+                "Cache-Control", "no-store")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "no-cache, max-age=60")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60",
+                "Set-Cookie", "id=1")));
+        assertTrue(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60",
+                "Vary", "Accept-Encoding")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60", "Vary", "Cookie")));
+        assertFalse(c4jResponseCache.isCacheable(500, headers("Cache-Control", "max-age=60")));
+    }
+
+    @Test
+    void testIsCacheableChecksContentLength() {
+        C4jResponseCache c4jResponseCache = C4jResponseCache.fromBuilder().setDiskDirectory(null)
+                .setMaxEntryBytes(1024).build();
+
+        //Verify.
+
+        assertTrue(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60", "Content-Length",
+                "1024")));
+        assertFalse(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60", "content-length",
+                "1025")));
+        assertTrue(c4jResponseCache.isCacheable(200, headers("Cache-Control", "max-age=60", "Content-Length",
+                "invalid")));
+    }
+
+    @Test
+    void testStoreAndLookup() {
+        C4jResponseCache c4jResponseCache = C4jResponseCache.fromBuilder().setDiskDirectory(null)
+                .setMaxEntryBytes(1024).build();
+
+        byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+
+        //Verify.
+
+        assertTrue(c4jResponseCache.storeIfCacheable("https://example.com/a", 200, headers(
+                "Cache-Control", "max-age=60", "Content-Length", "100", "Content-Type", "text/plain"), body));
+        assertFalse(c4jResponseCache.storeIfCacheable("https://example.com/b", 200, headers(
+                "Cache-Control", "no-store"), body));
+        assertFalse(c4jResponseCache.storeIfCacheable("https://example.com/c", 200, headers(
+                "Cache-Control", "max-age=60"), new byte[2048]));
+
+        C4jResponseCache.CachedResponse cachedResponse = c4jResponseCache.lookupOrNull("https://example.com/a");
+
+        assertNotNull(cachedResponse);
+        assertEquals(200, cachedResponse.statusCode());
+        assertArrayEquals(body, cachedResponse.body());
+
+        //The length is determined when the response is served.
+
+        assertEquals(List.of("Cache-Control", "Content-Type"), cachedResponse.headers().stream()
+                .map(tmpHeader -> tmpHeader[0]).toList());
+
+        assertNull(c4jResponseCache.lookupOrNull("https://example.com/b"));
+        assertNull(c4jResponseCache.lookupOrNull("https://example.com/c"));
+
+        assertEquals(new C4jResponseCache.CacheStatistics(1, 2, 1, body.length),
+                c4jResponseCache.getStatistics());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        List<String[]> headers = headers("Cache-Control", "max-age=60");
+
+        long entryBytes = new C4jResponseCache.CachedResponse(200, headers, new byte[100], 0).size();
+
+        C4jResponseCache c4jResponseCache = C4jResponseCache.fromBuilder().setDiskDirectory(null)
+                .setMemoryCapacityBytes(entryBytes * 2).build();
+
+        c4jResponseCache.storeIfCacheable("https://example.com/a", 200, headers, new byte[100]);
+        c4jResponseCache.storeIfCacheable("https://example.com/b", 200, headers, new byte[100]);
+
+        //The access of "a" makes "b" the least recently used response.
+
+        assertNotNull(c4jResponseCache.lookupOrNull("https://example.com/a"));
+
+        c4jResponseCache.storeIfCacheable("https://example.com/c", 200, headers, new byte[100]);
+
+        //Verify.
+
+        assertEquals(entryBytes * 2, c4jResponseCache.getMemoryBytes());
+
+        assertNull(c4jResponseCache.lookupOrNull("https://example.com/b"));
+        assertNotNull(c4jResponseCache.lookupOrNull("https://example.com/a"));
+        assertNotNull(c4jResponseCache.lookupOrNull("https://example.com/c"));
+    }
+
+    @Test
+    void testDiskRoundTrip() {
+        byte[] body = "äöü body".getBytes(StandardCharsets.UTF_8);
+
+        C4jResponseCache.fromBuilder().setDiskDirectory(tempDir.toFile()).build().storeIfCacheable(
+                "https://example.com/ä", 404, headers("Cache-Control", "max-age=60", "X-Name", "välue"), body);
+
+        //A new cache (e.g. of another process) reads the response from the disk tier.
+
+        C4jResponseCache c4jResponseCache = C4jResponseCache.fromBuilder().setDiskDirectory(tempDir.toFile())
+                .build();
+
+        C4jResponseCache.CachedResponse cachedResponse = c4jResponseCache.lookupOrNull("https://example.com/ä");
+
+        //Verify.
+
+        assertNotNull(cachedResponse);
+        assertEquals(404, cachedResponse.statusCode());
+        assertArrayEquals(body, cachedResponse.body());
+        assertEquals(2, cachedResponse.headers().size());
+        assertArrayEquals(new String[] {"X-Name", "välue"}, cachedResponse.headers().get(1));
+        assertTrue(cachedResponse.expirationTime() > System.currentTimeMillis());
+
+        assertNull(c4jResponseCache.lookupOrNull("https://example.com/other"));
+
+        assertTrue(c4jResponseCache.getMemoryBytes() > 0);
+    }
+
+    @Test
+    void testStaleDiskEntryIsDeleted() throws Exception {
+        C4jResponseCache.fromBuilder().setDiskDirectory(tempDir.toFile()).build().storeIfCacheable(
+                "https://example.com/", 200, headers("Cache-Control", "max-age=1"), new byte[10]);
+
+        assertEquals(1, countEntryFilesOrFail());
+
+        Thread.sleep(1100);
+
+        C4jResponseCache c4jResponseCache = C4jResponseCache.fromBuilder().setDiskDirectory(tempDir.toFile())
+                .build();
+
+        //Verify.
+
+        assertNull(c4jResponseCache.lookupOrNull("https://example.com/"));
+        assertEquals(0, countEntryFilesOrFail());
+    }
+
+    @Test
+    void testTrimDisk() throws Exception {
+        C4jResponseCache c4jResponseCache = C4jResponseCache.fromBuilder().setDiskDirectory(tempDir.toFile())
+                .setDiskCapacityBytes(1500).build();
+
+        for(int i = 0; i < 3; i++) {
+            c4jResponseCache.storeIfCacheable("https://example.com/" + i, 200, headers("Cache-Control",
+                    "max-age=60"), new byte[1000]);
+        }
+
+        c4jResponseCache.trimDisk();
+
+        //Verify.
+
+        assertEquals(1, countEntryFilesOrFail());
+    }
+
+    private long countEntryFilesOrFail() throws Exception {
+        try (Stream<Path> pathStream = Files.walk(tempDir)) {
+            return pathStream.filter(tmpPath -> tmpPath.getFileName().toString().endsWith(".entry")).count();
+        }
+    }
+
+    private static List<String[]> headers(String... nameValuePairs) {
+        return Stream.iterate(0, tmpIndex -> tmpIndex + 2).limit(nameValuePairs.length / 2)
+                .map(tmpIndex -> new String[] {nameValuePairs[tmpIndex], nameValuePairs[tmpIndex + 1]}).toList();
+    }
+
+    private static String formatHttpDate(ZonedDateTime zonedDateTime) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(zonedDateTime);
+    }
+}
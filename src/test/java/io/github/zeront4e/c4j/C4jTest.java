@@ -375,7 +375,9 @@ class C4jTest {
             mockedDownloader.verify(() -> C4jChromiumDownloader.downloadChromiumOrFail(any()),
                     times(1));
 
-            mockedFiles.verify(() -> Files.deleteIfExists(any()), times(1));
+            //The existing installation isn't deleted (the new installation is stored as a new revision).
+
+            mockedFiles.verify(() -> Files.deleteIfExists(any()), never());
         }
     }
 
@@ -0,0 +1,122 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChromiumVersionCacheTest {
+    private static final C4jRemoteChromium.ChromiumVersion CHROMIUM_VERSION = new C4jRemoteChromium.ChromiumVersion(
+            "138", "Chromium 138.0.7204.0");
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testPutAndGetVersion() throws Exception {
+        File binaryFile = createBinaryOrFail("chrome", "binary");
+
+        ChromiumVersionCache chromiumVersionCache = createCache();
+
+        assertNull(chromiumVersionCache.getVersionOrNull(binaryFile));
+
+        chromiumVersionCache.putVersion(binaryFile, CHROMIUM_VERSION);
+
+        //Verify.
+
+        assertEquals(CHROMIUM_VERSION, chromiumVersionCache.getVersionOrNull(binaryFile));
+
+        //The entry is persisted.
+
+        assertEquals(CHROMIUM_VERSION, createCache().getVersionOrNull(binaryFile));
+    }
+
+    @Test
+    void testChangedBinaryInvalidatesEntry() throws Exception {
+        File binaryFile = createBinaryOrFail("chrome", "binary");
+
+        ChromiumVersionCache chromiumVersionCache = createCache();
+
+        chromiumVersionCache.putVersion(binaryFile, CHROMIUM_VERSION);
+
+        //Verify.
+
+        Files.writeString(binaryFile.toPath(), "updated binary");
+
+        assertNull(chromiumVersionCache.getVersionOrNull(binaryFile));
+
+        Files.writeString(binaryFile.toPath(), "binary");
+        assertTrue(binaryFile.setLastModified(binaryFile.lastModified() + 10_000));
+
+        assertNull(chromiumVersionCache.getVersionOrNull(binaryFile));
+
+        Files.delete(binaryFile.toPath());
+
+        assertNull(chromiumVersionCache.getVersionOrNull(binaryFile));
+    }
+
+    @Test
+    void testEntriesOfOtherCachesAreKept() throws Exception {
+        File firstBinaryFile = createBinaryOrFail("first", "first binary");
+        File secondBinaryFile = createBinaryOrFail("second", "second binary");
+
+        //Both caches use the same file (like the caches of two processes).
+
+        ChromiumVersionCache firstChromiumVersionCache = createCache();
+        ChromiumVersionCache secondChromiumVersionCache = createCache();
+
+        firstChromiumVersionCache.putVersion(firstBinaryFile, CHROMIUM_VERSION);
+        secondChromiumVersionCache.putVersion(secondBinaryFile, CHROMIUM_VERSION);
+
+        //Verify.
+
+        assertEquals(CHROMIUM_VERSION, secondChromiumVersionCache.getVersionOrNull(firstBinaryFile));
+        assertEquals(CHROMIUM_VERSION, firstChromiumVersionCache.getVersionOrNull(secondBinaryFile));
+    }
+
+    @Test
+    void testInvalidCacheFileIsIgnored() throws Exception {
+        File binaryFile = createBinaryOrFail("chrome", "binary");
+
+        Files.writeString(tempDir.resolve(ChromiumVersionCache.CACHE_FILE_NAME), binaryFile.getAbsolutePath()
+                .replace("\\", "\\\\").replace(":", "\\:") + "=invalid\n", StandardCharsets.ISO_8859_1);
+
+        ChromiumVersionCache chromiumVersionCache = createCache();
+
+        //Verify.
+
+        assertNull(chromiumVersionCache.getVersionOrNull(binaryFile));
+
+        chromiumVersionCache.putVersion(binaryFile, CHROMIUM_VERSION);
+
+        assertEquals(CHROMIUM_VERSION, chromiumVersionCache.getVersionOrNull(binaryFile));
+    }
+
+    private ChromiumVersionCache createCache() {
+        return new ChromiumVersionCache(tempDir.resolve(ChromiumVersionCache.CACHE_FILE_NAME).toFile());
+    }
+
+    private File createBinaryOrFail(String name, String content) throws Exception {
+        return Files.writeString(tempDir.resolve(name), content).toFile();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentAddressedStoreTest {
+    private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testMaterializeStoresContentOnce() throws Exception {
+        ContentAddressedStore contentAddressedStore = new ContentAddressedStore(tempDir.resolve("store"));
+
+        Path treePath = Files.createDirectories(tempDir.resolve("tree"));
+
+        ContentAddressedStore.Tree tree = contentAddressedStore.openTree(treePath);
+
+        tree.materializeOrFail(new ByteArrayInputStream(CONTENT), treePath.resolve("first"), "first");
+        tree.materializeOrFail(new ByteArrayInputStream(CONTENT), treePath.resolve("second"), "second");
+
+        //Verify.
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(treePath.resolve("first")));
+        assertArrayEquals(CONTENT, Files.readAllBytes(treePath.resolve("second")));
+        assertEquals(1, getBlobPaths().size());
+    }
+
+    @Test
+    void testMaterializeKnownEntryOfCommittedTree() throws Exception {
+        ContentAddressedStore contentAddressedStore = new ContentAddressedStore(tempDir.resolve("store"));
+
+        Path firstTreePath = Files.createDirectories(tempDir.resolve("first"));
+
+        ContentAddressedStore.Tree firstTree = contentAddressedStore.openTree(firstTreePath);
+
+        firstTree.materializeOrFail(new ByteArrayInputStream(CONTENT), firstTreePath.resolve("file"), "dir/file");
+        firstTree.commitOrFail();
+
+        Path secondTreePath = Files.createDirectories(tempDir.resolve("second"));
+
+        ContentAddressedStore.Tree secondTree = contentAddressedStore.openTree(secondTreePath);
+
+        Path filePath = secondTreePath.resolve("file");
+
+        //Verify.
+
+        assertEquals(CONTENT.length, secondTree.materializeEntryOrFail(new ByteArrayInputStream(CONTENT), filePath,
+                "dir/file", getCrc(CONTENT), CONTENT.length));
+        assertArrayEquals(CONTENT, Files.readAllBytes(filePath));
+        assertEquals(1, getBlobPaths().size());
+
+        //Unknown entries are stored.
+
+        byte[] otherContent = "other content".getBytes(StandardCharsets.UTF_8);
+
+        secondTree.materializeEntryOrFail(new ByteArrayInputStream(otherContent), secondTreePath.resolve("other"),
+                "dir/other", -1, -1);
+
+        assertArrayEquals(otherContent, Files.readAllBytes(secondTreePath.resolve("other")));
+        assertEquals(2, getBlobPaths().size());
+    }
+
+    @Test
+    void testMaterializeKnownEntryWithDifferentContent() throws Exception {
+        ContentAddressedStore contentAddressedStore = new ContentAddressedStore(tempDir.resolve("store"));
+
+        Path firstTreePath = Files.createDirectories(tempDir.resolve("first"));
+
+        ContentAddressedStore.Tree firstTree = contentAddressedStore.openTree(firstTreePath);
+
+        firstTree.materializeOrFail(new ByteArrayInputStream(CONTENT), firstTreePath.resolve("file"), "file");
+        firstTree.commitOrFail();
+
+        Path secondTreePath = Files.createDirectories(tempDir.resolve("second"));
+
+        ContentAddressedStore.Tree secondTree = contentAddressedStore.openTree(secondTreePath);
+
+        //The entry claims the CRC-32 and size of the known entry (like a CRC-32 collision), but differs after the
+        //first bytes or is shorter.
+
+        byte[] differentContent = "conTENT".getBytes(StandardCharsets.UTF_8);
+        byte[] shorterContent = "cont".getBytes(StandardCharsets.UTF_8);
+
+        secondTree.materializeEntryOrFail(new ByteArrayInputStream(differentContent), secondTreePath.resolve("file"),
+                "file", getCrc(CONTENT), CONTENT.length);
+        secondTree.materializeEntryOrFail(new ByteArrayInputStream(shorterContent), secondTreePath.resolve("short"),
+                "file", getCrc(CONTENT), CONTENT.length);
+
+        //Verify.
+
+        assertArrayEquals(differentContent, Files.readAllBytes(secondTreePath.resolve("file")));
+        assertArrayEquals(shorterContent, Files.readAllBytes(secondTreePath.resolve("short")));
+        assertArrayEquals(CONTENT, Files.readAllBytes(firstTreePath.resolve("file")));
+        assertEquals(3, getBlobPaths().size());
+    }
+
+    @Test
+    void testMaterializeKnownEntryOfCollectedBlob() throws Exception {
+        ContentAddressedStore contentAddressedStore = new ContentAddressedStore(tempDir.resolve("store"));
+
+        Path firstTreePath = Files.createDirectories(tempDir.resolve("first"));
+
+        ContentAddressedStore.Tree firstTree = contentAddressedStore.openTree(firstTreePath);
+
+        firstTree.materializeOrFail(new ByteArrayInputStream(CONTENT), firstTreePath.resolve("file"), "file");
+        firstTree.commitOrFail();
+
+        Path secondTreePath = Files.createDirectories(tempDir.resolve("second"));
+
+        ContentAddressedStore.Tree secondTree = contentAddressedStore.openTree(secondTreePath);
+
+        //The blob is collected after the tree was opened.
+
+        for(Path tmpBlobPath : getBlobPaths()) {
+            Files.delete(tmpBlobPath);
+        }
+
+        secondTree.materializeEntryOrFail(new ByteArrayInputStream(CONTENT), secondTreePath.resolve("file"), "file",
+                getCrc(CONTENT), CONTENT.length);
+
+        //Verify.
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(secondTreePath.resolve("file")));
+        assertEquals(1, getBlobPaths().size());
+    }
+
+    @Test
+    void testCollectGarbageDeletesReferencesOfRemovedTrees() throws Exception {
+        ContentAddressedStore contentAddressedStore = new ContentAddressedStore(tempDir.resolve("store"));
+
+        Path treePath = Files.createDirectories(tempDir.resolve("tree"));
+
+        ContentAddressedStore.Tree tree = contentAddressedStore.openTree(treePath);
+
+        tree.materializeOrFail(new ByteArrayInputStream(CONTENT), treePath.resolve("file"), "file");
+        tree.commitOrFail();
+
+        FileUtil.deleteDirectoryQuietly(treePath);
+
+        contentAddressedStore.collectGarbage();
+
+        //Verify.
+
+        try (Stream<Path> pathStream = Files.list(tempDir.resolve("store").resolve("refs"))) {
+            assertEquals(0, pathStream.count());
+        }
+    }
+
+    private List<Path> getBlobPaths() throws Exception {
+        try (Stream<Path> pathStream = Files.walk(tempDir.resolve("store").resolve("blobs"))) {
+            return pathStream.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private static long getCrc(byte[] bytes) {
+        CRC32 crc32 = new CRC32();
+
+        crc32.update(bytes);
+
+        return crc32.getValue();
+    }
+}
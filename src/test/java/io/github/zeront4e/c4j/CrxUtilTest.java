@@ -0,0 +1,212 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrxUtilTest {
+    private static final String MANIFEST = "{\n  \"name\": \"Test\",\n  \"version\": \"1.0\"\n}\n";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testUnpackCrx3AddsKeyMatchingCrxId() throws Exception {
+        byte[] rsaPublicKey = "rsa-public-key".getBytes(StandardCharsets.UTF_8);
+        byte[] ecdsaPublicKey = "ecdsa-public-key".getBytes(StandardCharsets.UTF_8);
+
+        //The CRX ID belongs to the ECDSA key, so the first RSA key must not be used.
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+        writeField(header, 2, createField(1, rsaPublicKey));
+        writeField(header, 3, createField(1, ecdsaPublicKey));
+        writeField(header, 10000, createField(1, getCrxId(ecdsaPublicKey)));
+
+        File crxFile = writeCrx3(header.toByteArray(), createZip(MANIFEST));
+
+        Path destinationPath = tempDir.resolve("destination");
+
+        CrxUtil.unpackOrFail(crxFile, destinationPath.toFile());
+
+        //Verify.
+
+        String manifest = Files.readString(destinationPath.resolve("manifest.json"));
+
+        assertTrue(manifest.startsWith("{\"key\": \"" + Base64.getEncoder().encodeToString(ecdsaPublicKey) +
+                "\",\n  \"name\": \"Test\""));
+        assertTrue(manifest.endsWith("\"version\": \"1.0\"\n}\n"));
+    }
+
+    @Test
+    void testGetCrx3PublicKeyFallsBackToFirstRsaKey() throws Exception {
+        byte[] firstPublicKey = "first-public-key".getBytes(StandardCharsets.UTF_8);
+        byte[] secondPublicKey = "second-public-key".getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+        //A varint field, which must be skipped.
+
+        header.write(8);
+        header.write(1);
+
+        writeField(header, 2, createField(1, firstPublicKey));
+        writeField(header, 2, createField(1, secondPublicKey));
+
+        //Verify.
+
+        assertArrayEquals(firstPublicKey, CrxUtil.getCrx3PublicKeyOrNull(header.toByteArray()));
+        assertNull(CrxUtil.getCrx3PublicKeyOrNull(new byte[0]));
+    }
+
+    @Test
+    void testGetCrx3PublicKeyRejectsTruncatedHeader() {
+        byte[] header = {0x12, 0x10, 0x0A};
+
+        assertThrows(Exception.class, () -> CrxUtil.getCrx3PublicKeyOrNull(header));
+    }
+
+    @Test
+    void testUnpackCrx2AddsKey() throws Exception {
+        byte[] publicKey = "crx2-public-key".getBytes(StandardCharsets.UTF_8);
+        byte[] signature = "signature".getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        outputStream.writeBytes("Cr24".getBytes(StandardCharsets.US_ASCII));
+        writeLittleEndianInt(outputStream, 2);
+        writeLittleEndianInt(outputStream, publicKey.length);
+        writeLittleEndianInt(outputStream, signature.length);
+        outputStream.writeBytes(publicKey);
+        outputStream.writeBytes(signature);
+        outputStream.writeBytes(createZip("{}"));
+
+        File crxFile = tempDir.resolve("extension.crx").toFile();
+
+        Files.write(crxFile.toPath(), outputStream.toByteArray());
+
+        Path destinationPath = tempDir.resolve("destination");
+
+        CrxUtil.unpackOrFail(crxFile, destinationPath.toFile());
+
+        //Verify.
+
+        assertEquals("{\"key\": \"" + Base64.getEncoder().encodeToString(publicKey) + "\"}",
+                Files.readString(destinationPath.resolve("manifest.json")));
+    }
+
+    @Test
+    void testUnpackZipKeepsManifest() throws Exception {
+        File zipFile = tempDir.resolve("extension.zip").toFile();
+
+        Files.write(zipFile.toPath(), createZip(MANIFEST));
+
+        Path destinationPath = tempDir.resolve("destination");
+
+        CrxUtil.unpackOrFail(zipFile, destinationPath.toFile());
+
+        //Verify.
+
+        assertEquals(MANIFEST, Files.readString(destinationPath.resolve("manifest.json")));
+    }
+
+    @Test
+    void testUnpackRejectsUnknownFormat() throws Exception {
+        File file = tempDir.resolve("extension.crx").toFile();
+
+        Files.write(file.toPath(), "not an extension".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(Exception.class, () -> CrxUtil.unpackOrFail(file, tempDir.resolve("destination").toFile()));
+    }
+
+    private File writeCrx3(byte[] header, byte[] zipData) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        outputStream.writeBytes("Cr24".getBytes(StandardCharsets.US_ASCII));
+        writeLittleEndianInt(outputStream, 3);
+        writeLittleEndianInt(outputStream, header.length);
+        outputStream.writeBytes(header);
+        outputStream.writeBytes(zipData);
+
+        File crxFile = tempDir.resolve("extension.crx").toFile();
+
+        Files.write(crxFile.toPath(), outputStream.toByteArray());
+
+        return crxFile;
+    }
+
+    private static byte[] getCrxId(byte[] publicKey) throws Exception {
+        return Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(publicKey), 16);
+    }
+
+    private static byte[] createField(int fieldNumber, byte[] value) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        writeField(outputStream, fieldNumber, value);
+
+        return outputStream.toByteArray();
+    }
+
+    private static void writeField(ByteArrayOutputStream outputStream, int fieldNumber, byte[] value) {
+        writeVarint(outputStream, ((long) fieldNumber << 3) | 2);
+        writeVarint(outputStream, value.length);
+
+        outputStream.writeBytes(value);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream outputStream, long value) {
+        while((value & ~0x7FL) != 0) {
+            outputStream.write((int) ((value & 0x7F) | 0x80));
+
+            value >>>= 7;
+        }
+
+        outputStream.write((int) value);
+    }
+
+    private static void writeLittleEndianInt(ByteArrayOutputStream outputStream, int value) {
+        for(int i = 0; i < 4; i++) {
+            outputStream.write((value >>> (i * 8)) & 0xFF);
+        }
+    }
+
+    private static byte[] createZip(String manifest) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry("manifest.json"));
+            zipOutputStream.write(manifest.getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+        }
+
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CssSelectorTest {
+    private C4jDomSnapshot c4jDomSnapshot;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        C4jDomSnapshotTest.CaptureResultBuilder captureResultBuilder = new C4jDomSnapshotTest.CaptureResultBuilder();
+
+        int html = captureResultBuilder.addElement(0, "html");
+        int body = captureResultBuilder.addElement(html, "body");
+        int list = captureResultBuilder.addElement(body, "ul", "id", "list");
+
+        captureResultBuilder.addElement(list, "li", "id", "a", "class", "item first", "data-tags", "red green",
+                "lang", "en-US", "href", "https://example.com/a.pdf");
+        captureResultBuilder.addElement(list, "li", "id", "b", "class", "item", "data-tags", "blue", "lang", "en",
+                "href", "HTTP://EXAMPLE.COM/b");
+        captureResultBuilder.addElement(list, "li", "id", "c", "class", "item last", "lang", "de");
+
+        int section = captureResultBuilder.addElement(body, "section", "id", "a.b");
+
+        captureResultBuilder.addElement(section, "p", "id", "123", "title", "say \"hi\"");
+
+        c4jDomSnapshot = captureResultBuilder.buildSnapshotOrFail();
+    }
+
+    @Test
+    void testSimpleSelectors() {
+        //Verify.
+
+        assertEquals(List.of("a", "b", "c"), selectIds("li"));
+        assertEquals(List.of("a", "b", "c"), selectIds("LI"));
+        assertEquals(List.of("a", "b", "c"), selectIds(".item"));
+        assertEquals(List.of("a"), selectIds("li.item.first"));
+        assertEquals(List.of("b"), selectIds("#b"));
+        assertEquals(List.of(), selectIds("#b#c"));
+        assertEquals(List.of("list", "a", "b", "c"), selectIds("ul *, ul"));
+        assertEquals(List.of(), selectIds("div"));
+    }
+
+    @Test
+    void testEscapes() {
+        //Verify.
+
+        assertEquals(List.of("a.b"), selectIds("#a\\.b"));
+        assertEquals(List.of("123"), selectIds("#\\31 23"));
+        assertEquals(List.of("123"), selectIds("[title='say \"hi\"']"));
+        assertEquals(List.of("123"), selectIds("[title=\"say \\\"hi\\\"\"]"));
+    }
+
+    @Test
+    void testAttributeOperators() {
+        //Verify.
+
+        assertEquals(List.of("a", "b"), selectIds("[data-tags]"));
+        assertEquals(List.of("b"), selectIds("[data-tags=blue]"));
+        assertEquals(List.of("a"), selectIds("[data-tags~=green]"));
+        assertEquals(List.of(), selectIds("[data-tags~='red green']"));
+        assertEquals(List.of("a", "b"), selectIds("[lang|=en]"));
+        assertEquals(List.of("a"), selectIds("[href^='https://']"));
+        assertEquals(List.of("a", "b"), selectIds("[href^='https://' i], [href^=http i]"));
+        assertEquals(List.of("a"), selectIds("[href$=\".pdf\"]"));
+        assertEquals(List.of("a"), selectIds("[href*=example]"));
+        assertEquals(List.of("a", "b"), selectIds("[href*=EXAMPLE i]"));
+        assertEquals(List.of("b"), selectIds("[href*=EXAMPLE s]"));
+        assertEquals(List.of("a", "b", "c"), selectIds("li[LANG]"));
+
+        //Empty values never match the substring operators.
+
+        assertEquals(List.of(), selectIds("[href^='']"));
+        assertEquals(List.of(), selectIds("[href$='']"));
+        assertEquals(List.of(), selectIds("[href*='']"));
+    }
+
+    @Test
+    void testCombinators() {
+        //Verify.
+
+        assertEquals(List.of("a", "b", "c"), selectIds("body li"));
+        assertEquals(List.of("a", "b", "c"), selectIds("ul > li"));
+        assertEquals(List.of(), selectIds("body > li"));
+        assertEquals(List.of("b"), selectIds("#a + li"));
+        assertEquals(List.of("b", "c"), selectIds("#a ~ li"));
+        assertEquals(List.of("c"), selectIds("#a~#b+li"));
+        assertEquals(List.of("123"), selectIds("ul ~ section > p"));
+        assertEquals(List.of("a"), selectIds("li:first-child"));
+        assertEquals(List.of("c"), selectIds("li:last-child"));
+        assertEquals(List.of("123"), selectIds("section :only-child"));
+    }
+
+    @Test
+    void testSelectorListIsMergedInDocumentOrder() {
+        //Verify.
+
+        assertEquals(List.of("a", "c"), selectIds("#c, #a, .first"));
+        assertEquals("a", c4jDomSnapshot.querySelectorOrNull("#c, #a").getAttributeOrNull("id"));
+    }
+
+    @Test
+    void testInvalidSelectors() {
+        //Verify.
+
+        for(String tmpSelector : List.of("", " ", "li >", "li,", ",li", "li ! a", "[lang", "[lang=]", "[lang=en",
+                "[lang?=en]", "['lang']", "li:hover", "#", ".", "[title='unterminated]", "#a\\")) {
+            assertThrows(IllegalArgumentException.class, () -> CssSelector.compile(tmpSelector), tmpSelector);
+        }
+    }
+
+    private List<String> selectIds(String selector) {
+        return c4jDomSnapshot.querySelectorAll(selector).stream().map(tmpElement ->
+                tmpElement.getAttributeOrNull("id")).toList();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributionRevisionsTest {
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testResolveBinaryOutsideRevisionDirectory() throws Exception {
+        File binaryFile = Files.createFile(tempDir.resolve("chrome")).toFile();
+
+        DistributionRevisions.ResolvedBinary resolvedBinary = DistributionRevisions.resolveBinaryOrFail(() ->
+                binaryFile);
+
+        //Verify.
+
+        assertEquals(binaryFile, resolvedBinary.binaryFile());
+        assertNull(resolvedBinary.revisionUsage());
+    }
+
+    @Test
+    void testResolveBinaryMarksRevisionAsUsed() throws Exception {
+        Path oldRevisionPath = createRevisionOrFail("1");
+        Path currentRevisionPath = createRevisionOrFail("2");
+
+        DistributionRevisions.ResolvedBinary resolvedBinary = DistributionRevisions.resolveBinaryOrFail(() ->
+                oldRevisionPath.resolve("chrome").toFile());
+
+        //The used revision isn't retired, even if it isn't current anymore.
+
+        DistributionRevisions.setCurrentRevisionOrFail(currentRevisionPath);
+        DistributionRevisions.retireUnusedRevisions(tempDir);
+
+        //Verify.
+
+        assertNotNull(resolvedBinary.revisionUsage());
+        assertTrue(Files.isDirectory(oldRevisionPath));
+
+        resolvedBinary.release();
+
+        assertFalse(Files.exists(oldRevisionPath));
+        assertTrue(Files.isDirectory(currentRevisionPath));
+    }
+
+    @Test
+    void testResolveBinaryAgainAfterRetiredRevision() throws Exception {
+        Path currentRevisionPath = createRevisionOrFail("2");
+
+        Path retiredRevisionPath = tempDir.resolve(DistributionRevisions.REVISIONS_DIRECTORY).resolve("1");
+
+        AtomicInteger resolutions = new AtomicInteger();
+
+        DistributionRevisions.ResolvedBinary resolvedBinary = DistributionRevisions.resolveBinaryOrFail(() ->
+                (resolutions.getAndIncrement() == 0 ? retiredRevisionPath : currentRevisionPath).resolve("chrome")
+                        .toFile());
+
+        //Verify.
+
+        assertEquals(2, resolutions.get());
+        assertEquals(currentRevisionPath.resolve("chrome").toFile(), resolvedBinary.binaryFile());
+        assertNotNull(resolvedBinary.revisionUsage());
+
+        resolvedBinary.release();
+    }
+
+    @Test
+    void testRetiredRevisionDeletesUsageLockFile() throws Exception {
+        Path oldRevisionPath = createRevisionOrFail("1");
+        Path currentRevisionPath = createRevisionOrFail("2");
+
+        DistributionRevisions.ResolvedBinary resolvedBinary = DistributionRevisions.resolveBinaryOrFail(() ->
+                oldRevisionPath.resolve("chrome").toFile());
+
+        //The lock file is located next to the revision directory, so it isn't deleted with it.
+
+        Path usageLockFilePath = oldRevisionPath.resolveSibling("1" + DistributionRevisions.USAGE_LOCK_FILE_SUFFIX);
+
+        assertTrue(Files.isRegularFile(usageLockFilePath));
+
+        DistributionRevisions.setCurrentRevisionOrFail(currentRevisionPath);
+
+        resolvedBinary.release();
+
+        //Verify.
+
+        assertFalse(Files.exists(oldRevisionPath));
+        assertFalse(Files.exists(usageLockFilePath));
+        assertTrue(Files.isDirectory(currentRevisionPath));
+    }
+
+    @Test
+    void testRetireLegacyInstallation() throws Exception {
+        Path distributionPath = Files.createDirectories(tempDir.resolve(C4jOsChromiumDistribution
+                .LATEST_CHROMIUM_BUILD.getId()));
+
+        Path legacyBinaryPath = Files.createDirectories(distributionPath.resolve("chrome-linux")).resolve("chrome");
+
+        Files.createFile(legacyBinaryPath);
+
+        DistributionRevisions.ResolvedBinary resolvedBinary = DistributionRevisions.resolveBinaryOrFail(
+                legacyBinaryPath::toFile);
+
+        //The used legacy installation isn't retired, even if the distribution has a current revision.
+
+        Path currentRevisionPath = Files.createDirectories(distributionPath.resolve(
+                DistributionRevisions.REVISIONS_DIRECTORY).resolve("2"));
+
+        Files.createFile(currentRevisionPath.resolve("chrome"));
+
+        DistributionRevisions.setCurrentRevisionOrFail(currentRevisionPath);
+        DistributionRevisions.retireUnusedRevisions(distributionPath);
+
+        //Verify.
+
+        assertNotNull(resolvedBinary.revisionUsage());
+        assertTrue(Files.isRegularFile(legacyBinaryPath));
+
+        resolvedBinary.release();
+
+        assertFalse(Files.exists(distributionPath.resolve("chrome-linux")));
+        assertTrue(Files.isRegularFile(currentRevisionPath.resolve("chrome")));
+        assertEquals(currentRevisionPath.toFile(), DistributionRevisions.getCurrentRevisionDirectoryOrNull(
+                distributionPath.toFile()));
+    }
+
+    private Path createRevisionOrFail(String name) throws Exception {
+        Path revisionPath = Files.createDirectories(tempDir.resolve(DistributionRevisions.REVISIONS_DIRECTORY)
+                .resolve(name));
+
+        Files.createFile(revisionPath.resolve("chrome"));
+
+        return revisionPath;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainTrieTest {
+    @Test
+    void testFindRuleIndexMatchesHostAndSubdomains() {
+        DomainTrie domainTrie = new DomainTrie();
+        domainTrie.add("example.com", 0);
+
+        assertEquals(0, findRuleIndex(domainTrie, "example.com"));
+        assertEquals(0, findRuleIndex(domainTrie, "ads.example.com"));
+        assertEquals(0, findRuleIndex(domainTrie, "a.b.example.com"));
+    }
+
+    @Test
+    void testFindRuleIndexRequiresLabelBoundary() {
+        DomainTrie domainTrie = new DomainTrie();
+        domainTrie.add("example.com", 0);
+
+        assertEquals(-1, findRuleIndex(domainTrie, "badexample.com"));
+        assertEquals(-1, findRuleIndex(domainTrie, "xample.com"));
+        assertEquals(-1, findRuleIndex(domainTrie, "example.co"));
+        assertEquals(-1, findRuleIndex(domainTrie, "example.com.evil.org"));
+    }
+
+    @Test
+    void testFindRuleIndexIsCaseInsensitive() {
+        DomainTrie domainTrie = new DomainTrie();
+        domainTrie.add("Ads.Example.com", 0);
+
+        assertEquals(0, findRuleIndex(domainTrie, "ADS.EXAMPLE.COM"));
+        assertEquals(-1, findRuleIndex(domainTrie, "example.com"));
+    }
+
+    @Test
+    void testFindRuleIndexReturnsMostGeneralDomain() {
+        DomainTrie domainTrie = new DomainTrie();
+        domainTrie.add("ads.example.com", 0);
+        domainTrie.add("example.com", 1);
+
+        assertEquals(1, findRuleIndex(domainTrie, "ads.example.com"));
+        assertEquals(1, findRuleIndex(domainTrie, "example.com"));
+    }
+
+    @Test
+    void testFindRuleIndexKeepsFirstRuleOfDuplicateDomain() {
+        DomainTrie domainTrie = new DomainTrie();
+        domainTrie.add("example.com", 0);
+        domainTrie.add("example.com", 1);
+
+        assertEquals(0, findRuleIndex(domainTrie, "example.com"));
+    }
+
+    @Test
+    void testFindRuleIndexWithManyDomains() {
+        DomainTrie domainTrie = new DomainTrie();
+        domainTrie.add("c.com", 0);
+        domainTrie.add("a.com", 1);
+        domainTrie.add("b.org", 2);
+        domainTrie.add("b.com", 3);
+
+        assertEquals(0, findRuleIndex(domainTrie, "x.c.com"));
+        assertEquals(1, findRuleIndex(domainTrie, "a.com"));
+        assertEquals(2, findRuleIndex(domainTrie, "b.org"));
+        assertEquals(3, findRuleIndex(domainTrie, "www.b.com"));
+        assertEquals(-1, findRuleIndex(domainTrie, "d.com"));
+        assertEquals(-1, findRuleIndex(domainTrie, "com"));
+    }
+
+    @Test
+    void testFindRuleIndexUsesHostRange() {
+        DomainTrie domainTrie = new DomainTrie();
+        domainTrie.add("example.com", 0);
+
+        String url = "https://ads.example.com:8080/path";
+
+        int hostStart = url.indexOf("ads");
+        int hostEnd = url.indexOf(":8080");
+
+        assertEquals(0, domainTrie.findRuleIndex(url, hostStart, hostEnd));
+
+        //A range ending within the host doesn't match.
+
+        assertEquals(-1, domainTrie.findRuleIndex(url, hostStart, hostEnd - 1));
+    }
+
+    private static int findRuleIndex(DomainTrie domainTrie, String host) {
+        return domainTrie.findRuleIndex(host, 0, host.length());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownloadJournalTest {
+    private static final String URL = "https://example.com/file.zip";
+
+    private static final String VALIDATOR = "\"etag\"";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testMarkCompletedMergesRanges() {
+        DownloadJournal downloadJournal = DownloadJournal.create(getJournalFile(), URL, VALIDATOR, 100);
+
+        downloadJournal.markCompleted(10, 20);
+        downloadJournal.markCompleted(30, 40);
+
+        //Adjacent ranges are merged.
+
+        downloadJournal.markCompleted(20, 25);
+
+        //Overlapping ranges are merged.
+
+        downloadJournal.markCompleted(35, 50);
+
+        //Invalid ranges are ignored.
+
+        downloadJournal.markCompleted(60, 60);
+        downloadJournal.markCompleted(90, 110);
+        downloadJournal.markCompleted(-5, 5);
+
+        //Verify.
+
+        assertEquals(List.of(new DownloadJournal.ByteRange(0, 10), new DownloadJournal.ByteRange(25, 30),
+                new DownloadJournal.ByteRange(50, 100)), downloadJournal.getMissingRanges());
+        assertEquals(35, downloadJournal.getCompletedBytes());
+
+        //A range spanning several ranges merges all of them.
+
+        downloadJournal.markCompleted(5, 55);
+
+        assertEquals(List.of(new DownloadJournal.ByteRange(0, 5), new DownloadJournal.ByteRange(55, 100)),
+                downloadJournal.getMissingRanges());
+        assertEquals(50, downloadJournal.getCompletedBytes());
+    }
+
+    @Test
+    void testCompletedJournalHasNoMissingRanges() {
+        DownloadJournal downloadJournal = DownloadJournal.create(getJournalFile(), URL, VALIDATOR, 100);
+
+        //Verify.
+
+        assertEquals(List.of(new DownloadJournal.ByteRange(0, 100)), downloadJournal.getMissingRanges());
+
+        downloadJournal.markCompleted(50, 100);
+        downloadJournal.markCompleted(0, 50);
+
+        assertEquals(List.of(), downloadJournal.getMissingRanges());
+        assertEquals(100, downloadJournal.getCompletedBytes());
+    }
+
+    @Test
+    void testStoreAndLoad() throws Exception {
+        DownloadJournal downloadJournal = DownloadJournal.create(getJournalFile(), URL, VALIDATOR, 100);
+
+        downloadJournal.markCompleted(0, 10);
+        downloadJournal.markCompleted(40, 60);
+
+        downloadJournal.storeOrFail();
+
+        DownloadJournal loadedJournal = DownloadJournal.loadOrNull(getJournalFile());
+
+        //Verify.
+
+        assertNotNull(loadedJournal);
+        assertEquals(VALIDATOR, loadedJournal.getValidator());
+        assertEquals(100, loadedJournal.getContentLength());
+        assertEquals(downloadJournal.getMissingRanges(), loadedJournal.getMissingRanges());
+
+        assertTrue(loadedJournal.matches(URL, VALIDATOR, 100));
+        assertFalse(loadedJournal.matches(URL, "\"other\"", 100));
+        assertFalse(loadedJournal.matches(URL, VALIDATOR, 101));
+        assertFalse(loadedJournal.matches("https://example.com/other.zip", VALIDATOR, 100));
+        assertFalse(loadedJournal.matches(URL, null, 100));
+
+        //The temporary file replaced the journal.
+
+        assertFalse(new File(tempDir.toFile(), getJournalFile().getName() + ".tmp").exists());
+
+        loadedJournal.delete();
+
+        assertFalse(getJournalFile().exists());
+        assertNull(DownloadJournal.loadOrNull(getJournalFile()));
+    }
+
+    @Test
+    void testLoadInvalidJournal() throws Exception {
+        Files.writeString(getJournalFile().toPath(), "url=" + URL + "\ncontent-length=100\n" +
+                "completed-ranges=0-10,invalid\n");
+
+        //Verify.
+
+        assertNull(DownloadJournal.loadOrNull(getJournalFile()));
+    }
+
+    private File getJournalFile() {
+        return new File(tempDir.toFile(), "file.zip.journal");
+    }
+}
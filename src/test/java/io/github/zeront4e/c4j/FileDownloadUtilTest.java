@@ -0,0 +1,286 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDownloadUtilTest {
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    @TempDir
+    private Path tempDir;
+
+    private HttpServer httpServer;
+
+    private byte[] content;
+
+    private String entityTag;
+
+    private boolean ignoreRanges;
+
+    private final List<String> receivedIfRangeValues = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        content = createContent(256 * 1024);
+
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/file.zip", this::handleExchange);
+        httpServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpServer.stop(0);
+    }
+
+    @Test
+    void testIsStrongEntityTag() {
+        assertTrue(FileDownloadUtil.isStrongEntityTag("\"abc\""));
+        assertFalse(FileDownloadUtil.isStrongEntityTag("W/\"abc\""));
+        assertFalse(FileDownloadUtil.isStrongEntityTag(" W/\"abc\""));
+    }
+
+    @Test
+    void testSplitRanges() {
+        long segmentSize = FileDownloadUtil.MIN_SEGMENT_SIZE;
+
+        //Verify.
+
+        assertEquals(List.of(new DownloadJournal.ByteRange(0, segmentSize), new DownloadJournal.ByteRange(
+                segmentSize, 2 * segmentSize), new DownloadJournal.ByteRange(2 * segmentSize, 3 * segmentSize),
+                new DownloadJournal.ByteRange(3 * segmentSize, 4 * segmentSize)), FileDownloadUtil.splitRanges(
+                List.of(new DownloadJournal.ByteRange(0, 4 * segmentSize)), 4));
+
+        //Segments aren't smaller than the minimum segment size.
+
+        assertEquals(List.of(new DownloadJournal.ByteRange(0, 5 * segmentSize / 4), new DownloadJournal.ByteRange(
+                5 * segmentSize / 4, 5 * segmentSize / 2)), FileDownloadUtil.splitRanges(List.of(
+                new DownloadJournal.ByteRange(0, 5 * segmentSize / 2)), 8));
+
+        //Small ranges are never split (the last segment contains the remainder).
+
+        List<DownloadJournal.ByteRange> byteRanges = List.of(new DownloadJournal.ByteRange(0, 100),
+                new DownloadJournal.ByteRange(1000, 1000 + 3 * segmentSize + 7));
+
+        List<DownloadJournal.ByteRange> segmentRanges = FileDownloadUtil.splitRanges(byteRanges, 4);
+
+        assertEquals(List.of(new DownloadJournal.ByteRange(0, 100), new DownloadJournal.ByteRange(1000,
+                1000 + segmentSize + 2), new DownloadJournal.ByteRange(1000 + segmentSize + 2,
+                1000 + 2 * segmentSize + 4), new DownloadJournal.ByteRange(1000 + 2 * segmentSize + 4,
+                1000 + 3 * segmentSize + 7)), segmentRanges);
+    }
+
+    @Test
+    void testResumableDownloadWithStrongEntityTag() throws Exception {
+        entityTag = "\"strong\"";
+
+        File file = tempDir.resolve("file.zip.part").toFile();
+        File journalFile = tempDir.resolve("file.zip.journal").toFile();
+
+        FileDownloadUtil.DownloadResult result = FileDownloadUtil.downloadFileResumableOrFail(getFileUrl(), file,
+                journalFile, 4, null, tmpBytes -> {});
+
+        //Verify.
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(entityTag, result.validator());
+        assertFalse(receivedIfRangeValues.isEmpty());
+        assertTrue(receivedIfRangeValues.stream().allMatch(entityTag::equals));
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    void testResumableDownloadWithWeakEntityTagUsesLastModified() throws Exception {
+        entityTag = "W/\"weak\"";
+
+        File file = tempDir.resolve("file.zip.part").toFile();
+        File journalFile = tempDir.resolve("file.zip.journal").toFile();
+
+        FileDownloadUtil.DownloadResult result = FileDownloadUtil.downloadFileResumableOrFail(getFileUrl(), file,
+                journalFile, 4, null, tmpBytes -> {});
+
+        //Verify.
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(entityTag, result.validator());
+        assertFalse(receivedIfRangeValues.isEmpty());
+        assertTrue(receivedIfRangeValues.stream().allMatch(LAST_MODIFIED::equals));
+    }
+
+    @Test
+    void testResumableDownloadFallsBackToFullResponse() throws Exception {
+        entityTag = "\"strong\"";
+        ignoreRanges = true;
+
+        File file = tempDir.resolve("file.zip.part").toFile();
+        File journalFile = tempDir.resolve("file.zip.journal").toFile();
+
+        FileDownloadUtil.downloadFileResumableOrFail(getFileUrl(), file, journalFile, 4, null, tmpBytes -> {});
+
+        //Verify.
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    void testSegmentedDownloadComputesChecksum() throws Exception {
+        entityTag = "\"strong\"";
+        content = createContent(12 * 1024 * 1024);
+
+        File file = tempDir.resolve("file.zip.part").toFile();
+
+        String expectedChecksum = getChecksum(content);
+
+        FileDownloadUtil.DownloadResult result = FileDownloadUtil.downloadFileResumableOrFail(getFileUrl(), file,
+                null, 4, expectedChecksum.toUpperCase(), tmpBytes -> {});
+
+        //Verify.
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(expectedChecksum, result.sha256Checksum());
+    }
+
+    @Test
+    void testResumedDownloadComputesChecksum() throws Exception {
+        entityTag = "\"strong\"";
+        content = createContent(12 * 1024 * 1024);
+
+        File file = tempDir.resolve("file.zip.part").toFile();
+        File journalFile = tempDir.resolve("file.zip.journal").toFile();
+
+        //The first and the last MiB were downloaded before.
+
+        byte[] partialContent = new byte[content.length];
+
+        System.arraycopy(content, 0, partialContent, 0, 1024 * 1024);
+        System.arraycopy(content, content.length - 1024 * 1024, partialContent, content.length - 1024 * 1024,
+                1024 * 1024);
+
+        Files.write(file.toPath(), partialContent);
+
+        DownloadJournal downloadJournal = DownloadJournal.create(journalFile, getFileUrl(), entityTag,
+                content.length);
+
+        downloadJournal.markCompleted(0, 1024 * 1024);
+        downloadJournal.markCompleted(content.length - 1024 * 1024, content.length);
+        downloadJournal.storeOrFail();
+
+        FileDownloadUtil.DownloadResult result = FileDownloadUtil.downloadFileResumableOrFail(getFileUrl(), file,
+                journalFile, 4, getChecksum(content), tmpBytes -> {});
+
+        //Verify.
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(getChecksum(content), result.sha256Checksum());
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    void testSegmentedDownloadWithInvalidChecksumDeletesFile() {
+        entityTag = "\"strong\"";
+        content = createContent(12 * 1024 * 1024);
+
+        File file = tempDir.resolve("file.zip.part").toFile();
+
+        assertThrows(Exception.class, () -> FileDownloadUtil.downloadFileResumableOrFail(getFileUrl(), file, null,
+                4, "0".repeat(64), tmpBytes -> {}));
+
+        //Verify.
+
+        assertFalse(file.exists());
+    }
+
+    private static byte[] createContent(int length) {
+        byte[] bytes = new byte[length];
+
+        new Random(42).nextBytes(bytes);
+
+        return bytes;
+    }
+
+    private static String getChecksum(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private String getFileUrl() {
+        return "http://127.0.0.1:" + httpServer.getAddress().getPort() + "/file.zip";
+    }
+
+    private void handleExchange(HttpExchange httpExchange) throws IOException {
+        httpExchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        httpExchange.getResponseHeaders().set("ETag", entityTag);
+        httpExchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+
+        if(httpExchange.getRequestMethod().equals("HEAD")) {
+            httpExchange.getResponseHeaders().set("Content-Length", String.valueOf(content.length));
+            httpExchange.sendResponseHeaders(200, -1);
+            httpExchange.close();
+
+            return;
+        }
+
+        String rangeHeader = httpExchange.getRequestHeaders().getFirst("Range");
+        String ifRangeHeader = httpExchange.getRequestHeaders().getFirst("If-Range");
+
+        if(ifRangeHeader != null)
+            receivedIfRangeValues.add(ifRangeHeader);
+
+        //A weak ETag never matches in the If-Range header (RFC 9110), so the whole file is sent.
+
+        boolean ifRangeMatches = ifRangeHeader == null || (!ifRangeHeader.startsWith("W/") &&
+                (ifRangeHeader.equals(entityTag) || ifRangeHeader.equals(LAST_MODIFIED)));
+
+        try (OutputStream outputStream = httpExchange.getResponseBody()) {
+            if(rangeHeader == null || ignoreRanges || !ifRangeMatches) {
+                httpExchange.sendResponseHeaders(200, content.length);
+                outputStream.write(content);
+
+                return;
+            }
+
+            String[] rangeParts = rangeHeader.substring("bytes=".length()).split("-");
+
+            int start = Integer.parseInt(rangeParts[0]);
+            int end = Integer.parseInt(rangeParts[1]) + 1;
+
+            httpExchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + (end - 1) + "/" +
+                    content.length);
+            httpExchange.sendResponseHeaders(206, end - start);
+            outputStream.write(content, start, end - start);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSearchUtilTest {
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testFindFileReturnsLeastNestedMatch() throws Exception {
+        createFileOrFail("a/b/c/chrome");
+        createFileOrFail("z/chrome-linux/chrome");
+        createFileOrFail("y/chrome-linux/chrome");
+        createFileOrFail("x/chrome-linux/nested/chrome");
+
+        //Verify.
+
+        for(int i = 0; i < 20; i++) {
+            assertEquals(tempDir.resolve("y/chrome-linux/chrome").toFile(), FileSearchUtil.findFileOrNull(
+                    tempDir.toFile(), "chrome"));
+        }
+    }
+
+    @Test
+    void testFindFileInSearchedDirectory() throws Exception {
+        createFileOrFail("chrome");
+        createFileOrFail("a/chrome");
+
+        //Verify.
+
+        assertEquals(tempDir.resolve("chrome").toFile(), FileSearchUtil.findFileOrNull(tempDir.toFile(), "chrome"));
+        assertNull(FileSearchUtil.findFileOrNull(tempDir.toFile(), "missing"));
+        assertNull(FileSearchUtil.findFileOrNull(tempDir.resolve("missing").toFile(), "chrome"));
+    }
+
+    @Test
+    void testFindApplicationDirectory() throws Exception {
+        createFileOrFail("b/Chromium.app/Contents/MacOS/Chromium");
+        createFileOrFail("a/Chromium.app/Contents/MacOS/Chromium");
+
+        //Verify.
+
+        File applicationDirectory = FileSearchUtil.findFileOrNull(tempDir.toFile(), "Chromium.app");
+
+        assertEquals(tempDir.resolve("a/Chromium.app").toFile(), applicationDirectory);
+    }
+
+    private void createFileOrFail(String relativePath) throws Exception {
+        Path path = tempDir.resolve(relativePath);
+
+        Files.createDirectories(path.getParent());
+        Files.createFile(path);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstallationCoordinatorTest {
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testConcurrentCallersAwaitTheSameInstallation() throws Exception {
+        Path distributionPath = tempDir.resolve("distribution");
+
+        CountDownLatch installationStartedLatch = new CountDownLatch(1);
+        CountDownLatch installationReleasedLatch = new CountDownLatch(1);
+
+        AtomicInteger installations = new AtomicInteger();
+
+        InstallationCoordinator.Installation installation = () -> {
+            installations.incrementAndGet();
+
+            installationStartedLatch.countDown();
+
+            assertTrue(installationReleasedLatch.await(10, TimeUnit.SECONDS));
+
+            return distributionPath.toFile();
+        };
+
+        CompletableFuture<File> firstFuture = CompletableFuture.supplyAsync(() -> installQuietly(distributionPath,
+                installation));
+
+        assertTrue(installationStartedLatch.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<File> secondFuture = CompletableFuture.supplyAsync(() -> installQuietly(distributionPath,
+                installation));
+
+        Thread.sleep(100);
+
+        installationReleasedLatch.countDown();
+
+        //Verify.
+
+        assertEquals(distributionPath.toFile(), firstFuture.get(10, TimeUnit.SECONDS));
+        assertEquals(distributionPath.toFile(), secondFuture.get(10, TimeUnit.SECONDS));
+        assertEquals(1, installations.get());
+    }
+
+    @Test
+    void testInstallationOfAnotherProcessIsReused() throws Exception {
+        Path distributionPath = Files.createDirectories(tempDir.resolve("distribution"));
+
+        Path lockFilePath = tempDir.resolve("distribution" + InstallationCoordinator.LOCK_FILE_SUFFIX);
+
+        Process process = startLockHolderProcessOrFail(lockFilePath);
+
+        try {
+            AtomicInteger installations = new AtomicInteger();
+
+            CompletableFuture<File> installationFuture = CompletableFuture.supplyAsync(() -> installQuietly(
+                    distributionPath, () -> {
+                        installations.incrementAndGet();
+
+                        return distributionPath.toFile();
+                    }));
+
+            //The caller waits for the lock of the other process.
+
+            Thread.sleep(200);
+
+            assertFalse(installationFuture.isDone());
+
+            //The other process completes its installation and releases the lock.
+
+            new InstallationManifest("chrome", "1", C4jOsArchitecture.LINUX_X64, 1, null, null,
+                    System.currentTimeMillis()).storeOrFail(distributionPath.toFile());
+
+            releaseLockHolderProcessOrFail(process);
+
+            //Verify.
+
+            assertEquals(distributionPath.toFile(), installationFuture.get(10, TimeUnit.SECONDS));
+            assertEquals(0, installations.get());
+        }
+        finally {
+            process.destroyForcibly();
+        }
+    }
+
+    @Test
+    void testOutdatedInstallationOfAnotherProcessIsReplaced() throws Exception {
+        Path distributionPath = Files.createDirectories(tempDir.resolve("distribution"));
+
+        Path lockFilePath = tempDir.resolve("distribution" + InstallationCoordinator.LOCK_FILE_SUFFIX);
+
+        //The installation was completed before the installation was requested.
+
+        new InstallationManifest("chrome", "1", C4jOsArchitecture.LINUX_X64, 1, null, null,
+                System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)).storeOrFail(distributionPath.toFile());
+
+        Process process = startLockHolderProcessOrFail(lockFilePath);
+
+        try {
+            AtomicInteger installations = new AtomicInteger();
+
+            CompletableFuture<File> installationFuture = CompletableFuture.supplyAsync(() -> installQuietly(
+                    distributionPath, () -> {
+                        installations.incrementAndGet();
+
+                        return distributionPath.toFile();
+                    }));
+
+            Thread.sleep(200);
+
+            assertFalse(installationFuture.isDone());
+
+            releaseLockHolderProcessOrFail(process);
+
+            //Verify.
+
+            assertEquals(distributionPath.toFile(), installationFuture.get(10, TimeUnit.SECONDS));
+            assertEquals(1, installations.get());
+        }
+        finally {
+            process.destroyForcibly();
+        }
+    }
+
+    private static File installQuietly(Path distributionPath, InstallationCoordinator.Installation installation) {
+        try {
+            return InstallationCoordinator.installOrFail(distributionPath, installation);
+        }
+        catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Starts a process that holds the lock of the given file, until a line is written to its standard input.
+     */
+    private static Process startLockHolderProcessOrFail(Path lockFilePath) throws Exception {
+        String javaPath = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        Process process = new ProcessBuilder(javaPath, "-cp", System.getProperty("java.class.path"),
+                LockHolder.class.getName(), lockFilePath.toString()).redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8));
+
+        assertEquals(LockHolder.LOCKED_MESSAGE, bufferedReader.readLine());
+
+        return process;
+    }
+
+    private static void releaseLockHolderProcessOrFail(Process process) throws Exception {
+        OutputStream outputStream = process.getOutputStream();
+
+        outputStream.write('\n');
+        outputStream.flush();
+
+        assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Holds the lock of the file given as first argument, until a line is read from the standard input.
+     */
+    static class LockHolder {
+        static final String LOCKED_MESSAGE = "locked";
+
+        public static void main(String[] args) throws Exception {
+            try (FileChannel fileChannel = FileChannel.open(Path.of(args[0]), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+                 FileLock ignoredFileLock = fileChannel.lock()) {
+                System.out.println(LOCKED_MESSAGE);
+                System.out.flush();
+
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstanceProvisioningTest {
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        //Enable the test instance mode (no instance is launched).
+
+        C4j.setTestInstance(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        C4j.setTestInstance(false);
+    }
+
+    @Test
+    void testProvisionInstance() throws Exception {
+        File binaryFile = Files.createFile(tempDir.resolve("chrome")).toFile();
+
+        CompletableFuture<C4jRemoteChromium> resultFuture = InstanceProvisioning.provisionAsync(() -> binaryFile,
+                C4jChromeOptions.fromBuilder().build(), InstanceProvisioning.DEFAULT_EXECUTOR);
+
+        //Verify.
+
+        assertNotNull(resultFuture.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedInstallationCompletesExceptionally() {
+        Exception installationException = new Exception("Installation failed.");
+
+        CompletableFuture<C4jRemoteChromium> resultFuture = InstanceProvisioning.provisionAsync(() -> {
+            throw installationException;
+        }, C4jChromeOptions.fromBuilder().build(), InstanceProvisioning.DEFAULT_EXECUTOR);
+
+        //Verify.
+
+        ExecutionException executionException = assertThrows(ExecutionException.class, () -> resultFuture.get(10,
+                TimeUnit.SECONDS));
+
+        assertSame(installationException, executionException.getCause());
+    }
+
+    @Test
+    void testCancellationInterruptsInstallation() throws Exception {
+        CountDownLatch installationStartedLatch = new CountDownLatch(1);
+        CountDownLatch installationInterruptedLatch = new CountDownLatch(1);
+
+        CompletableFuture<C4jRemoteChromium> resultFuture = InstanceProvisioning.provisionAsync(() -> {
+            installationStartedLatch.countDown();
+
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            }
+            catch (InterruptedException interruptedException) {
+                installationInterruptedLatch.countDown();
+
+                throw interruptedException;
+            }
+
+            return null;
+        }, C4jChromeOptions.fromBuilder().build(), InstanceProvisioning.DEFAULT_EXECUTOR);
+
+        assertTrue(installationStartedLatch.await(10, TimeUnit.SECONDS));
+
+        resultFuture.cancel(true);
+
+        //Verify.
+
+        assertTrue(installationInterruptedLatch.await(10, TimeUnit.SECONDS));
+        assertTrue(resultFuture.isCancelled());
+        assertThrows(CancellationException.class, resultFuture::join);
+    }
+
+    @Test
+    void testCancellationBeforeLaunchReleasesRevisionUsage() throws Exception {
+        Path oldRevisionPath = createRevisionOrFail("1");
+        Path currentRevisionPath = createRevisionOrFail("2");
+
+        //The installation stage runs immediately. The launch stage is deferred until the provisioning was cancelled.
+
+        List<Runnable> deferredStages = new CopyOnWriteArrayList<>();
+
+        AtomicInteger executedStages = new AtomicInteger();
+
+        Executor executor = tmpRunnable -> {
+            if(executedStages.getAndIncrement() == 0) {
+                tmpRunnable.run();
+
+                return;
+            }
+
+            deferredStages.add(tmpRunnable);
+        };
+
+        CompletableFuture<C4jRemoteChromium> resultFuture = InstanceProvisioning.provisionAsync(() ->
+                oldRevisionPath.resolve("chrome").toFile(), C4jChromeOptions.fromBuilder().build(), executor);
+
+        //The revision of the installed binary is marked as used until the instance is launched.
+
+        DistributionRevisions.setCurrentRevisionOrFail(currentRevisionPath);
+        DistributionRevisions.retireUnusedRevisions(tempDir);
+
+        assertTrue(Files.isDirectory(oldRevisionPath));
+        assertEquals(1, deferredStages.size());
+
+        resultFuture.cancel(true);
+
+        deferredStages.forEach(Runnable::run);
+
+        //Verify.
+
+        assertTrue(resultFuture.isCancelled());
+        assertFalse(Files.exists(oldRevisionPath));
+        assertTrue(Files.isDirectory(currentRevisionPath));
+    }
+
+    private Path createRevisionOrFail(String name) throws Exception {
+        Path revisionPath = Files.createDirectories(tempDir.resolve(DistributionRevisions.REVISIONS_DIRECTORY)
+                .resolve(name));
+
+        Files.createFile(revisionPath.resolve("chrome"));
+
+        return revisionPath;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PageReadinessTest {
+    private static final Duration SHORT_TIMEOUT = Duration.ofMillis(200);
+
+    private static final Duration LONG_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Pattern SELECTOR_TOKEN_PATTERN = Pattern.compile("c4j-\\d+");
+
+    private final Map<String, Consumer<Map<String, Object>>> listeners = new HashMap<>();
+
+    private Map<String, Object> navigateResult;
+
+    private Runnable navigateCallback;
+
+    private boolean reportSelector;
+
+    private PageReadiness pageReadiness;
+
+    @BeforeEach
+    void setUp() {
+        DevTools mockDevTools = mock(DevTools.class);
+
+        doAnswer(tmpInvocation -> {
+            Event<?> event = tmpInvocation.getArgument(0);
+
+            listeners.put(event.getMethod(), tmpInvocation.getArgument(1));
+
+            return null;
+        }).when(mockDevTools).addListener(any(Event.class), any(Consumer.class));
+
+        when(mockDevTools.send(any())).thenAnswer(tmpInvocation -> handleCommand(tmpInvocation.getArgument(0)));
+
+        pageReadiness = new PageReadiness(mockDevTools);
+    }
+
+    @Test
+    void testLifecycleEventOfCurrentDocument() throws Exception {
+        fireLifecycleEvent("frame", "loader1", "DOMContentLoaded");
+
+        //Events of other frames and documents are ignored.
+
+        fireLifecycleEvent("child-frame", "loader1", "load");
+        fireLifecycleEvent("frame", "loader0", "load");
+
+        //Verify.
+
+        assertNotNull(pageReadiness.awaitOrFail(C4jReadinessCondition.domContentLoaded(), SHORT_TIMEOUT));
+
+        assertThrows(Exception.class, () -> pageReadiness.awaitOrFail(C4jReadinessCondition.lifecycleEvent(
+                C4jReadinessCondition.LifecycleEvent.LOAD), SHORT_TIMEOUT));
+    }
+
+    @Test
+    void testNavigateAwaitsNewDocument() throws Exception {
+        fireLifecycleEvent("frame", "loader1", "DOMContentLoaded");
+
+        navigateResult = Map.of("frameId", "frame", "loaderId", "loader2");
+
+        //The event of the previous document doesn't satisfy the condition of the new document.
+
+        assertThrows(Exception.class, () -> pageReadiness.navigateOrFail("https://example.com/",
+                C4jReadinessCondition.domContentLoaded(), SHORT_TIMEOUT));
+
+        navigateCallback = () -> {
+            fireLifecycleEvent("frame", "loader2", "init");
+            fireLifecycleEvent("frame", "loader2", "DOMContentLoaded");
+        };
+
+        //Verify.
+
+        assertNotNull(pageReadiness.navigateOrFail("https://example.com/", C4jReadinessCondition.domContentLoaded(),
+                LONG_TIMEOUT));
+    }
+
+    @Test
+    void testNavigateFailure() {
+        navigateResult = Map.of("frameId", "frame", "errorText", "net::ERR_NAME_NOT_RESOLVED");
+
+        //Verify.
+
+        Exception exception = assertThrows(Exception.class, () -> pageReadiness.navigateOrFail(
+                "https://invalid.example/", C4jReadinessCondition.domContentLoaded(), LONG_TIMEOUT));
+
+        assertTrue(exception.getMessage().contains("net::ERR_NAME_NOT_RESOLVED"));
+    }
+
+    @Test
+    void testNetworkIdle() throws Exception {
+        C4jReadinessCondition networkIdle = C4jReadinessCondition.networkIdle(Duration.ofMillis(50), 0);
+
+        fireNetworkEvent("Network.requestWillBeSent", "request1", "loader1");
+        fireNetworkEvent("Network.requestWillBeSent", "request2", "loader1");
+
+        //Verify.
+
+        assertThrows(Exception.class, () -> pageReadiness.awaitOrFail(networkIdle, SHORT_TIMEOUT));
+
+        fireNetworkEvent("Network.loadingFinished", "request1", null);
+
+        assertNotNull(pageReadiness.awaitOrFail(C4jReadinessCondition.networkIdle(Duration.ZERO, 1),
+                SHORT_TIMEOUT));
+
+        fireNetworkEvent("Network.loadingFailed", "request2", null);
+
+        Duration duration = pageReadiness.awaitOrFail(networkIdle, LONG_TIMEOUT);
+
+        assertTrue(duration.compareTo(LONG_TIMEOUT) < 0);
+    }
+
+    @Test
+    void testNewDocumentCancelsRequestsOfPreviousDocument() throws Exception {
+        fireNetworkEvent("Network.requestWillBeSent", "request1", "loader1");
+        fireNetworkEvent("Network.requestWillBeSent", "request2", "loader2");
+
+        fireLifecycleEvent("frame", "loader2", "init");
+
+        //Verify.
+
+        assertNotNull(pageReadiness.awaitOrFail(C4jReadinessCondition.networkIdle(Duration.ZERO, 1),
+                SHORT_TIMEOUT));
+        assertThrows(Exception.class, () -> pageReadiness.awaitOrFail(C4jReadinessCondition.networkIdle(
+                Duration.ZERO, 0), SHORT_TIMEOUT));
+    }
+
+    @Test
+    void testSelectorAppeared() throws Exception {
+        C4jReadinessCondition selectorAppeared = C4jReadinessCondition.selectorAppeared("#content");
+
+        //Bindings with unknown tokens are ignored.
+
+        fireBindingCalled(PageReadiness.BINDING_NAME, "c4j-0");
+
+        assertThrows(Exception.class, () -> pageReadiness.awaitOrFail(selectorAppeared, SHORT_TIMEOUT));
+
+        reportSelector = true;
+
+        //Verify.
+
+        assertNotNull(pageReadiness.awaitOrFail(selectorAppeared, LONG_TIMEOUT));
+    }
+
+    private Object handleCommand(Command<?> command) {
+        switch (command.getMethod()) {
+            case "Page.getFrameTree" -> {
+                return Map.of("frameTree", Map.of("frame", Map.of("id", "frame", "loaderId", "loader1")));
+            }
+            case "Page.navigate" -> {
+                if(navigateCallback != null)
+                    navigateCallback.run();
+
+                return navigateResult;
+            }
+            case "Runtime.evaluate" -> {
+                //The observer reports the element with the token of the wait.
+
+                Matcher matcher = SELECTOR_TOKEN_PATTERN.matcher(command.getParams().get("expression").toString());
+
+                if(reportSelector && matcher.find())
+                    fireBindingCalled(PageReadiness.BINDING_NAME, matcher.group());
+
+                return Map.of();
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private void fireLifecycleEvent(String frameId, String loaderId, String name) {
+        listeners.get("Page.lifecycleEvent").accept(Map.of("frameId", frameId, "loaderId", loaderId,
+                "name", name));
+    }
+
+    private void fireNetworkEvent(String method, String requestId, String loaderId) {
+        Map<String, Object> parameters = new HashMap<>();
+
+        parameters.put("requestId", requestId);
+
+        if(loaderId != null)
+            parameters.put("loaderId", loaderId);
+
+        listeners.get(method).accept(parameters);
+    }
+
+    private void fireBindingCalled(String name, String payload) {
+        listeners.get("Runtime.bindingCalled").accept(Map.of("name", name, "payload", payload));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileTemplatesTest {
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testDeleteStaleClones() throws Exception {
+        Path unlockedClonePath = createCloneOrFail("clone1", true, Duration.ofHours(1));
+        Path clonePathWithoutLock = createCloneOrFail("clone2", false, Duration.ofHours(1));
+        Path recentClonePath = createCloneOrFail("clone3", false, Duration.ZERO);
+
+        ProfileTemplates.deleteStaleClones(tempDir);
+
+        //Verify.
+
+        assertFalse(Files.exists(unlockedClonePath));
+        assertFalse(Files.exists(clonePathWithoutLock));
+        assertTrue(Files.isDirectory(recentClonePath));
+    }
+
+    @Test
+    void testDeleteStaleClonesKeepsLockedClone() throws Exception {
+        Path clonePath = createCloneOrFail("clone1", true, Duration.ofHours(1));
+
+        try (FileChannel fileChannel = FileChannel.open(clonePath.resolve("c4j-clone.lock"),
+                StandardOpenOption.WRITE)) {
+            FileLock fileLock = fileChannel.lock();
+
+            ProfileTemplates.deleteStaleClones(tempDir);
+
+            //Verify.
+
+            assertTrue(Files.isDirectory(clonePath));
+
+            fileLock.release();
+        }
+    }
+
+    private Path createCloneOrFail(String name, boolean lockFile, Duration age) throws Exception {
+        Path clonePath = Files.createDirectory(tempDir.resolve(name));
+
+        Files.writeString(clonePath.resolve("Local State"), "{}");
+
+        if(lockFile)
+            Files.createFile(clonePath.resolve("c4j-clone.lock"));
+
+        Files.setLastModifiedTime(clonePath, FileTime.from(Instant.now().minus(age)));
+
+        return clonePath;
+    }
+}
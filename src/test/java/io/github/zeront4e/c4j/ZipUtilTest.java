@@ -0,0 +1,127 @@
+/*
+Copyright 2025 zeront4e (https://github.com/zeront4e)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.github.zeront4e.c4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipUtilTest {
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testUnzipStreamExtractsEntries() throws Exception {
+        byte[] zipData = createZip("directory/", "directory/file.txt", "file.txt");
+
+        Path destinationPath = tempDir.resolve("destination");
+
+        ZipUtil.ExtractionResult result = ZipUtil.unzip(new ByteArrayInputStream(zipData), destinationPath.toFile());
+
+        //Verify.
+
+        assertEquals(2, result.fileCount());
+        assertEquals("directory/file.txt", Files.readString(destinationPath.resolve("directory/file.txt")));
+        assertEquals("file.txt", Files.readString(destinationPath.resolve("file.txt")));
+    }
+
+    @Test
+    void testUnzipStreamRejectsParentSegments() throws Exception {
+        byte[] zipData = createZip("../outside.txt");
+
+        Path destinationPath = tempDir.resolve("destination");
+
+        assertThrows(IOException.class, () -> ZipUtil.unzip(new ByteArrayInputStream(zipData),
+                destinationPath.toFile()));
+
+        //Verify.
+
+        assertFalse(Files.exists(tempDir.resolve("outside.txt")));
+    }
+
+    @Test
+    void testUnzipStreamRejectsNestedParentSegments() throws Exception {
+        byte[] zipData = createZip("directory/../../outside.txt");
+
+        Path destinationPath = tempDir.resolve("destination");
+
+        assertThrows(IOException.class, () -> ZipUtil.unzip(new ByteArrayInputStream(zipData),
+                destinationPath.toFile()));
+
+        //Verify.
+
+        assertFalse(Files.exists(tempDir.resolve("outside.txt")));
+    }
+
+    @Test
+    void testUnzipStreamRejectsAbsoluteNames() throws Exception {
+        Path outsidePath = tempDir.resolve("outside.txt");
+
+        byte[] zipData = createZip(outsidePath.toAbsolutePath().toString());
+
+        Path destinationPath = tempDir.resolve("destination");
+
+        assertThrows(IOException.class, () -> ZipUtil.unzip(new ByteArrayInputStream(zipData),
+                destinationPath.toFile()));
+
+        //Verify.
+
+        assertFalse(Files.exists(outsidePath));
+    }
+
+    @Test
+    void testUnzipParallelRejectsParentSegments() throws Exception {
+        Path zipFilePath = tempDir.resolve("archive.zip");
+
+        Files.write(zipFilePath, createZip("file.txt", "../outside.txt"));
+
+        Path destinationPath = tempDir.resolve("destination");
+
+        assertThrows(IOException.class, () -> ZipUtil.unzipParallel(zipFilePath.toFile(),
+                destinationPath.toFile(), 2));
+
+        //Verify.
+
+        assertFalse(Files.exists(tempDir.resolve("outside.txt")));
+    }
+
+    private static byte[] createZip(String... entryNames) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(byteArrayOutputStream)) {
+            for(String tmpEntryName : entryNames) {
+                zipOutputStream.putNextEntry(new ZipEntry(tmpEntryName));
+
+                if(!tmpEntryName.endsWith("/"))
+                    zipOutputStream.write(tmpEntryName.getBytes(StandardCharsets.UTF_8));
+
+                zipOutputStream.closeEntry();
+            }
+        }
+
+        return byteArrayOutputStream.toByteArray();
+    }
+}